@@ -0,0 +1,134 @@
+package com.example.dapprototype.classloader;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerAssembler;
+import com.example.dapprototype.model.CustomerRole;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Generates the {@link CustomerAssembler} of an assessment data class.
+ * <p>
+ * The assembler is defined by the {@link TxnClassLoader} of the assessment data class, in its
+ * package. Its {@code assemble} method casts the instance once and calls the setter of every
+ * {@link CustomerRole} field directly, so assembly involves no setter names, maps or reflection,
+ * and the assembler is unloaded together with its generation.
+ */
+final class CustomerAssemblerGenerator {
+
+    private static final String ASSEMBLER_NAME_SUFFIX = "$$CustomerAssembler";
+    private static final String ASSEMBLER = Type.getInternalName(CustomerAssembler.class);
+    private static final String ASSEMBLE_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(Object.class), Type.getType(String[].class), Type.getType(List.class));
+    private static final String CUSTOMER_FOR_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Customer.class),
+            Type.getType(List.class), Type.getType(String[].class), Type.INT_TYPE);
+
+    private CustomerAssemblerGenerator() {
+    }
+
+    /**
+     * Generates and instantiates the assembler of an assessment data class.
+     *
+     * @param assessmentDataClass the assessment data class, loaded by a {@link TxnClassLoader}
+     * @return the assembler
+     * @throws ReflectiveOperationException if a role has no public setter or the class cannot be defined
+     */
+    static CustomerAssembler generate(Class<?> assessmentDataClass) throws ReflectiveOperationException {
+        if (!(assessmentDataClass.getClassLoader() instanceof TxnClassLoader txnClassLoader)) {
+            throw new IllegalArgumentException(assessmentDataClass.getName() + " is not loaded by a TxnClassLoader");
+        }
+        TreeMap<Integer, Method> settersBySlot = roleSetters(assessmentDataClass);
+        String assemblerName = assessmentDataClass.getName() + ASSEMBLER_NAME_SUFFIX;
+        byte[] classBytes = assemblerClass(assemblerName, assessmentDataClass, settersBySlot);
+        Class<?> assemblerClass = txnClassLoader.defineGeneratedClass(assemblerName, classBytes);
+        try {
+            return (CustomerAssembler) MethodHandles.publicLookup()
+                    .findConstructor(assemblerClass, MethodType.methodType(void.class))
+                    .invoke();
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not create the customer assembler of "
+                    + assessmentDataClass.getName(), t);
+        }
+    }
+
+    private static TreeMap<Integer, Method> roleSetters(Class<?> assessmentDataClass) throws NoSuchMethodException {
+        TreeMap<Integer, Method> settersBySlot = new TreeMap<>();
+        for (Class<?> type = assessmentDataClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                CustomerRole role = field.getAnnotation(CustomerRole.class);
+                if (role == null) {
+                    continue;
+                }
+                if (field.getType() != Customer.class || role.value() < 0) {
+                    throw new IllegalArgumentException("Customer role " + field.getName() + " of "
+                            + assessmentDataClass.getName() + " must be a Customer with a non-negative slot");
+                }
+                String setterName = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+                Method setter = assessmentDataClass.getMethod(setterName, Customer.class);
+                if (Modifier.isStatic(setter.getModifiers()) || settersBySlot.put(role.value(), setter) != null) {
+                    throw new IllegalArgumentException("Customer role slot " + role.value() + " of "
+                            + assessmentDataClass.getName() + " is declared twice or has no instance setter");
+                }
+            }
+        }
+        return settersBySlot;
+    }
+
+    private static byte[] assemblerClass(String assemblerName, Class<?> assessmentDataClass,
+                                         TreeMap<Integer, Method> settersBySlot) {
+        String dataType = Type.getInternalName(assessmentDataClass);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                assemblerName.replace('.', '/'), null,
+                Type.getInternalName(Object.class), new String[] {ASSEMBLER});
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        // assemble(Object data, String[] roleCustomerIds, List customers):
+        //   T target = (T) data;
+        //   target.setRole(CustomerAssembler.customerFor(customers, roleCustomerIds, slot)); ... per role
+        MethodVisitor assemble = writer.visitMethod(Opcodes.ACC_PUBLIC, "assemble", ASSEMBLE_DESCRIPTOR, null, null);
+        assemble.visitCode();
+        assemble.visitVarInsn(Opcodes.ALOAD, 1);
+        assemble.visitTypeInsn(Opcodes.CHECKCAST, dataType);
+        assemble.visitVarInsn(Opcodes.ASTORE, 4);
+        for (var role : settersBySlot.entrySet()) {
+            Method setter = role.getValue();
+            assemble.visitVarInsn(Opcodes.ALOAD, 4);
+            assemble.visitVarInsn(Opcodes.ALOAD, 3);
+            assemble.visitVarInsn(Opcodes.ALOAD, 2);
+            assemble.visitLdcInsn(role.getKey());
+            assemble.visitMethodInsn(Opcodes.INVOKESTATIC, ASSEMBLER, "customerFor", CUSTOMER_FOR_DESCRIPTOR, true);
+            assemble.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(setter.getDeclaringClass()),
+                    setter.getName(), Type.getMethodDescriptor(setter), false);
+            if (setter.getReturnType() != void.class) {
+                // Fluent setters return the instance
+                assemble.visitInsn(Opcodes.POP);
+            }
+        }
+        assemble.visitInsn(Opcodes.RETURN);
+        assemble.visitMaxs(0, 0);
+        assemble.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
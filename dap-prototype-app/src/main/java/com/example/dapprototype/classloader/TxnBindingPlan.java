@@ -0,0 +1,265 @@
+package com.example.dapprototype.classloader;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerAssembler;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.LRUMap;
+import com.fasterxml.jackson.databind.util.LookupCache;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Pre-resolved bindings for the transaction model classes loaded by a {@link TxnClassLoader}.
+ * <p>
+ * Every constructor, setter, getter and mapper entry point used on the request path is looked up
+ * once when the plan is resolved and bound as a {@link MethodHandle} adapted to an erased
+ * {@code Object} signature, so the request path calls {@code invokeExact} without any reflective
+ * lookups or {@code Method.invoke} argument boxing. Customers are set through an assembler generated
+ * for the assessment data class.
+ */
+public final class TxnBindingPlan {
+
+    private static final String MAPPER_INSTANCE_FIELD = "INSTANCE";
+    private static final String MAPPER_METHOD = "toCustomerRequest";
+
+    private static final String WARM_UP_JSON = "{}";
+    private static final String[] WARM_UP_ROLES = new String[0];
+
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final TxnTypeDescriptor descriptor;
+    private final Class<?> requestInfoClass;
+    private final Class<?> assessmentDataClass;
+    private final ObjectReader requestInfoReader;
+    private final MethodHandle requestInfoFactory;
+    private final MethodHandle assessmentDataFactory;
+    private final MethodHandle requestInfoSetter;
+    private final MethodHandle rulesResponseGetter;
+    private final MethodHandle rulesResponseSetter;
+    private final MethodHandle customerRequestMapper;
+    private final CustomerAssembler customerAssembler;
+
+    private TxnBindingPlan(TxnTypeDescriptor descriptor,
+                           Class<?> requestInfoClass,
+                           Class<?> assessmentDataClass,
+                           ObjectReader requestInfoReader,
+                           MethodHandle requestInfoFactory,
+                           MethodHandle assessmentDataFactory,
+                           MethodHandle requestInfoSetter,
+                           MethodHandle rulesResponseGetter,
+                           MethodHandle rulesResponseSetter,
+                           MethodHandle customerRequestMapper,
+                           CustomerAssembler customerAssembler) {
+        this.descriptor = descriptor;
+        this.requestInfoClass = requestInfoClass;
+        this.assessmentDataClass = assessmentDataClass;
+        this.requestInfoReader = requestInfoReader;
+        this.requestInfoFactory = requestInfoFactory;
+        this.assessmentDataFactory = assessmentDataFactory;
+        this.requestInfoSetter = requestInfoSetter;
+        this.rulesResponseGetter = rulesResponseGetter;
+        this.rulesResponseSetter = rulesResponseSetter;
+        this.customerRequestMapper = customerRequestMapper;
+        this.customerAssembler = customerAssembler;
+    }
+
+    /**
+     * Loads the transaction model classes of one transaction type from the given class loader and
+     * binds every entry point used by the request pipeline.
+     *
+     * @param classLoader the class loader holding the transaction model classes
+     * @param objectMapper the application object mapper, copied so that its caches are private to this plan
+     * @param descriptor the transaction type declaring the classes to bind
+     * @return the resolved binding plan
+     * @throws ReflectiveOperationException if a class or member cannot be resolved
+     */
+    public static TxnBindingPlan resolve(ClassLoader classLoader,
+                                         ObjectMapper objectMapper,
+                                         TxnTypeDescriptor descriptor) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> requestInfoClass = classLoader.loadClass(descriptor.requestInfoClassName());
+        Class<?> assessmentDataClass = classLoader.loadClass(descriptor.assessmentDataClassName());
+        Class<?> mapperClass = classLoader.loadClass(descriptor.mapperClassName());
+
+        MethodHandle requestInfoFactory = lookup
+                .findConstructor(requestInfoClass, MethodType.methodType(void.class))
+                .asType(FACTORY_TYPE);
+        MethodHandle assessmentDataFactory = lookup
+                .findConstructor(assessmentDataClass, MethodType.methodType(void.class))
+                .asType(FACTORY_TYPE);
+        MethodHandle requestInfoSetter = lookup
+                .unreflect(assessmentDataClass.getMethod("setRequestInfo", requestInfoClass))
+                .asType(SETTER_TYPE);
+        MethodHandle rulesResponseGetter = lookup
+                .unreflect(assessmentDataClass.getMethod("getRulesResponse"))
+                .asType(GETTER_TYPE);
+        MethodHandle rulesResponseSetter = lookup
+                .unreflect(assessmentDataClass.getMethod("setRulesResponse", RulesResponse.class))
+                .asType(SETTER_TYPE);
+
+        CustomerAssembler customerAssembler = CustomerAssemblerGenerator.generate(assessmentDataClass);
+
+        // Bind the MapStruct INSTANCE as the receiver so the request path only passes the request info
+        Object mapperInstance = mapperClass.getField(MAPPER_INSTANCE_FIELD).get(null);
+        MethodHandle customerRequestMapper = lookup
+                .unreflect(mapperClass.getMethod(MAPPER_METHOD, requestInfoClass))
+                .bindTo(mapperInstance)
+                .asType(GETTER_TYPE);
+
+        // A private mapper copy with its own type cache keeps Jackson from pinning the txn-model
+        // classes (and so the TxnClassLoader) after this plan's generation has been retired
+        LookupCache<Object, JavaType> typeCache = new LRUMap<>(16, 200);
+        ObjectReader requestInfoReader = objectMapper.copy()
+                .setTypeFactory(TypeFactory.defaultInstance().withCache(typeCache).withClassLoader(classLoader))
+                .readerFor(requestInfoClass);
+
+        return new TxnBindingPlan(descriptor, requestInfoClass, assessmentDataClass, requestInfoReader, requestInfoFactory, assessmentDataFactory, requestInfoSetter,
+                rulesResponseGetter, rulesResponseSetter, customerRequestMapper, customerAssembler);
+    }
+
+    public TxnTypeDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public Class<?> getRequestInfoClass() {
+        return requestInfoClass;
+    }
+
+    public Class<?> getAssessmentDataClass() {
+        return assessmentDataClass;
+    }
+
+    /**
+     * Gets a reader that deserializes JSON into the request info class.
+     *
+     * @return the request info reader
+     */
+    public ObjectReader getRequestInfoReader() {
+        return requestInfoReader;
+    }
+
+    /**
+     * Exercises every bound entry point so that the handles are linked and their call paths are
+     * compiled before the plan serves live traffic.
+     *
+     * @param iterations number of round trips through the bindings
+     * @throws IOException if the request info reader cannot be warmed
+     */
+    public void warmUp(int iterations) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            Object requestInfo = requestInfoReader.readValue(WARM_UP_JSON);
+            toCustomerRequest(requestInfo);
+            Object assessmentData = newAssessmentData();
+            setRequestInfo(assessmentData, requestInfo);
+            assembleCustomers(assessmentData, WARM_UP_ROLES, List.of());
+            setRulesResponse(assessmentData, null);
+            getRulesResponse(assessmentData);
+        }
+    }
+
+    /**
+     * Creates a new, empty request info instance.
+     *
+     * @return the request info object
+     */
+    public Object newRequestInfo() {
+        try {
+            return (Object) requestInfoFactory.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Creates a new, empty assessment data instance.
+     *
+     * @return the assessment data object
+     */
+    public Object newAssessmentData() {
+        try {
+            return (Object) assessmentDataFactory.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setRequestInfo(Object assessmentData, Object requestInfo) {
+        try {
+            requestInfoSetter.invokeExact(assessmentData, requestInfo);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public RulesResponse getRulesResponse(Object assessmentData) {
+        try {
+            return (RulesResponse) (Object) rulesResponseGetter.invokeExact(assessmentData);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setRulesResponse(Object assessmentData, RulesResponse rulesResponse) {
+        try {
+            rulesResponseSetter.invokeExact(assessmentData, (Object) rulesResponse);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Maps the request info object to a CustomerRequest using the txn-models mapper.
+     *
+     * @param requestInfo the request info object
+     * @return the mapped CustomerRequest
+     */
+    public CustomerRequest toCustomerRequest(Object requestInfo) {
+        Object result;
+        try {
+            result = (Object) customerRequestMapper.invokeExact(requestInfo);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+        if (result instanceof CustomerRequest customerRequest) {
+            return customerRequest;
+        }
+        throw new IllegalStateException("Mapper did not return CustomerRequest: " +
+            (result != null ? result.getClass().getName() : "null"));
+    }
+
+    CustomerAssembler getCustomerAssembler() {
+        return customerAssembler;
+    }
+
+    /**
+     * Sets the customer of every role on the assessment data.
+     *
+     * @param assessmentData the assessment data object
+     * @param roleCustomerIds the customer ID of each role slot, as produced by the mapper
+     * @param customers the customers that were found; one customer may fill several roles
+     */
+    public void assembleCustomers(Object assessmentData, String[] roleCustomerIds, List<Customer> customers) {
+        customerAssembler.assemble(assessmentData, roleCustomerIds, customers);
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Bound txn-model call failed", t);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.dapprototype.classloader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a class defined by a {@link TxnClassLoader}: a txn-models class read
+ * from its jars or a class generated for it, such as a customer role assembler.
+ */
+@Name(TxnClassLoadEvent.NAME)
+@Label("Txn-Models Class Load")
+@Category({"DAP", "Txn Models"})
+@Description("A class defined by a TxnClassLoader")
+@StackTrace(false)
+final class TxnClassLoadEvent extends Event {
+
+    static final String NAME = "com.example.dapprototype.TxnClassLoad";
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Txn-Models Generation")
+    long generationId;
+
+    @Label("Generated")
+    @Description("Whether the class was generated at runtime rather than read from a txn-models jar")
+    boolean generated;
+
+    static TxnClassLoadEvent start() {
+        TxnClassLoadEvent event = new TxnClassLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    void complete(String className, long generationId, boolean generated) {
+        end();
+        if (shouldCommit()) {
+            this.className = className;
+            this.generationId = generationId;
+            this.generated = generated;
+            commit();
+        }
+    }
+}
@@ -8,7 +8,9 @@ import java.net.URLClassLoader;
  * The system class loader is the parent of this class loader.
  */
 public class TxnClassLoader extends URLClassLoader {
-    
+
+    private final long generationId;
+
     /**
      * Creates a new TxnClassLoader with the specified URLs.
      * Uses the system class loader as the parent.
@@ -16,7 +18,19 @@ public class TxnClassLoader extends URLClassLoader {
      * @param urls the URLs from which to load classes and resources
      */
     public TxnClassLoader(URL[] urls) {
+        this(urls, ClassLoader.getSystemClassLoader());
+    }
+
+    /**
+     * Creates a new TxnClassLoader for a txn-models generation, with the system class loader as
+     * the parent.
+     *
+     * @param urls the URLs from which to load classes and resources
+     * @param generationId the id of the generation, reported in {@link TxnClassLoadEvent}s
+     */
+    public TxnClassLoader(URL[] urls, long generationId) {
         super(urls, ClassLoader.getSystemClassLoader());
+        this.generationId = generationId;
     }
     
     /**
@@ -27,8 +41,37 @@ public class TxnClassLoader extends URLClassLoader {
      */
     public TxnClassLoader(URL[] urls, ClassLoader parent) {
         super(urls, parent);
+        this.generationId = 0;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        TxnClassLoadEvent event = TxnClassLoadEvent.start();
+        Class<?> loaded = super.findClass(name);
+        event.complete(name, generationId, false);
+        return loaded;
     }
     
+    /**
+     * Defines a class generated for the transaction model classes of this loader, so that it sees
+     * them directly and is unloaded together with them. A class that is already defined is returned
+     * as it is.
+     *
+     * @param name the binary name of the class
+     * @param classBytes the class file
+     * @return the defined class
+     */
+    synchronized Class<?> defineGeneratedClass(String name, byte[] classBytes) {
+        Class<?> defined = findLoadedClass(name);
+        if (defined != null) {
+            return defined;
+        }
+        TxnClassLoadEvent event = TxnClassLoadEvent.start();
+        defined = defineClass(name, classBytes, 0, classBytes.length);
+        event.complete(name, generationId, true);
+        return defined;
+    }
+
     @Override
     public String toString() {
         return "TxnClassLoader[parent=" + getParent() + "]";
@@ -1,20 +1,32 @@
 package com.example.dapprototype.classloader;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service for managing the TxnClassLoader and loading transaction model classes dynamically.
+ * <p>
+ * Transaction model classes are held in {@link TxnGeneration}s. A reload builds a new class loader,
+ * resolves and warms the binding plan of every transaction type its txn-models jars declare (see
+ * {@link TxnTypeDescriptor}) off the request path, and then swaps it in atomically.
+ * Requests that acquired the previous generation keep using it until they release it, after which
+ * its class loader is closed.
  */
 @Service
 public class TxnClassLoaderService {
@@ -24,22 +36,29 @@ public class TxnClassLoaderService {
     @Value("${txn.classloader.paths:}")
     private String classloaderPaths;
     
-    private TxnClassLoader txnClassLoader;
+    @Value("${txn.classloader.warmup-iterations:1000}")
+    private int warmupIterations = 1000;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<TxnGeneration> currentGeneration = new AtomicReference<>();
+    private final AtomicLong generationSequence = new AtomicLong();
+    private final List<RetiredGeneration> retiredGenerations = new CopyOnWriteArrayList<>();
+    
+    public TxnClassLoaderService(ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
     
     @PostConstruct
     public void initialize() {
+        TxnGenerationChangeEvent event = TxnGenerationChangeEvent.start();
         try {
-            URL[] urls = buildClassLoaderUrls();
-            // Use the current thread's context class loader as parent
-            // This ensures txn-models classes can access dependencies like MapStruct
-            //ClassLoader parentClassLoader = Thread.currentThread().getContextClassLoader();
-            txnClassLoader = new TxnClassLoader(urls /** ,parentClassLoader*/);
-            logger.info("TxnClassLoader initialized successfully with {} URLs", urls.length);
-            logger.info("Parent ClassLoader: {}", ClassLoader.getSystemClassLoader().getClass().getName());
-            for (URL url : urls) {
-                logger.debug("TxnClassLoader URL: {}", url);
-            }
+            TxnGeneration generation = buildGeneration();
+            currentGeneration.set(generation);
+            event.complete(0, generation, null);
         } catch (Exception e) {
+            event.complete(0, null, e);
             logger.error("Failed to initialize TxnClassLoader", e);
             throw new RuntimeException("Failed to initialize TxnClassLoader", e);
         }
@@ -47,16 +66,98 @@ public class TxnClassLoaderService {
     
     @PreDestroy
     public void cleanup() {
-        if (txnClassLoader != null) {
-            try {
-                txnClassLoader.close();
-                logger.info("TxnClassLoader closed successfully");
-            } catch (Exception e) {
-                logger.error("Error closing TxnClassLoader", e);
+        TxnGeneration generation = currentGeneration.getAndSet(null);
+        if (generation != null) {
+            generation.release();
+            logger.info("TxnClassLoader of generation {} released on shutdown", generation.getId());
+        }
+    }
+    
+    /**
+     * Builds a new generation from the configured paths, warms it and swaps it in as the current one.
+     * The previous generation is closed once its in-flight requests have released it.
+     *
+     * @return the new current generation
+     */
+    public synchronized TxnGeneration reload() {
+        TxnGenerationChangeEvent event = TxnGenerationChangeEvent.start();
+        TxnGeneration next;
+        try {
+            next = buildGeneration();
+        } catch (Exception e) {
+            TxnGeneration current = currentGeneration.get();
+            event.complete(current != null ? current.getId() : 0, null, e);
+            logger.error("Failed to build new TxnClassLoader generation, keeping the current one", e);
+            throw new IllegalStateException("Failed to reload TxnClassLoader", e);
+        }
+        TxnGeneration previous = currentGeneration.getAndSet(next);
+        long previousId = 0;
+        if (previous != null) {
+            previousId = previous.getId();
+            retiredGenerations.add(new RetiredGeneration(previous));
+            previous.release();
+        }
+        event.complete(previousId, next, null);
+        logger.info("Swapped in TxnClassLoader generation {} (retired generation {})", next.getId(), previousId);
+        eventPublisher.publishEvent(new TxnGenerationChangedEvent(previousId, next.getId()));
+        return next;
+    }
+    
+    /**
+     * Acquires the current generation for the duration of a request.
+     * Callers must call {@link TxnGeneration#release()} when done.
+     *
+     * @return the current generation with a reference held for the caller
+     */
+    public TxnGeneration acquire() {
+        while (true) {
+            TxnGeneration generation = currentGeneration.get();
+            if (generation == null) {
+                throw new IllegalStateException("TxnClassLoader is not initialized");
             }
+            if (generation.retain()) {
+                return generation;
+            }
+            // The generation drained between the read and the retain; a newer one is already current
         }
     }
     
+    /**
+     * Gets the current generation without taking a reference on it.
+     *
+     * @return the current generation
+     */
+    public TxnGeneration getCurrentGeneration() {
+        return currentGeneration.get();
+    }
+    
+    /**
+     * Counts generations that still have an open class loader, including the current one.
+     *
+     * @return the number of live generations
+     */
+    public int countLiveGenerations() {
+        retiredGenerations.removeIf(RetiredGeneration::isReclaimed);
+        int live = currentGeneration.get() != null ? 1 : 0;
+        for (RetiredGeneration retired : retiredGenerations) {
+            if (retired.isOpen()) {
+                live++;
+            }
+        }
+        return live;
+    }
+    
+    /**
+     * Counts retired generations whose class loader has not been garbage collected yet.
+     * A value that keeps growing across reloads indicates a class loader leak.
+     *
+     * @return the number of retired, unreclaimed class loaders
+     */
+    public int countUnreclaimedGenerations() {
+        retiredGenerations.removeIf(RetiredGeneration::isReclaimed);
+        return retiredGenerations.size();
+    }
+    
     /**
      * Loads a class using the TxnClassLoader.
      * 
@@ -65,10 +166,7 @@ public class TxnClassLoaderService {
      * @throws ClassNotFoundException if the class cannot be found
      */
     public Class<?> loadClass(String className) throws ClassNotFoundException {
-        if (txnClassLoader == null) {
-            throw new IllegalStateException("TxnClassLoader is not initialized");
-        }
-        return txnClassLoader.loadClass(className);
+        return getTxnClassLoader().loadClass(className);
     }
     
     /**
@@ -84,12 +182,70 @@ public class TxnClassLoaderService {
     }
     
     /**
-     * Gets the TxnClassLoader instance.
+     * Gets the TxnClassLoader of the current generation.
      * 
      * @return the TxnClassLoader
      */
     public TxnClassLoader getTxnClassLoader() {
-        return txnClassLoader;
+        TxnGeneration generation = currentGeneration.get();
+        if (generation == null) {
+            throw new IllegalStateException("TxnClassLoader is not initialized");
+        }
+        return generation.getClassLoader();
+    }
+    
+    /**
+     * Gets the configured class loader paths.
+     *
+     * @return the comma-separated configured paths, possibly empty
+     */
+    public String getClassloaderPaths() {
+        return classloaderPaths;
+    }
+    
+    /**
+     * Sets the class loader paths of a service created outside of a Spring context, before it is
+     * initialized.
+     *
+     * @param classloaderPaths the comma-separated paths of the txn-models jars or class directories
+     */
+    public void setClassloaderPaths(String classloaderPaths) {
+        this.classloaderPaths = classloaderPaths;
+    }
+    
+    private TxnGeneration buildGeneration() throws Exception {
+        URL[] urls = buildClassLoaderUrls();
+        // Use the current thread's context class loader as parent
+        // This ensures txn-models classes can access dependencies like MapStruct
+        //ClassLoader parentClassLoader = Thread.currentThread().getContextClassLoader();
+        long generationId = generationSequence.incrementAndGet();
+        TxnClassLoader txnClassLoader = new TxnClassLoader(urls, generationId /** ,parentClassLoader*/);
+        try {
+            long started = System.nanoTime();
+            List<TxnTypeDescriptor> descriptors = TxnTypeDescriptor.loadAll(txnClassLoader);
+            if (descriptors.isEmpty()) {
+                throw new IllegalStateException("No transaction types declared in " + TxnTypeDescriptor.DESCRIPTOR_RESOURCE);
+            }
+            List<TxnBindingPlan> bindingPlans = new ArrayList<>();
+            for (TxnTypeDescriptor descriptor : descriptors) {
+                TxnBindingPlan bindingPlan = TxnBindingPlan.resolve(txnClassLoader, objectMapper, descriptor);
+                bindingPlan.warmUp(warmupIterations);
+                bindingPlans.add(bindingPlan);
+                logger.info("Resolved txn type '{}' on {} ({})", descriptor.name(), descriptor.operationPath(),
+                        descriptor.requestInfoClassName());
+            }
+            TxnGeneration generation = new TxnGeneration(generationId, txnClassLoader, bindingPlans);
+            logger.info("TxnClassLoader generation {} initialized with {} URLs and {} txn types, resolved and warmed in {} ms",
+                    generation.getId(), urls.length, bindingPlans.size(), (System.nanoTime() - started) / 1_000_000);
+            logger.info("Parent ClassLoader: {}", ClassLoader.getSystemClassLoader().getClass().getName());
+            for (URL url : urls) {
+                logger.debug("TxnClassLoader URL: {}", url);
+            }
+            return generation;
+        } catch (Exception e) {
+            txnClassLoader.close();
+            throw e;
+        }
     }
     
     /**
@@ -157,4 +313,26 @@ public class TxnClassLoaderService {
         
         return null;
     }
+    
+    /**
+     * Tracks a retired generation weakly so that leak detection never keeps its class loader alive.
+     */
+    private static final class RetiredGeneration {
+        private final WeakReference<TxnGeneration> generation;
+        private final WeakReference<TxnClassLoader> classLoader;
+        
+        RetiredGeneration(TxnGeneration generation) {
+            this.generation = new WeakReference<>(generation);
+            this.classLoader = new WeakReference<>(generation.getClassLoader());
+        }
+        
+        boolean isOpen() {
+            TxnGeneration retired = generation.get();
+            return retired != null && !retired.isClosed();
+        }
+        
+        boolean isReclaimed() {
+            return classLoader.get() == null;
+        }
+    }
 }
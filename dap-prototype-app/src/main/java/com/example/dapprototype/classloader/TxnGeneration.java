@@ -0,0 +1,140 @@
+package com.example.dapprototype.classloader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One generation of transaction model classes: a {@link TxnClassLoader} together with the
+ * binding plans of every transaction type resolved against it.
+ * <p>
+ * A generation is reference counted. The {@link TxnClassLoaderService} holds one reference while the
+ * generation is current and every request holds one while it is in flight. When the generation is
+ * retired and the last in-flight request releases it, the class loader is closed so that its classes
+ * can be unloaded.
+ */
+public final class TxnGeneration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TxnGeneration.class);
+
+    private final long id;
+    private final TxnClassLoader classLoader;
+    private final Map<String, TxnBindingPlan> plansByType;
+    private final Map<String, TxnBindingPlan> plansByOperationPath;
+    private final Instant createdAt;
+    // Starts at 1: the reference held by the service while this generation is current
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private volatile boolean closed;
+
+    TxnGeneration(long id, TxnClassLoader classLoader, Collection<TxnBindingPlan> bindingPlans) {
+        this.id = id;
+        this.classLoader = classLoader;
+        Map<String, TxnBindingPlan> byType = new HashMap<>();
+        Map<String, TxnBindingPlan> byOperationPath = new HashMap<>();
+        for (TxnBindingPlan plan : bindingPlans) {
+            TxnTypeDescriptor descriptor = plan.getDescriptor();
+            if (byType.put(descriptor.name(), plan) != null) {
+                throw new IllegalArgumentException("Transaction type declared twice: " + descriptor.name());
+            }
+            if (byOperationPath.put(descriptor.operationPath(), plan) != null) {
+                throw new IllegalArgumentException("Operation path declared twice: " + descriptor.operationPath());
+            }
+        }
+        this.plansByType = Map.copyOf(byType);
+        this.plansByOperationPath = Map.copyOf(byOperationPath);
+        this.createdAt = Instant.now();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public TxnClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Looks up the binding plan of a transaction type.
+     *
+     * @param txnType the transaction type name
+     * @return the binding plan, or null if the type is not declared in this generation
+     */
+    public TxnBindingPlan getBindingPlan(String txnType) {
+        return plansByType.get(txnType);
+    }
+
+    /**
+     * Looks up the binding plan of the transaction type served on an OpenAPI operation path.
+     *
+     * @param operationPath the operation path, e.g. {@code /request}
+     * @return the binding plan, or null if no type is served on the path
+     */
+    public TxnBindingPlan getBindingPlanForPath(String operationPath) {
+        return plansByOperationPath.get(operationPath);
+    }
+
+    public Collection<TxnBindingPlan> getBindingPlans() {
+        return plansByType.values();
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getRefCount() {
+        return refCount.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Takes a reference on this generation.
+     *
+     * @return false if the generation has already drained and must not be used
+     */
+    boolean retain() {
+        int current;
+        do {
+            current = refCount.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!refCount.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases a reference on this generation, closing the class loader when the count drains to zero.
+     */
+    public void release() {
+        int remaining = refCount.decrementAndGet();
+        if (remaining == 0) {
+            close();
+        } else if (remaining < 0) {
+            throw new IllegalStateException("TxnGeneration " + id + " released more times than retained");
+        }
+    }
+
+    private void close() {
+        closed = true;
+        try {
+            classLoader.close();
+            logger.info("TxnGeneration {} drained and its TxnClassLoader was closed", id);
+        } catch (IOException e) {
+            logger.error("Error closing TxnClassLoader of generation {}", id, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TxnGeneration[id=" + id + ", refCount=" + refCount.get() + ", closed=" + closed + "]";
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.dapprototype.classloader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of building a {@link TxnGeneration} and swapping it in, on startup or on a
+ * reload. Its duration covers loading, resolving and warming the txn types; the
+ * {@link TxnClassLoadEvent class loads} of the generation fall within it.
+ */
+@Name(TxnGenerationChangeEvent.NAME)
+@Label("Txn-Models Generation Change")
+@Category({"DAP", "Txn Models"})
+@Description("A txn-models generation built and swapped in, or a failed reload")
+@StackTrace(false)
+final class TxnGenerationChangeEvent extends Event {
+
+    static final String NAME = "com.example.dapprototype.TxnGenerationChange";
+
+    @Label("Previous Generation")
+    @Description("Id of the retired generation, 0 on initial load")
+    long previousGenerationId;
+
+    @Label("Generation")
+    @Description("Id of the new current generation, 0 if the build failed")
+    long generationId;
+
+    @Label("Txn Types")
+    int txnTypes;
+
+    @Label("Failure")
+    @Description("Why the build failed; the previous generation stays current")
+    String failure;
+
+    static TxnGenerationChangeEvent start() {
+        TxnGenerationChangeEvent event = new TxnGenerationChangeEvent();
+        event.begin();
+        return event;
+    }
+
+    void complete(long previousGenerationId, TxnGeneration generation, Exception failure) {
+        end();
+        if (shouldCommit()) {
+            this.previousGenerationId = previousGenerationId;
+            this.generationId = generation != null ? generation.getId() : 0;
+            this.txnTypes = generation != null ? generation.getBindingPlans().size() : 0;
+            this.failure = failure != null ? String.valueOf(failure.getMessage()) : null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.dapprototype.classloader;
+
+/**
+ * Published by {@link TxnClassLoaderService} after a new {@link TxnGeneration} has been swapped in.
+ *
+ * @param previousGenerationId the id of the generation that was retired, or 0 on initial load
+ * @param generationId the id of the generation that is now current
+ */
+public record TxnGenerationChangedEvent(long previousGenerationId, long generationId) {
+}
@@ -0,0 +1,40 @@
+package com.example.dapprototype.classloader;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes TxnClassLoader generation metrics.
+ * <p>
+ * Together with the standard {@code jvm.memory.used{id="Metaspace"}} and {@code jvm.classes.unloaded}
+ * metrics these show whether retired generations are actually being reclaimed after a reload.
+ */
+@Component
+public class TxnGenerationMetrics implements MeterBinder {
+
+    private final TxnClassLoaderService txnClassLoaderService;
+
+    public TxnGenerationMetrics(TxnClassLoaderService txnClassLoaderService) {
+        this.txnClassLoaderService = txnClassLoaderService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("txn.generation.current", txnClassLoaderService,
+                        service -> {
+                            TxnGeneration generation = service.getCurrentGeneration();
+                            return generation != null ? generation.getId() : 0;
+                        })
+                .description("Id of the current TxnClassLoader generation")
+                .register(registry);
+        Gauge.builder("txn.generations.live", txnClassLoaderService, TxnClassLoaderService::countLiveGenerations)
+                .description("Generations whose TxnClassLoader is still open, including the current one")
+                .register(registry);
+        Gauge.builder("txn.generations.unreclaimed", txnClassLoaderService,
+                        TxnClassLoaderService::countUnreclaimedGenerations)
+                .description("Retired generations whose TxnClassLoader has not been garbage collected yet")
+                .register(registry);
+    }
+}
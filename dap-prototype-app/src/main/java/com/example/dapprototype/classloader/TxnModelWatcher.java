@@ -0,0 +1,123 @@
+package com.example.dapprototype.classloader;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configured {@code txn.classloader.paths} and triggers a generation reload when they change.
+ * <p>
+ * Events are debounced so that a jar being copied in several writes only causes one reload.
+ * The reload runs on the watcher thread, never on a request thread.
+ */
+@Component
+public class TxnModelWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TxnModelWatcher.class);
+
+    private final TxnClassLoaderService txnClassLoaderService;
+
+    @Value("${txn.classloader.watch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${txn.classloader.watch.debounce-ms:2000}")
+    private long debounceMillis;
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public TxnModelWatcher(TxnClassLoaderService txnClassLoaderService) {
+        this.txnClassLoaderService = txnClassLoaderService;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Set<Path> directories = watchedDirectories();
+        if (directories.isEmpty()) {
+            logger.warn("TxnModelWatcher enabled but txn.classloader.paths has no existing paths to watch");
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            logger.info("Watching {} for txn-models changes", directory);
+        }
+        watcherThread = new Thread(this::watchLoop, "txn-model-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                drain(key);
+                // Keep absorbing events until the paths have been quiet for the debounce period
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                }
+                try {
+                    txnClassLoaderService.reload();
+                } catch (RuntimeException e) {
+                    logger.error("Reload triggered by txn-models change failed", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("TxnModelWatcher stopped");
+        }
+    }
+
+    private void drain(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    private Set<Path> watchedDirectories() {
+        Set<Path> directories = new LinkedHashSet<>();
+        String paths = txnClassLoaderService.getClassloaderPaths();
+        if (paths == null || paths.isEmpty()) {
+            return directories;
+        }
+        for (String path : paths.split(",")) {
+            Path candidate = Path.of(path.trim()).toAbsolutePath();
+            // Jars are replaced as files, so watch the directory that contains them
+            Path directory = Files.isDirectory(candidate) ? candidate : candidate.getParent();
+            if (directory != null && Files.isDirectory(directory)) {
+                directories.add(directory);
+            }
+        }
+        return directories;
+    }
+}
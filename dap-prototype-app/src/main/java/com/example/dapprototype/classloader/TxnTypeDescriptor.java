@@ -0,0 +1,80 @@
+package com.example.dapprototype.classloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Declaration of one transaction type provided by a txn-models jar.
+ * <p>
+ * Each jar lists its types in {@value #DESCRIPTOR_RESOURCE}:
+ * <pre>
+ * txn.types=payment
+ * txn.type.payment.request-info-class=com.example.dapprototype.model.PaymentRequestInfo
+ * txn.type.payment.mapper-class=com.example.dapprototype.mapper.PaymentRequestMapper
+ * txn.type.payment.assessment-data-class=com.example.dapprototype.model.PaymentAssessmentData
+ * txn.type.payment.operation-path=/request
+ * </pre>
+ *
+ * @param name the transaction type name, e.g. {@code payment}
+ * @param requestInfoClassName fully qualified name of the request info class
+ * @param mapperClassName fully qualified name of the MapStruct mapper interface
+ * @param assessmentDataClassName fully qualified name of the assessment data class
+ * @param operationPath the OpenAPI operation path the type is served on, e.g. {@code /request}
+ */
+public record TxnTypeDescriptor(String name,
+                                String requestInfoClassName,
+                                String mapperClassName,
+                                String assessmentDataClassName,
+                                String operationPath) {
+
+    public static final String DESCRIPTOR_RESOURCE = "META-INF/dap/txn-types.properties";
+
+    /**
+     * Reads the transaction type declarations of every txn-models jar visible to the class loader.
+     *
+     * @param classLoader the class loader holding the txn-models jars
+     * @return the declared transaction types
+     * @throws IOException if a descriptor cannot be read or is incomplete
+     */
+    public static List<TxnTypeDescriptor> loadAll(ClassLoader classLoader) throws IOException {
+        List<TxnTypeDescriptor> descriptors = new ArrayList<>();
+        Enumeration<URL> resources = classLoader.getResources(DESCRIPTOR_RESOURCE);
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            Properties properties = new Properties();
+            try (InputStream in = resource.openStream()) {
+                properties.load(in);
+            }
+            String types = properties.getProperty("txn.types", "");
+            for (String type : types.split(",")) {
+                String name = type.trim();
+                if (!name.isEmpty()) {
+                    descriptors.add(fromProperties(name, properties, resource));
+                }
+            }
+        }
+        return descriptors;
+    }
+
+    private static TxnTypeDescriptor fromProperties(String name, Properties properties, URL resource) throws IOException {
+        String prefix = "txn.type." + name + ".";
+        return new TxnTypeDescriptor(name,
+                required(properties, prefix + "request-info-class", resource),
+                required(properties, prefix + "mapper-class", resource),
+                required(properties, prefix + "assessment-data-class", resource),
+                required(properties, prefix + "operation-path", resource));
+    }
+
+    private static String required(Properties properties, String key, URL resource) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IOException("Missing " + key + " in " + resource);
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.dapprototype.config;
+
+import com.example.dapprototype.customerstore.MappedCustomerStore;
+import com.example.dapprototype.service.BackendCustomerLookup;
+import com.example.dapprototype.service.CachingCustomerLookup;
+import com.example.dapprototype.service.CoalescingCustomerLookup;
+import com.example.dapprototype.service.CustomerBackend;
+import com.example.dapprototype.service.CustomerLookup;
+import com.example.dapprototype.service.MockCustomerAPI;
+import com.example.dapprototype.service.ParallelCustomerLookup;
+import com.example.dapprototype.service.StubCustomerBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Assembles the customer lookup used by the request pipeline:
+ * per-customer fan-out in {@link ExecutionMode#VIRTUAL} mode, then cache, then cross-request
+ * coalescing, then a {@link BackendCustomerLookup} over the {@link StubCustomerBackend} when
+ * {@code dap.customer-backend.stub.enabled} or the {@link MockCustomerAPI}. Each layer can be
+ * switched off in {@code application.properties}.
+ * <p>
+ * When {@code dap.customer-store.enabled}, the {@link MappedCustomerStore} is the lookup itself.
+ * A store lookup costs about as much as a cache hit and never blocks, so the cache, coalescing and
+ * fan-out layers are not created in front of it.
+ */
+@Configuration
+public class CustomerLookupConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "dap.customer-store.enabled", havingValue = "true")
+    public MappedCustomerStore mappedCustomerStore(ObjectProvider<MeterRegistry> meterRegistry,
+                                                   @Value("${dap.customer-store.path:customers.store}") String path,
+                                                   @Value("${dap.customer-store.refresh-interval-ms:10000}") long refreshIntervalMs) {
+        return new MappedCustomerStore(Path.of(path), Duration.ofMillis(refreshIntervalMs),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dap.customer-backend.stub.enabled", havingValue = "true")
+    public StubCustomerBackend stubCustomerBackend(@Value("${dap.customer-backend.stub.median-ms:2}") double medianMs,
+                                                   @Value("${dap.customer-backend.stub.sigma:0.3}") double sigma,
+                                                   @Value("${dap.customer-backend.stub.stall-probability:0.02}") double stallProbability,
+                                                   @Value("${dap.customer-backend.stub.stall-ms:50}") long stallMs) {
+        return new StubCustomerBackend(StubCustomerBackend.LatencyDistribution
+                .logNormal(Duration.ofNanos((long) (medianMs * 1_000_000)), sigma)
+                .withStalls(stallProbability, Duration.ofMillis(stallMs)));
+    }
+
+    @Bean
+    public BackendCustomerLookup backendCustomerLookup(MockCustomerAPI mockCustomerAPI,
+                                                       ObjectProvider<StubCustomerBackend> stubCustomerBackend,
+                                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                                       @Value("${dap.customer-backend.chunk-size:32}") int chunkSize,
+                                                       @Value("${dap.customer-backend.timeout-ms:1000}") long timeoutMs,
+                                                       @Value("${dap.customer-backend.hedge.enabled:false}") boolean hedgeEnabled,
+                                                       @Value("${dap.customer-backend.hedge.percentile:95}") double hedgePercentile,
+                                                       @Value("${dap.customer-backend.hedge.min-delay-ms:1}") long hedgeMinDelayMs,
+                                                       @Value("${dap.customer-backend.hedge.max-delay-ms:100}") long hedgeMaxDelayMs) {
+        CustomerBackend backend = stubCustomerBackend.getIfAvailable();
+        BackendCustomerLookup.HedgePolicy hedgePolicy = hedgeEnabled
+                ? new BackendCustomerLookup.HedgePolicy(hedgePercentile, Duration.ofMillis(hedgeMinDelayMs),
+                        Duration.ofMillis(hedgeMaxDelayMs))
+                : null;
+        return new BackendCustomerLookup(backend != null ? backend : mockCustomerAPI, chunkSize,
+                Duration.ofMillis(timeoutMs), hedgePolicy, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnExpression("${dap.customer-batching.enabled:true} and !${dap.customer-store.enabled:false}")
+    public CoalescingCustomerLookup coalescingCustomerLookup(BackendCustomerLookup backendCustomerLookup,
+                                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                                             @Value("${dap.customer-batching.window-us:1000}") long windowMicros,
+                                                             @Value("${dap.customer-batching.max-batch-size:64}") int maxBatchSize,
+                                                             @Value("${dap.customer-batching.timeout-ms:1000}") long timeoutMs,
+                                                             @Value("${dap.customer-batching.dispatch-threads:4}") int dispatchThreads) {
+        return new CoalescingCustomerLookup(backendCustomerLookup,
+                Duration.ofNanos(windowMicros * 1000), maxBatchSize, Duration.ofMillis(timeoutMs), dispatchThreads,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnExpression("${dap.customer-cache.enabled:true} and !${dap.customer-store.enabled:false}")
+    public CachingCustomerLookup cachingCustomerLookup(BackendCustomerLookup backendCustomerLookup,
+                                                       ObjectProvider<CoalescingCustomerLookup> coalescingCustomerLookup,
+                                                       @Value("${dap.customer-cache.maximum-size:10000}") long maximumSize,
+                                                       @Value("${dap.customer-cache.expire-after-write-ms:600000}") long expireAfterWriteMs,
+                                                       @Value("${dap.customer-cache.refresh-after-write-ms:60000}") long refreshAfterWriteMs,
+                                                       @Value("${dap.customer-cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        CustomerLookup loader = coalescingCustomerLookup.getIfAvailable();
+        return new CachingCustomerLookup(loader != null ? loader : backendCustomerLookup,
+                maximumSize, Duration.ofMillis(expireAfterWriteMs), Duration.ofMillis(refreshAfterWriteMs),
+                Duration.ofMillis(negativeTtlMs));
+    }
+
+    /**
+     * The outermost enabled layer, injected wherever a {@link CustomerLookup} is needed.
+     */
+    @Bean
+    @Primary
+    public CustomerLookup customerLookup(BackendCustomerLookup backendCustomerLookup,
+                                         ObjectProvider<MappedCustomerStore> customerStore,
+                                         ObjectProvider<CoalescingCustomerLookup> coalescingCustomerLookup,
+                                         ObjectProvider<CachingCustomerLookup> cachingCustomerLookup,
+                                         @Value("${dap.execution.mode:blocking}") ExecutionMode executionMode) {
+        MappedCustomerStore store = customerStore.getIfAvailable();
+        if (store != null) {
+            return store;
+        }
+        CustomerLookup lookup = cachingCustomerLookup.getIfAvailable();
+        if (lookup == null) {
+            lookup = coalescingCustomerLookup.getIfAvailable();
+        }
+        if (lookup == null) {
+            lookup = backendCustomerLookup;
+        }
+        return executionMode == ExecutionMode.VIRTUAL ? new ParallelCustomerLookup(lookup) : lookup;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.dapprototype.config;
+
+/**
+ * How requests are executed, selected with {@code dap.execution.mode}.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Requests run on platform threads and look up their customers in one sequential call.
+     */
+    BLOCKING,
+
+    /**
+     * Requests run on virtual threads and look up each of their customers concurrently.
+     * Use together with {@code spring.threads.virtual.enabled=true}, as the {@code virtual} profile does.
+     */
+    VIRTUAL
+}
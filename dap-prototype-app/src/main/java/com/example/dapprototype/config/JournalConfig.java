@@ -0,0 +1,32 @@
+package com.example.dapprototype.config;
+
+import com.example.dapprototype.journal.DecisionJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Journals every decision through the asynchronous {@link DecisionJournal} when enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "dap.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    @Bean(destroyMethod = "close")
+    public DecisionJournal decisionJournal(ObjectProvider<MeterRegistry> meterRegistry,
+                                           @Value("${dap.journal.directory:journal}") String directory,
+                                           @Value("${dap.journal.segment-size-mb:64}") int segmentSizeMb,
+                                           @Value("${dap.journal.buffer-capacity:4096}") int bufferCapacity,
+                                           @Value("${dap.journal.max-record-size:4096}") int maxRecordSize) {
+        return new DecisionJournal(Path.of(directory), segmentSizeMb * BYTES_PER_MEGABYTE, bufferCapacity,
+                maxRecordSize, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dapprototype.config;
+
+import com.example.dapprototype.controller.LoadSheddingFilter;
+import com.example.dapprototype.service.ConcurrencyLimiter;
+import com.example.dapprototype.service.DAResponseWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts the adaptive {@link ConcurrencyLimiter} in front of the servlet scoring endpoint.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "dap.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${dap.load-shedding.initial-limit:50}") int initialLimit,
+                                                 @Value("${dap.load-shedding.min-limit:8}") int minLimit,
+                                                 @Value("${dap.load-shedding.max-limit:500}") int maxLimit,
+                                                 @Value("${dap.load-shedding.window-size:100}") int windowSize,
+                                                 @Value("${dap.load-shedding.rtt-tolerance:1.5}") double tolerance,
+                                                 @Value("${dap.load-shedding.smoothing:0.2}") double smoothing) {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, windowSize, tolerance, smoothing,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(ConcurrencyLimiter concurrencyLimiter,
+                                                                         DAResponseWriter responseWriter,
+                                                                         @Value("${dap.load-shedding.retry-after-seconds:1}") long retryAfterSeconds) {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+                new LoadSheddingFilter(concurrencyLimiter, responseWriter, retryAfterSeconds));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
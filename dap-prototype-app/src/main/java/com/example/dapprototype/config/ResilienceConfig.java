@@ -0,0 +1,47 @@
+package com.example.dapprototype.config;
+
+import com.example.dapprototype.service.PipelineResilience;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounds every request with a deadline and guards the pipeline's dependencies with circuit
+ * breakers; see {@link PipelineResilience}.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public PipelineResilience pipelineResilience(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${dap.deadline.enabled:true}") boolean deadlinesEnabled,
+            @Value("${dap.deadline.default-ms:1000}") long defaultMs,
+            @Value("${dap.deadline.max-ms:5000}") long maxMs,
+            @Value("${dap.deadline.customer-lookup.min-budget-ms:5}") long customerLookupMinBudgetMs,
+            @Value("${dap.deadline.rules.min-budget-ms:1}") long rulesMinBudgetMs,
+            @Value("${dap.deadline.fallback-decision:}") String fallbackDecision,
+            @Value("${dap.circuit-breaker.enabled:true}") boolean breakersEnabled,
+            @Value("${dap.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${dap.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${dap.circuit-breaker.failure-rate-threshold:50}") double failureRatePercent,
+            @Value("${dap.circuit-breaker.slow-call-ms:500}") long slowCallMs,
+            @Value("${dap.circuit-breaker.open-ms:5000}") long openMs,
+            @Value("${dap.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        PipelineResilience.DeadlineSettings deadlines = deadlinesEnabled
+                ? new PipelineResilience.DeadlineSettings(Duration.ofMillis(defaultMs), Duration.ofMillis(maxMs),
+                        Duration.ofMillis(customerLookupMinBudgetMs), Duration.ofMillis(rulesMinBudgetMs),
+                        fallbackDecision.isBlank() ? null : fallbackDecision)
+                : null;
+        PipelineResilience.BreakerSettings breakers = breakersEnabled
+                ? new PipelineResilience.BreakerSettings(windowSize, minimumCalls, failureRatePercent / 100,
+                        Duration.ofMillis(slowCallMs), Duration.ofMillis(openMs), halfOpenCalls)
+                : null;
+        return new PipelineResilience(deadlines, breakers, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.dapprototype.config;
+
+import com.example.dapprototype.rules.DecisionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Optional layers of the rules engine, switched on in {@code application.properties}.
+ */
+@Configuration
+public class RulesConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "dap.rules.decision-cache.enabled", havingValue = "true")
+    public DecisionCache decisionCache(@Value("${dap.rules.decision-cache.maximum-size:100000}") long maximumSize,
+                                       @Value("${dap.rules.decision-cache.ttl-ms:300000}") long ttlMs) {
+        return new DecisionCache(maximumSize, Duration.ofMillis(ttlMs));
+    }
+}
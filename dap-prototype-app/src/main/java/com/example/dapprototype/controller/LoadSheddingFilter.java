@@ -0,0 +1,63 @@
+package com.example.dapprototype.controller;
+
+import com.example.dapprototype.service.ConcurrencyLimiter;
+import com.example.dapprototype.service.DAResponseWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admits scoring requests through the {@link ConcurrencyLimiter} before they reach
+ * {@link RequestController}.
+ * <p>
+ * A request over the limit gets a 503 with {@link ConcurrencyLimiter#OVERLOADED} and a
+ * {@code Retry-After} header before its body is read. An admitted request is timed from admission
+ * to the written response, and a 5xx response counts as dropped. The NDJSON batch endpoint is not
+ * limited, since one batch request stands for many scoring requests and its round trip is not
+ * comparable to theirs.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimiter limiter;
+    private final DAResponseWriter responseWriter;
+    private final String retryAfterSeconds;
+
+    public LoadSheddingFilter(ConcurrencyLimiter limiter, DAResponseWriter responseWriter, long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.responseWriter = responseWriter;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfterSeconds));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getRequestURI().endsWith("/requests/batch");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            responseWriter.write(ConcurrencyLimiter.OVERLOADED, response.getOutputStream());
+            return;
+        }
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.release(dropped);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.dapprototype.controller;
+
+import com.example.dapprototype.service.IdempotencyCache;
+import com.example.dapprototype.service.JsonBody;
+import com.example.dapprototype.service.ReactiveRequestProcessingService;
+import com.example.dapprototype.service.RequestBufferPool;
+import com.example.dapprototype.service.RequestDeadline;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link RequestController}, active when the application runs as a reactive web
+ * application (the {@code reactive} profile). It serves the same {@code /api/{operation}} contract
+ * with the same responses, without holding a thread per open connection.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestController {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final ReactiveRequestProcessingService reactiveRequestProcessingService;
+    private final IdempotencyCache idempotencyCache;
+    private final int maxRequestSize;
+
+    public ReactiveRequestController(ReactiveRequestProcessingService reactiveRequestProcessingService,
+                                     IdempotencyCache idempotencyCache,
+                                     RequestBufferPool requestBufferPool) {
+        this.reactiveRequestProcessingService = reactiveRequestProcessingService;
+        this.idempotencyCache = idempotencyCache;
+        this.maxRequestSize = requestBufferPool.maxRequestSize();
+    }
+
+    /**
+     * Scores a request through the pipeline of its transaction type. The body's buffers are joined
+     * without blocking, up to the maximum request size, and parsed from their bytes; a missing body
+     * is validated as an empty one and a body over the limit gets a 413 {@code PAYLOAD_TOO_LARGE}
+     * response, as on the servlet stack.
+     * Retries of a request are answered by the {@link IdempotencyCache}, and the request must be
+     * answered within its {@value RequestController#REQUEST_TIMEOUT_HEADER} budget, as on the servlet stack.
+     */
+    @PostMapping("/{operation}")
+    public Mono<ResponseEntity<?>> submitRequest(@PathVariable String operation,
+                                                 @RequestHeader(value = RequestController.TXN_TYPE_HEADER, required = false) String txnType,
+                                                 @RequestHeader(value = RequestController.REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+                                                 @RequestHeader HttpHeaders headers,
+                                                 @RequestBody(required = false) Flux<DataBuffer> rawBody) {
+        RequestDeadline deadline = reactiveRequestProcessingService.requestDeadline(requestTimeout);
+        if (headers.getContentLength() > maxRequestSize) {
+            return Mono.just(payloadTooLarge());
+        }
+        String operationPath = "/" + operation;
+        return DataBufferUtils.join(rawBody != null ? rawBody : Flux.empty(), maxRequestSize)
+                .map(ReactiveRequestController::toJsonBody)
+                .defaultIfEmpty(JsonBody.of(EMPTY_BODY, 0))
+                .flatMap(body -> Mono.fromFuture(() -> idempotencyCache.processAsync(body, operationPath, txnType,
+                        deadline, () -> reactiveRequestProcessingService.validateAndProcessRequest(body, operationPath,
+                                        txnType, deadline)
+                                .<ResponseEntity<?>>map(response -> response)
+                                .toFuture())))
+                .onErrorResume(DataBufferLimitException.class, e -> Mono.just(payloadTooLarge()));
+    }
+
+    private static JsonBody toJsonBody(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return JsonBody.of(bytes, bytes.length);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static ResponseEntity<?> payloadTooLarge() {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(RequestBufferPool.PAYLOAD_TOO_LARGE);
+    }
+}
@@ -1,25 +1,122 @@
 package com.example.dapprototype.controller;
 
 import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.service.BatchProcessingService;
+import com.example.dapprototype.service.DAResponseWriter;
+import com.example.dapprototype.service.IdempotencyCache;
+import com.example.dapprototype.service.RequestBufferPool;
+import com.example.dapprototype.service.RequestDeadline;
 import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.RequestTooLargeException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RequestController {
 
+    public static final String TXN_TYPE_HEADER = "X-Txn-Type";
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final RequestProcessingService requestProcessingService;
+    private final BatchProcessingService batchProcessingService;
+    private final RequestBufferPool requestBufferPool;
+    private final DAResponseWriter responseWriter;
+    private final IdempotencyCache idempotencyCache;
+    private final long batchTimeoutMs;
 
-    public RequestController(RequestProcessingService requestProcessingService) {
+    public RequestController(RequestProcessingService requestProcessingService,
+                             BatchProcessingService batchProcessingService,
+                             RequestBufferPool requestBufferPool,
+                             DAResponseWriter responseWriter,
+                             IdempotencyCache idempotencyCache,
+                             @Value("${dap.batch.timeout-ms:-1}") long batchTimeoutMs) {
         this.requestProcessingService = requestProcessingService;
+        this.batchProcessingService = batchProcessingService;
+        this.requestBufferPool = requestBufferPool;
+        this.responseWriter = responseWriter;
+        this.idempotencyCache = idempotencyCache;
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    /**
+     * Scores a request through the pipeline of its transaction type. The type is chosen by the
+     * {@value #TXN_TYPE_HEADER} header when present, otherwise by the operation path,
+     * e.g. {@code /api/request} for payments.
+     * <p>
+     * The body is read into a pooled buffer and parsed from its bytes, and the DAResponse is written
+     * straight to the servlet output stream, bypassing the String and JSON message converters. A body
+     * over the maximum request size gets a 413 {@code PAYLOAD_TOO_LARGE} response.
+     * Retries of a request, recognised by its activityId, are answered by the {@link IdempotencyCache}.
+     * <p>
+     * The request must be answered within the {@value #REQUEST_TIMEOUT_HEADER} header's milliseconds,
+     * or the configured default budget, counted from its arrival.
+     */
+    @PostMapping("/{operation}")
+    public void submitRequest(@PathVariable String operation,
+                              @RequestHeader(value = TXN_TYPE_HEADER, required = false) String txnType,
+                              @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        RequestDeadline deadline = requestProcessingService.requestDeadline(requestTimeout);
+        String operationPath = "/" + operation;
+        ResponseEntity<?> result;
+        try (RequestBufferPool.PooledBody body = requestBufferPool.read(request.getInputStream(),
+                request.getContentLengthLong())) {
+            result = idempotencyCache.process(body.body(), operationPath, txnType, deadline,
+                    () -> requestProcessingService.validateAndProcessRequest(body.body(), operationPath, txnType,
+                            deadline));
+        } catch (RequestTooLargeException e) {
+            result = ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(RequestBufferPool.PAYLOAD_TOO_LARGE);
+        }
+        if (!(result.getBody() instanceof DAResponse daResponse)) {
+            throw new IllegalStateException("Pipeline returned no DAResponse for " + operation);
+        }
+        response.setStatus(result.getStatusCode().value());
+        result.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        responseWriter.write(daResponse, response.getOutputStream());
     }
 
-    @PostMapping("/request")
-    public ResponseEntity<?> submitRequest(@RequestBody String rawBody) {
-        return requestProcessingService.validateAndProcessRequest(rawBody);
+    /**
+     * Scores a batch of newline-delimited JSON requests and streams back one DAResponse line per
+     * request, in input order. The records are routed like {@code /api/{operation}}: by the
+     * {@value #TXN_TYPE_HEADER} header when present, otherwise by the operation path of
+     * {@code /api/{operation}/batch}, with {@code /api/requests/batch} meaning payments.
+     * Each record must be answered within the {@value #REQUEST_TIMEOUT_HEADER} header's milliseconds,
+     * or the configured default budget, counted from when a worker picks it up.
+     * <p>
+     * The response streams under {@code dap.batch.timeout-ms} instead of the MVC async request
+     * timeout, which would cut a large batch off mid-stream.
+     */
+    @PostMapping(value = {"/requests/batch", "/{operation}/batch"}, consumes = NDJSON_VALUE, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> submitBatch(
+            @PathVariable(required = false) String operation,
+            @RequestHeader(value = TXN_TYPE_HEADER, required = false) String txnType,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            HttpServletRequest request) throws IOException {
+        String operationPath = operation != null ? "/" + operation : RequestProcessingService.DEFAULT_OPERATION_PATH;
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(batchTimeoutMs);
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = output -> batchProcessingService.processBatch(body, output,
+                operationPath, txnType, requestTimeout);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(stream);
     }
 }
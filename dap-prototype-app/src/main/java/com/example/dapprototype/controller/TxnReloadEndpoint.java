@@ -0,0 +1,47 @@
+package com.example.dapprototype.controller;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting and reloading the txn-models class loader generation.
+ * <p>
+ * {@code GET /actuator/txnreload} reports the current generation and
+ * {@code POST /actuator/txnreload} builds, warms and swaps in a new one.
+ */
+@Component
+@Endpoint(id = "txnreload")
+public class TxnReloadEndpoint {
+
+    private final TxnClassLoaderService txnClassLoaderService;
+
+    public TxnReloadEndpoint(TxnClassLoaderService txnClassLoaderService) {
+        this.txnClassLoaderService = txnClassLoaderService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> generations() {
+        return describe(txnClassLoaderService.getCurrentGeneration());
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        return describe(txnClassLoaderService.reload());
+    }
+
+    private Map<String, Object> describe(TxnGeneration generation) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("currentGeneration", generation != null ? generation.getId() : null);
+        result.put("createdAt", generation != null ? generation.getCreatedAt().toString() : null);
+        result.put("liveGenerations", txnClassLoaderService.countLiveGenerations());
+        result.put("unreclaimedGenerations", txnClassLoaderService.countUnreclaimedGenerations());
+        return result;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.dapprototype.customerstore;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds a customer store file for {@link MappedCustomerStore} from a CSV or NDJSON export.
+ * <p>
+ * A {@code .csv} input has a {@code customerId,customerName} row per customer, with an optional
+ * header row and double-quoted fields; any other input is NDJSON with a
+ * {@code {"customerId": ..., "customerName": ...}} object per line. When a customerId appears more
+ * than once, the last row wins.
+ * <p>
+ * The input is read twice: once to size the file, once to write the records and insert them into
+ * the mapped index in place, so memory use does not grow with the number of customers. The file is
+ * written next to the output, forced to disk and moved over the output atomically, so a running
+ * store maps either the old file or the complete new one.
+ */
+public final class CustomerStoreBuilder {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Receives the customers of an input file.
+     */
+    @FunctionalInterface
+    interface CustomerSink {
+        void accept(long line, String customerId, String customerName) throws IOException;
+    }
+
+    /**
+     * The number of rows read from the input and of customers written to the store.
+     */
+    public record BuildSummary(long rows, long customers) {
+    }
+
+    private CustomerStoreBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CustomerStoreBuilder <input.csv|input.ndjson> <output>");
+            System.exit(2);
+        }
+        Path output = Path.of(args[1]);
+        BuildSummary summary = build(Path.of(args[0]), output);
+        System.out.printf("Wrote %d customers from %d rows to %s%n", summary.customers(), summary.rows(),
+                output.toAbsolutePath());
+    }
+
+    /**
+     * Builds a customer store file and atomically replaces the output with it.
+     *
+     * @param input the CSV or NDJSON customers
+     * @param output the customer store file
+     * @return the number of rows read and customers written
+     * @throws IOException if the input cannot be read or the output written
+     * @throws IllegalArgumentException if a row has no customerId or a field is too long
+     */
+    public static BuildSummary build(Path input, Path output) throws IOException {
+        return build(input, output, CustomerStoreFile.CHUNK_SHIFT);
+    }
+
+    static BuildSummary build(Path input, Path output, int chunkShift) throws IOException {
+        long[] rows = new long[1];
+        long[] dataLength = new long[1];
+        read(input, (line, customerId, customerName) -> {
+            rows[0]++;
+            dataLength[0] += recordLength(line, customerId, customerName);
+        });
+        if (dataLength[0] > CustomerStoreFile.MAX_DATA_LENGTH) {
+            throw new IllegalArgumentException(input + " has more customer data than a customer store can address");
+        }
+
+        long slotCount = CustomerStoreFile.slotCount(rows[0]);
+        long indexOffset = CustomerStoreFile.HEADER_SIZE;
+        long dataOffset = indexOffset + slotCount * Long.BYTES;
+        Path parent = output.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(output.getFileName() + ".tmp");
+        long customers;
+        try {
+            try (CustomerStoreFile file = CustomerStoreFile.create(temporary, dataOffset + dataLength[0], chunkShift)) {
+                customers = write(input, file, slotCount, indexOffset, dataOffset);
+                file.putInt(0, CustomerStoreFile.MAGIC);
+                file.putInt(4, CustomerStoreFile.VERSION);
+                file.putAlignedLong(8, customers);
+                file.putAlignedLong(16, slotCount);
+                file.putAlignedLong(24, indexOffset);
+                file.putAlignedLong(32, dataOffset);
+                file.putAlignedLong(40, dataLength[0]);
+                file.putAlignedLong(48, System.currentTimeMillis());
+                file.force();
+            }
+            Files.move(temporary, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new BuildSummary(rows[0], customers);
+    }
+
+    private static long write(Path input, CustomerStoreFile file, long slotCount, long indexOffset, long dataOffset)
+            throws IOException {
+        long[] position = new long[1];
+        long[] customers = new long[1];
+        read(input, (line, customerId, customerName) -> {
+            byte[] id = customerId.getBytes(StandardCharsets.UTF_8);
+            long slotOffset = file.probe(indexOffset, slotCount, dataOffset, id, CustomerStoreFile.hash(id));
+            if (file.getAlignedLong(slotOffset) == 0) {
+                customers[0]++;
+            }
+            long record = dataOffset + position[0];
+            file.putShort(record, id.length);
+            file.put(record + Short.BYTES, id, id.length);
+            long name = record + Short.BYTES + id.length;
+            if (customerName == null) {
+                file.putShort(name, -1);
+                position[0] += Short.BYTES * 2 + id.length;
+            } else {
+                byte[] nameBytes = customerName.getBytes(StandardCharsets.UTF_8);
+                file.putShort(name, nameBytes.length);
+                file.put(name + Short.BYTES, nameBytes, nameBytes.length);
+                position[0] += Short.BYTES * 2 + id.length + nameBytes.length;
+            }
+            // A duplicate customerId points its slot at the latest record
+            file.putAlignedLong(slotOffset, CustomerStoreFile.slot(CustomerStoreFile.tag(CustomerStoreFile.hash(id)),
+                    record - dataOffset));
+        });
+        return customers[0];
+    }
+
+    private static long recordLength(long line, String customerId, String customerName) {
+        if (customerId == null || customerId.isEmpty()) {
+            throw new IllegalArgumentException("Line " + line + " has no customerId");
+        }
+        int idLength = customerId.getBytes(StandardCharsets.UTF_8).length;
+        int nameLength = customerName != null ? customerName.getBytes(StandardCharsets.UTF_8).length : 0;
+        if (idLength > CustomerStoreFile.MAX_FIELD_LENGTH || nameLength > CustomerStoreFile.MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Line " + line + " has a field longer than "
+                    + CustomerStoreFile.MAX_FIELD_LENGTH + " bytes");
+        }
+        return Short.BYTES * 2L + idLength + nameLength;
+    }
+
+    /**
+     * Reads the customers of a CSV or NDJSON file, skipping blank lines and a CSV header row.
+     */
+    static void read(Path input, CustomerSink sink) throws IOException {
+        boolean csv = input.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String text;
+            long line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (csv) {
+                    List<String> fields = csvFields(text);
+                    if (line == 1 && "customerId".equalsIgnoreCase(fields.get(0).trim())) {
+                        continue;
+                    }
+                    sink.accept(line, fields.get(0), fields.size() > 1 ? fields.get(1) : null);
+                } else {
+                    JsonNode customer = OBJECT_MAPPER.readTree(text);
+                    JsonNode customerName = customer.path("customerName");
+                    sink.accept(line, customer.path("customerId").textValue(),
+                            customerName.isNull() || customerName.isMissingNode() ? null : customerName.asText());
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a CSV line, unquoting double-quoted fields in which {@code ""} is a quote.
+     */
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.dapprototype.customerstore;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A customer store file, memory-mapped in chunks so that files beyond the 2 GB limit of a single
+ * mapping are addressed with long offsets.
+ * <p>
+ * The file is a {@value #HEADER_SIZE}-byte header, an open-addressing hash index and the records:
+ * <pre>
+ * header  int magic "DAPC", int version, long record count, long slot count, long index offset,
+ *         long data offset, long data length, long build time (epoch milliseconds), 8 bytes reserved
+ * index   slot count longs, a power of two; 0 is an empty slot, otherwise the high 24 bits are a tag
+ *         from the customerId hash and the low 40 bits the record's offset in the data
+ * data    per record: short customerId length, its UTF-8 bytes, short customerName length (-1 for
+ *         null), its UTF-8 bytes
+ * </pre>
+ * A customerId hashes to the slot of its low hash bits and is found by linear probing until an
+ * empty slot. The tag skips most slots of other IDs without touching the data; the ID bytes of the
+ * record decide. Lookups decode only the record they find, so the store holds no objects on the heap.
+ */
+final class CustomerStoreFile implements AutoCloseable {
+
+    static final int MAGIC = 0x44415043;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int CHUNK_SHIFT = 30;
+    static final long MAX_DATA_LENGTH = 1L << 40;
+    static final int MAX_FIELD_LENGTH = Short.MAX_VALUE;
+    static final double MAX_LOAD_FACTOR = 0.7;
+
+    private static final long OFFSET_MASK = MAX_DATA_LENGTH - 1;
+    private static final int TAG_SHIFT = 40;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long size;
+
+    private CustomerStoreFile(FileChannel channel, MappedByteBuffer[] chunks, int chunkShift, long size) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.size = size;
+    }
+
+    /**
+     * Maps an existing file read-only.
+     */
+    static CustomerStoreFile openReadOnly(Path path, int chunkShift) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return map(channel, FileChannel.MapMode.READ_ONLY, channel.size(), chunkShift);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a file of a given size and maps it for writing.
+     */
+    static CustomerStoreFile create(Path path, long size, int chunkShift) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return map(channel, FileChannel.MapMode.READ_WRITE, size, chunkShift);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static CustomerStoreFile map(FileChannel channel, FileChannel.MapMode mode, long size, int chunkShift)
+            throws IOException {
+        long chunkSize = 1L << chunkShift;
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + chunkSize - 1) >>> chunkShift)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = (long) i << chunkShift;
+            chunks[i] = channel.map(mode, position, Math.min(chunkSize, size - position));
+            chunks[i].order(ByteOrder.BIG_ENDIAN);
+        }
+        return new CustomerStoreFile(channel, chunks, chunkShift, size);
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Reads a long at an offset that is a multiple of 8, which never straddles two chunks.
+     */
+    long getAlignedLong(long offset) {
+        return chunks[(int) (offset >>> chunkShift)].getLong((int) (offset & chunkMask));
+    }
+
+    void putAlignedLong(long offset, long value) {
+        chunks[(int) (offset >>> chunkShift)].putLong((int) (offset & chunkMask), value);
+    }
+
+    int getInt(long offset) {
+        return (getByte(offset) & 0xff) << 24 | (getByte(offset + 1) & 0xff) << 16
+                | (getByte(offset + 2) & 0xff) << 8 | getByte(offset + 3) & 0xff;
+    }
+
+    void putInt(long offset, int value) {
+        putByte(offset, (byte) (value >>> 24));
+        putByte(offset + 1, (byte) (value >>> 16));
+        putByte(offset + 2, (byte) (value >>> 8));
+        putByte(offset + 3, (byte) value);
+    }
+
+    short getShort(long offset) {
+        return (short) ((getByte(offset) & 0xff) << 8 | getByte(offset + 1) & 0xff);
+    }
+
+    void putShort(long offset, int value) {
+        putByte(offset, (byte) (value >>> 8));
+        putByte(offset + 1, (byte) value);
+    }
+
+    byte getByte(long offset) {
+        return chunks[(int) (offset >>> chunkShift)].get((int) (offset & chunkMask));
+    }
+
+    void putByte(long offset, byte value) {
+        chunks[(int) (offset >>> chunkShift)].put((int) (offset & chunkMask), value);
+    }
+
+    /**
+     * Copies bytes out of the file, across chunks if needed.
+     */
+    void get(long offset, byte[] target, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            MappedByteBuffer chunk = chunks[(int) (position >>> chunkShift)];
+            int inChunk = (int) (position & chunkMask);
+            int count = Math.min(length - copied, chunk.limit() - inChunk);
+            chunk.get(inChunk, target, copied, count);
+            copied += count;
+        }
+    }
+
+    /**
+     * Copies bytes into the file, across chunks if needed.
+     */
+    void put(long offset, byte[] source, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            MappedByteBuffer chunk = chunks[(int) (position >>> chunkShift)];
+            int inChunk = (int) (position & chunkMask);
+            int count = Math.min(length - copied, chunk.limit() - inChunk);
+            chunk.put(inChunk, source, copied, count);
+            copied += count;
+        }
+    }
+
+    /**
+     * Compares the bytes at an offset with an array.
+     */
+    boolean equalsAt(long offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (getByte(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @return the string, or null for a length of -1
+     */
+    String getString(long offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        get(offset, bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Probes the index for a customerId, from the slot of its hash until the slot holding it or an
+     * empty slot. The index always has an empty slot, so the probe ends.
+     *
+     * @return the file offset of the slot holding the customerId, or of the empty slot ending the probe
+     */
+    long probe(long indexOffset, long slotCount, long dataOffset, byte[] customerId, long hash) {
+        long mask = slotCount - 1;
+        long tag = tag(hash);
+        for (long index = hash & mask; ; index = (index + 1) & mask) {
+            long slotOffset = indexOffset + index * Long.BYTES;
+            long slot = getAlignedLong(slotOffset);
+            if (slot == 0) {
+                return slotOffset;
+            }
+            if (slotTag(slot) == tag) {
+                long record = dataOffset + slotDataOffset(slot);
+                if (getShort(record) == customerId.length && equalsAt(record + Short.BYTES, customerId)) {
+                    return slotOffset;
+                }
+            }
+        }
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Hashes customerId bytes to 64 bits (FNV-1a, then the MurmurHash3 finalizer), so that both
+     * the low bits choosing the slot and the high bits of the tag are well mixed.
+     */
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Gets the tag of a hash, never 0 so that a used slot is never empty.
+     */
+    static long tag(long hash) {
+        return hash >>> TAG_SHIFT | 0x800000L;
+    }
+
+    static long slot(long tag, long dataOffset) {
+        return tag << TAG_SHIFT | dataOffset;
+    }
+
+    static long slotTag(long slot) {
+        return slot >>> TAG_SHIFT;
+    }
+
+    static long slotDataOffset(long slot) {
+        return slot & OFFSET_MASK;
+    }
+
+    /**
+     * Gets the slot count for a number of records: a power of two keeping the load factor at most
+     * {@value #MAX_LOAD_FACTOR}.
+     */
+    static long slotCount(long records) {
+        long minimum = Math.max(2, (long) Math.ceil(records / MAX_LOAD_FACTOR) + 1);
+        return Long.highestOneBit(minimum - 1) << 1;
+    }
+}
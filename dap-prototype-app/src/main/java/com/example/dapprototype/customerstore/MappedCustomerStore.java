@@ -0,0 +1,240 @@
+package com.example.dapprototype.customerstore;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.service.CustomerLookup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks customers up in a customer store file built by {@link CustomerStoreBuilder}.
+ * <p>
+ * The file is memory-mapped, so the customers live in the page cache rather than on the heap and
+ * a lookup is a hash probe of the mapped index; only the customers found are decoded. Lookups never
+ * block, so {@link #getCustomersAsync(CustomerRequest)} completes on the caller.
+ * <p>
+ * The builder replaces the file with an atomic move. Every {@code refreshInterval} the store checks
+ * whether the file changed and maps the new one; lookups in flight finish on the mapping they
+ * started with, which stays valid until it is garbage collected. A file that fails to load leaves
+ * the current mapping in place.
+ * <p>
+ * Publishes the {@code dap.customer.store.records} gauge and {@code dap.customer.store.reloads}
+ * tagged with the {@code outcome}.
+ */
+public class MappedCustomerStore implements CustomerLookup, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedCustomerStore.class);
+
+    private final Path path;
+    private final int chunkShift;
+    private final Counter reloads;
+    private final Counter failedReloads;
+    private final ScheduledExecutorService refresher;
+    private volatile Mapping mapping;
+
+    /**
+     * Maps a customer store file.
+     *
+     * @param path the customer store file
+     * @param refreshInterval how often to check the file for a new version, or zero to never check
+     * @param registry the registry to publish the store metrics to
+     * @throws UncheckedIOException if the file cannot be read or is not a customer store file
+     */
+    public MappedCustomerStore(Path path, Duration refreshInterval, MeterRegistry registry) {
+        this(path, refreshInterval, registry, CustomerStoreFile.CHUNK_SHIFT);
+    }
+
+    MappedCustomerStore(Path path, Duration refreshInterval, MeterRegistry registry, int chunkShift) {
+        this.path = path;
+        this.chunkShift = chunkShift;
+        try {
+            this.mapping = Mapping.load(path, chunkShift);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load customer store " + path.toAbsolutePath(), e);
+        }
+        logger.info("Mapped {} customers from {}", mapping.recordCount, path.toAbsolutePath());
+        this.reloads = reloads(registry, "success");
+        this.failedReloads = reloads(registry, "failure");
+        Gauge.builder("dap.customer.store.records", this, MappedCustomerStore::recordCount)
+                .description("Customers in the mapped customer store")
+                .register(registry);
+        if (refreshInterval.isZero()) {
+            this.refresher = null;
+        } else {
+            this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "customer-store-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = refreshInterval.toMillis();
+            refresher.scheduleWithFixedDelay(this::refreshIfChanged, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Counter reloads(MeterRegistry registry, String outcome) {
+        return Counter.builder("dap.customer.store.reloads")
+                .description("Customer store files mapped after a change")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest) {
+        Mapping current = mapping;
+        List<String> customerIds = customerRequest.getCustomerIds();
+        List<Customer> customers = new ArrayList<>(customerIds.size());
+        for (String customerId : customerIds) {
+            Customer customer = current.find(customerId);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    @Override
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        return CompletableFuture.completedFuture(getCustomers(customerRequest));
+    }
+
+    /**
+     * Looks up one customer.
+     *
+     * @return the customer, or null if the store does not have it
+     */
+    public Customer getCustomer(String customerId) {
+        return mapping.find(customerId);
+    }
+
+    public long recordCount() {
+        return mapping.recordCount;
+    }
+
+    /**
+     * Maps the file again, whether or not it changed.
+     *
+     * @throws IOException if the file cannot be read or is not a customer store file; the current
+     *                     mapping stays in place
+     */
+    public synchronized void reload() throws IOException {
+        try {
+            mapping = Mapping.load(path, chunkShift);
+        } catch (IOException | RuntimeException e) {
+            failedReloads.increment();
+            throw e;
+        }
+        reloads.increment();
+        logger.info("Reloaded {} customers from {}", mapping.recordCount, path.toAbsolutePath());
+    }
+
+    /**
+     * Reloads the file if it was replaced or modified since it was mapped.
+     */
+    synchronized void refreshIfChanged() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (Objects.equals(attributes.fileKey(), mapping.fileKey)
+                    && attributes.lastModifiedTime().toMillis() == mapping.lastModifiedMillis) {
+                return;
+            }
+            reload();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Keeping the current customer store, {} could not be loaded: {}", path.toAbsolutePath(),
+                    e.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * One mapped version of the file.
+     */
+    private static final class Mapping {
+
+        private final CustomerStoreFile file;
+        private final long recordCount;
+        private final long slotCount;
+        private final long indexOffset;
+        private final long dataOffset;
+        private final Object fileKey;
+        private final long lastModifiedMillis;
+
+        private Mapping(CustomerStoreFile file, long recordCount, long slotCount, long indexOffset, long dataOffset,
+                        Object fileKey, long lastModifiedMillis) {
+            this.file = file;
+            this.recordCount = recordCount;
+            this.slotCount = slotCount;
+            this.indexOffset = indexOffset;
+            this.dataOffset = dataOffset;
+            this.fileKey = fileKey;
+            this.lastModifiedMillis = lastModifiedMillis;
+        }
+
+        static Mapping load(Path path, int chunkShift) throws IOException {
+            // Attributes first: a file replaced after this point is picked up by the next refresh
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            // The mapping stays valid once the channel is closed
+            try (CustomerStoreFile file = CustomerStoreFile.openReadOnly(path, chunkShift)) {
+                if (file.size() < CustomerStoreFile.HEADER_SIZE || file.getInt(0) != CustomerStoreFile.MAGIC) {
+                    throw new IOException(path + " is not a customer store file");
+                }
+                int version = file.getInt(4);
+                if (version != CustomerStoreFile.VERSION) {
+                    throw new IOException(path + " has unsupported customer store version " + version);
+                }
+                long recordCount = file.getAlignedLong(8);
+                long slotCount = file.getAlignedLong(16);
+                long indexOffset = file.getAlignedLong(24);
+                long dataOffset = file.getAlignedLong(32);
+                long dataLength = file.getAlignedLong(40);
+                if (Long.bitCount(slotCount) != 1 || recordCount >= slotCount
+                        || indexOffset != CustomerStoreFile.HEADER_SIZE
+                        || dataOffset != indexOffset + slotCount * Long.BYTES
+                        || dataLength < 0 || dataLength > CustomerStoreFile.MAX_DATA_LENGTH
+                        || file.size() != dataOffset + dataLength) {
+                    throw new IOException(path + " has an inconsistent customer store header");
+                }
+                return new Mapping(file, recordCount, slotCount, indexOffset, dataOffset, attributes.fileKey(),
+                        attributes.lastModifiedTime().toMillis());
+            }
+        }
+
+        Customer find(String customerId) {
+            if (customerId == null) {
+                return null;
+            }
+            byte[] id = customerId.getBytes(StandardCharsets.UTF_8);
+            long slot = file.getAlignedLong(file.probe(indexOffset, slotCount, dataOffset, id,
+                    CustomerStoreFile.hash(id)));
+            if (slot == 0) {
+                return null;
+            }
+            long name = dataOffset + CustomerStoreFile.slotDataOffset(slot) + Short.BYTES + id.length;
+            return new Customer(customerId, file.getString(name + Short.BYTES, file.getShort(name)));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.service.JsonBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every decision to an append-only journal without adding I/O to the request path.
+ * <p>
+ * A request thread encodes its decision as a {@link DecisionRecord} straight into a preallocated
+ * slot of a lock-free {@link RecordRing} and returns; it never blocks and never allocates. A single
+ * writer thread drains the ring in batches into memory-mapped segment files through
+ * {@link JournalSegmentWriter}. When the ring is full, or a record is larger than a slot, the
+ * decision is dropped and counted rather than slowing the request down, so the journal is a
+ * best-effort record under overload.
+ * <p>
+ * Decisions are only recorded once the application is ready, so the startup warm-up is not
+ * journaled. {@link #close()} drains the ring and seals the last segment.
+ * <p>
+ * Publishes {@code dap.journal.records}, {@code dap.journal.dropped} tagged with the {@code reason}
+ * and the {@code dap.journal.backlog} gauge of records waiting for the writer.
+ */
+public class DecisionJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionJournal.class);
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final RecordRing ring;
+    private final RecordRing.RecordHandler writer = this::write;
+    private final Counter records;
+    private final Counter droppedFull;
+    private final Counter droppedTooLarge;
+    private final Counter droppedIoError;
+    private JournalSegmentWriter segmentWriter;
+    private Thread writerThread;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    /**
+     * Creates a decision journal. Nothing is written until {@link #start()}.
+     *
+     * @param directory the directory of the segment files
+     * @param segmentSize the size of a segment file in bytes
+     * @param bufferCapacity the number of records the ring buffer holds, rounded up to a power of two
+     * @param maxRecordSize the largest encoded record in bytes; larger decisions are dropped
+     * @param registry the registry to publish the journal metrics to
+     */
+    public DecisionJournal(Path directory, int segmentSize, int bufferCapacity, int maxRecordSize,
+                           MeterRegistry registry) {
+        if (segmentSize < JournalSegmentWriter.HEADER_SIZE + JournalSegmentWriter.RECORD_HEADER_SIZE
+                + maxRecordSize + Integer.BYTES) {
+            throw new IllegalArgumentException("Journal segment size " + segmentSize
+                    + " cannot hold a record of the maximum record size " + maxRecordSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.ring = new RecordRing(bufferCapacity, maxRecordSize);
+        this.records = Counter.builder("dap.journal.records")
+                .description("Decisions written to the journal")
+                .register(registry);
+        this.droppedFull = dropped(registry, "full");
+        this.droppedTooLarge = dropped(registry, "too_large");
+        this.droppedIoError = dropped(registry, "io_error");
+        Gauge.builder("dap.journal.backlog", ring, RecordRing::backlog)
+                .description("Decisions waiting for the journal writer")
+                .register(registry);
+    }
+
+    private static Counter dropped(MeterRegistry registry, String reason) {
+        return Counter.builder("dap.journal.dropped")
+                .description("Decisions not journaled")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Opens a new segment and starts the writer thread once the application is ready.
+     *
+     * @throws IOException if the segment cannot be created
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        segmentWriter = new JournalSegmentWriter(directory, segmentSize);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "decision-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        accepting = true;
+        logger.info("Decision journal writing to {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Records a decision without blocking.
+     *
+     * @param txnType the transaction type
+     * @param operationPath the operation path the request was received on
+     * @param activityId the activityId of the request
+     * @param body the request body
+     * @param customers the customers the request was assessed with
+     * @param rulesResponse the decision
+     * @param generationId the id of the txn-models generation that made the decision
+     * @return whether the decision was queued for the journal
+     */
+    public boolean record(String txnType, String operationPath, String activityId, JsonBody body,
+                          List<Customer> customers, RulesResponse rulesResponse, long generationId) {
+        if (!accepting) {
+            return false;
+        }
+        long sequence = ring.claim();
+        if (sequence < 0) {
+            droppedFull.increment();
+            return false;
+        }
+        int length = -1;
+        try {
+            length = DecisionRecord.encode(ring.slot(sequence), System.currentTimeMillis(), generationId, txnType,
+                    operationPath, activityId, body, customers, rulesResponse);
+        } finally {
+            ring.publish(sequence, length);
+        }
+        if (length < 0) {
+            droppedTooLarge.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting decisions, writes the queued ones and seals the last segment.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segmentWriter.close();
+        } catch (IOException e) {
+            logger.error("Failed to seal the last decision journal segment", e);
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int taken = ring.poll(writer, BATCH_SIZE);
+            if (taken == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(byte[] payload, int length) {
+        try {
+            if (segmentWriter.append(payload, length)) {
+                records.increment();
+            } else {
+                droppedTooLarge.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            droppedIoError.increment();
+            logger.error("Failed to write a decision to the journal", e);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.dapprototype.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the decisions of a journal written by {@link DecisionJournal}.
+ * <p>
+ * Every record is checked against its CRC32C. A segment is read up to its end marker; a record
+ * that fails its checksum or cannot be decoded is counted as corrupt and ends the reading of its
+ * segment, since the records after it cannot be trusted to be framed correctly. Segments are
+ * mapped read-only, so a journal can be read while the application is still writing to it.
+ */
+public class DecisionJournalReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionJournalReader.class);
+
+    /**
+     * The outcome of reading a journal.
+     *
+     * @param records the decisions read
+     * @param corruptRecords the records that failed their checksum or could not be decoded
+     */
+    public record ReadSummary(long records, long corruptRecords) {
+    }
+
+    private final Path directory;
+
+    public DecisionJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads every decision of the journal in the order it was written.
+     *
+     * @param action receives the decisions
+     * @return the number of decisions read and of corrupt records
+     * @throws IOException if a segment cannot be read
+     */
+    public ReadSummary forEach(Consumer<DecisionRecord> action) throws IOException {
+        long records = 0;
+        long corruptRecords = 0;
+        for (Path segment : segments()) {
+            try (Segment view = Segment.open(segment)) {
+                if (view == null) {
+                    corruptRecords++;
+                    continue;
+                }
+                int offset = JournalSegmentWriter.HEADER_SIZE;
+                while (true) {
+                    int length = view.lengthAt(offset);
+                    if (length == 0) {
+                        break;
+                    }
+                    DecisionRecord record = view.recordAt(offset);
+                    if (record == null) {
+                        corruptRecords++;
+                        break;
+                    }
+                    action.accept(record);
+                    records++;
+                    offset += JournalSegmentWriter.RECORD_HEADER_SIZE + length;
+                }
+            }
+        }
+        return new ReadSummary(records, corruptRecords);
+    }
+
+    /**
+     * Finds the decisions of an activityId, through the index of each sealed segment and by
+     * scanning the segment still being written.
+     *
+     * @param activityId the activityId of the request
+     * @return the decisions, in the order they were written
+     * @throws IOException if a segment cannot be read
+     */
+    public List<DecisionRecord> find(String activityId) throws IOException {
+        int hash = DecisionRecord.activityIdHash(activityId);
+        List<DecisionRecord> found = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (Segment view = Segment.open(segment)) {
+                if (view == null) {
+                    continue;
+                }
+                long[] index = readIndex(JournalSegmentWriter.indexPath(directory,
+                        JournalSegmentWriter.segmentNumber(segment)));
+                List<Integer> offsets = index != null ? indexedOffsets(index, hash) : scannedOffsets(view, hash);
+                for (int offset : offsets) {
+                    DecisionRecord record = view.recordAt(offset);
+                    if (record != null && activityId.equals(record.activityId())) {
+                        found.add(record);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets the segment files of the journal, oldest first.
+     */
+    List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> JournalSegmentWriter.segmentNumber(file) >= 0)
+                    .sorted(Comparator.comparingLong(JournalSegmentWriter::segmentNumber))
+                    .toList();
+        }
+    }
+
+    private static List<Integer> indexedOffsets(long[] index, int hash) {
+        long lowest = JournalSegmentWriter.indexEntry(hash, 0);
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (index[middle] < lowest) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = low; i < index.length && (int) (index[i] >> 32) == hash; i++) {
+            offsets.add((int) index[i]);
+        }
+        offsets.sort(null);
+        return offsets;
+    }
+
+    private static List<Integer> scannedOffsets(Segment view, int hash) {
+        List<Integer> offsets = new ArrayList<>();
+        int offset = JournalSegmentWriter.HEADER_SIZE;
+        int length;
+        while ((length = view.lengthAt(offset)) > 0) {
+            byte[] payload = view.payloadAt(offset);
+            if (payload == null) {
+                break;
+            }
+            if (DecisionRecord.activityIdHash(payload) == hash) {
+                offsets.add(offset);
+            }
+            offset += JournalSegmentWriter.RECORD_HEADER_SIZE + length;
+        }
+        return offsets;
+    }
+
+    /**
+     * Reads the entries of an index file.
+     *
+     * @return the sorted entries, or null if the segment has no index or it is corrupt
+     */
+    private static long[] readIndex(Path indexPath) throws IOException {
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        try {
+            if (bytes.getInt() != JournalSegmentWriter.INDEX_MAGIC) {
+                logger.warn("Ignoring journal index {} with an unknown format", indexPath);
+                return null;
+            }
+            long[] entries = new long[bytes.getInt()];
+            int entriesStart = bytes.position();
+            bytes.asLongBuffer().get(entries);
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.array(), entriesStart, entries.length * Long.BYTES);
+            if (bytes.getInt(entriesStart + entries.length * Long.BYTES) != (int) crc.getValue()) {
+                logger.warn("Ignoring journal index {} that fails its checksum", indexPath);
+                return null;
+            }
+            return entries;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            logger.warn("Ignoring truncated journal index {}", indexPath);
+            return null;
+        }
+    }
+
+    /**
+     * A segment file mapped read-only.
+     */
+    private static final class Segment implements AutoCloseable {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final CRC32C crc = new CRC32C();
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps a segment file.
+         *
+         * @return the segment, or null if the file is not a journal segment
+         */
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < JournalSegmentWriter.HEADER_SIZE
+                    || buffer.getInt(0) != JournalSegmentWriter.SEGMENT_MAGIC
+                    || buffer.getInt(Integer.BYTES) != JournalSegmentWriter.FORMAT_VERSION) {
+                logger.warn("Skipping {}, which is not a decision journal segment of a known format", path);
+                channel.close();
+                return null;
+            }
+            return new Segment(path, channel, buffer);
+        }
+
+        /**
+         * Gets the payload length of the record at an offset, 0 at the end of the segment.
+         */
+        int lengthAt(int offset) {
+            return offset + Integer.BYTES <= buffer.limit() ? buffer.getInt(offset) : 0;
+        }
+
+        /**
+         * Gets the payload of the record at an offset.
+         *
+         * @return the payload, or null if it is out of bounds or fails its checksum
+         */
+        byte[] payloadAt(int offset) {
+            int length = lengthAt(offset);
+            int payloadOffset = offset + JournalSegmentWriter.RECORD_HEADER_SIZE;
+            if (length <= 0 || payloadOffset + length > buffer.limit() || payloadOffset + length < 0) {
+                logger.warn("Corrupt record length at offset {} of {}", offset, path);
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payloadOffset, payload);
+            crc.reset();
+            crc.update(payload);
+            if (buffer.getInt(offset + Integer.BYTES) != (int) crc.getValue()) {
+                logger.warn("Record at offset {} of {} fails its checksum", offset, path);
+                return null;
+            }
+            return payload;
+        }
+
+        /**
+         * Decodes the record at an offset.
+         *
+         * @return the decision, or null if the record is corrupt
+         */
+        DecisionRecord recordAt(int offset) {
+            byte[] payload = payloadAt(offset);
+            if (payload == null) {
+                return null;
+            }
+            try {
+                return DecisionRecord.decode(payload);
+            } catch (IllegalArgumentException | BufferUnderflowException | IndexOutOfBoundsException e) {
+                logger.warn("Record at offset {} of {} cannot be decoded: {}", offset, path, e.toString());
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.service.JsonBody;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One journaled decision: the request as received, the customers it was assessed with and the
+ * rules response.
+ * <p>
+ * The binary payload, big-endian:
+ * <pre>
+ * byte   format version
+ * long   decision time, epoch milliseconds
+ * long   txn-models generation id
+ * string txn type
+ * string operation path
+ * string activityId
+ * int    request body length, then the UTF-8 JSON body
+ * short  customer count, then per customer: string id, string name
+ * string decision
+ * short  fired rule count, then per rule: string id
+ * </pre>
+ * A string is a signed short byte length, -1 for null, followed by its UTF-8 bytes. Payloads are
+ * encoded straight into the journal's ring buffer slots, without intermediate objects.
+ *
+ * @param timestampMillis when the decision was made
+ * @param generationId the txn-models generation that made it
+ * @param txnType the transaction type
+ * @param operationPath the operation path the request was received on
+ * @param activityId the activityId of the request
+ * @param requestBody the UTF-8 JSON request body
+ * @param customers the customers the request was assessed with
+ * @param rulesResponse the decision
+ */
+public record DecisionRecord(long timestampMillis, long generationId, String txnType, String operationPath,
+                             String activityId, byte[] requestBody, List<Customer> customers,
+                             RulesResponse rulesResponse) {
+
+    static final byte FORMAT_VERSION = 1;
+    private static final int ACTIVITY_ID_SKIP = 1 + Long.BYTES + Long.BYTES;
+
+    /**
+     * Encodes a decision into a buffer.
+     *
+     * @return the payload length, or -1 if it does not fit into the buffer
+     */
+    static int encode(byte[] target, long timestampMillis, long generationId, String txnType, String operationPath,
+                      String activityId, JsonBody body, List<Customer> customers, RulesResponse rulesResponse) {
+        if (target.length < ACTIVITY_ID_SKIP) {
+            return -1;
+        }
+        target[0] = FORMAT_VERSION;
+        int position = putLong(target, 1, timestampMillis);
+        position = putLong(target, position, generationId);
+        position = putString(target, position, txnType);
+        position = putString(target, position, operationPath);
+        position = putString(target, position, activityId);
+        if (position < 0 || position + Integer.BYTES > target.length) {
+            return -1;
+        }
+        int bodyLength = body.copyTo(target, position + Integer.BYTES);
+        if (bodyLength < 0) {
+            return -1;
+        }
+        position = putInt(target, position, bodyLength) + bodyLength;
+        position = putShort(target, position, customers.size());
+        for (int i = 0; i < customers.size() && position >= 0; i++) {
+            position = putString(target, position, customers.get(i).getCustomerId());
+            position = putString(target, position, customers.get(i).getCustomerName());
+        }
+        List<String> firedRuleIds = rulesResponse.getFiredRuleIds() != null ? rulesResponse.getFiredRuleIds() : List.of();
+        position = putString(target, position, rulesResponse.getDecision());
+        position = putShort(target, position, firedRuleIds.size());
+        for (int i = 0; i < firedRuleIds.size() && position >= 0; i++) {
+            position = putString(target, position, firedRuleIds.get(i));
+        }
+        return position;
+    }
+
+    /**
+     * Decodes a payload.
+     *
+     * @param bytes the payload
+     * @return the decision
+     * @throws IllegalArgumentException if the payload has an unknown format version
+     * @throws java.nio.BufferUnderflowException if the payload is truncated
+     */
+    static DecisionRecord decode(byte[] bytes) {
+        ByteBuffer payload = ByteBuffer.wrap(bytes);
+        byte version = payload.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown decision record format version " + version);
+        }
+        long timestampMillis = payload.getLong();
+        long generationId = payload.getLong();
+        String txnType = getString(payload);
+        String operationPath = getString(payload);
+        String activityId = getString(payload);
+        byte[] requestBody = new byte[payload.getInt()];
+        payload.get(requestBody);
+        int customerCount = payload.getShort();
+        List<Customer> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(new Customer(getString(payload), getString(payload)));
+        }
+        String decision = getString(payload);
+        int firedCount = payload.getShort();
+        List<String> firedRuleIds = new ArrayList<>(firedCount);
+        for (int i = 0; i < firedCount; i++) {
+            firedRuleIds.add(getString(payload));
+        }
+        return new DecisionRecord(timestampMillis, generationId, txnType, operationPath, activityId, requestBody,
+                List.copyOf(customers), new RulesResponse(decision, List.copyOf(firedRuleIds)));
+    }
+
+    /**
+     * Hashes the activityId of an encoded payload, as {@link #activityIdHash(String)} does, without
+     * decoding it.
+     */
+    static int activityIdHash(byte[] payload) {
+        int position = ACTIVITY_ID_SKIP;
+        position += Short.BYTES + Math.max(0, getShort(payload, position));
+        position += Short.BYTES + Math.max(0, getShort(payload, position));
+        return hash(payload, position + Short.BYTES, Math.max(0, getShort(payload, position)));
+    }
+
+    static int activityIdHash(String activityId) {
+        byte[] bytes = activityId.getBytes(StandardCharsets.UTF_8);
+        return hash(bytes, 0, bytes.length);
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ (bytes[i] & 0xff)) * 0x01000193;
+        }
+        return hash;
+    }
+
+    private static int putLong(byte[] target, int position, long value) {
+        for (int i = 7; i >= 0; i--) {
+            target[position++] = (byte) (value >>> (i * 8));
+        }
+        return position;
+    }
+
+    private static int putInt(byte[] target, int position, int value) {
+        target[position] = (byte) (value >>> 24);
+        target[position + 1] = (byte) (value >>> 16);
+        target[position + 2] = (byte) (value >>> 8);
+        target[position + 3] = (byte) value;
+        return position + Integer.BYTES;
+    }
+
+    private static int putShort(byte[] target, int position, int value) {
+        if (position < 0 || position + Short.BYTES > target.length || value < -1 || value > Short.MAX_VALUE) {
+            return -1;
+        }
+        target[position] = (byte) (value >>> 8);
+        target[position + 1] = (byte) value;
+        return position + Short.BYTES;
+    }
+
+    private static int getShort(byte[] payload, int position) {
+        return (short) ((payload[position] & 0xff) << 8 | payload[position + 1] & 0xff);
+    }
+
+    /**
+     * Encodes a string as UTF-8 behind its length, without allocating.
+     *
+     * @return the position after the string, or -1 if it does not fit
+     */
+    private static int putString(byte[] target, int position, String value) {
+        if (value == null) {
+            return putShort(target, position, -1);
+        }
+        if (position < 0 || position + Short.BYTES > target.length) {
+            return -1;
+        }
+        int start = position + Short.BYTES;
+        int end = start;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (end + 4 > target.length) {
+                return -1;
+            }
+            if (c < 0x80) {
+                target[end++] = (byte) c;
+            } else if (c < 0x800) {
+                target[end++] = (byte) (0xc0 | c >> 6);
+                target[end++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target[end++] = (byte) (0xf0 | codePoint >> 18);
+                target[end++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                target[end++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                target[end++] = (byte) (0x80 | codePoint & 0x3f);
+            } else {
+                target[end++] = (byte) (0xe0 | c >> 12);
+                target[end++] = (byte) (0x80 | c >> 6 & 0x3f);
+                target[end++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        if (end - start > Short.MAX_VALUE) {
+            return -1;
+        }
+        putShort(target, position, end - start);
+        return end;
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.DapPrototypeApplication;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.StreamingRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a decision journal through the current txn-models and rule sets and reports the
+ * decisions that changed.
+ * <p>
+ * Starts the application without a web server, warm-up, journal or txn-models watcher, so it
+ * picks up the same {@code txn.classloader.paths} and {@code dap.rules.location} as a deployment
+ * given the same arguments. Options, as {@code --name=value} arguments:
+ * <ul>
+ *   <li>{@code dap.replay.journal}: the journal directory, {@code journal} by default</li>
+ *   <li>{@code dap.replay.activity-id}: replay only the decisions of this activityId</li>
+ *   <li>{@code dap.replay.output}: a file to write every changed or failed decision to, as NDJSON</li>
+ * </ul>
+ * Exits with 1 when any decision changed or failed to replay.
+ */
+public final class DecisionReplayTool {
+
+    private DecisionReplayTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int exitCode;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DapPrototypeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("dap.warmup.enabled=false", "dap.journal.enabled=false",
+                        "txn.classloader.watch.enabled=false")
+                .run(args)) {
+            DecisionReplayer replayer = new DecisionReplayer(context.getBean(OpenApiRequestValidator.class),
+                    context.getBean(StreamingRequestValidator.class), context.getBean(TxnClassLoaderService.class),
+                    context.getBean(RulesEngine.class));
+            exitCode = run(replayer, context.getEnvironment(), context.getBean(ObjectMapper.class), System.out);
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Replays the journal selected by the {@code dap.replay.*} properties and prints a summary.
+     *
+     * @return the exit code, 1 if any decision changed or failed to replay
+     */
+    static int run(DecisionReplayer replayer, Environment environment, ObjectMapper objectMapper, PrintStream out)
+            throws IOException {
+        Path journal = Path.of(environment.getProperty("dap.replay.journal", "journal"));
+        String activityId = environment.getProperty("dap.replay.activity-id");
+        String output = environment.getProperty("dap.replay.output");
+
+        Map<DecisionReplayer.Outcome, Long> outcomes = new EnumMap<>(DecisionReplayer.Outcome.class);
+        DecisionJournalReader reader = new DecisionJournalReader(journal);
+        try (Writer diffs = output != null ? Files.newBufferedWriter(Path.of(output)) : Writer.nullWriter()) {
+            DecisionJournalReader.ReadSummary summary;
+            if (activityId != null) {
+                List<DecisionRecord> records = reader.find(activityId);
+                records.forEach(record -> replay(replayer, record, outcomes, diffs, objectMapper));
+                summary = new DecisionJournalReader.ReadSummary(records.size(), 0);
+            } else {
+                summary = reader.forEach(record -> replay(replayer, record, outcomes, diffs, objectMapper));
+            }
+            out.printf("Replayed %d decisions from %s%n", summary.records(), journal.toAbsolutePath());
+            for (DecisionReplayer.Outcome outcome : DecisionReplayer.Outcome.values()) {
+                out.printf("  %-20s %d%n", outcome, outcomes.getOrDefault(outcome, 0L));
+            }
+            if (summary.corruptRecords() > 0) {
+                out.printf("  %-20s %d%n", "CORRUPT_RECORDS", summary.corruptRecords());
+            }
+        }
+        if (output != null) {
+            out.println("Changed and failed decisions written to " + output);
+        }
+        return outcomes.keySet().stream().anyMatch(outcome -> outcome != DecisionReplayer.Outcome.UNCHANGED) ? 1 : 0;
+    }
+
+    private static void replay(DecisionReplayer replayer, DecisionRecord record,
+                               Map<DecisionReplayer.Outcome, Long> outcomes, Writer diffs, ObjectMapper objectMapper) {
+        DecisionReplayer.ReplayResult result = replayer.replay(record);
+        outcomes.merge(result.outcome(), 1L, Long::sum);
+        if (result.outcome() == DecisionReplayer.Outcome.UNCHANGED) {
+            return;
+        }
+        ObjectNode diff = objectMapper.createObjectNode()
+                .put("activityId", record.activityId())
+                .put("txnType", record.txnType())
+                .put("timestamp", record.timestampMillis())
+                .put("generationId", record.generationId())
+                .put("outcome", result.outcome().name());
+        diff.set("journaled", objectMapper.valueToTree(record.rulesResponse()));
+        diff.set("replayed", objectMapper.valueToTree(result.replayed()));
+        if (result.error() != null) {
+            diff.put("error", result.error());
+        }
+        try {
+            diffs.write(objectMapper.writeValueAsString(diff));
+            diffs.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.CustomerLookup;
+import com.example.dapprototype.service.JsonBody;
+import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.PipelineMetrics;
+import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.StreamingRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Re-runs journaled decisions through the current pipeline and compares the outcome.
+ * <p>
+ * Each record is validated, bound, assembled and evaluated by the current txn-models generation and
+ * rule sets, exactly as a live request, except that the customers are the journaled ones instead
+ * of a lookup, so a changed decision is due to the rules or models and not to changed customer data.
+ */
+public class DecisionReplayer {
+
+    /**
+     * How a replayed decision compares to the journaled one.
+     */
+    public enum Outcome {
+        UNCHANGED,
+        DECISION_CHANGED,
+        FIRED_RULES_CHANGED,
+        FAILED
+    }
+
+    /**
+     * The replay of one journaled decision.
+     *
+     * @param record the journaled decision
+     * @param outcome how the replayed decision compares to it
+     * @param replayed the replayed decision, or null if the replay failed
+     * @param error the response code of a failed replay
+     */
+    public record ReplayResult(DecisionRecord record, Outcome outcome, RulesResponse replayed, String error) {
+    }
+
+    private final OpenApiRequestValidator openApiRequestValidator;
+    private final StreamingRequestValidator streamingRequestValidator;
+    private final TxnClassLoaderService txnClassLoaderService;
+    private final RulesEngine rulesEngine;
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry(), false, false);
+
+    public DecisionReplayer(OpenApiRequestValidator openApiRequestValidator,
+                            StreamingRequestValidator streamingRequestValidator,
+                            TxnClassLoaderService txnClassLoaderService,
+                            RulesEngine rulesEngine) {
+        this.openApiRequestValidator = openApiRequestValidator;
+        this.streamingRequestValidator = streamingRequestValidator;
+        this.txnClassLoaderService = txnClassLoaderService;
+        this.rulesEngine = rulesEngine;
+    }
+
+    /**
+     * Replays a journaled decision.
+     *
+     * @param record the journaled decision
+     * @return the replayed decision and how it compares to the journaled one
+     */
+    public ReplayResult replay(DecisionRecord record) {
+        RequestProcessingService pipeline = new RequestProcessingService(openApiRequestValidator,
+                streamingRequestValidator, txnClassLoaderService, new JournaledCustomers(record.customers()),
+                rulesEngine, pipelineMetrics);
+        ResponseEntity<?> response = pipeline.validateAndProcessRequest(
+                JsonBody.of(record.requestBody(), record.requestBody().length), record.operationPath(), record.txnType());
+        if (!response.getStatusCode().is2xxSuccessful()
+                || !(response.getBody() instanceof DAResponse daResponse)
+                || daResponse.getRulesResponse() == null) {
+            String error = response.getBody() instanceof DAResponse daResponse
+                    ? daResponse.getCode()
+                    : "HTTP_" + response.getStatusCode().value();
+            return new ReplayResult(record, Outcome.FAILED, null, error);
+        }
+        RulesResponse replayed = daResponse.getRulesResponse();
+        return new ReplayResult(record, compare(record.rulesResponse(), replayed), replayed, null);
+    }
+
+    static Outcome compare(RulesResponse journaled, RulesResponse replayed) {
+        if (!Objects.equals(journaled.getDecision(), replayed.getDecision())) {
+            return Outcome.DECISION_CHANGED;
+        }
+        List<String> replayedRuleIds = replayed.getFiredRuleIds() != null ? replayed.getFiredRuleIds() : List.of();
+        return journaled.getFiredRuleIds().equals(replayedRuleIds) ? Outcome.UNCHANGED : Outcome.FIRED_RULES_CHANGED;
+    }
+
+    /**
+     * Answers customer lookups with the customers journaled with the decision.
+     */
+    private static final class JournaledCustomers implements CustomerLookup {
+
+        private final Map<String, Customer> customers = new HashMap<>();
+
+        JournaledCustomers(List<Customer> customers) {
+            for (Customer customer : customers) {
+                this.customers.put(customer.getCustomerId(), customer);
+            }
+        }
+
+        @Override
+        public List<Customer> getCustomers(CustomerRequest customerRequest) {
+            List<Customer> found = new ArrayList<>(customerRequest.getCustomerIds().size());
+            for (String customerId : customerRequest.getCustomerIds()) {
+                Customer customer = customers.get(customerId);
+                if (customer != null) {
+                    found.add(customer);
+                }
+            }
+            return found;
+        }
+    }
+}
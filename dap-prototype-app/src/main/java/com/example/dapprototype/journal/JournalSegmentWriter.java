@@ -0,0 +1,167 @@
+package com.example.dapprototype.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends records to memory-mapped journal segments, rotating to a new segment when one is full.
+ * Used by the journal's writer thread only.
+ * <p>
+ * A segment file is a {@value #HEADER_SIZE}-byte header, the magic {@code DAPJ}, the format version
+ * and the segment number, followed by records of an int payload length, the CRC32C of the payload
+ * and the payload. The payload and its checksum are written before the length, so a reader sees
+ * either a whole record or a zero length, which ends the segment. When a segment is sealed, its
+ * pages are forced to disk and its activityId index is written next to it: the magic {@code DAPI},
+ * the entry count, the sorted entries of the activityId hash in the high and the record offset in
+ * the low 32 bits, and the CRC32C of the entries.
+ */
+final class JournalSegmentWriter implements AutoCloseable {
+
+    static final int SEGMENT_MAGIC = 0x4441504a;
+    static final int INDEX_MAGIC = 0x44415049;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String INDEX_SUFFIX = ".idx";
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32C crc = new CRC32C();
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long[] index = new long[1024];
+    private int indexSize;
+
+    /**
+     * Opens a new segment numbered after the last one in the directory.
+     *
+     * @param directory the journal directory, created if missing
+     * @param segmentSize the size of a segment file in bytes
+     * @throws IOException if the segment cannot be created
+     */
+    JournalSegmentWriter(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.segmentNumber = lastSegmentNumber(directory);
+        openNextSegment();
+    }
+
+    /**
+     * Appends a record, rotating first if it does not fit into the current segment.
+     *
+     * @return false if the record does not even fit into an empty segment
+     * @throws IOException if a new segment cannot be created
+     */
+    boolean append(byte[] payload, int length) throws IOException {
+        if (HEADER_SIZE + RECORD_HEADER_SIZE + length + Integer.BYTES > segmentSize) {
+            return false;
+        }
+        // Keep room for the zero length that ends the segment
+        if (buffer.remaining() < RECORD_HEADER_SIZE + length + Integer.BYTES) {
+            sealSegment();
+            openNextSegment();
+        }
+        int offset = buffer.position();
+        crc.reset();
+        crc.update(payload, 0, length);
+        buffer.put(offset + RECORD_HEADER_SIZE, payload, 0, length);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(offset, length);
+        buffer.position(offset + RECORD_HEADER_SIZE + length);
+        addIndexEntry(DecisionRecord.activityIdHash(payload), offset);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sealSegment();
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        channel = FileChannel.open(segmentPath(directory, segmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION).putLong(segmentNumber);
+        indexSize = 0;
+    }
+
+    private void sealSegment() throws IOException {
+        buffer.force();
+        channel.close();
+        channel = null;
+        buffer = null;
+        writeIndex();
+    }
+
+    private void writeIndex() throws IOException {
+        long[] entries = Arrays.copyOf(index, indexSize);
+        Arrays.sort(entries);
+        ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES * 3 + entries.length * Long.BYTES);
+        bytes.putInt(INDEX_MAGIC).putInt(entries.length);
+        for (long entry : entries) {
+            bytes.putLong(entry);
+        }
+        crc.reset();
+        crc.update(bytes.array(), Integer.BYTES * 2, entries.length * Long.BYTES);
+        bytes.putInt((int) crc.getValue());
+        Path indexPath = indexPath(directory, segmentNumber);
+        Path temporary = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        Files.write(temporary, bytes.array());
+        Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void addIndexEntry(int activityIdHash, int offset) {
+        if (indexSize == index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[indexSize++] = indexEntry(activityIdHash, offset);
+    }
+
+    static long indexEntry(int activityIdHash, int offset) {
+        return (long) activityIdHash << 32 | offset & 0xffffffffL;
+    }
+
+    static Path segmentPath(Path directory, long segmentNumber) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+    }
+
+    static Path indexPath(Path directory, long segmentNumber) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentNumber, INDEX_SUFFIX));
+    }
+
+    /**
+     * Gets the number of a segment file, or -1 if the file is not a segment.
+     */
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long lastSegmentNumber(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.mapToLong(JournalSegmentWriter::segmentNumber).max().orElse(0);
+        }
+    }
+}
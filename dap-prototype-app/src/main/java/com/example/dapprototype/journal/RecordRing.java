@@ -0,0 +1,117 @@
+package com.example.dapprototype.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free ring of preallocated byte slots with many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number. A producer claims the slot of the tail sequence with a
+ * compare-and-set when the slot's sequence equals it, fills the slot and publishes it by setting
+ * the sequence one past; the consumer takes slots in order once published and hands them back by
+ * advancing the sequence a lap. Producers never wait: when the ring is full, {@link #claim()}
+ * fails and the caller drops the record.
+ */
+final class RecordRing {
+
+    /**
+     * Receives the published records of a slot.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void onRecord(byte[] payload, int length);
+    }
+
+    private final byte[][] slots;
+    private final int[] lengths;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     * @param slotSize the largest payload a slot holds
+     */
+    RecordRing(int capacity, int slotSize) {
+        int slotCount = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new byte[slotCount][slotSize];
+        this.lengths = new int[slotCount];
+        this.sequences = new AtomicLongArray(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * Claims the next slot.
+     *
+     * @return the sequence of the claimed slot, or -1 if the ring is full
+     */
+    long claim() {
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.getAcquire((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Gets the buffer of a claimed slot to write the payload to.
+     */
+    byte[] slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Publishes a claimed slot to the consumer. Every claimed slot must be published.
+     *
+     * @param length the payload length, or -1 to have the consumer skip the slot
+     */
+    void publish(long sequence, int length) {
+        int index = (int) sequence & mask;
+        lengths[index] = length;
+        sequences.setRelease(index, sequence + 1);
+    }
+
+    /**
+     * Hands the published records to a handler in order. Only one thread may poll.
+     *
+     * @param handler receives the records, whose payload is only valid during the call
+     * @param limit the most records to take
+     * @return the number of slots taken, including skipped ones
+     */
+    int poll(RecordHandler handler, int limit) {
+        int taken = 0;
+        while (taken < limit) {
+            int index = (int) head & mask;
+            if (sequences.getAcquire(index) != head + 1) {
+                break;
+            }
+            if (lengths[index] >= 0) {
+                handler.onRecord(slots[index], lengths[index]);
+            }
+            sequences.setRelease(index, head + slots.length);
+            head++;
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * Gets the number of claimed slots the consumer has not taken yet.
+     */
+    int backlog() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
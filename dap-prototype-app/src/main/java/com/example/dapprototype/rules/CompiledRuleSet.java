@@ -0,0 +1,318 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.FieldFeatures.Projection;
+import com.example.dapprototype.rules.RuleSetDefinition.ConditionDefinition;
+import com.example.dapprototype.rules.RuleSetDefinition.RuleDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A rule set compiled against one assessment data class into a discrimination network.
+ * <p>
+ * Rules are sorted by descending priority and numbered in that order. Every distinct property path
+ * gets one generated accessor and every distinct condition one shared node, so a field is read and a
+ * predicate such as "payer is absent" is tested at most once per evaluation however many rules
+ * share it. A rule with an {@code eq} or {@code in} condition on literal text is indexed under those
+ * values of the field: evaluation reads each indexed field once, looks its value up, and only the
+ * rules found there plus the rules without such a condition become candidates. Candidates are then
+ * checked in priority order against their remaining conditions: every rule whose conditions all
+ * hold fires, the first fired rule with a decision decides, and a firing rule marked {@code stop}
+ * ends the walk.
+ * <p>
+ * Every field is also assigned the {@link Projection} its conditions depend on, from which
+ * {@link #fingerprint(Object)} builds the canonical rule inputs of a decision.
+ */
+public final class CompiledRuleSet {
+
+    private static final int[] NO_RULES = new int[0];
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    private final long id = ID_SEQUENCE.incrementAndGet();
+    private final String txnType;
+    private final String defaultDecision;
+    private final MethodHandle[] accessors;
+    private final Projection[] projections;
+    private final RuleCondition[] conditions;
+    private final CompiledRule[] rules;
+    private final FieldIndex[] indexes;
+    private final long[] unindexedRules;
+
+    private CompiledRuleSet(String txnType, String defaultDecision, MethodHandle[] accessors,
+                            Projection[] projections, RuleCondition[] conditions, CompiledRule[] rules,
+                            FieldIndex[] indexes, long[] unindexedRules) {
+        this.txnType = txnType;
+        this.defaultDecision = defaultDecision;
+        this.accessors = accessors;
+        this.projections = projections;
+        this.conditions = conditions;
+        this.rules = rules;
+        this.indexes = indexes;
+        this.unindexedRules = unindexedRules;
+    }
+
+    /**
+     * Compiles a rule set against an assessment data class.
+     *
+     * @param definition the rule set definition
+     * @param assessmentDataClass the class of the objects the rules are evaluated on
+     * @param fallbackDecision the decision when neither a rule nor the rule set provides one
+     * @return the compiled rule set
+     * @throws RuleCompilationException if a rule is invalid or reads a property the class does not have
+     */
+    public static CompiledRuleSet compile(RuleSetDefinition definition, Class<?> assessmentDataClass,
+                                          String fallbackDecision) {
+        List<RuleDefinition> definitions = new ArrayList<>(definition.rules() != null ? definition.rules() : List.of());
+        // List.sort is stable, so rules of equal priority keep their file order
+        definitions.sort(Comparator.comparingInt(RuleDefinition::priority).reversed());
+
+        Map<String, Integer> slots = new HashMap<>();
+        List<MethodHandle> accessors = new ArrayList<>();
+        List<Projection> projections = new ArrayList<>();
+        Map<ConditionDefinition, Integer> conditionIds = new HashMap<>();
+        List<RuleCondition> conditions = new ArrayList<>();
+        Map<Integer, Map<String, List<Integer>>> indexedValues = new HashMap<>();
+        long[] unindexedRules = new long[(definitions.size() + Long.SIZE - 1) / Long.SIZE];
+        Set<String> ids = new HashSet<>();
+        CompiledRule[] rules = new CompiledRule[definitions.size()];
+        for (int r = 0; r < rules.length; r++) {
+            RuleDefinition rule = definitions.get(r);
+            if (rule.id() == null || !ids.add(rule.id())) {
+                throw new RuleCompilationException("Rule ids of " + definition.txnType()
+                        + " must be present and unique: " + rule.id());
+            }
+            List<ConditionDefinition> when = rule.when() != null ? rule.when() : List.of();
+            int indexCondition = indexCondition(when);
+            int[] remaining = new int[indexCondition >= 0 ? when.size() - 1 : when.size()];
+            int next = 0;
+            for (int c = 0; c < when.size(); c++) {
+                ConditionDefinition condition = when.get(c);
+                try {
+                    if (c == indexCondition) {
+                        int slot = slot(condition.field(), assessmentDataClass, slots, accessors);
+                        project(projections, slot, Projection.TEXT);
+                        Map<String, List<Integer>> index = indexedValues.computeIfAbsent(slot, s -> new HashMap<>());
+                        for (String value : indexValues(condition)) {
+                            index.computeIfAbsent(value, v -> new ArrayList<>()).add(r);
+                        }
+                        continue;
+                    }
+                    Integer id = conditionIds.get(condition);
+                    if (id == null) {
+                        conditions.add(RuleCondition.compile(condition,
+                                path -> slot(path, assessmentDataClass, slots, accessors)));
+                        id = conditions.size() - 1;
+                        conditionIds.put(condition, id);
+                        project(projections, slots.get(condition.field()),
+                                Projection.of(RuleOperator.parse(condition.op())));
+                        if (condition.ref() != null) {
+                            project(projections, slots.get(condition.ref()), Projection.TEXT);
+                        }
+                    }
+                    remaining[next++] = id;
+                } catch (RuleCompilationException e) {
+                    throw new RuleCompilationException("Rule " + rule.id() + ": " + e.getMessage(), e);
+                }
+            }
+            if (indexCondition < 0) {
+                unindexedRules[r / Long.SIZE] |= 1L << r;
+            }
+            rules[r] = new CompiledRule(rule.id(), rule.decision(), rule.stop(), remaining);
+        }
+
+        List<FieldIndex> indexes = new ArrayList<>();
+        indexedValues.forEach((slot, values) -> {
+            Map<String, int[]> ruleNumbers = new HashMap<>();
+            values.forEach((value, numbers) -> ruleNumbers.put(value,
+                    numbers.stream().mapToInt(Integer::intValue).toArray()));
+            indexes.add(new FieldIndex(slot, Map.copyOf(ruleNumbers)));
+        });
+        String defaultDecision = definition.defaultDecision() != null ? definition.defaultDecision() : fallbackDecision;
+        return new CompiledRuleSet(definition.txnType(), defaultDecision, accessors.toArray(MethodHandle[]::new),
+                projections.toArray(Projection[]::new), conditions.toArray(RuleCondition[]::new), rules,
+                indexes.toArray(FieldIndex[]::new), unindexedRules);
+    }
+
+    public String getTxnType() {
+        return txnType;
+    }
+
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    /**
+     * Gets the number of distinct conditions that are evaluated as shared nodes, i.e. excluding the
+     * conditions answered by a value index.
+     *
+     * @return the number of shared condition nodes
+     */
+    public int getConditionCount() {
+        return conditions.length;
+    }
+
+    /**
+     * Computes the canonical rule inputs of an assessment data object: every field the rules read,
+     * reduced to the projection its conditions depend on.
+     *
+     * @param assessmentData an instance of the class the rule set was compiled against
+     * @return a fingerprint that equals the fingerprint of any object this rule set decides the same way
+     */
+    public DecisionFingerprint fingerprint(Object assessmentData) {
+        FieldValues values = new FieldValues(assessmentData, accessors);
+        Object[] features = new Object[projections.length];
+        for (int slot = 0; slot < features.length; slot++) {
+            features[slot] = projections[slot].apply(values.get(slot));
+        }
+        return new DecisionFingerprint(id, features);
+    }
+
+    /**
+     * Evaluates the rules on an assessment data object.
+     *
+     * @param assessmentData an instance of the class the rule set was compiled against
+     * @return the decision and the ids of the rules that fired, in evaluation order
+     */
+    public RulesResponse evaluate(Object assessmentData) {
+        FieldValues values = new FieldValues(assessmentData, accessors);
+        long[] candidates = unindexedRules.clone();
+        for (FieldIndex index : indexes) {
+            for (int rule : index.lookup(values.get(index.slot))) {
+                candidates[rule / Long.SIZE] |= 1L << rule;
+            }
+        }
+
+        // Results of the shared condition nodes: 0 not yet tested, 1 holds, -1 does not hold
+        byte[] results = new byte[conditions.length];
+        List<String> firedRuleIds = null;
+        String decision = null;
+        walk:
+        for (int word = 0; word < candidates.length; word++) {
+            for (long bits = candidates[word]; bits != 0; bits &= bits - 1) {
+                CompiledRule rule = rules[word * Long.SIZE + Long.numberOfTrailingZeros(bits)];
+                if (!rule.matches(conditions, values, results)) {
+                    continue;
+                }
+                if (firedRuleIds == null) {
+                    firedRuleIds = new ArrayList<>(4);
+                }
+                firedRuleIds.add(rule.id);
+                if (decision == null) {
+                    decision = rule.decision;
+                }
+                if (rule.stop) {
+                    break walk;
+                }
+            }
+        }
+        return new RulesResponse(decision != null ? decision : defaultDecision,
+                firedRuleIds != null ? firedRuleIds : List.of());
+    }
+
+    private static void project(List<Projection> projections, int slot, Projection projection) {
+        while (projections.size() <= slot) {
+            projections.add(null);
+        }
+        projections.set(slot, projection.merge(projections.get(slot)));
+    }
+
+    private static int slot(String path, Class<?> assessmentDataClass, Map<String, Integer> slots,
+                            List<MethodHandle> accessors) {
+        return slots.computeIfAbsent(path, p -> {
+            accessors.add(FieldAccessors.resolve(assessmentDataClass, p));
+            return accessors.size() - 1;
+        });
+    }
+
+    /**
+     * Picks the condition a rule is indexed under: an {@code eq} on literal text, else an {@code in}.
+     *
+     * @return the position of the condition, or -1 if the rule has no indexable condition
+     */
+    private static int indexCondition(List<ConditionDefinition> when) {
+        int in = -1;
+        for (int c = 0; c < when.size(); c++) {
+            ConditionDefinition condition = when.get(c);
+            if (condition.field() == null || condition.op() == null || condition.ref() != null) {
+                continue;
+            }
+            String op = condition.op().trim();
+            if ("eq".equalsIgnoreCase(op) && condition.value() != null
+                    && !(condition.value() instanceof Number) && !(condition.value() instanceof List<?>)) {
+                return c;
+            }
+            if (in < 0 && "in".equalsIgnoreCase(op) && condition.value() instanceof List<?> list && !list.isEmpty()) {
+                in = c;
+            }
+        }
+        return in;
+    }
+
+    private static List<String> indexValues(ConditionDefinition condition) {
+        if (condition.value() instanceof List<?> list) {
+            List<String> values = new ArrayList<>(list.size());
+            for (Object member : list) {
+                values.add(String.valueOf(member));
+            }
+            return values;
+        }
+        return List.of(String.valueOf(condition.value()));
+    }
+
+    /**
+     * The rules indexed under the literal values of one field.
+     */
+    private static final class FieldIndex {
+        private final int slot;
+        private final Map<String, int[]> rulesByValue;
+
+        FieldIndex(int slot, Map<String, int[]> rulesByValue) {
+            this.slot = slot;
+            this.rulesByValue = rulesByValue;
+        }
+
+        int[] lookup(Object value) {
+            if (value == null) {
+                return NO_RULES;
+            }
+            int[] rules = rulesByValue.get(value instanceof String text ? text : String.valueOf(value));
+            return rules != null ? rules : NO_RULES;
+        }
+    }
+
+    private static final class CompiledRule {
+        private final String id;
+        private final String decision;
+        private final boolean stop;
+        private final int[] conditionIds;
+
+        CompiledRule(String id, String decision, boolean stop, int[] conditionIds) {
+            this.id = id;
+            this.decision = decision;
+            this.stop = stop;
+            this.conditionIds = conditionIds;
+        }
+
+        boolean matches(RuleCondition[] conditions, FieldValues values, byte[] results) {
+            for (int id : conditionIds) {
+                byte result = results[id];
+                if (result == 0) {
+                    result = conditions[id].test(values) ? (byte) 1 : (byte) -1;
+                    results[id] = result;
+                }
+                if (result < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.model.RulesResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes rule decisions by the {@link DecisionFingerprint} of the assessment data.
+ * <p>
+ * Repeated requests, such as the same payer and payee within minutes, have equal rule inputs and so
+ * equal fingerprints, and are answered from the cache instead of evaluating the rules again. Entries
+ * expire after a TTL and are evicted by size. Fingerprints carry the id of the compiled rule set, so a
+ * new rule set or txn-models generation never matches earlier entries; {@link #invalidateAll()} also
+ * drops those entries when either changes.
+ * <p>
+ * Besides the {@code cache.*} metrics of the {@code decisions} cache, the cache publishes its hit
+ * ratio and {@code dap.rules.decision.cache.saved}, the evaluation time avoided by hits: the
+ * evaluation time recorded with the entry less the time of the lookup.
+ */
+public class DecisionCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionCache.class);
+    static final String CACHE_NAME = "decisions";
+
+    private final Cache<DecisionFingerprint, CachedDecision> cache;
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    /**
+     * Creates a decision cache.
+     *
+     * @param maximumSize the maximum number of cached decisions
+     * @param ttl how long a decision is cached
+     */
+    public DecisionCache(long maximumSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        logger.info("Decision cache enabled: maximumSize={}, ttl={}", maximumSize, ttl);
+    }
+
+    /**
+     * Returns the cached decision of the assessment data, or evaluates and caches it.
+     *
+     * @param ruleSet the compiled rule set of the assessment data's class
+     * @param assessmentData the assembled assessment data
+     * @return the decision and the ids of the rules that fired
+     */
+    public RulesResponse evaluate(CompiledRuleSet ruleSet, Object assessmentData) {
+        long started = System.nanoTime();
+        DecisionFingerprint fingerprint = ruleSet.fingerprint(assessmentData);
+        CachedDecision cached = cache.getIfPresent(fingerprint);
+        if (cached != null) {
+            savedNanos.addAndGet(Math.max(0, cached.evaluationNanos() - (System.nanoTime() - started)));
+            return cached.rulesResponse();
+        }
+        long evaluationStarted = System.nanoTime();
+        RulesResponse rulesResponse = ruleSet.evaluate(assessmentData);
+        long evaluationNanos = System.nanoTime() - evaluationStarted;
+        RulesResponse shared = new RulesResponse(rulesResponse.getDecision(), List.copyOf(rulesResponse.getFiredRuleIds()));
+        cache.put(fingerprint, new CachedDecision(shared, evaluationNanos));
+        return shared;
+    }
+
+    /**
+     * Drops every cached decision.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // cache.gets, cache.puts and cache.evictions tagged with cache=decisions
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder("dap.rules.decision.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of rule evaluations answered from the decision cache")
+                .register(registry);
+        FunctionCounter.builder("dap.rules.decision.cache.saved", savedNanos, saved -> saved.get() / 1e9)
+                .description("Rule evaluation time avoided by decision cache hits")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private record CachedDecision(RulesResponse rulesResponse, long evaluationNanos) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.dapprototype.rules;
+
+import java.util.Arrays;
+
+/**
+ * The canonical form of the rule inputs of one assessment data object: the projection of every field
+ * a compiled rule set reads, tagged with the id of that compiled rule set. Equal fingerprints get
+ * equal decisions. Fingerprints of a recompiled rule set never equal the old ones, so decisions made
+ * under other rules or another txn-models generation cannot be matched.
+ */
+public final class DecisionFingerprint {
+
+    private final long ruleSetId;
+    private final Object[] features;
+    private final int hash;
+
+    DecisionFingerprint(long ruleSetId, Object[] features) {
+        this.ruleSetId = ruleSetId;
+        this.features = features;
+        this.hash = 31 * Long.hashCode(ruleSetId) + Arrays.hashCode(features);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DecisionFingerprint fingerprint
+                && ruleSetId == fingerprint.ruleSetId
+                && hash == fingerprint.hash
+                && Arrays.equals(features, fingerprint.features);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionFingerprint[" + ruleSetId + ", " + Arrays.toString(features) + "]";
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.dapprototype.rules;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Generates null-safe accessors for property paths such as {@code payerCustomer.customerId}.
+ * <p>
+ * Every getter of the path is resolved once and the chain is composed into a single
+ * {@link MethodHandle} of type {@code (Object)Object} that returns null as soon as a step yields
+ * null, so rules read fields of the {@code TxnClassLoader} classes without reflection.
+ */
+final class FieldAccessors {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle NULL_RESULT =
+            MethodHandles.dropArguments(MethodHandles.zero(Object.class), 0, Object.class);
+
+    static {
+        try {
+            IS_NULL = MethodHandles.publicLookup().findStatic(Objects.class, "isNull",
+                    MethodType.methodType(boolean.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * Resolves the accessor of a property path.
+     *
+     * @param rootClass the class the path starts from
+     * @param path the dot-separated property names
+     * @return a handle of type {@code (Object)Object} reading the property, or null if any step is null
+     * @throws RuleCompilationException if a property has no public getter
+     */
+    static MethodHandle resolve(Class<?> rootClass, String path) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle accessor = MethodHandles.identity(Object.class);
+        Class<?> type = rootClass;
+        for (String property : path.split("\\.")) {
+            Method getter = findGetter(type, property);
+            if (getter == null) {
+                throw new RuleCompilationException("No getter for '" + property + "' of " + path
+                        + " on " + type.getName());
+            }
+            MethodHandle step;
+            try {
+                step = lookup.unreflect(getter).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new RuleCompilationException("Getter of " + path + " is not accessible", e);
+            }
+            accessor = MethodHandles.filterReturnValue(accessor,
+                    MethodHandles.guardWithTest(IS_NULL, NULL_RESULT, step));
+            type = getter.getReturnType();
+        }
+        return accessor;
+    }
+
+    private static Method findGetter(Class<?> type, String property) {
+        if (property.isEmpty()) {
+            return null;
+        }
+        String suffix = property.substring(0, 1).toUpperCase(Locale.ROOT) + property.substring(1);
+        for (String name : new String[] {"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next naming convention
+            }
+        }
+        return null;
+    }
+}
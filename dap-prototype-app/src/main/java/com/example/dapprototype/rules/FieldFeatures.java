@@ -0,0 +1,104 @@
+package com.example.dapprototype.rules;
+
+import java.math.BigDecimal;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * The views of a field value that rule conditions test: its text, its number and its hour of day.
+ * <p>
+ * A {@link Projection} reduces a value to just the view its conditions depend on, so that two values
+ * with the same projection give every condition the same result. Decision fingerprints are built
+ * from projections.
+ */
+final class FieldFeatures {
+
+    private FieldFeatures() {
+    }
+
+    /**
+     * The part of a field value that the conditions on the field depend on.
+     */
+    enum Projection {
+        /** Only tested for presence. */
+        PRESENCE,
+        /** Only tested for its hour of day. */
+        HOUR,
+        /** Tested on its text or number, both of which follow from the text. */
+        TEXT;
+
+        /**
+         * Gets the projection of a field tested with an operator.
+         *
+         * @param operator the operator of a condition on the field
+         * @return the projection the condition depends on
+         */
+        static Projection of(RuleOperator operator) {
+            return switch (operator) {
+                case PRESENT, ABSENT -> PRESENCE;
+                case HOUR_BETWEEN -> HOUR;
+                default -> TEXT;
+            };
+        }
+
+        /**
+         * Combines the projections of two conditions on the same field.
+         *
+         * @param other the projection of the other condition, or null
+         * @return a projection both conditions can be decided from
+         */
+        Projection merge(Projection other) {
+            return other == null || other == this ? this : TEXT;
+        }
+
+        Object apply(Object value) {
+            return switch (this) {
+                case PRESENCE -> value != null;
+                case HOUR -> hourOfDay(value);
+                case TEXT -> text(value);
+            };
+        }
+    }
+
+    static String text(Object value) {
+        return value instanceof String string ? string : value == null ? null : String.valueOf(value);
+    }
+
+    static BigDecimal number(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Number || value instanceof String) {
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the hour of day of a timestamp: a temporal, or text with the hour at offset 11 as in
+     * {@code 2025-12-30T13:36:00Z} and {@code 2025-12-30 13:36:00}.
+     *
+     * @return the hour, or -1 if the value is not a timestamp
+     */
+    static int hourOfDay(Object value) {
+        if (value instanceof TemporalAccessor temporal) {
+            return temporal.isSupported(ChronoField.HOUR_OF_DAY) ? temporal.get(ChronoField.HOUR_OF_DAY) : -1;
+        }
+        if (!(value instanceof String text) || text.length() < 13) {
+            return -1;
+        }
+        char separator = text.charAt(10);
+        char tens = text.charAt(11);
+        char units = text.charAt(12);
+        if ((separator != 'T' && separator != 't' && separator != ' ')
+                || tens < '0' || tens > '2' || units < '0' || units > '9') {
+            return -1;
+        }
+        int hour = (tens - '0') * 10 + (units - '0');
+        return hour < 24 ? hour : -1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.dapprototype.rules;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+/**
+ * The field values of one assessment data object, read on first use so that every field is read at
+ * most once per evaluation, however many conditions test it.
+ */
+final class FieldValues {
+
+    private static final Object UNREAD = new Object();
+
+    private final Object root;
+    private final MethodHandle[] accessors;
+    private final Object[] values;
+
+    FieldValues(Object root, MethodHandle[] accessors) {
+        this.root = root;
+        this.accessors = accessors;
+        this.values = new Object[accessors.length];
+        Arrays.fill(values, UNREAD);
+    }
+
+    Object get(int slot) {
+        Object value = values[slot];
+        if (value == UNREAD) {
+            try {
+                value = (Object) accessors[slot].invokeExact(root);
+            } catch (Throwable t) {
+                throw t instanceof RuntimeException runtimeException
+                        ? runtimeException
+                        : new IllegalStateException("Reading a rule field failed", t);
+            }
+            values[slot] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.dapprototype.rules;
+
+/**
+ * Thrown when a rule set cannot be compiled against an assessment data class, e.g. because a
+ * condition names a property the class does not have.
+ */
+public class RuleCompilationException extends RuntimeException {
+
+    public RuleCompilationException(String message) {
+        super(message);
+    }
+
+    public RuleCompilationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
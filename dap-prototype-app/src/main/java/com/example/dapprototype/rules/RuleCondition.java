@@ -0,0 +1,158 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.rules.RuleSetDefinition.ConditionDefinition;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled rule condition. Literal operands are converted once at compile time, so a test is a
+ * field read and a comparison.
+ */
+@FunctionalInterface
+interface RuleCondition {
+
+    boolean test(FieldValues values);
+
+    /**
+     * Compiles a condition.
+     *
+     * @param condition the condition definition
+     * @param slots resolves a property path to the slot of its accessor
+     * @return the compiled condition
+     * @throws RuleCompilationException if the operator or its operand is invalid
+     */
+    static RuleCondition compile(ConditionDefinition condition, ToIntFunction<String> slots) {
+        if (condition.field() == null || condition.op() == null) {
+            throw new RuleCompilationException("A condition needs a field and an op");
+        }
+        RuleOperator operator;
+        try {
+            operator = RuleOperator.parse(condition.op());
+        } catch (IllegalArgumentException e) {
+            throw new RuleCompilationException("Unknown operator '" + condition.op() + "'");
+        }
+        int slot = slots.applyAsInt(condition.field());
+        if (condition.ref() != null) {
+            if (operator != RuleOperator.EQ && operator != RuleOperator.NE) {
+                throw new RuleCompilationException("Field references are only supported by eq and ne");
+            }
+            int refSlot = slots.applyAsInt(condition.ref());
+            boolean equal = operator == RuleOperator.EQ;
+            return values -> {
+                Object value = values.get(slot);
+                boolean same = value != null
+                        && Objects.equals(FieldFeatures.text(value), FieldFeatures.text(values.get(refSlot)));
+                return same == equal;
+            };
+        }
+        Predicate<Object> test = valueTest(operator, condition.value());
+        return values -> test.test(values.get(slot));
+    }
+
+    private static Predicate<Object> valueTest(RuleOperator operator, Object operand) {
+        switch (operator) {
+            case PRESENT:
+                return Objects::nonNull;
+            case ABSENT:
+                return Objects::isNull;
+            case EQ:
+            case NE: {
+                Predicate<Object> equal = equalTo(requireScalar(operator, operand));
+                return operator == RuleOperator.EQ ? equal : equal.negate();
+            }
+            case IN:
+            case NOT_IN: {
+                Set<String> members = new HashSet<>();
+                for (Object member : requireList(operator, operand)) {
+                    members.add(String.valueOf(member));
+                }
+                Predicate<Object> in = value -> value != null && members.contains(FieldFeatures.text(value));
+                return operator == RuleOperator.IN ? in : in.negate();
+            }
+            case STARTS_WITH: {
+                String prefix = String.valueOf(requireScalar(operator, operand));
+                return value -> value != null && FieldFeatures.text(value).startsWith(prefix);
+            }
+            case MATCHES: {
+                Pattern pattern = Pattern.compile(String.valueOf(requireScalar(operator, operand)));
+                return value -> value != null && pattern.matcher(FieldFeatures.text(value)).matches();
+            }
+            case GT:
+            case GE:
+            case LT:
+            case LE: {
+                BigDecimal bound = FieldFeatures.number(requireScalar(operator, operand));
+                if (bound == null) {
+                    throw new RuleCompilationException(operator + " needs a numeric value");
+                }
+                return value -> {
+                    BigDecimal number = FieldFeatures.number(value);
+                    if (number == null) {
+                        return false;
+                    }
+                    int comparison = number.compareTo(bound);
+                    return switch (operator) {
+                        case GT -> comparison > 0;
+                        case GE -> comparison >= 0;
+                        case LT -> comparison < 0;
+                        default -> comparison <= 0;
+                    };
+                };
+            }
+            case HOUR_BETWEEN: {
+                List<?> range = requireList(operator, operand);
+                if (range.size() != 2 || !(range.get(0) instanceof Integer from) || !(range.get(1) instanceof Integer to)
+                        || from < 0 || from > 23 || to < 0 || to > 24 || from.equals(to)) {
+                    throw new RuleCompilationException("hour_between needs two distinct hours [from, to]");
+                }
+                // One bit per hour of day in [from, to), wrapping past midnight
+                int hours = 0;
+                int hour = from;
+                do {
+                    hours |= 1 << hour;
+                    hour = (hour + 1) % 24;
+                } while (hour != to % 24);
+                int hourMask = hours;
+                return value -> {
+                    int hourOfDay = FieldFeatures.hourOfDay(value);
+                    return hourOfDay >= 0 && (hourMask & (1 << hourOfDay)) != 0;
+                };
+            }
+            default:
+                throw new RuleCompilationException("Unsupported operator " + operator);
+        }
+    }
+
+    private static Predicate<Object> equalTo(Object operand) {
+        if (operand instanceof Number) {
+            BigDecimal expected = FieldFeatures.number(operand);
+            return value -> {
+                BigDecimal number = FieldFeatures.number(value);
+                return number != null && number.compareTo(expected) == 0;
+            };
+        }
+        String expected = String.valueOf(operand);
+        return value -> value != null && expected.equals(FieldFeatures.text(value));
+    }
+
+    private static Object requireScalar(RuleOperator operator, Object operand) {
+        if (operand == null || operand instanceof List<?>) {
+            throw new RuleCompilationException(operator + " needs a single value");
+        }
+        return operand;
+    }
+
+    private static List<?> requireList(RuleOperator operator, Object operand) {
+        if (!(operand instanceof List<?> list)) {
+            throw new RuleCompilationException(operator + " needs a list value");
+        }
+        return list;
+    }
+}
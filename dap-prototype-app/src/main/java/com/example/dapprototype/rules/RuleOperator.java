@@ -0,0 +1,45 @@
+package com.example.dapprototype.rules;
+
+import java.util.Locale;
+
+/**
+ * The operators of a rule condition, written in lower case in rules files.
+ */
+public enum RuleOperator {
+
+    /** Equal to the literal, compared as numbers when the literal is a number, or to the {@code ref} field. */
+    EQ,
+    /** Not equal; the negation of {@link #EQ}. */
+    NE,
+    /** One of a list of literals. */
+    IN,
+    /** None of a list of literals, or absent. */
+    NOT_IN,
+    /** Text starting with the literal. */
+    STARTS_WITH,
+    /** Text matching the literal regular expression in full. */
+    MATCHES,
+    GT,
+    GE,
+    LT,
+    LE,
+    /** Not null. */
+    PRESENT,
+    /** Null. */
+    ABSENT,
+    /**
+     * A timestamp whose hour of day is in {@code [from, to)}; {@code [22, 6]} wraps around midnight.
+     */
+    HOUR_BETWEEN;
+
+    /**
+     * Parses an operator as written in a rules file.
+     *
+     * @param op the operator name, e.g. {@code not_in}
+     * @return the operator
+     * @throws IllegalArgumentException if the name is not an operator
+     */
+    public static RuleOperator parse(String op) {
+        return valueOf(op.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.dapprototype.rules;
+
+import java.util.List;
+
+/**
+ * The rules of one transaction type, as declared in a rules YAML file.
+ *
+ * @param txnType the transaction type the rules apply to, matching {@code TxnTypeDescriptor#name()}
+ * @param defaultDecision the decision when no rule with a decision fires, or null for the engine default
+ * @param rules the rules, in any order
+ */
+public record RuleSetDefinition(String txnType, String defaultDecision, List<RuleDefinition> rules) {
+
+    /**
+     * One rule: fires when all of its conditions hold.
+     *
+     * @param id the rule id, reported in {@code RulesResponse#getFiredRuleIds()} when the rule fires
+     * @param priority higher priorities are evaluated first; rules of equal priority keep file order
+     * @param when the conditions, all of which must hold
+     * @param decision the decision of the rule, or null for a rule that only reports that it fired
+     * @param stop whether evaluation stops once this rule fires
+     */
+    public record RuleDefinition(String id, int priority, List<ConditionDefinition> when, String decision,
+                                 boolean stop) {
+    }
+
+    /**
+     * One condition on a field of the assessment data.
+     *
+     * @param field the property path from the assessment data, e.g. {@code payerCustomer.customerId}
+     * @param op the operator, see {@link RuleOperator}
+     * @param value the literal operand, a scalar or a list depending on the operator
+     * @param ref the property path of a second field to compare with, instead of a literal
+     */
+    public record ConditionDefinition(String field, String op, Object value, String ref) {
+    }
+}
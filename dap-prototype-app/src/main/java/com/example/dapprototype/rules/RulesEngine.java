@@ -0,0 +1,203 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.classloader.TxnGenerationChangedEvent;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the rules of a transaction type on its assessment data.
+ * <p>
+ * Rule sets are read from YAML files at startup, one per transaction type, and compiled into a
+ * {@link CompiledRuleSet} per assessment data class. Compilation happens when a txn-models
+ * generation is loaded, so a rule that reads a missing property fails at load time rather than on
+ * a request; compiled rule sets are held in a {@link ClassValue} of the assessment data class and
+ * are dropped together with the generation's classes. Transaction types without a rule set get the
+ * default decision. With a {@link DecisionCache}, decisions are memoized by their rule inputs and
+ * the cache is cleared whenever the rules or the txn-models generation change.
+ */
+@Service
+public class RulesEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RulesEngine.class);
+
+    public static final String DEFAULT_LOCATION = "classpath*:rules/*.yaml";
+    public static final String DEFAULT_DECISION = "Step Up";
+
+    private final TxnClassLoaderService txnClassLoaderService;
+    private final String rulesLocation;
+    private final String defaultDecision;
+    private final DecisionCache decisionCache;
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+
+    private volatile Map<String, RuleSet> ruleSets = Map.of();
+
+    @Autowired
+    public RulesEngine(TxnClassLoaderService txnClassLoaderService,
+                       @Value("${dap.rules.location:" + DEFAULT_LOCATION + "}") String rulesLocation,
+                       @Value("${dap.rules.default-decision:" + DEFAULT_DECISION + "}") String defaultDecision,
+                       ObjectProvider<DecisionCache> decisionCache) {
+        this(txnClassLoaderService, rulesLocation, defaultDecision, decisionCache.getIfAvailable());
+    }
+
+    /**
+     * Creates a rules engine without a decision cache.
+     *
+     * @param txnClassLoaderService the source of the assessment data classes to compile against
+     * @param rulesLocation the resource pattern of the rules files
+     * @param defaultDecision the decision when no rule set or rule provides one
+     */
+    public RulesEngine(TxnClassLoaderService txnClassLoaderService, String rulesLocation, String defaultDecision) {
+        this(txnClassLoaderService, rulesLocation, defaultDecision, (DecisionCache) null);
+    }
+
+    /**
+     * Creates a rules engine.
+     *
+     * @param txnClassLoaderService the source of the assessment data classes to compile against
+     * @param rulesLocation the resource pattern of the rules files
+     * @param defaultDecision the decision when no rule set or rule provides one
+     * @param decisionCache the cache of decisions by rule inputs, or null to always evaluate
+     */
+    public RulesEngine(TxnClassLoaderService txnClassLoaderService, String rulesLocation, String defaultDecision,
+                       DecisionCache decisionCache) {
+        this.txnClassLoaderService = txnClassLoaderService;
+        this.rulesLocation = rulesLocation;
+        this.defaultDecision = defaultDecision;
+        this.decisionCache = decisionCache;
+    }
+
+    /**
+     * Loads the rule sets and compiles them against the current txn-models generation.
+     *
+     * @throws IllegalStateException if a rules file cannot be read
+     * @throws RuleCompilationException if a rule set does not compile
+     */
+    @PostConstruct
+    public void initialize() {
+        try {
+            ruleSets = load();
+            if (decisionCache != null) {
+                decisionCache.invalidateAll();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load rules from " + rulesLocation, e);
+        }
+        compile(txnClassLoaderService.acquire());
+    }
+
+    /**
+     * Compiles the rule sets against a newly swapped-in generation. A rule set that no longer
+     * compiles is logged; requests of its transaction type fail in rules evaluation until fixed.
+     *
+     * @param event the generation change
+     */
+    @EventListener
+    public void onGenerationChanged(TxnGenerationChangedEvent event) {
+        if (decisionCache != null) {
+            decisionCache.invalidateAll();
+        }
+        try {
+            compile(txnClassLoaderService.acquire());
+        } catch (RuleCompilationException e) {
+            logger.error("Rules do not compile against txn-models generation {}", event.generationId(), e);
+        }
+    }
+
+    /**
+     * Evaluates the rules of a transaction type.
+     *
+     * @param txnType the transaction type of the assessment data
+     * @param assessmentData the assembled assessment data
+     * @return the decision and the ids of the rules that fired
+     * @throws RuleCompilationException if the rule set does not compile against the data's class
+     */
+    public RulesResponse evaluateRules(String txnType, Object assessmentData) {
+        RuleSet ruleSet = ruleSets.get(txnType);
+        if (ruleSet == null) {
+            return new RulesResponse(defaultDecision);
+        }
+        CompiledRuleSet compiled = ruleSet.compiledFor(assessmentData.getClass());
+        RulesResponse rulesResponse = decisionCache != null
+                ? decisionCache.evaluate(compiled, assessmentData)
+                : compiled.evaluate(assessmentData);
+        logger.debug("Rules of {} decided {}, fired {}", txnType, rulesResponse.getDecision(),
+                rulesResponse.getFiredRuleIds());
+        return rulesResponse;
+    }
+
+    private Map<String, RuleSet> load() throws IOException {
+        Map<String, RuleSet> loaded = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(rulesLocation)) {
+            RuleSetDefinition definition;
+            try (InputStream in = resource.getInputStream()) {
+                definition = yamlMapper.readValue(in, RuleSetDefinition.class);
+            }
+            if (definition.txnType() == null) {
+                throw new IOException("Rules file " + resource + " does not declare a txnType");
+            }
+            if (loaded.put(definition.txnType(), new RuleSet(definition, defaultDecision)) != null) {
+                throw new IOException("More than one rules file for txn type " + definition.txnType());
+            }
+            int ruleCount = definition.rules() != null ? definition.rules().size() : 0;
+            logger.info("Loaded {} rules for txn type {} from {}", ruleCount, definition.txnType(), resource);
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private void compile(TxnGeneration generation) {
+        try {
+            for (TxnBindingPlan plan : generation.getBindingPlans()) {
+                RuleSet ruleSet = ruleSets.get(plan.getDescriptor().name());
+                if (ruleSet != null) {
+                    ruleSet.compiledFor(plan.getAssessmentDataClass());
+                }
+            }
+        } finally {
+            generation.release();
+        }
+    }
+
+    /**
+     * A rule set definition and its compiled form per assessment data class.
+     */
+    private static final class RuleSet {
+        private final ClassValue<CompiledRuleSet> compiled;
+
+        RuleSet(RuleSetDefinition definition, String defaultDecision) {
+            this.compiled = new ClassValue<>() {
+                @Override
+                protected CompiledRuleSet computeValue(Class<?> assessmentDataClass) {
+                    CompiledRuleSet ruleSet = CompiledRuleSet.compile(definition, assessmentDataClass, defaultDecision);
+                    logger.info("Compiled {} rules of txn type {} against {}", ruleSet.getRuleCount(),
+                            definition.txnType(), assessmentDataClass.getName());
+                    return ruleSet;
+                }
+            };
+        }
+
+        CompiledRuleSet compiledFor(Class<?> assessmentDataClass) {
+            return compiled.get(assessmentDataClass);
+        }
+    }
+}
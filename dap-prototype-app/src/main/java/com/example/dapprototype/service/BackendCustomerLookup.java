@@ -0,0 +1,364 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Looks customers up through a {@link CustomerBackend} client.
+ * <p>
+ * The distinct IDs of a request are split into chunks of at most {@code chunkSize}, looked up by
+ * parallel {@link CustomerBackend#multiGet(List)} calls, or {@link CustomerBackend#get(String)} for a
+ * single ID, on virtual threads. Every call is bounded by {@code timeout}.
+ * <p>
+ * With a {@link HedgePolicy}, a call that has not answered after the policy's percentile of recent
+ * call latencies is sent a second time and the first answer wins; the other call is interrupted.
+ * Only the slowest calls are hedged, so a few percent more backend calls cut the tail that a
+ * stalled backend instance would otherwise add to every request waiting on it. A call that fails
+ * is not retried; the lookup fails once every attempt of the call has failed.
+ * <p>
+ * Publishes the {@code customer.backend.latency} timer of every backend call,
+ * {@code customer.backend.hedges} tagged with whether the hedge was {@code sent} or {@code won},
+ * and the {@code customer.backend.hedge.delay} gauge.
+ */
+public class BackendCustomerLookup implements CustomerLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackendCustomerLookup.class);
+
+    /**
+     * When to hedge a backend call.
+     *
+     * @param percentile the percentile of recent call latencies after which a call is hedged
+     * @param minDelay the shortest hedge delay, so fast backends are not hedged on noise
+     * @param maxDelay the longest hedge delay, also used until enough latencies are recorded
+     */
+    public record HedgePolicy(double percentile, Duration minDelay, Duration maxDelay) {
+    }
+
+    private final CustomerBackend backend;
+    private final int chunkSize;
+    private final long timeoutNanos;
+    private final HedgePolicy hedgePolicy;
+    private final LatencyWindow latencies = new LatencyWindow(1024, 64);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Timer callLatency;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    /**
+     * Creates a backend lookup.
+     *
+     * @param backend the backend client
+     * @param chunkSize the most IDs per backend call
+     * @param timeout how long a backend call, including its hedge, may take
+     * @param hedgePolicy when to hedge backend calls, or null to never hedge
+     * @param registry the registry of the backend call meters
+     */
+    public BackendCustomerLookup(CustomerBackend backend, int chunkSize, Duration timeout, HedgePolicy hedgePolicy,
+                                 MeterRegistry registry) {
+        this.backend = backend;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.timeoutNanos = timeout.toNanos();
+        this.hedgePolicy = hedgePolicy;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "customer-backend-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Hedges and timeouts are mostly cancelled on completion; drop them from the queue right away
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.callLatency = Timer.builder("customer.backend.latency")
+                .description("Latency of customer backend calls, hedges included")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.hedgesSent = hedges(registry, "sent");
+        this.hedgesWon = hedges(registry, "won");
+        TimeGauge.builder("customer.backend.hedge.delay", this, TimeUnit.NANOSECONDS,
+                        BackendCustomerLookup::hedgeDelayNanos)
+                .description("How long a customer backend call runs before it is hedged")
+                .register(registry);
+        logger.info("Customer backend {}: chunkSize={}, timeout={}, hedging={}", backend.getClass().getSimpleName(),
+                this.chunkSize, timeout, hedgePolicy);
+    }
+
+    private static Counter hedges(MeterRegistry registry, String outcome) {
+        return Counter.builder("customer.backend.hedges")
+                .description("Customer backend calls sent again because the first was slow")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Retrieves customer information, waiting at most the configured timeout.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if a backend call did not answer before the timeout
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest) {
+        return getCustomers(customerRequest, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Retrieves customer information, waiting at most until the deadline or the configured timeout,
+     * whichever comes first.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if a backend call did not answer in time
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+        try {
+            return getCustomersAsync(customerRequest, deadlineNanos).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException("Customer lookup failed", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        return getCustomersAsync(customerRequest, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Looks up the chunks of a request; every backend call is bounded by the deadline or the
+     * configured timeout, whichever comes first.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return a future of the customers that were found, in the order of the requested IDs
+     */
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest, long deadlineNanos) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null) {
+            logger.warn("CustomerRequest or customerIds is null");
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<String> customerIds = customerRequest.getCustomerIds();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(customerIds));
+        long timeoutDeadlineNanos = System.nanoTime() + timeoutNanos;
+        if (timeoutDeadlineNanos - deadlineNanos < 0) {
+            deadlineNanos = timeoutDeadlineNanos;
+        }
+        List<CompletableFuture<Map<String, Customer>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(call(distinct.subList(from, Math.min(distinct.size(), from + chunkSize)), deadlineNanos));
+        }
+
+        CompletableFuture<List<Customer>> customers = new CompletableFuture<>();
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                // The other chunks are no longer needed
+                chunks.forEach(chunk -> chunk.cancel(false));
+                customers.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+                return;
+            }
+            Map<String, Customer> found = new HashMap<>();
+            chunks.forEach(chunk -> found.putAll(chunk.join()));
+            List<Customer> ordered = new ArrayList<>(customerIds.size());
+            for (String customerId : customerIds) {
+                Customer customer = found.get(customerId);
+                if (customer != null) {
+                    ordered.add(customer);
+                }
+            }
+            customers.complete(ordered);
+        });
+        return customers;
+    }
+
+    private CompletableFuture<Map<String, Customer>> call(List<String> customerIds, long deadlineNanos) {
+        HedgedCall call = new HedgedCall(customerIds);
+        call.attempt(false);
+        if (hedgePolicy != null) {
+            call.hedgeTimer = scheduler.schedule(call::hedge, hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        }
+        call.timeout = scheduler.schedule(() -> call.result.completeExceptionally(
+                        new CustomerLookupTimeoutException("Customer backend call did not complete before the deadline")),
+                Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        call.result.whenComplete((found, failure) -> call.finish());
+        return call.result;
+    }
+
+    long hedgeDelayNanos() {
+        if (hedgePolicy == null) {
+            return 0;
+        }
+        long maxNanos = hedgePolicy.maxDelay().toNanos();
+        long percentileNanos = latencies.percentile(hedgePolicy.percentile());
+        if (percentileNanos < 0) {
+            return maxNanos;
+        }
+        return Math.min(maxNanos, Math.max(hedgePolicy.minDelay().toNanos(), percentileNanos));
+    }
+
+    private Map<String, Customer> invoke(List<String> customerIds) {
+        if (customerIds.size() == 1) {
+            String customerId = customerIds.get(0);
+            return backend.get(customerId).map(customer -> Map.of(customerId, customer)).orElse(Map.of());
+        }
+        return backend.multiGet(customerIds);
+    }
+
+    /**
+     * One backend call and its hedge, racing to complete {@link #result}.
+     */
+    private final class HedgedCall {
+        private final List<String> customerIds;
+        private final CompletableFuture<Map<String, Customer>> result = new CompletableFuture<>();
+        // Attempts that have not failed; the call fails when the last one does
+        private final AtomicInteger pending = new AtomicInteger();
+        private final List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private volatile boolean finished;
+        private volatile ScheduledFuture<?> hedgeTimer;
+        private volatile ScheduledFuture<?> timeout;
+
+        HedgedCall(List<String> customerIds) {
+            this.customerIds = customerIds;
+        }
+
+        void attempt(boolean hedge) {
+            pending.incrementAndGet();
+            Future<?> attempt = executor.submit(() -> run(hedge));
+            attempts.add(attempt);
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        void hedge() {
+            if (!result.isDone()) {
+                hedgesSent.increment();
+                attempt(true);
+            }
+        }
+
+        private void run(boolean hedge) {
+            long startNanos = System.nanoTime();
+            Map<String, Customer> customers;
+            try {
+                customers = invoke(customerIds);
+            } catch (RuntimeException e) {
+                // An attempt cancelled by finish() was cut short, so its run time is not a latency
+                if (!finished) {
+                    recordLatency(startNanos);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+                return;
+            }
+            recordLatency(startNanos);
+            // Counted before completing, so the caller sees the hedge it was answered by
+            if (answered.compareAndSet(false, true) && hedge) {
+                hedgesWon.increment();
+            }
+            result.complete(customers);
+        }
+
+        private void recordLatency(long startNanos) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            callLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            latencies.record(elapsedNanos);
+        }
+
+        void finish() {
+            finished = true;
+            ScheduledFuture<?> hedge = hedgeTimer;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            ScheduledFuture<?> deadline = timeout;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * The latencies of the most recent backend calls, with a percentile recomputed every
+     * {@code refreshEvery} calls rather than on every hedge decision.
+     */
+    static final class LatencyWindow {
+        private final AtomicLongArray samples;
+        private final int mask;
+        private final int refreshEvery;
+        private final AtomicLong recorded = new AtomicLong();
+        private volatile long[] sorted = new long[0];
+
+        LatencyWindow(int capacity, int refreshEvery) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.samples = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.refreshEvery = refreshEvery;
+        }
+
+        void record(long nanos) {
+            long sequence = recorded.getAndIncrement();
+            samples.set((int) (sequence & mask), nanos);
+            if ((sequence + 1) % refreshEvery == 0) {
+                int count = (int) Math.min(sequence + 1, samples.length());
+                long[] snapshot = new long[count];
+                for (int i = 0; i < count; i++) {
+                    snapshot[i] = samples.get(i);
+                }
+                Arrays.sort(snapshot);
+                sorted = snapshot;
+            }
+        }
+
+        /**
+         * Gets a percentile of the window as of its last refresh.
+         *
+         * @return the latency in nanoseconds, or -1 before the first refresh
+         */
+        long percentile(double percentile) {
+            long[] snapshot = sorted;
+            if (snapshot.length == 0) {
+                return -1;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * snapshot.length) - 1;
+            return snapshot[Math.max(0, Math.min(snapshot.length - 1, rank))];
+        }
+    }
+}
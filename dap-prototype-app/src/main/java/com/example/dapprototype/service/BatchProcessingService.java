@@ -0,0 +1,239 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores newline-delimited JSON batches of requests.
+ * <p>
+ * Records are read one line at a time and handed to a worker pool, so different records are in
+ * different pipeline stages at the same time. At most {@code dap.batch.max-in-flight} records are
+ * read ahead of the oldest unfinished one, which bounds memory regardless of batch size.
+ * A record longer than {@code dap.batch.max-record-size} bytes is skipped without being buffered
+ * and answered with a validation error line. Each record gets its own deadline, the batch's request
+ * timeout or the default budget counted from when a worker picks it up, so records waiting behind
+ * the rest of their batch do not run out of budget. Responses are written one per line in input order as
+ * soon as the head of the window completes, and a failing record only produces an error line of its
+ * own.
+ */
+@Service
+public class BatchProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchProcessingService.class);
+    private static final byte NEWLINE = '\n';
+
+    public static final DAResponse RECORD_TOO_LARGE = new DAResponse(false, "Validation failed", "VALIDATION_ERROR",
+        List.of("Record exceeds the maximum record size"), null);
+
+    private final RequestProcessingService requestProcessingService;
+    private final DAResponseWriter responseWriter;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int maxRecordSize;
+
+    public BatchProcessingService(RequestProcessingService requestProcessingService,
+                                  DAResponseWriter responseWriter,
+                                  @Value("${dap.batch.parallelism:0}") int parallelism,
+                                  @Value("${dap.batch.max-in-flight:64}") int maxInFlight,
+                                  @Value("${dap.batch.max-record-size:65536}") int maxRecordSize) {
+        this.requestProcessingService = requestProcessingService;
+        this.responseWriter = responseWriter;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxRecordSize = Math.max(1, maxRecordSize);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threads, new BatchThreadFactory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Scores every record of an NDJSON batch and streams one DAResponse line per record.
+     *
+     * @param input the NDJSON request body
+     * @param output the response body
+     * @param operationPath the OpenAPI operation path the records are validated against
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param requestTimeout the milliseconds each record must be answered in, or null for the default budget
+     * @throws IOException if reading the batch or writing a response line fails
+     */
+    public void processBatch(InputStream input, OutputStream output, String operationPath, String txnType,
+                             String requestTimeout) throws IOException {
+        Deque<CompletableFuture<DAResponse>> window = new ArrayDeque<>(maxInFlight);
+        int records = 0;
+        RecordReader reader = new RecordReader(input, maxRecordSize);
+        while (reader.next()) {
+            if (reader.isBlank()) {
+                continue;
+            }
+            if (window.size() >= maxInFlight) {
+                writeHead(window, output);
+            }
+            if (reader.isTooLarge()) {
+                window.addLast(CompletableFuture.completedFuture(RECORD_TOO_LARGE));
+            } else {
+                JsonBody record = reader.copy();
+                window.addLast(CompletableFuture.supplyAsync(() -> score(record, operationPath, txnType,
+                        requestProcessingService.requestDeadline(requestTimeout)), executor));
+            }
+            records++;
+        }
+        while (!window.isEmpty()) {
+            writeHead(window, output);
+        }
+        output.flush();
+        logger.info("Processed batch of {} records", records);
+    }
+
+    private DAResponse score(JsonBody record, String operationPath, String txnType, RequestDeadline deadline) {
+        try {
+            ResponseEntity<?> response = requestProcessingService.validateAndProcessRequest(record, operationPath,
+                    txnType, deadline);
+            if (response.getBody() instanceof DAResponse daResponse) {
+                return daResponse;
+            }
+            return new DAResponse(false, "Error processing request", "PROCESSING_ERROR",
+                List.of("Unexpected response for record"), null);
+        } catch (RuntimeException e) {
+            logger.error("Failed to process batch record", e);
+            return new DAResponse(false, "Error processing request", "PROCESSING_ERROR",
+                List.of(String.valueOf(e.getMessage())), null);
+        }
+    }
+
+    private void writeHead(Deque<CompletableFuture<DAResponse>> window, OutputStream output) throws IOException {
+        CompletableFuture<DAResponse> head = window.removeFirst();
+        if (!head.isDone()) {
+            // Push completed lines to the client before blocking on the slowest record
+            output.flush();
+        }
+        responseWriter.write(head.join(), output);
+        output.write(NEWLINE);
+    }
+
+    /**
+     * Splits a stream into newline-terminated records, holding at most {@code maxRecordSize} bytes
+     * of a record. The bytes of a longer record are dropped as they are read.
+     */
+    static final class RecordReader {
+        private final InputStream input;
+        private final int maxRecordSize;
+        private final byte[] chunk = new byte[8192];
+        private int position;
+        private int limit;
+        private byte[] record = new byte[1024];
+        private int length;
+        private boolean tooLarge;
+
+        RecordReader(InputStream input, int maxRecordSize) {
+            this.input = input;
+            this.maxRecordSize = maxRecordSize;
+        }
+
+        /**
+         * Reads the next record, up to a newline or the end of the stream.
+         *
+         * @return false if the stream has ended before another record
+         * @throws IOException if the stream cannot be read
+         */
+        boolean next() throws IOException {
+            length = 0;
+            tooLarge = false;
+            boolean started = false;
+            while (true) {
+                if (position == limit) {
+                    int read = input.read(chunk);
+                    if (read < 0) {
+                        position = 0;
+                        limit = 0;
+                        return started;
+                    }
+                    position = 0;
+                    limit = read;
+                }
+                started = true;
+                int start = position;
+                while (position < limit && chunk[position] != NEWLINE) {
+                    position++;
+                }
+                append(start, position - start);
+                if (position < limit) {
+                    position++;
+                    return true;
+                }
+            }
+        }
+
+        private void append(int start, int count) {
+            if (tooLarge || count == 0) {
+                return;
+            }
+            if (count > maxRecordSize - length) {
+                tooLarge = true;
+                return;
+            }
+            if (length + count > record.length) {
+                record = Arrays.copyOf(record, Math.min(Math.max(record.length * 2, length + count), maxRecordSize));
+            }
+            System.arraycopy(chunk, start, record, length, count);
+            length += count;
+        }
+
+        boolean isTooLarge() {
+            return tooLarge;
+        }
+
+        boolean isBlank() {
+            if (tooLarge) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                byte b = record[i];
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Copies the current record out of the reader, which reuses its buffer for the next one.
+         *
+         * @return the record as a JSON body
+         */
+        JsonBody copy() {
+            return JsonBody.of(Arrays.copyOf(record, length), length);
+        }
+    }
+
+    private static final class BatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "batch-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Caches customer lookups in front of the customer backend.
+ * <p>
+ * The cache is size bounded with Caffeine's W-TinyLFU eviction, so frequently seen customers such as
+ * busy merchants stay resident while one-off payers are evicted first. Entries expire after a TTL and
+ * are reloaded in the background once they are older than the refresh interval, so hot entries are
+ * not evicted from under the request path. IDs the backend does not know are cached as absent with
+ * their own, shorter TTL.
+ * <p>
+ * Misses are loaded through an asynchronous cache: the first caller of a missing ID installs an
+ * in-flight future and concurrent callers of the same ID wait on it, so a customer is never loaded
+ * from the backend twice at the same time. The missing IDs of one request are loaded in one
+ * asynchronous backend call.
+ */
+public class CachingCustomerLookup implements CustomerLookup, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingCustomerLookup.class);
+    static final String CACHE_NAME = "customers";
+
+    private final AsyncLoadingCache<String, Optional<Customer>> cache;
+
+    /**
+     * Creates a caching lookup.
+     *
+     * @param backend the lookup that loads missing customers
+     * @param maximumSize the maximum number of cached customer IDs, found or absent
+     * @param expireAfterWrite how long a found customer is cached
+     * @param refreshAfterWrite the age after which a read reloads an entry in the background
+     * @param negativeTtl how long an absent customer ID is cached
+     */
+    public CachingCustomerLookup(CustomerLookup backend, long maximumSize, Duration expireAfterWrite,
+                          Duration refreshAfterWrite, Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry(expireAfterWrite, negativeTtl))
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new BackendLoader(backend));
+        logger.info("Customer cache enabled: maximumSize={}, expireAfterWrite={}, refreshAfterWrite={}, negativeTtl={}",
+                maximumSize, expireAfterWrite, refreshAfterWrite, negativeTtl);
+    }
+
+    /**
+     * Retrieves customer information for each customer ID in the request, loading the IDs that are
+     * not cached from the backend in one call.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return the customers that were found, in the order of the requested IDs
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest) {
+        try {
+            return getCustomersAsync(customerRequest).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Retrieves customer information, waiting for the IDs that are not cached at most until the
+     * deadline. A load the caller stops waiting for still completes and fills the cache.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if the customers were not loaded before the deadline
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+        CompletableFuture<List<Customer>> customers = getCustomersAsync(customerRequest);
+        try {
+            return customers.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException("Customer lookup failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new CustomerLookupTimeoutException("Customer lookup did not complete before the deadline");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomerLookupTimeoutException("Interrupted while waiting for customer lookup");
+        }
+    }
+
+    /**
+     * Retrieves customer information without blocking; the future completes once the IDs that are
+     * not cached have been loaded.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return a future of the customers that were found, in the order of the requested IDs
+     */
+    @Override
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null) {
+            logger.warn("CustomerRequest or customerIds is null");
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<String> customerIds = customerRequest.getCustomerIds();
+        return cache.getAll(customerIds).thenApply(entries -> {
+            List<Customer> customers = new ArrayList<>(customerIds.size());
+            for (String customerId : customerIds) {
+                entries.get(customerId).ifPresent(customers::add);
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // cache.gets, cache.puts, cache.evictions and cache.load.duration tagged with cache=customers
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * Loads customers from the backend; IDs missing from the backend response load as absent.
+     */
+    private static final class BackendLoader implements AsyncCacheLoader<String, Optional<Customer>> {
+
+        private final CustomerLookup backend;
+
+        BackendLoader(CustomerLookup backend) {
+            this.backend = backend;
+        }
+
+        @Override
+        public CompletableFuture<Optional<Customer>> asyncLoad(String customerId, Executor executor) {
+            return asyncLoadAll(Set.of(customerId), executor).thenApply(loaded -> loaded.get(customerId));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Optional<Customer>>> asyncLoadAll(Set<? extends String> customerIds,
+                                                                              Executor executor) {
+            CustomerRequest request = new CustomerRequest();
+            request.setCustomerIds(List.copyOf(customerIds));
+            return backend.getCustomersAsync(request).thenApply(customers -> {
+                Map<String, Optional<Customer>> loaded = new HashMap<>();
+                for (String customerId : customerIds) {
+                    loaded.put(customerId, Optional.empty());
+                }
+                for (Customer customer : customers) {
+                    if (loaded.containsKey(customer.getCustomerId())) {
+                        loaded.put(customer.getCustomerId(), Optional.of(customer));
+                    }
+                }
+                logger.debug("Loaded {} customers from the backend", customerIds.size());
+                return loaded;
+            });
+        }
+    }
+
+    /**
+     * Expires found customers after the TTL and absent ones after the negative TTL.
+     */
+    private static final class PresenceExpiry implements Expiry<String, Optional<Customer>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PresenceExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String customerId, Optional<Customer> customer, long currentTime) {
+            return customer.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String customerId, Optional<Customer> customer, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(customerId, customer, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String customerId, Optional<Customer> customer, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
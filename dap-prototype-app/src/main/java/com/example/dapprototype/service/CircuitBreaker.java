@@ -0,0 +1,210 @@
+package com.example.dapprototype.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling a dependency that keeps failing or answering slowly, so requests fail fast instead
+ * of holding a thread on it.
+ * <p>
+ * While {@link State#CLOSED}, the outcomes of the last {@code windowSize} calls are kept; a call
+ * fails when it throws or takes longer than {@code slowCall}. Once at least {@code minimumCalls}
+ * are in the window and the failed share reaches {@code failureRateThreshold}, the breaker opens
+ * and rejects every call for {@code openDuration}. It then lets {@code halfOpenCalls} trial calls
+ * through: if they all succeed it closes with an empty window, and the first failure opens it again.
+ * <p>
+ * Publishes the {@code dap.circuit.state} gauge (0 closed, 1 open, 2 half-open) and the
+ * {@code dap.circuit.rejected} counter, both tagged with the {@code dependency}.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Whether calls are let through.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String dependency;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final Counter rejected;
+
+    // Guarded by this
+    private final boolean[] failures;
+    private int windowCalls;
+    private int windowFailures;
+    private int windowNext;
+    private State state = State.CLOSED;
+    private long openedNanos;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    /**
+     * @param dependency the name of the dependency, for the metric tags and logs
+     * @param windowSize the number of recent calls the failure rate is computed over
+     * @param minimumCalls the calls needed in the window before the breaker can open
+     * @param failureRateThreshold the failed share of the window, from 0 to 1, that opens the breaker
+     * @param slowCall the duration above which a call that succeeded counts as failed
+     * @param openDuration how long the breaker rejects calls before trying the dependency again
+     * @param halfOpenCalls the trial calls that must succeed to close the breaker again
+     * @param registry the registry to publish the breaker's metrics to
+     */
+    public CircuitBreaker(String dependency, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCall, Duration openDuration, int halfOpenCalls, MeterRegistry registry) {
+        this(dependency, windowSize, minimumCalls, failureRateThreshold, slowCall, openDuration, halfOpenCalls,
+                registry, System::nanoTime);
+    }
+
+    CircuitBreaker(String dependency, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration slowCall, Duration openDuration, int halfOpenCalls, MeterRegistry registry,
+                   LongSupplier nanoClock) {
+        this.dependency = dependency;
+        this.failures = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, failures.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCall.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.nanoClock = nanoClock;
+        this.rejected = Counter.builder("dap.circuit.rejected")
+                .description("Calls not made because the dependency's circuit breaker was open")
+                .tag("dependency", dependency)
+                .register(registry);
+        Gauge.builder("dap.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Circuit breaker state of a dependency: 0 closed, 1 open, 2 half-open")
+                .tag("dependency", dependency)
+                .register(registry);
+    }
+
+    /**
+     * Asks to call the dependency. A permitted call must be followed by {@link #onSuccess(long)},
+     * {@link #onFailure()} or {@link #onAbandoned(long)}.
+     *
+     * @return whether the call may be made
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedNanos >= openNanos) {
+            transition(State.HALF_OPEN);
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && trialPermits > 0) {
+            trialPermits--;
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Records a call that returned.
+     *
+     * @param elapsedNanos how long the call took
+     */
+    public synchronized void onSuccess(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            recordFailure();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+                windowCalls = 0;
+                windowFailures = 0;
+                windowNext = 0;
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a call that failed.
+     */
+    public synchronized void onFailure() {
+        recordFailure();
+    }
+
+    /**
+     * Records a call the caller stopped waiting for because its own deadline ran out. A call that
+     * had already run longer than {@code slowCall} counts as failed. A shorter one says nothing about
+     * the dependency, so it is not recorded and a half-open trial permit is handed back.
+     *
+     * @param elapsedNanos how long the caller waited for the call
+     */
+    public synchronized void onAbandoned(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            recordFailure();
+        } else if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public String dependency() {
+        return dependency;
+    }
+
+    // Must hold this
+    private void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls) {
+                open();
+            }
+        }
+    }
+
+    // Must hold this
+    private void record(boolean failed) {
+        if (windowCalls == failures.length) {
+            if (failures[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        failures[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % failures.length;
+    }
+
+    // Must hold this
+    private void open() {
+        transition(State.OPEN);
+        openedNanos = nanoClock.getAsLong();
+    }
+
+    // Must hold this
+    private void transition(State next) {
+        if (state != next) {
+            logger.warn("Circuit breaker of {} {} -> {}", dependency, state, next);
+            state = next;
+        }
+    }
+}
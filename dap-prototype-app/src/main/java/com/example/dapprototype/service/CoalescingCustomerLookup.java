@@ -0,0 +1,348 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the customer lookups of concurrent requests into bulk backend calls.
+ * <p>
+ * A lookup that arrives while no backend call is in flight is dispatched at once, so an idle
+ * service adds no latency. While a call is in flight, customer IDs are collected into a window that
+ * is dispatched as one backend call once that call completes, the window is {@code window} old, or
+ * it holds {@code maxBatchSize} distinct IDs, whichever comes first. An ID
+ * requested by several callers inside one window is looked up once and its result is fanned out
+ * to all of them. Every caller waits only until its own deadline; an ID whose callers have all
+ * passed their deadline before the window is dispatched is dropped from the backend call.
+ * <p>
+ * The {@code customer.batch.size} summary and the {@code customer.batch.wait} timer record the
+ * distinct IDs per backend call and how long each ID waited in the window, for tuning the window
+ * against tail latency.
+ */
+public class CoalescingCustomerLookup implements CustomerLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingCustomerLookup.class);
+
+    private final CustomerLookup backend;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+
+    private final Object lock = new Object();
+    // Guarded by lock: the IDs of the open window, in arrival order
+    private Map<String, PendingCustomer> window = new LinkedHashMap<>();
+    private long windowSequence;
+    // Guarded by lock: windows closed whose backend call has not completed
+    private int batchesInFlight;
+
+    /**
+     * Creates a coalescing lookup.
+     *
+     * @param backend the lookup that serves the bulk calls
+     * @param window how long the first ID of a window waits for more IDs while a backend call is in flight
+     * @param maxBatchSize distinct IDs that dispatch a window early
+     * @param timeout the deadline of callers that do not pass one
+     * @param dispatchThreads threads issuing backend calls, so slow calls do not hold up later windows
+     * @param registry the registry of the batch size and wait time meters
+     */
+    public CoalescingCustomerLookup(CustomerLookup backend, Duration window, int maxBatchSize, Duration timeout,
+                                    int dispatchThreads, MeterRegistry registry) {
+        this.backend = backend;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeoutNanos = timeout.toNanos();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new BatcherThreadFactory("customer-batch-timer"));
+        // Caller deadlines are mostly cancelled on completion; drop them from the queue right away
+        timer.setRemoveOnCancelPolicy(true);
+        this.scheduler = timer;
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads),
+                new BatcherThreadFactory("customer-batch-dispatch"));
+        this.batchSize = DistributionSummary.builder("customer.batch.size")
+                .description("Distinct customer IDs per coalesced backend call")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.batchWait = Timer.builder("customer.batch.wait")
+                .description("Time a customer ID waited in the coalescing window before its backend call")
+                .publishPercentileHistogram()
+                .register(registry);
+        logger.info("Customer lookup coalescing enabled: window={}, maxBatchSize={}, timeout={}",
+                window, this.maxBatchSize, timeout);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Retrieves customer information, waiting at most the configured timeout.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if the customers were not found before the deadline
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest) {
+        return getCustomers(customerRequest, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Retrieves customer information, waiting at most until the deadline or the configured timeout,
+     * whichever comes first.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if the customers were not found before the deadline
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+        long timeoutDeadlineNanos = System.nanoTime() + timeoutNanos;
+        try {
+            return getCustomersAsync(customerRequest,
+                    timeoutDeadlineNanos - deadlineNanos < 0 ? timeoutDeadlineNanos : deadlineNanos).join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        return getCustomersAsync(customerRequest, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Enqueues the customer IDs of a request into the current window.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return a future of the customers that were found, in the order of the requested IDs; it fails
+     *         with {@link CustomerLookupTimeoutException} if the deadline passes first
+     */
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest, long deadlineNanos) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null) {
+            logger.warn("CustomerRequest or customerIds is null");
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<String> customerIds = customerRequest.getCustomerIds();
+        List<CompletableFuture<Optional<Customer>>> results = new ArrayList<>(customerIds.size());
+        Map<String, PendingCustomer> fullWindow = null;
+        synchronized (lock) {
+            boolean opened = window.isEmpty();
+            for (String customerId : customerIds) {
+                PendingCustomer pending = window.get(customerId);
+                if (pending == null) {
+                    pending = new PendingCustomer(System.nanoTime(), deadlineNanos);
+                    window.put(customerId, pending);
+                } else {
+                    pending.extendDeadline(deadlineNanos);
+                }
+                results.add(pending.result);
+            }
+            if (window.size() >= maxBatchSize || (batchesInFlight == 0 && !window.isEmpty())) {
+                fullWindow = closeWindow();
+            } else if (opened && !window.isEmpty()) {
+                long sequence = windowSequence;
+                scheduler.schedule(() -> dispatchWindow(sequence), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (fullWindow != null) {
+            dispatch(fullWindow);
+        }
+
+        CompletableFuture<List<Customer>> customers = CompletableFuture
+                .allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<Customer> found = new ArrayList<>(results.size());
+                    for (CompletableFuture<Optional<Customer>> result : results) {
+                        result.join().ifPresent(found::add);
+                    }
+                    return found;
+                });
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        CompletableFuture<List<Customer>> bounded = new CompletableFuture<>();
+        customers.whenComplete((found, failure) -> {
+            if (failure != null) {
+                bounded.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+            } else {
+                bounded.complete(found);
+            }
+        });
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> bounded.completeExceptionally(
+                        new CustomerLookupTimeoutException("Customer lookup did not complete before the deadline")),
+                Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        bounded.whenComplete((found, failure) -> timeout.cancel(false));
+        return bounded;
+    }
+
+    private void dispatchWindow(long sequence) {
+        Map<String, PendingCustomer> dueWindow;
+        synchronized (lock) {
+            // The window was already dispatched by size, and a newer one may have opened since
+            if (sequence != windowSequence || window.isEmpty()) {
+                return;
+            }
+            dueWindow = closeWindow();
+        }
+        dispatch(dueWindow);
+    }
+
+    // Must hold lock
+    private Map<String, PendingCustomer> closeWindow() {
+        Map<String, PendingCustomer> closed = window;
+        window = new LinkedHashMap<>();
+        windowSequence++;
+        batchesInFlight++;
+        return closed;
+    }
+
+    private void batchCompleted() {
+        Map<String, PendingCustomer> nextWindow = null;
+        synchronized (lock) {
+            batchesInFlight--;
+            // The IDs that arrived during the call go out now rather than when their window elapses
+            if (batchesInFlight == 0 && !window.isEmpty()) {
+                nextWindow = closeWindow();
+            }
+        }
+        if (nextWindow != null) {
+            dispatch(nextWindow);
+        }
+    }
+
+    private void dispatch(Map<String, PendingCustomer> batch) {
+        long now = System.nanoTime();
+        List<String> customerIds = new ArrayList<>(batch.size());
+        long batchDeadlineNanos = now;
+        for (Map.Entry<String, PendingCustomer> entry : batch.entrySet()) {
+            PendingCustomer pending = entry.getValue();
+            batchWait.record(now - pending.enqueuedNanos, TimeUnit.NANOSECONDS);
+            if (now - pending.deadlineNanos >= 0) {
+                pending.result.completeExceptionally(
+                        new CustomerLookupTimeoutException("Customer lookup deadline passed before dispatch"));
+            } else {
+                customerIds.add(entry.getKey());
+                if (pending.deadlineNanos - batchDeadlineNanos > 0) {
+                    batchDeadlineNanos = pending.deadlineNanos;
+                }
+            }
+        }
+        if (customerIds.isEmpty()) {
+            batchCompleted();
+            return;
+        }
+        batchSize.record(customerIds.size());
+        long loadDeadlineNanos = batchDeadlineNanos;
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    load(customerIds, batch, loadDeadlineNanos);
+                } finally {
+                    batchCompleted();
+                }
+            });
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            batchCompleted();
+        }
+    }
+
+    private void load(List<String> customerIds, Map<String, PendingCustomer> batch, long deadlineNanos) {
+        List<Customer> customers;
+        try {
+            // No caller of the batch waits past the latest of their deadlines
+            customers = backend.getCustomers(new CustomerRequest(null, customerIds, null), deadlineNanos);
+        } catch (RuntimeException e) {
+            logger.error("Coalesced lookup of {} customers failed", customerIds.size(), e);
+            fail(batch, e);
+            return;
+        }
+        for (Customer customer : customers) {
+            PendingCustomer pending = batch.get(customer.getCustomerId());
+            if (pending != null) {
+                pending.result.complete(Optional.of(customer));
+            }
+        }
+        // IDs the backend did not return are unknown customers
+        for (String customerId : customerIds) {
+            batch.get(customerId).result.complete(Optional.empty());
+        }
+        logger.debug("Coalesced lookup of {} customers returned {}", customerIds.size(), customers.size());
+    }
+
+    private static void fail(Map<String, PendingCustomer> batch, Throwable failure) {
+        for (PendingCustomer pending : batch.values()) {
+            pending.result.completeExceptionally(failure);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        return failure instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new IllegalStateException("Customer lookup failed", failure);
+    }
+
+    /**
+     * One customer ID of the open window and the latest deadline of the callers waiting for it.
+     */
+    private static final class PendingCustomer {
+        private final CompletableFuture<Optional<Customer>> result = new CompletableFuture<>();
+        private final long enqueuedNanos;
+        // Guarded by the window lock until the window is closed
+        private long deadlineNanos;
+
+        PendingCustomer(long enqueuedNanos, long deadlineNanos) {
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void extendDeadline(long otherDeadlineNanos) {
+            if (otherDeadlineNanos - deadlineNanos > 0) {
+                deadlineNanos = otherDeadlineNanos;
+            }
+        }
+    }
+
+    private static final class BatcherThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        BatcherThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.dapprototype.service;
+
+import com.fasterxml.jackson.core.JsonToken;
+import io.swagger.v3.oas.models.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A flat OpenAPI object schema compiled into per-property checks that run against Jackson tokens.
+ * <p>
+ * Only the subset of JSON Schema used by the request bodies is supported: an object of scalar
+ * properties with {@code required}, {@code type}, {@code nullable}, {@code minLength},
+ * {@code maxLength}, {@code pattern}, {@code enum}, {@code minimum}, {@code maximum} and the
+ * {@code date-time} format. {@link #compile(Schema)} returns null for anything else so that callers
+ * fall back to the full OpenAPI validator.
+ */
+public final class CompiledRequestSchema {
+
+    // RFC 3339 date-time; the value is additionally range-checked by OffsetDateTime
+    private static final Pattern DATE_TIME = Pattern.compile(
+            "\\d{4}-\\d{2}-\\d{2}[Tt]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?([Zz]|[+-]\\d{2}:\\d{2})");
+
+    private final Map<String, PropertyRule> properties;
+    private final long requiredMask;
+
+    private CompiledRequestSchema(Map<String, PropertyRule> properties, long requiredMask) {
+        this.properties = properties;
+        this.requiredMask = requiredMask;
+    }
+
+    /**
+     * Compiles an object schema.
+     *
+     * @param schema the resolved OpenAPI schema of a request body
+     * @return the compiled schema, or null if the schema uses unsupported constructs
+     */
+    public static CompiledRequestSchema compile(Schema<?> schema) {
+        if (schema == null || !"object".equals(schema.getType()) || schema.getProperties() == null
+                || schema.getProperties().size() > Long.SIZE) {
+            return null;
+        }
+        List<String> required = schema.getRequired() != null ? schema.getRequired() : List.of();
+        Map<String, PropertyRule> rules = new HashMap<>();
+        long requiredMask = 0;
+        int index = 0;
+        for (String name : schema.getProperties().keySet()) {
+            Schema<?> property = schema.getProperties().get(name);
+            PropertyRule rule = PropertyRule.compile(name, index, property);
+            if (rule == null) {
+                return null;
+            }
+            rules.put(name, rule);
+            if (required.contains(name)) {
+                requiredMask |= 1L << index;
+            }
+            index++;
+        }
+        if (!rules.keySet().containsAll(required)) {
+            return null;
+        }
+        return new CompiledRequestSchema(Map.copyOf(rules), requiredMask);
+    }
+
+    /**
+     * Looks up the rule of a property.
+     *
+     * @param name the property name
+     * @return the rule, or null if the schema does not declare the property
+     */
+    PropertyRule property(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Checks that every required property was seen.
+     *
+     * @param seenMask bit set of the indexes of the properties that were present
+     * @return true if all required properties are present
+     */
+    boolean hasAllRequired(long seenMask) {
+        return (seenMask & requiredMask) == requiredMask;
+    }
+
+    private enum ScalarType { STRING, INTEGER, NUMBER, BOOLEAN }
+
+    /**
+     * Checks for one property, evaluated against the value token under the parser.
+     */
+    static final class PropertyRule {
+        private final String name;
+        private final int index;
+        private final ScalarType type;
+        private final boolean nullable;
+        private final int minLength;
+        private final int maxLength;
+        private final Pattern pattern;
+        private final boolean dateTime;
+        private final List<String> enumValues;
+        private final BigDecimal minimum;
+        private final BigDecimal maximum;
+
+        private PropertyRule(String name, int index, ScalarType type, boolean nullable, int minLength, int maxLength,
+                             Pattern pattern, boolean dateTime, List<String> enumValues,
+                             BigDecimal minimum, BigDecimal maximum) {
+            this.name = name;
+            this.index = index;
+            this.type = type;
+            this.nullable = nullable;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.pattern = pattern;
+            this.dateTime = dateTime;
+            this.enumValues = enumValues;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        static PropertyRule compile(String name, int index, Schema<?> schema) {
+            if (schema == null || schema.get$ref() != null || Boolean.TRUE.equals(schema.getExclusiveMinimum())
+                    || Boolean.TRUE.equals(schema.getExclusiveMaximum()) || schema.getMultipleOf() != null) {
+                return null;
+            }
+            ScalarType type;
+            switch (schema.getType() == null ? "" : schema.getType()) {
+                case "string" -> type = ScalarType.STRING;
+                case "integer" -> type = ScalarType.INTEGER;
+                case "number" -> type = ScalarType.NUMBER;
+                case "boolean" -> type = ScalarType.BOOLEAN;
+                default -> {
+                    return null;
+                }
+            }
+            String format = schema.getFormat();
+            boolean dateTime = "date-time".equals(format);
+            if (type == ScalarType.STRING && format != null && !dateTime) {
+                // Other string formats are left to the full validator
+                return null;
+            }
+            List<String> enumValues = null;
+            if (schema.getEnum() != null) {
+                enumValues = new ArrayList<>();
+                for (Object value : schema.getEnum()) {
+                    enumValues.add(String.valueOf(value));
+                }
+            }
+            return new PropertyRule(name, index, type,
+                    Boolean.TRUE.equals(schema.getNullable()),
+                    schema.getMinLength() != null ? schema.getMinLength() : 0,
+                    schema.getMaxLength() != null ? schema.getMaxLength() : Integer.MAX_VALUE,
+                    schema.getPattern() != null ? Pattern.compile(schema.getPattern()) : null,
+                    dateTime, enumValues, schema.getMinimum(), schema.getMaximum());
+        }
+
+        int index() {
+            return index;
+        }
+
+        /**
+         * Checks the value token of this property.
+         *
+         * @param token the current value token
+         * @param text the token text, or null for structural and null tokens
+         * @param number the numeric value for number tokens, otherwise null
+         * @return a violation message, or null if the value is valid
+         */
+        String check(JsonToken token, String text, BigDecimal number) {
+            if (token == JsonToken.VALUE_NULL) {
+                return nullable ? null : name + ": null is not allowed";
+            }
+            switch (type) {
+                case STRING -> {
+                    if (token != JsonToken.VALUE_STRING) {
+                        return name + ": expected string";
+                    }
+                    return checkString(text);
+                }
+                case INTEGER -> {
+                    if (token != JsonToken.VALUE_NUMBER_INT) {
+                        return name + ": expected integer";
+                    }
+                    return checkNumber(number);
+                }
+                case NUMBER -> {
+                    if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+                        return name + ": expected number";
+                    }
+                    return checkNumber(number);
+                }
+                default -> {
+                    return token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE
+                            ? null : name + ": expected boolean";
+                }
+            }
+        }
+
+        private String checkString(String value) {
+            int length = value.codePointCount(0, value.length());
+            if (length < minLength) {
+                return name + ": shorter than " + minLength;
+            }
+            if (length > maxLength) {
+                return name + ": longer than " + maxLength;
+            }
+            if (pattern != null && !pattern.matcher(value).find()) {
+                return name + ": does not match " + pattern.pattern();
+            }
+            if (enumValues != null && !enumValues.contains(value)) {
+                return name + ": not one of " + enumValues;
+            }
+            if (dateTime && !isDateTime(value)) {
+                return name + ": not a valid date-time";
+            }
+            return null;
+        }
+
+        private String checkNumber(BigDecimal value) {
+            if (minimum != null && value.compareTo(minimum) < 0) {
+                return name + ": less than " + minimum;
+            }
+            if (maximum != null && value.compareTo(maximum) > 0) {
+                return name + ": greater than " + maximum;
+            }
+            if (enumValues != null && enumValues.stream().map(BigDecimal::new).noneMatch(e -> e.compareTo(value) == 0)) {
+                return name + ": not one of " + enumValues;
+            }
+            return null;
+        }
+
+        private static boolean isDateTime(String value) {
+            if (!DATE_TIME.matcher(value).matches()) {
+                return false;
+            }
+            try {
+                OffsetDateTime.parse(value.toUpperCase());
+                return true;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        boolean needsNumber() {
+            return type == ScalarType.INTEGER || type == ScalarType.NUMBER;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on the number of requests processed at once.
+ * <p>
+ * A request that would exceed the limit is rejected straight away instead of queueing behind the
+ * others, so the requests that are admitted keep their latency when a backend slows down. The
+ * limit follows the gradient between the long-term and the recent round-trip time of the
+ * admitted requests. Every {@code windowSize} completions, the average round-trip time of the
+ * window is compared with an exponential average over about {@value #LONG_WINDOWS} windows:
+ * <pre>
+ * gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1)
+ * limit    = limit * gradient + sqrt(limit)
+ * </pre>
+ * While latency holds, the limit grows by the square root term; once the recent round trips are
+ * slower than {@code tolerance} times the long-term ones, it shrinks in proportion. A window with
+ * a server error backs the limit off by {@value #BACKOFF_RATIO} instead. Changes are smoothed,
+ * and windows in which fewer than half the permits were used leave the limit alone, since they
+ * say nothing about it.
+ * <p>
+ * Publishes the limit and the requests in flight as the {@code dap.concurrency.limit} and
+ * {@code dap.concurrency.in.flight} gauges and the rejected requests as {@code dap.concurrency.shed}.
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * The response to a rejected request. It never varies, so it is shared and
+     * {@link DAResponseWriter} sends it pre-serialized; it must not be modified.
+     */
+    public static final DAResponse OVERLOADED = new DAResponse(false, "Server overloaded, retry later",
+            "OVERLOADED", List.of("Concurrency limit reached"), null);
+
+    static final int LONG_WINDOWS = 600;
+    static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_ALPHA = 2.0 / (LONG_WINDOWS + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter shed;
+    private volatile int limit;
+
+    // Guarded by this; updated once per completion and evaluated once per window
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * @param initialLimit the limit until the first window completes
+     * @param minLimit the lowest the limit goes
+     * @param maxLimit the highest the limit goes
+     * @param windowSize the completions per limit update
+     * @param tolerance how much slower than the long-term round trip the recent ones may get before the limit shrinks
+     * @param smoothing the weight of a new limit against the current one, from 0 to 1
+     * @param registry the registry to publish the limiter's metrics to
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int windowSize,
+                              double tolerance, double smoothing, MeterRegistry registry) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = Math.max(1, windowSize);
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        Gauge.builder("dap.concurrency.limit", this, ConcurrencyLimiter::getLimit)
+                .description("Requests the adaptive concurrency limiter admits at once")
+                .register(registry);
+        Gauge.builder("dap.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests admitted by the concurrency limiter and not yet completed")
+                .register(registry);
+        this.shed = Counter.builder("dap.concurrency.shed")
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(registry);
+    }
+
+    /**
+     * Admits a request if the limit allows it.
+     *
+     * @return the permit to release when the request completes, or {@code null} if the request was rejected
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(System.nanoTime(), current + 1);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Records a completed request and updates the limit at the end of a window.
+     *
+     * @param rttNanos the round-trip time of the request
+     * @param inFlightAtStart the requests in flight when it was admitted, itself included
+     * @param dropped whether it failed with a server error
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        windowRttNanos += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        if (++windowSamples < windowSize) {
+            return;
+        }
+        double shortRttNanos = (double) windowRttNanos / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        boolean anyDropped = windowDropped;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+        updateLimit(shortRttNanos, maxInFlight, anyDropped);
+    }
+
+    private void updateLimit(double shortRttNanos, int maxInFlight, boolean dropped) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) * LONG_RTT_ALPHA;
+        }
+        if (longRttNanos > 2 * shortRttNanos) {
+            // Latency has recovered from a long stretch of overload: let the baseline follow it down faster
+            longRttNanos *= 0.95;
+        }
+        if (!dropped && maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else {
+            double gradient = Math.clamp(tolerance * longRttNanos / shortRttNanos, 0.5, 1.0);
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * An admitted request, to be released exactly once when it completes.
+     */
+    public final class Permit {
+
+        private final long acquiredAt;
+        private final int inFlightAtStart;
+
+        private Permit(long acquiredAt, int inFlightAtStart) {
+            this.acquiredAt = acquiredAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and records the round-trip time of the request.
+         *
+         * @param dropped whether the request failed with a server error
+         */
+        public void release(boolean dropped) {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - acquiredAt, inFlightAtStart, dropped);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A client of the system of record for customers.
+ * <p>
+ * Implementations make blocking calls; {@link BackendCustomerLookup} runs them on virtual threads,
+ * splits large ID sets into parallel {@link #multiGet(List)} calls, bounds them by a timeout and
+ * hedges slow ones. A call may be interrupted when it is no longer needed.
+ */
+public interface CustomerBackend {
+
+    /**
+     * Looks up one customer.
+     *
+     * @param customerId the customer ID
+     * @return the customer, or empty if the backend does not know it
+     */
+    Optional<Customer> get(String customerId);
+
+    /**
+     * Looks up several customers in one call.
+     *
+     * @param customerIds distinct customer IDs
+     * @return the customers that were found by customer ID; unknown IDs are absent
+     */
+    Map<String, Customer> multiGet(List<String> customerIds);
+}
@@ -0,0 +1,45 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Looks up the customers referenced by a request.
+ */
+public interface CustomerLookup {
+
+    /**
+     * Retrieves customer information for the customer IDs in the request.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return the customers that were found, in the order of the requested IDs
+     */
+    List<Customer> getCustomers(CustomerRequest customerRequest);
+
+    /**
+     * Retrieves customer information for a caller that no longer needs it after a deadline. Lookups
+     * that cannot bound their backend calls ignore the deadline and apply their own timeout.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return the customers that were found, in the order of the requested IDs
+     * @throws CustomerLookupTimeoutException if a lookup that honours the deadline did not complete before it
+     */
+    default List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+        return getCustomers(customerRequest);
+    }
+
+    /**
+     * Retrieves customer information without blocking the caller. Lookups that do not have a
+     * native asynchronous path run {@link #getCustomers(CustomerRequest)} on the common pool.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return a future of the customers that were found, in the order of the requested IDs
+     */
+    default CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        return CompletableFuture.supplyAsync(() -> getCustomers(customerRequest));
+    }
+}
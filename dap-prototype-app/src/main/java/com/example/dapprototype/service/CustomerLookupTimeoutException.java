@@ -0,0 +1,11 @@
+package com.example.dapprototype.service;
+
+/**
+ * Thrown when customers could not be looked up before the caller's deadline.
+ */
+public class CustomerLookupTimeoutException extends RuntimeException {
+
+    public CustomerLookupTimeoutException(String message) {
+        super(message);
+    }
+}
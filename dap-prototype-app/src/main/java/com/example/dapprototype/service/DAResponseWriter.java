@@ -0,0 +1,112 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link DAResponse} JSON straight to an output stream.
+ * <p>
+ * The fields are written with a {@link JsonGenerator} from pre-encoded names instead of going
+ * through the object mapper's bean serializer, producing the same bytes the mapper would. Fixed
+ * responses such as {@link RequestProcessingService#INVALID_JSON_PAYLOAD},
+ * {@link ConcurrencyLimiter#OVERLOADED} and {@link IdempotencyCache#IDEMPOTENCY_CONFLICT} are
+ * serialized once and copied out as they are.
+ */
+@Component
+public class DAResponseWriter {
+
+    private static final SerializedString SUCCESS = new SerializedString("success");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString DETAILS = new SerializedString("details");
+    private static final SerializedString RULES_RESPONSE = new SerializedString("rulesResponse");
+    private static final SerializedString DECISION = new SerializedString("decision");
+    private static final SerializedString FIRED_RULE_IDS = new SerializedString("firedRuleIds");
+
+    private final JsonFactory jsonFactory;
+    private final Map<DAResponse, byte[]> fixedResponses = new IdentityHashMap<>();
+
+    public DAResponseWriter(ObjectMapper objectMapper) throws JsonProcessingException {
+        this.jsonFactory = objectMapper.getFactory();
+        fixedResponses.put(RequestProcessingService.INVALID_JSON_PAYLOAD,
+                objectMapper.writeValueAsBytes(RequestProcessingService.INVALID_JSON_PAYLOAD));
+        fixedResponses.put(ConcurrencyLimiter.OVERLOADED, objectMapper.writeValueAsBytes(ConcurrencyLimiter.OVERLOADED));
+        fixedResponses.put(IdempotencyCache.IDEMPOTENCY_CONFLICT,
+                objectMapper.writeValueAsBytes(IdempotencyCache.IDEMPOTENCY_CONFLICT));
+        fixedResponses.put(RequestBufferPool.PAYLOAD_TOO_LARGE,
+                objectMapper.writeValueAsBytes(RequestBufferPool.PAYLOAD_TOO_LARGE));
+        fixedResponses.put(BatchProcessingService.RECORD_TOO_LARGE,
+                objectMapper.writeValueAsBytes(BatchProcessingService.RECORD_TOO_LARGE));
+    }
+
+    /**
+     * Writes a response as UTF-8 JSON. The stream is neither flushed nor closed.
+     *
+     * @param response the response to write
+     * @param output the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(DAResponse response, OutputStream output) throws IOException {
+        byte[] fixed = fixedResponses.get(response);
+        if (fixed != null) {
+            output.write(fixed);
+            return;
+        }
+        try (JsonGenerator generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            // Leave the stream open and unflushed, so a servlet response is not committed as chunked
+            // before the container can set its Content-Length
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.writeStartObject();
+            generator.writeFieldName(SUCCESS);
+            generator.writeBoolean(response.isSuccess());
+            generator.writeFieldName(MESSAGE);
+            generator.writeString(response.getMessage());
+            generator.writeFieldName(CODE);
+            generator.writeString(response.getCode());
+            generator.writeFieldName(DETAILS);
+            writeStrings(generator, response.getDetails());
+            generator.writeFieldName(RULES_RESPONSE);
+            writeRulesResponse(generator, response.getRulesResponse());
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeRulesResponse(JsonGenerator generator, RulesResponse rulesResponse) throws IOException {
+        if (rulesResponse == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(DECISION);
+        generator.writeString(rulesResponse.getDecision());
+        generator.writeFieldName(FIRED_RULE_IDS);
+        writeStrings(generator, rulesResponse.getFiredRuleIds());
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, List<String> values) throws IOException {
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
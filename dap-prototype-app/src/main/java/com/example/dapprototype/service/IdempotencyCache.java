@@ -0,0 +1,492 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Answers a retried request with the response of its first attempt.
+ * <p>
+ * Requests are keyed on their {@code activityId} within their transaction type, or operation path
+ * when routed by path. A request with the key and the body of a stored request gets the stored
+ * response back without running the pipeline again; a request with the key of a stored or running
+ * request but a different body is rejected with {@link #IDEMPOTENCY_CONFLICT}. A duplicate of a
+ * request that is still running waits for its response instead of starting a second computation,
+ * for at most the wait timeout and never past its own deadline.
+ * Only 2xx responses other than fallback decisions are stored, so a request that failed on the
+ * server or fell back is computed again when retried. Replayed responses carry the {@value #REPLAYED_HEADER} header.
+ * <p>
+ * Entries live in a fixed set-associative table of primitive arrays: eight ways per bucket, each
+ * holding a 64-bit hash of the key, a 64-bit fingerprint of the body, the index of the response
+ * and the second it was written, 24 bytes in all. Responses are interned, since they only differ
+ * by decision and fired rules, so a million keys take 24 MB allocated once at startup, with no
+ * objects per entry for the collector to trace. A full bucket evicts its oldest entry, and entries
+ * older than the TTL are neither returned nor kept over free ways. Keys and bodies are compared by
+ * their hashes only; a collision of both 64-bit hashes is accepted as negligible.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * The response to a request that reuses the activityId of a different request. It never
+     * varies, so it is shared and {@link DAResponseWriter} sends it pre-serialized; it must not be
+     * modified.
+     */
+    public static final DAResponse IDEMPOTENCY_CONFLICT = new DAResponse(false,
+            "activityId already used by a different request", "IDEMPOTENCY_CONFLICT",
+            List.of("activityId: a request with this activityId and a different body was already received"), null);
+
+    static final int WAYS = 8;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int CONFLICT = -1;
+    private static final String ACTIVITY_ID = "activityId";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final boolean enabled;
+    private final int bucketMask;
+    private final long[] keys;
+    private final long[] fingerprints;
+    private final int[] responseIds;
+    private final int[] writtenAt;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int ttlSeconds;
+    private final Duration waitTimeout;
+    private final PipelineResilience resilience;
+    private final LongSupplier ticker;
+    private final long startedAt;
+
+    private final Map<StoredResponse, Integer> responseIdsByResponse = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<StoredResponse> responses;
+    private int responseCount;
+    private boolean responsesFullLogged;
+
+    private final Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter processed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter conflicts;
+    private final Counter uncachedResponses;
+
+    @Autowired
+    public IdempotencyCache(ObjectProvider<MeterRegistry> meterRegistry,
+                            @Value("${dap.idempotency.enabled:true}") boolean enabled,
+                            @Value("${dap.idempotency.maximum-size:1048576}") int maximumSize,
+                            @Value("${dap.idempotency.ttl-ms:600000}") long ttlMs,
+                            @Value("${dap.idempotency.max-distinct-responses:4096}") int maxDistinctResponses,
+                            @Value("${dap.idempotency.wait-timeout-ms:5000}") long waitTimeoutMs,
+                            ObjectProvider<PipelineResilience> resilience) {
+        this(enabled, maximumSize, Duration.ofMillis(ttlMs), maxDistinctResponses, Duration.ofMillis(waitTimeoutMs),
+                resilience.getIfAvailable(() -> PipelineResilience.DISABLED),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime);
+    }
+
+    IdempotencyCache(boolean enabled, int maximumSize, Duration ttl, int maxDistinctResponses, Duration waitTimeout,
+                     PipelineResilience resilience, MeterRegistry registry, LongSupplier ticker) {
+        this.enabled = enabled;
+        int neededBuckets = enabled ? Math.max(1, (maximumSize + WAYS - 1) / WAYS) : 1;
+        int buckets = neededBuckets == 1 ? 1 : Integer.highestOneBit(neededBuckets - 1) << 1;
+        this.bucketMask = buckets - 1;
+        this.keys = new long[buckets * WAYS];
+        this.fingerprints = new long[buckets * WAYS];
+        this.responseIds = new int[buckets * WAYS];
+        this.writtenAt = new int[buckets * WAYS];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        this.ttlSeconds = (int) Math.max(1, ttl.toSeconds());
+        this.waitTimeout = waitTimeout;
+        this.resilience = resilience;
+        this.ticker = ticker;
+        this.startedAt = ticker.getAsLong();
+        this.responses = new AtomicReferenceArray<>(Math.max(1, maxDistinctResponses) + 1);
+        this.processed = outcomeCounter(registry, "processed");
+        this.replayed = outcomeCounter(registry, "replayed");
+        this.joined = outcomeCounter(registry, "joined");
+        this.conflicts = outcomeCounter(registry, "conflict");
+        this.uncachedResponses = Counter.builder("dap.idempotency.uncached-responses")
+                .description("Responses not stored because max-distinct-responses are already interned")
+                .register(registry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("dap.idempotency.requests")
+                .description("Scoring requests by how the idempotency cache answered them")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Answers a request from the cache, from the running computation of the same request, or by
+     * running the pipeline and storing its response.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param pipeline computes the response of the request
+     * @return the response
+     */
+    public ResponseEntity<?> process(JsonBody body, String operationPath, String txnType,
+                                     Supplier<ResponseEntity<?>> pipeline) {
+        return process(body, operationPath, txnType, RequestDeadline.NONE, pipeline);
+    }
+
+    /**
+     * Answers a request within its deadline. A duplicate of a running request whose deadline runs
+     * out while it waits gets a deadline exceeded response instead of running the pipeline.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param deadline the deadline of the request
+     * @param pipeline computes the response of the request
+     * @return the response
+     */
+    public ResponseEntity<?> process(JsonBody body, String operationPath, String txnType, RequestDeadline deadline,
+                                     Supplier<ResponseEntity<?>> pipeline) {
+        String activityId = enabled ? activityId(body) : null;
+        if (activityId == null) {
+            return pipeline.get();
+        }
+        long key = key(txnType != null ? txnType : operationPath, activityId);
+        long fingerprint = body.fingerprint();
+        ResponseEntity<?> stored = stored(key, fingerprint);
+        if (stored != null) {
+            return stored;
+        }
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return join(running, fingerprint, deadline, pipeline);
+        }
+        try {
+            // The first attempt may have completed between the lookup and registering this one
+            ResponseEntity<?> response = stored(key, fingerprint);
+            if (response == null) {
+                processed.increment();
+                response = pipeline.get();
+                storeIfFinal(key, fingerprint, response);
+            }
+            mine.response.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            mine.response.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private ResponseEntity<?> join(InFlight running, long fingerprint, RequestDeadline deadline,
+                                   Supplier<ResponseEntity<?>> pipeline) {
+        if (running.fingerprint != fingerprint) {
+            return conflict();
+        }
+        try {
+            long waitNanos = Math.max(0, Math.min(waitTimeout.toNanos(), deadline.remainingNanos()));
+            ResponseEntity<?> response = running.response.get(waitNanos, TimeUnit.NANOSECONDS);
+            joined.increment();
+            return replay(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Duplicate request could not use the running attempt, processing it again", e);
+        }
+        if (deadline.isExpired()) {
+            return resilience.deadlineExceeded(PipelineStage.VALIDATION);
+        }
+        processed.increment();
+        return pipeline.get();
+    }
+
+    /**
+     * Answers a request like {@link #process(JsonBody, String, String, RequestDeadline, Supplier)}
+     * without blocking, for the reactive stack: a duplicate of a running request continues when
+     * that request completes, its wait timeout passes or its deadline runs out.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param deadline the deadline of the request
+     * @param pipeline starts computing the response of the request
+     * @return the response, once available
+     */
+    public CompletableFuture<ResponseEntity<?>> processAsync(JsonBody body, String operationPath, String txnType,
+                                                             RequestDeadline deadline,
+                                                             Supplier<CompletableFuture<ResponseEntity<?>>> pipeline) {
+        String activityId = enabled ? activityId(body) : null;
+        if (activityId == null) {
+            return pipeline.get();
+        }
+        long key = key(txnType != null ? txnType : operationPath, activityId);
+        long fingerprint = body.fingerprint();
+        ResponseEntity<?> stored = stored(key, fingerprint);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return joinAsync(running, fingerprint, deadline, pipeline);
+        }
+        CompletableFuture<ResponseEntity<?>> response;
+        try {
+            // The first attempt may have completed between the lookup and registering this one
+            stored = stored(key, fingerprint);
+            if (stored != null) {
+                response = CompletableFuture.completedFuture(stored);
+            } else {
+                processed.increment();
+                response = pipeline.get().thenApply(computed -> {
+                    storeIfFinal(key, fingerprint, computed);
+                    return computed;
+                });
+            }
+        } catch (RuntimeException | Error e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((computed, failure) -> {
+            if (failure != null) {
+                mine.response.completeExceptionally(failure);
+            } else {
+                mine.response.complete(computed);
+            }
+            inFlight.remove(key, mine);
+        });
+    }
+
+    private CompletableFuture<ResponseEntity<?>> joinAsync(InFlight running, long fingerprint, RequestDeadline deadline,
+                                                           Supplier<CompletableFuture<ResponseEntity<?>>> pipeline) {
+        if (running.fingerprint != fingerprint) {
+            return CompletableFuture.completedFuture(conflict());
+        }
+        long waitNanos = Math.max(0, Math.min(waitTimeout.toNanos(), deadline.remainingNanos()));
+        // A copy, so the timeout of this duplicate does not complete the running request's future
+        return running.response.copy()
+                .orTimeout(waitNanos, TimeUnit.NANOSECONDS)
+                .handle((response, failure) -> {
+                    if (failure == null) {
+                        joined.increment();
+                        return CompletableFuture.<ResponseEntity<?>>completedFuture(replay(response));
+                    }
+                    logger.debug("Duplicate request could not use the running attempt, processing it again", failure);
+                    if (deadline.isExpired()) {
+                        return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                                resilience.deadlineExceeded(PipelineStage.VALIDATION));
+                    }
+                    processed.increment();
+                    return pipeline.get();
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Answers a request from the table.
+     *
+     * @return the replayed response or the conflict, or null if the key is not stored
+     */
+    private ResponseEntity<?> stored(long key, long fingerprint) {
+        int found = find(key, fingerprint);
+        if (found == CONFLICT) {
+            return conflict();
+        }
+        if (found > 0) {
+            replayed.increment();
+            return replay(responses.get(found).toResponseEntity());
+        }
+        return null;
+    }
+
+    /**
+     * Stores a response a retry should get back: a 2xx response that is not a fallback decision.
+     */
+    private void storeIfFinal(long key, long fingerprint, ResponseEntity<?> response) {
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() instanceof DAResponse daResponse
+                && !PipelineResilience.FALLBACK.equals(daResponse.getCode())) {
+            store(key, fingerprint, response.getStatusCode().value(), daResponse);
+        }
+    }
+
+    private ResponseEntity<?> conflict() {
+        conflicts.increment();
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(IDEMPOTENCY_CONFLICT);
+    }
+
+    private static ResponseEntity<?> replay(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @return the index of the stored response if the key is stored with the fingerprint,
+     *         {@link #CONFLICT} if it is stored with another, or 0 if it is not stored
+     */
+    private int find(long key, long fingerprint) {
+        int bucket = bucket(key);
+        int now = now();
+        synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+            for (int way = bucket * WAYS, end = way + WAYS; way < end; way++) {
+                if (keys[way] == key && responseIds[way] != 0 && now - writtenAt[way] < ttlSeconds) {
+                    return fingerprints[way] == fingerprint ? responseIds[way] : CONFLICT;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void store(long key, long fingerprint, int status, DAResponse response) {
+        int responseId = intern(new StoredResponse(status, response));
+        if (responseId == 0) {
+            return;
+        }
+        int bucket = bucket(key);
+        int now = now();
+        synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+            int victim = -1;
+            for (int way = bucket * WAYS, end = way + WAYS; way < end; way++) {
+                if (keys[way] == key || responseIds[way] == 0 || now - writtenAt[way] >= ttlSeconds) {
+                    victim = way;
+                    break;
+                }
+                if (victim < 0 || writtenAt[way] < writtenAt[victim]) {
+                    victim = way;
+                }
+            }
+            keys[victim] = key;
+            fingerprints[victim] = fingerprint;
+            responseIds[victim] = responseId;
+            writtenAt[victim] = now;
+        }
+    }
+
+    /**
+     * Gets the index of a response, adding it while there is room.
+     *
+     * @return the index, or 0 once {@code max-distinct-responses} are interned
+     */
+    private int intern(StoredResponse response) {
+        Integer id = responseIdsByResponse.get(response);
+        if (id != null) {
+            return id;
+        }
+        synchronized (responseIdsByResponse) {
+            id = responseIdsByResponse.get(response);
+            if (id != null) {
+                return id;
+            }
+            if (responseCount == responses.length() - 1) {
+                uncachedResponses.increment();
+                if (!responsesFullLogged) {
+                    responsesFullLogged = true;
+                    logger.warn("Idempotency cache holds dap.idempotency.max-distinct-responses={} responses; "
+                            + "responses not seen before are no longer stored", responseCount);
+                }
+                return 0;
+            }
+            int newId = ++responseCount;
+            responses.set(newId, response);
+            responseIdsByResponse.put(response, newId);
+            return newId;
+        }
+    }
+
+    private int bucket(long key) {
+        return (int) (key >>> 32 ^ key) & bucketMask;
+    }
+
+    private int now() {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(ticker.getAsLong() - startedAt);
+    }
+
+    /**
+     * Reads the top-level {@code activityId} of a body.
+     *
+     * @return the activityId, or null if the body is not a JSON object with a non-blank one
+     */
+    static String activityId(JsonBody body) {
+        if (body.isAbsent()) {
+            return null;
+        }
+        try (JsonParser parser = body.createParser(JSON_FACTORY)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (ACTIVITY_ID.equals(field)) {
+                    return value == JsonToken.VALUE_STRING && !parser.getText().isBlank() ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Not JSON; the pipeline reports it
+        }
+        return null;
+    }
+
+    static long key(String scope, String activityId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < scope.length(); i++) {
+            hash = (hash ^ scope.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0xffff) * 0x100000001b3L;
+        for (int i = 0; i < activityId.length(); i++) {
+            hash = (hash ^ activityId.charAt(i)) * 0x100000001b3L;
+        }
+        return JsonBody.mix(hash);
+    }
+
+    private record StoredResponse(int status, DAResponse response) {
+
+        ResponseEntity<DAResponse> toResponseEntity() {
+            return ResponseEntity.status(status).body(response);
+        }
+    }
+
+    private static final class InFlight {
+
+        final long fingerprint;
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        InFlight(long fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
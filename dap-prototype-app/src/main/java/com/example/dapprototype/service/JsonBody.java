@@ -0,0 +1,128 @@
+package com.example.dapprototype.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON request body, held either as the text it was received as or as the UTF-8 bytes read from
+ * the request stream.
+ * <p>
+ * Byte bodies are parsed straight from the bytes; they are only decoded to a string when the full
+ * OpenAPI validator has to report on a body the single-pass validator did not accept. A byte body
+ * may be backed by a pooled buffer and is only valid until that buffer is released.
+ */
+public final class JsonBody {
+
+    private final String text;
+    private final byte[] bytes;
+    private final int length;
+
+    private JsonBody(String text, byte[] bytes, int length) {
+        this.text = text;
+        this.bytes = bytes;
+        this.length = length;
+    }
+
+    /**
+     * Wraps a body received as text.
+     *
+     * @param text the JSON text, or null if the request had no body
+     * @return the body
+     */
+    public static JsonBody of(String text) {
+        return new JsonBody(text, null, 0);
+    }
+
+    /**
+     * Wraps a body received as UTF-8 bytes, without copying them.
+     *
+     * @param bytes the buffer holding the body
+     * @param length the number of body bytes at the start of the buffer
+     * @return the body
+     */
+    public static JsonBody of(byte[] bytes, int length) {
+        return new JsonBody(null, bytes, length);
+    }
+
+    /**
+     * Checks whether the request had no body at all.
+     *
+     * @return true if there is no body
+     */
+    public boolean isAbsent() {
+        return text == null && bytes == null;
+    }
+
+    JsonParser createParser(ObjectReader reader) throws IOException {
+        return text != null ? reader.createParser(text) : reader.createParser(bytes, 0, length);
+    }
+
+    /**
+     * Copies the UTF-8 body bytes into a buffer, encoding text bodies.
+     *
+     * @param target the buffer to copy to
+     * @param offset the position in the buffer to copy to
+     * @return the number of bytes copied, or -1 if there is no body or it does not fit
+     */
+    public int copyTo(byte[] target, int offset) {
+        byte[] data = bytes;
+        int count = length;
+        if (text != null) {
+            data = text.getBytes(StandardCharsets.UTF_8);
+            count = data.length;
+        }
+        if (data == null || count > target.length - offset) {
+            return -1;
+        }
+        System.arraycopy(data, 0, target, offset, count);
+        return count;
+    }
+
+    JsonParser createParser(JsonFactory factory) throws IOException {
+        return text != null ? factory.createParser(text) : factory.createParser(bytes, 0, length);
+    }
+
+    /**
+     * Hashes the body bytes to 64 bits (FNV-1a, then the MurmurHash3 finalizer), so that bodies
+     * can be told apart without keeping them. Text bodies are hashed as their UTF-8 encoding.
+     */
+    long fingerprint() {
+        byte[] data = bytes;
+        int count = length;
+        if (text != null) {
+            data = text.getBytes(StandardCharsets.UTF_8);
+            count = data.length;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < count; i++) {
+            hash = (hash ^ (data[i] & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    Object readValue(ObjectReader reader) throws IOException {
+        return text != null ? reader.readValue(text) : reader.readValue(bytes, 0, length);
+    }
+
+    /**
+     * Gets the body as text, decoding byte bodies.
+     *
+     * @return the JSON text, or null if there is no body
+     */
+    public String asString() {
+        if (text != null || bytes == null) {
+            return text;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -7,11 +7,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
-public class MockCustomerAPI {
+public class MockCustomerAPI implements CustomerLookup, CustomerBackend {
 
     private static final Logger logger = LoggerFactory.getLogger(MockCustomerAPI.class);
 
@@ -21,6 +24,7 @@ public class MockCustomerAPI {
      * @param customerRequest the customer request containing customer IDs
      * @return list of Customer objects, one for each customer ID
      */
+    @Override
     public List<Customer> getCustomers(CustomerRequest customerRequest) {
         List<Customer> customers = new ArrayList<>();
         
@@ -41,6 +45,33 @@ public class MockCustomerAPI {
         return customers;
     }
     
+    /**
+     * Creates a customer with a random name.
+     *
+     * @param customerId the customer ID
+     * @return the customer, which is always found
+     */
+    @Override
+    public Optional<Customer> get(String customerId) {
+        return Optional.of(new Customer(customerId, generateRandomCustomerName()));
+    }
+
+    /**
+     * Creates a customer with a random name for each customer ID.
+     *
+     * @param customerIds the customer IDs
+     * @return a customer for every customer ID
+     */
+    @Override
+    public Map<String, Customer> multiGet(List<String> customerIds) {
+        Map<String, Customer> customers = new LinkedHashMap<>();
+        for (String customerId : customerIds) {
+            customers.put(customerId, new Customer(customerId, generateRandomCustomerName()));
+        }
+        logger.debug("Retrieved {} customers", customers.size());
+        return customers;
+    }
+
     /**
      * Generates a random customer name.
      * 
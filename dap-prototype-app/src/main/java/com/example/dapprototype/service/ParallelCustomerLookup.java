@@ -0,0 +1,172 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Looks up each customer of a request on its own virtual thread, so the payer and payee lookups
+ * overlap instead of running one after the other.
+ * <p>
+ * The lookups of one request form a scope: a per-request virtual-thread executor that is shut
+ * down before the call returns. Results are taken in the order the lookups complete, so the first
+ * failure, whichever customer it belongs to, interrupts the remaining lookups and is rethrown at
+ * once instead of after the lookups ahead of it finish.
+ * <p>
+ * {@link #getCustomersAsync(CustomerRequest)} fans out to the delegate's asynchronous lookups the
+ * same way and fails as soon as one of them fails, cancelling the others.
+ */
+public class ParallelCustomerLookup implements CustomerLookup {
+
+    private final CustomerLookup delegate;
+
+    public ParallelCustomerLookup(CustomerLookup delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Retrieves customer information, looking up the distinct customer IDs concurrently.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return the customers that were found, in the order of the requested IDs
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null
+                || customerRequest.getCustomerIds().size() < 2) {
+            return delegate.getCustomers(customerRequest);
+        }
+        return lookUpEach(customerRequest, (request, ignored) -> delegate.getCustomers(request), 0L);
+    }
+
+    /**
+     * Retrieves customer information, looking up the distinct customer IDs concurrently; every
+     * lookup is bounded by the deadline.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @param deadlineNanos the {@link System#nanoTime()} after which the caller no longer needs the result
+     * @return the customers that were found, in the order of the requested IDs
+     */
+    @Override
+    public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null
+                || customerRequest.getCustomerIds().size() < 2) {
+            return delegate.getCustomers(customerRequest, deadlineNanos);
+        }
+        return lookUpEach(customerRequest, delegate::getCustomers, deadlineNanos);
+    }
+
+    /**
+     * Retrieves customer information without blocking, looking up the distinct customer IDs
+     * concurrently through the delegate's asynchronous lookup.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return a future of the customers that were found, in the order of the requested IDs
+     */
+    @Override
+    public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+        if (customerRequest == null || customerRequest.getCustomerIds() == null
+                || customerRequest.getCustomerIds().size() < 2) {
+            return delegate.getCustomersAsync(customerRequest);
+        }
+        Map<String, CompletableFuture<List<Customer>>> lookups = new LinkedHashMap<>();
+        CompletableFuture<List<Customer>> customers = new CompletableFuture<>();
+        for (String customerId : customerRequest.getCustomerIds()) {
+            lookups.computeIfAbsent(customerId, id -> delegate.getCustomersAsync(
+                    new CustomerRequest(customerRequest.getActivityId(), List.of(id), null)));
+        }
+        for (CompletableFuture<List<Customer>> lookup : lookups.values()) {
+            lookup.whenComplete((found, failure) -> {
+                if (failure != null) {
+                    customers.completeExceptionally(failure instanceof CompletionException
+                            && failure.getCause() != null ? failure.getCause() : failure);
+                }
+            });
+        }
+        CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                .thenRun(() -> {
+                    Map<String, List<Customer>> found = new HashMap<>();
+                    lookups.forEach((id, lookup) -> found.put(id, lookup.join()));
+                    customers.complete(inRequestOrder(customerRequest, found));
+                });
+        customers.whenComplete((found, failure) -> {
+            if (failure != null) {
+                lookups.values().forEach(lookup -> lookup.cancel(true));
+            }
+        });
+        return customers;
+    }
+
+    private List<Customer> lookUpEach(CustomerRequest customerRequest, DeadlineLookup lookup, long deadlineNanos) {
+        Set<String> customerIds = new LinkedHashSet<>(customerRequest.getCustomerIds());
+        Map<Future<List<Customer>>, String> lookups = new HashMap<>();
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<List<Customer>> completed = new ExecutorCompletionService<>(scope);
+            for (String customerId : customerIds) {
+                lookups.put(completed.submit(() -> lookup.getCustomers(
+                        new CustomerRequest(customerRequest.getActivityId(), List.of(customerId), null),
+                        deadlineNanos)), customerId);
+            }
+            Map<String, List<Customer>> found = new HashMap<>();
+            for (int i = 0; i < customerIds.size(); i++) {
+                Future<List<Customer>> done = take(completed);
+                found.put(lookups.get(done), result(done));
+            }
+            return inRequestOrder(customerRequest, found);
+        } finally {
+            // Interrupts the lookups still running after a failure; after success none are left
+            scope.shutdownNow();
+        }
+    }
+
+    private static List<Customer> inRequestOrder(CustomerRequest customerRequest, Map<String, List<Customer>> found) {
+        List<Customer> customers = new ArrayList<>();
+        for (String customerId : customerRequest.getCustomerIds()) {
+            customers.addAll(found.get(customerId));
+        }
+        return customers;
+    }
+
+    private static Future<List<Customer>> take(CompletionService<List<Customer>> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomerLookupTimeoutException("Interrupted while waiting for customer lookup");
+        }
+    }
+
+    private static List<Customer> result(Future<List<Customer>> lookup) {
+        try {
+            return lookup.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException("Customer lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomerLookupTimeoutException("Interrupted while waiting for customer lookup");
+        }
+    }
+
+    @FunctionalInterface
+    private interface DeadlineLookup {
+        List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos);
+    }
+}
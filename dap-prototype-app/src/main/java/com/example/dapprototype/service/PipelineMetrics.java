@@ -0,0 +1,144 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency metrics of the request pipeline.
+ * <p>
+ * Records a {@code dap.pipeline.stage} timer per {@link PipelineStage} and a {@code dap.pipeline.request}
+ * timer for the whole request, tagged with {@code txn_type} and the {@code outcome} code of the response.
+ * Both publish percentile histograms so p99 can be aggregated across nodes. The timers of a
+ * (transaction type, outcome) pair are registered once and looked up with a single map access per
+ * request. When {@code dap.metrics.server-timing.enabled} is set, the stage breakdown is also returned
+ * in a {@code Server-Timing} response header.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    private static final String UNKNOWN_TXN_TYPE = "unknown";
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final boolean serverTimingEnabled;
+    private final Map<TimerKey, Timer[]> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PipelineMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${dap.metrics.pipeline.enabled:true}") boolean enabled,
+                           @Value("${dap.metrics.server-timing.enabled:false}") boolean serverTimingEnabled) {
+        this(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), enabled, serverTimingEnabled);
+    }
+
+    public PipelineMetrics(MeterRegistry registry, boolean enabled, boolean serverTimingEnabled) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.serverTimingEnabled = serverTimingEnabled;
+    }
+
+    /**
+     * Starts timing a request.
+     *
+     * @return the timings to record the request's stages in
+     */
+    public PipelineTimings start() {
+        return enabled || serverTimingEnabled ? PipelineTimings.start() : PipelineTimings.DISABLED;
+    }
+
+    /**
+     * Records the stage timings of a finished request under its outcome and, if enabled, adds the
+     * {@code Server-Timing} header to the response.
+     *
+     * @param response the response of the request
+     * @param txnType the transaction type, or null if the request did not resolve to one
+     * @param timings the timings of the request
+     * @return the response, with the {@code Server-Timing} header when enabled
+     */
+    public <T> ResponseEntity<T> complete(ResponseEntity<T> response, String txnType, PipelineTimings timings) {
+        if (!timings.isEnabled()) {
+            return response;
+        }
+        long elapsedNanos = timings.elapsedNanos();
+        if (enabled) {
+            String outcome = response.getBody() instanceof DAResponse daResponse && daResponse.getCode() != null
+                    ? daResponse.getCode()
+                    : "UNKNOWN";
+            Timer[] requestTimers = timers.computeIfAbsent(
+                    new TimerKey(txnType != null ? txnType : UNKNOWN_TXN_TYPE, outcome), this::register);
+            for (PipelineStage stage : PipelineStage.all()) {
+                if (timings.ran(stage)) {
+                    requestTimers[stage.ordinal()].record(timings.stageNanos(stage), TimeUnit.NANOSECONDS);
+                }
+            }
+            requestTimers[requestTimers.length - 1].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        if (!serverTimingEnabled) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(SERVER_TIMING_HEADER, serverTiming(timings, elapsedNanos))
+                .body(response.getBody());
+    }
+
+    private Timer[] register(TimerKey key) {
+        PipelineStage[] stages = PipelineStage.all();
+        Timer[] requestTimers = new Timer[stages.length + 1];
+        for (PipelineStage stage : stages) {
+            requestTimers[stage.ordinal()] = Timer.builder("dap.pipeline.stage")
+                    .description("Time spent in one stage of the request pipeline")
+                    .tag("stage", stage.tagValue())
+                    .tag("txn_type", key.txnType())
+                    .tag("outcome", key.outcome())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        requestTimers[stages.length] = Timer.builder("dap.pipeline.request")
+                .description("Time to process a request through the pipeline")
+                .tag("txn_type", key.txnType())
+                .tag("outcome", key.outcome())
+                .publishPercentileHistogram()
+                .register(registry);
+        return requestTimers;
+    }
+
+    private static String serverTiming(PipelineTimings timings, long elapsedNanos) {
+        StringBuilder header = new StringBuilder(160);
+        for (PipelineStage stage : PipelineStage.all()) {
+            if (timings.ran(stage)) {
+                appendMetric(header, stage.tagValue(), timings.stageNanos(stage));
+            }
+        }
+        appendMetric(header, "total", elapsedNanos);
+        return header.toString();
+    }
+
+    static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        // Milliseconds with three decimals, without a Formatter on the request path
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append(fraction < 10 ? "00" : "0");
+        }
+        header.append(fraction);
+    }
+
+    private record TimerKey(String txnType, String outcome) {
+    }
+}
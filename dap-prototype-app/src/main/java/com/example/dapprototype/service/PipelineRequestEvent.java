@@ -0,0 +1,78 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Flight recorder event of a whole scoring request in {@link RequestProcessingService}, from
+ * acquiring the txn-models generation to the response. Its {@link PipelineStageEvent stage events}
+ * fall within it on the same thread.
+ */
+@Name(PipelineRequestEvent.NAME)
+@Label("Pipeline Request")
+@Category({"DAP", "Request Pipeline"})
+@Description("A scoring request through the request pipeline")
+@StackTrace(false)
+final class PipelineRequestEvent extends Event {
+
+    static final String NAME = "com.example.dapprototype.PipelineRequest";
+
+    @Label("Transaction Type")
+    String txnType;
+
+    @Label("Activity Id")
+    String activityId;
+
+    @Label("Txn-Models Generation")
+    @Description("Id of the txn-models generation the request was processed with")
+    long generationId;
+
+    @Label("Status")
+    int status;
+
+    @Label("Outcome")
+    @Description("The code of the DAResponse, as in the outcome tag of the dap.pipeline.request metric")
+    String outcome;
+
+    @Label("Decision")
+    String decision;
+
+    @Label("Customer Count")
+    int customerCount;
+
+    /**
+     * Starts timing a request.
+     */
+    static PipelineRequestEvent start() {
+        PipelineRequestEvent event = new PipelineRequestEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the request and commits the event if the recording takes it.
+     *
+     * @param response the response of the request
+     * @param txnType the transaction type, or null if the request did not resolve to one
+     * @param generationId the id of the txn-models generation
+     */
+    void complete(ResponseEntity<?> response, String txnType, long generationId) {
+        end();
+        if (shouldCommit()) {
+            this.txnType = txnType;
+            this.generationId = generationId;
+            this.status = response.getStatusCode().value();
+            if (response.getBody() instanceof DAResponse daResponse) {
+                this.outcome = daResponse.getCode();
+                this.decision = daResponse.getRulesResponse() != null ? daResponse.getRulesResponse().getDecision() : null;
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request deadlines and per-dependency circuit breakers of the request pipeline.
+ * <p>
+ * Every request gets a {@link RequestDeadline} from its timeout header, or the default budget,
+ * capped at the maximum budget. {@link RequestProcessingService} checks it before each stage. The
+ * customer lookup and the rules evaluation are dependencies: each needs a minimum budget to start,
+ * and each has its own {@link CircuitBreaker}. A request that runs out of budget, or that needs a
+ * dependency whose breaker is open, ends without running the remaining stages. A dependency stage
+ * answers with the fallback decision when one is configured. Otherwise the request gets a 504
+ * {@value #DEADLINE_EXCEEDED} or a 503 {@value #DEPENDENCY_UNAVAILABLE} response.
+ * <p>
+ * Publishes {@code dap.deadline.expired} tagged with the {@code stage} the budget ran out in.
+ */
+public class PipelineResilience {
+
+    public static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+    public static final String DEPENDENCY_UNAVAILABLE = "DEPENDENCY_UNAVAILABLE";
+    public static final String FALLBACK = "FALLBACK";
+
+    /** No deadlines and no circuit breakers, for pipelines built outside of the application. */
+    public static final PipelineResilience DISABLED = new PipelineResilience();
+
+    /**
+     * The request budgets.
+     *
+     * @param defaultBudget the budget of a request without a timeout header
+     * @param maxBudget the largest budget a timeout header can ask for
+     * @param customerLookupMinBudget the budget the customer lookup needs to start
+     * @param rulesMinBudget the budget the rules evaluation needs to start
+     * @param fallbackDecision the decision of a request that cannot reach a dependency in time, or
+     *                         null to fail it instead
+     */
+    public record DeadlineSettings(Duration defaultBudget, Duration maxBudget, Duration customerLookupMinBudget,
+                                   Duration rulesMinBudget, String fallbackDecision) {
+    }
+
+    /**
+     * The settings shared by the circuit breakers of all dependencies; see {@link CircuitBreaker}.
+     */
+    public record BreakerSettings(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCall,
+                                  Duration openDuration, int halfOpenCalls) {
+    }
+
+    private final DeadlineSettings deadlines;
+    private final Map<PipelineStage, Long> minBudgetNanos = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, CircuitBreaker> breakers = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Counter> expired = new EnumMap<>(PipelineStage.class);
+
+    private PipelineResilience() {
+        this.deadlines = null;
+    }
+
+    /**
+     * @param deadlines the request budgets, or null to not bound requests
+     * @param breakerSettings the circuit breaker settings, or null to never break
+     * @param registry the registry to publish the expiry and breaker metrics to
+     */
+    public PipelineResilience(DeadlineSettings deadlines, BreakerSettings breakerSettings, MeterRegistry registry) {
+        this.deadlines = deadlines;
+        if (deadlines != null) {
+            minBudgetNanos.put(PipelineStage.CUSTOMER_LOOKUP, deadlines.customerLookupMinBudget().toNanos());
+            minBudgetNanos.put(PipelineStage.RULES, deadlines.rulesMinBudget().toNanos());
+            for (PipelineStage stage : PipelineStage.all()) {
+                expired.put(stage, Counter.builder("dap.deadline.expired")
+                        .description("Requests whose deadline ran out before or during a pipeline stage")
+                        .tag("stage", stage.tagValue())
+                        .register(registry));
+            }
+        }
+        if (breakerSettings != null) {
+            for (PipelineStage dependency : List.of(PipelineStage.CUSTOMER_LOOKUP, PipelineStage.RULES)) {
+                breakers.put(dependency, new CircuitBreaker(dependency.tagValue(), breakerSettings.windowSize(),
+                        breakerSettings.minimumCalls(), breakerSettings.failureRateThreshold(),
+                        breakerSettings.slowCall(), breakerSettings.openDuration(), breakerSettings.halfOpenCalls(),
+                        registry));
+            }
+        }
+    }
+
+    /**
+     * Sets the deadline of a request that has just arrived.
+     *
+     * @param requestTimeout the timeout the client asked for, in milliseconds, or null for the default
+     * @return the deadline, {@link RequestDeadline#NONE} when deadlines are disabled
+     */
+    public RequestDeadline deadline(String requestTimeout) {
+        if (deadlines == null) {
+            return RequestDeadline.NONE;
+        }
+        Duration budget = deadlines.defaultBudget();
+        if (requestTimeout != null) {
+            try {
+                budget = Duration.ofMillis(Math.max(0, Long.parseLong(requestTimeout.trim())));
+            } catch (NumberFormatException e) {
+                // Not a number of milliseconds: the default budget applies
+            }
+        }
+        return RequestDeadline.after(budget.compareTo(deadlines.maxBudget()) > 0 ? deadlines.maxBudget() : budget);
+    }
+
+    /**
+     * Ends the request if its deadline has passed before a stage.
+     *
+     * @throws RequestRejectedException carrying the response of the expired request
+     */
+    public void checkDeadline(RequestDeadline deadline, PipelineStage stage) {
+        if (deadline.isExpired()) {
+            throw new RequestRejectedException(deadlineExceeded(stage));
+        }
+    }
+
+    /**
+     * Asks to call a dependency: the request needs the dependency's minimum budget and the breaker
+     * must let the call through. A call that is let through must be followed by
+     * {@link #succeeded(PipelineStage, long)}, {@link #failed(PipelineStage)} or
+     * {@link #abandoned(PipelineStage, long)}.
+     *
+     * @throws RequestRejectedException carrying the fallback or error response if the call may not be made
+     */
+    public void enter(PipelineStage dependency, RequestDeadline deadline) {
+        if (deadline.remainingNanos() < minBudgetNanos.getOrDefault(dependency, 0L)) {
+            throw new RequestRejectedException(deadlineExceeded(dependency));
+        }
+        CircuitBreaker breaker = breakers.get(dependency);
+        if (breaker != null && !breaker.tryAcquire()) {
+            throw new RequestRejectedException(fallbackOr(dependency, HttpStatus.SERVICE_UNAVAILABLE,
+                    DEPENDENCY_UNAVAILABLE, "Dependency unavailable"));
+        }
+    }
+
+    public void succeeded(PipelineStage dependency, long startedNanos) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        if (breaker != null) {
+            breaker.onSuccess(System.nanoTime() - startedNanos);
+        }
+    }
+
+    public void failed(PipelineStage dependency) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        if (breaker != null) {
+            breaker.onFailure();
+        }
+    }
+
+    /**
+     * Ends a dependency call the request's own deadline ran out on. A client's short budget is not
+     * a dependency failure; the call only counts against the breaker as slow.
+     */
+    public void abandoned(PipelineStage dependency, long startedNanos) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        if (breaker != null) {
+            breaker.onAbandoned(System.nanoTime() - startedNanos);
+        }
+    }
+
+    /**
+     * Counts a request whose deadline ran out in a stage and creates its response.
+     *
+     * @param stage the stage that could not run or complete in time
+     * @return the fallback response of a dependency stage when configured, otherwise a 504
+     */
+    public ResponseEntity<DAResponse> deadlineExceeded(PipelineStage stage) {
+        Counter counter = expired.get(stage);
+        if (counter != null) {
+            counter.increment();
+        }
+        return fallbackOr(stage, HttpStatus.GATEWAY_TIMEOUT, DEADLINE_EXCEEDED, "Request deadline exceeded");
+    }
+
+    CircuitBreaker breaker(PipelineStage dependency) {
+        return breakers.get(dependency);
+    }
+
+    private ResponseEntity<DAResponse> fallbackOr(PipelineStage stage, HttpStatus status, String code, String message) {
+        String fallbackDecision = deadlines != null ? deadlines.fallbackDecision() : null;
+        if (fallbackDecision != null && minBudgetNanos.containsKey(stage)) {
+            return ResponseEntity.ok(new DAResponse(true, "Fallback decision", FALLBACK,
+                    List.of(code + ": " + stage.tagValue()), new RulesResponse(fallbackDecision, List.of())));
+        }
+        return ResponseEntity.status(status).body(new DAResponse(false, message, code, List.of(stage.tagValue()),
+                null));
+    }
+}
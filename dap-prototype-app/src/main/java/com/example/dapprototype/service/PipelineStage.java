@@ -0,0 +1,46 @@
+package com.example.dapprototype.service;
+
+/**
+ * The timed stages of the request pipeline, in pipeline order.
+ */
+public enum PipelineStage {
+
+    /**
+     * Request body validation. For bodies accepted by the single-pass validator this includes binding.
+     */
+    VALIDATION("validation"),
+
+    /**
+     * Binding after full OpenAPI validation, for bodies the single-pass validator did not accept.
+     */
+    DESERIALIZATION("deserialization"),
+
+    MAPPING("mapping"),
+
+    CUSTOMER_LOOKUP("customer_lookup"),
+
+    ASSEMBLY("assembly"),
+
+    RULES("rules");
+
+    private static final PipelineStage[] STAGES = values();
+
+    private final String tagValue;
+
+    PipelineStage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * Gets the name of the stage in the {@code stage} metric tag and the {@code Server-Timing} header.
+     *
+     * @return the stage name
+     */
+    public String tagValue() {
+        return tagValue;
+    }
+
+    static PipelineStage[] all() {
+        return STAGES;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one {@link PipelineStage} of a request, nested in its
+ * {@link PipelineRequestEvent} on the request thread.
+ * <p>
+ * While the event is not enabled in the recording, {@link #start()} and
+ * {@link #complete(PipelineStage, TxnBindingPlan, String, String)} do not read the clock and
+ * the allocation is eliminated by the JIT compiler, so the instrumentation costs close to nothing.
+ */
+@Name(PipelineStageEvent.NAME)
+@Label("Pipeline Stage")
+@Category({"DAP", "Request Pipeline"})
+@Description("One stage of a scoring request, named as in the dap.pipeline.stage metric")
+@StackTrace(false)
+final class PipelineStageEvent extends Event {
+
+    static final String NAME = "com.example.dapprototype.PipelineStage";
+    static final String OK = "OK";
+    static final String FAILED = "FAILED";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Transaction Type")
+    String txnType;
+
+    @Label("Activity Id")
+    String activityId;
+
+    @Label("Outcome")
+    @Description("OK, or FAILED if the stage ended the request")
+    String outcome;
+
+    @Label("Customer Count")
+    @Description("Customers found by the lookup, set on the lookup and assembly stages")
+    int customerCount;
+
+    /**
+     * Starts timing a stage.
+     */
+    static PipelineStageEvent start() {
+        PipelineStageEvent event = new PipelineStageEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the stage and commits the event if the recording takes it.
+     *
+     * @param stage the stage that ran
+     * @param bindingPlan the binding plan of the request
+     * @param activityId the activityId, or null if the stage runs before it is mapped
+     * @param outcome {@link #OK} or {@link #FAILED}
+     */
+    void complete(PipelineStage stage, TxnBindingPlan bindingPlan, String activityId, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage.tagValue();
+            this.txnType = bindingPlan.getDescriptor().name();
+            this.activityId = activityId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
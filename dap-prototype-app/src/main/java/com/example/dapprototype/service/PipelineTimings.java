@@ -0,0 +1,67 @@
+package com.example.dapprototype.service;
+
+/**
+ * Stage durations of one request, collected while the request runs and recorded by
+ * {@link PipelineMetrics} once its outcome is known.
+ * <p>
+ * Not thread-safe: a request's stages run one after another, even when they hop threads on the
+ * reactive path. A disabled instance skips reading the clock altogether.
+ */
+public final class PipelineTimings {
+
+    /** Timings that record nothing, for callers that run stages outside of a timed request. */
+    public static final PipelineTimings DISABLED = new PipelineTimings(false);
+
+    private final boolean enabled;
+    private final long startedNanos;
+    private final long[] stageNanos;
+    private int recordedStages;
+
+    private PipelineTimings(boolean enabled) {
+        this.enabled = enabled;
+        this.startedNanos = enabled ? System.nanoTime() : 0L;
+        this.stageNanos = enabled ? new long[PipelineStage.all().length] : null;
+    }
+
+    static PipelineTimings start() {
+        return new PipelineTimings(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the clock at the start of a stage.
+     *
+     * @return the mark to pass to {@link #record(PipelineStage, long)}
+     */
+    public long mark() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Adds the time since {@code mark} to a stage.
+     *
+     * @param stage the stage that ran
+     * @param mark the value of {@link #mark()} at the start of the stage
+     */
+    public void record(PipelineStage stage, long mark) {
+        if (enabled) {
+            stageNanos[stage.ordinal()] += System.nanoTime() - mark;
+            recordedStages |= 1 << stage.ordinal();
+        }
+    }
+
+    boolean ran(PipelineStage stage) {
+        return (recordedStages & (1 << stage.ordinal())) != 0;
+    }
+
+    long stageNanos(PipelineStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link Mono} adapter around the customer lookup for the reactive request path.
+ * <p>
+ * The lookup subscribes to {@link CustomerLookup#getCustomersAsync(CustomerRequest)}, so with the
+ * cache and the coalescing loader in place an event-loop thread never waits for the customer backend.
+ */
+@Service
+public class ReactiveCustomerLookup {
+
+    private final CustomerLookup customerLookup;
+
+    public ReactiveCustomerLookup(CustomerLookup customerLookup) {
+        this.customerLookup = customerLookup;
+    }
+
+    /**
+     * Retrieves customer information for the customer IDs in the request.
+     *
+     * @param customerRequest the customer request containing customer IDs
+     * @return a Mono of the customers that were found, in the order of the requested IDs
+     */
+    public Mono<List<Customer>> getCustomers(CustomerRequest customerRequest) {
+        return Mono.fromFuture(() -> customerLookup.getCustomersAsync(customerRequest));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.DAResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the request pipeline without blocking, for the reactive web stack.
+ * <p>
+ * Validation, binding, mapping and assembly are the stages of {@link RequestProcessingService}, so
+ * both stacks return identical responses; only the customer lookup and the rules evaluation are
+ * composed as {@link Mono}s, emitting the same stage events. The deadline checks, the circuit
+ * breakers of the dependencies, the completion of a decision with its journal record and the
+ * request's flight recorder event are the shared stages too. The txn-models generation is held until the response is emitted or the
+ * subscription is cancelled.
+ */
+@Service
+public class ReactiveRequestProcessingService {
+
+    private final RequestProcessingService requestProcessingService;
+    private final TxnClassLoaderService txnClassLoaderService;
+    private final ReactiveCustomerLookup reactiveCustomerLookup;
+    private final ReactiveRulesAPI reactiveRulesAPI;
+    private final PipelineMetrics pipelineMetrics;
+
+    public ReactiveRequestProcessingService(RequestProcessingService requestProcessingService,
+                                            TxnClassLoaderService txnClassLoaderService,
+                                            ReactiveCustomerLookup reactiveCustomerLookup,
+                                            ReactiveRulesAPI reactiveRulesAPI,
+                                            PipelineMetrics pipelineMetrics) {
+        this.requestProcessingService = requestProcessingService;
+        this.txnClassLoaderService = txnClassLoaderService;
+        this.reactiveCustomerLookup = reactiveCustomerLookup;
+        this.reactiveRulesAPI = reactiveRulesAPI;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Sets the deadline of a request that has just arrived; see {@link RequestProcessingService#requestDeadline}.
+     */
+    public RequestDeadline requestDeadline(String requestTimeout) {
+        return requestProcessingService.requestDeadline(requestTimeout);
+    }
+
+    /**
+     * Validates and processes a raw JSON request body using the pipeline of a transaction type.
+     *
+     * @param rawBody the raw JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on, e.g. {@code /request}
+     * @param txnType the transaction type name, or null to route by operation path
+     * @return a Mono of the DAResponse
+     */
+    public Mono<ResponseEntity<DAResponse>> validateAndProcessRequest(String rawBody, String operationPath, String txnType) {
+        return validateAndProcessRequest(JsonBody.of(rawBody), operationPath, txnType, RequestDeadline.NONE);
+    }
+
+    /**
+     * Validates and processes a JSON request body within a deadline, checked before the same stages
+     * as on the servlet stack. The customer lookup is cancelled when the deadline runs out.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on, e.g. {@code /request}
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param deadline the deadline of the request
+     * @return a Mono of the DAResponse
+     */
+    public Mono<ResponseEntity<DAResponse>> validateAndProcessRequest(JsonBody body, String operationPath, String txnType,
+                                                                      RequestDeadline deadline) {
+        return Mono.defer(() -> {
+            PipelineTimings timings = pipelineMetrics.start();
+            PipelineRequestEvent event = PipelineRequestEvent.start();
+            return Mono.using(txnClassLoaderService::acquire,
+                    generation -> processRequest(body, operationPath, txnType, deadline, generation, timings, event),
+                    TxnGeneration::release);
+        });
+    }
+
+    private Mono<ResponseEntity<DAResponse>> processRequest(JsonBody body, String operationPath, String txnType,
+                                                            RequestDeadline deadline, TxnGeneration generation,
+                                                            PipelineTimings timings, PipelineRequestEvent event) {
+        TxnBindingPlan bindingPlan = requestProcessingService.resolveBindingPlan(generation, operationPath, txnType);
+        if (bindingPlan == null) {
+            return Mono.just(requestProcessingService.completeRequest(
+                    requestProcessingService.unknownTxnType(operationPath, txnType), null, generation, event, timings));
+        }
+        String resolvedTxnType = bindingPlan.getDescriptor().name();
+        Object requestInfo;
+        CustomerRequest customerRequest;
+        try {
+            requestProcessingService.checkDeadline(deadline, PipelineStage.VALIDATION);
+            requestInfo = requestProcessingService.bindRequestInfo(body, bindingPlan, timings);
+            requestProcessingService.checkDeadline(deadline, PipelineStage.MAPPING);
+            customerRequest = requestProcessingService.toCustomerRequest(requestInfo, bindingPlan, timings);
+            event.activityId = customerRequest.getActivityId();
+            requestProcessingService.enterDependency(PipelineStage.CUSTOMER_LOOKUP, deadline);
+        } catch (RequestRejectedException e) {
+            return Mono.just(requestProcessingService.completeRequest(e.getResponse(), bindingPlan, generation, event,
+                    timings));
+        }
+
+        long lookupStarted = timings.mark();
+        PipelineStageEvent lookupEvent = PipelineStageEvent.start();
+        long lookupCallStarted = System.nanoTime();
+        // A cancel reaches the lookup's hooks even after it emitted, while a later stage is running
+        AtomicBoolean lookupSettled = new AtomicBoolean();
+        Mono<List<Customer>> lookup = reactiveCustomerLookup.getCustomers(customerRequest);
+        if (deadline.isBounded()) {
+            lookup = lookup.timeout(Duration.ofNanos(Math.max(0, deadline.remainingNanos())));
+        }
+        return lookup
+                .doOnNext(customers -> {
+                    lookupSettled.set(true);
+                    lookupEvent.customerCount = customers.size();
+                })
+                .doOnTerminate(() -> timings.record(PipelineStage.CUSTOMER_LOOKUP, lookupStarted))
+                .doOnSuccess(customers -> lookupEvent.complete(PipelineStage.CUSTOMER_LOOKUP, bindingPlan,
+                        customerRequest.getActivityId(), PipelineStageEvent.OK))
+                .doOnError(e -> {
+                    lookupSettled.set(true);
+                    lookupEvent.complete(PipelineStage.CUSTOMER_LOOKUP, bindingPlan,
+                            customerRequest.getActivityId(), PipelineStageEvent.FAILED);
+                })
+                .doOnCancel(() -> {
+                    if (!lookupSettled.get()) {
+                        requestProcessingService.dependencyAbandoned(PipelineStage.CUSTOMER_LOOKUP,
+                                lookupCallStarted);
+                    }
+                })
+                .onErrorMap(e -> new RequestRejectedException(
+                        requestProcessingService.customerLookupFailed(e, deadline, lookupCallStarted)))
+                .flatMap(customers -> {
+                    requestProcessingService.dependencySucceeded(PipelineStage.CUSTOMER_LOOKUP, lookupCallStarted);
+                    event.customerCount = customers.size();
+                    requestProcessingService.checkDeadline(deadline, PipelineStage.ASSEMBLY);
+                    Object paymentAssessmentData = requestProcessingService.assembleAssessmentData(
+                            requestInfo, customerRequest, customers, bindingPlan, timings);
+                    requestProcessingService.enterDependency(PipelineStage.RULES, deadline);
+                    long rulesStarted = timings.mark();
+                    PipelineStageEvent rulesEvent = PipelineStageEvent.start();
+                    long rulesCallStarted = System.nanoTime();
+                    AtomicBoolean rulesSettled = new AtomicBoolean();
+                    return reactiveRulesAPI.evaluateRules(resolvedTxnType, paymentAssessmentData)
+                            .map(rulesResponse -> requestProcessingService.completeWithRules(
+                                    paymentAssessmentData, rulesResponse, bindingPlan))
+                            .onErrorResume(e -> Mono.just(requestProcessingService.rulesError(e)))
+                            .doOnNext(response -> {
+                                rulesSettled.set(true);
+                                timings.record(PipelineStage.RULES, rulesStarted);
+                                rulesEvent.complete(PipelineStage.RULES, bindingPlan, customerRequest.getActivityId(),
+                                        response.getStatusCode().is2xxSuccessful()
+                                                ? PipelineStageEvent.OK : PipelineStageEvent.FAILED);
+                            })
+                            .doOnCancel(() -> {
+                                if (!rulesSettled.get()) {
+                                    requestProcessingService.dependencyAbandoned(PipelineStage.RULES,
+                                            rulesCallStarted);
+                                }
+                            })
+                            .map(response -> requestProcessingService.completeDecision(response, rulesCallStarted,
+                                    bindingPlan, customerRequest, body, customers, generation));
+                })
+                .onErrorResume(RequestRejectedException.class, e -> Mono.just(e.getResponse()))
+                .map(response -> requestProcessingService.completeRequest(response, bindingPlan, generation, event,
+                        timings));
+    }
+}
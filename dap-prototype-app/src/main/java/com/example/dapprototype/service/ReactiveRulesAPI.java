@@ -0,0 +1,31 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link Mono} adapter around {@link RulesEngine} for the reactive request path.
+ * Rules evaluation is CPU-bound and runs on the subscribing thread.
+ */
+@Service
+public class ReactiveRulesAPI {
+
+    private final RulesEngine rulesEngine;
+
+    public ReactiveRulesAPI(RulesEngine rulesEngine) {
+        this.rulesEngine = rulesEngine;
+    }
+
+    /**
+     * Evaluates the rules of a transaction type for the given decision data.
+     *
+     * @param txnType the transaction type of the decision data
+     * @param decisionData the decision data object to evaluate
+     * @return a Mono of the rules response for the decision data
+     */
+    public Mono<RulesResponse> evaluateRules(String txnType, Object decisionData) {
+        return Mono.fromSupplier(() -> rulesEngine.evaluateRules(txnType, decisionData));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A bounded pool of byte buffers that request bodies are read into.
+ * <p>
+ * Buffers are shared through a queue rather than held per thread, so request threads, virtual or
+ * not, reuse the same few buffers. A body larger than a buffer grows a private copy; grown buffers
+ * are pooled again only up to {@code maxPooledSize}, so one large body does not pin its buffer.
+ * <p>
+ * Bodies are limited to {@code maxRequestSize}. A Content-Length above it is rejected before a byte
+ * is read, and a body is never pre-sized beyond {@code maxPooledSize} from its Content-Length: larger
+ * bodies grow their buffer as their bytes arrive, up to the limit.
+ */
+@Component
+public class RequestBufferPool {
+
+    /**
+     * The response to a body over the maximum request size. It never varies, so it is shared and
+     * {@link DAResponseWriter} sends it pre-serialized; it must not be modified.
+     */
+    public static final DAResponse PAYLOAD_TOO_LARGE = new DAResponse(false, "Request body too large",
+            "PAYLOAD_TOO_LARGE", List.of("Request body exceeds the maximum request size"), null);
+
+    static final int DEFAULT_MAX_REQUEST_SIZE = 1024 * 1024;
+
+    private final int bufferSize;
+    private final int maxPooledSize;
+    private final int maxRequestSize;
+    private final ArrayBlockingQueue<byte[]> buffers;
+
+    /**
+     * Creates a pool.
+     *
+     * @param bufferSize the size of new buffers
+     * @param maxPooledSize the largest buffer returned to the pool
+     * @param capacity the number of idle buffers kept
+     */
+    public RequestBufferPool(int bufferSize, int maxPooledSize, int capacity) {
+        this(bufferSize, maxPooledSize, capacity, DEFAULT_MAX_REQUEST_SIZE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param bufferSize the size of new buffers
+     * @param maxPooledSize the largest buffer returned to the pool
+     * @param capacity the number of idle buffers kept
+     * @param maxRequestSize the largest body read, in bytes
+     */
+    @Autowired
+    public RequestBufferPool(@Value("${dap.io.request-buffer.size:8192}") int bufferSize,
+                             @Value("${dap.io.request-buffer.max-pooled-size:65536}") int maxPooledSize,
+                             @Value("${dap.io.request-buffer.pool-capacity:256}") int capacity,
+                             @Value("${dap.io.request-buffer.max-request-size:1048576}") int maxRequestSize) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxPooledSize = Math.max(this.bufferSize, maxPooledSize);
+        this.maxRequestSize = Math.max(1, maxRequestSize);
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Reads a stream to its end into a pooled buffer.
+     *
+     * @param input the stream to read, e.g. the servlet input stream
+     * @param sizeHint the expected number of bytes, e.g. the Content-Length, or a negative number if unknown
+     * @return the bytes read; close it to return the buffer to the pool
+     * @throws RequestTooLargeException if the size hint or the body exceeds the maximum request size
+     * @throws IOException if the stream cannot be read
+     */
+    public PooledBody read(InputStream input, long sizeHint) throws IOException {
+        if (sizeHint > maxRequestSize) {
+            throw new RequestTooLargeException("Content-Length " + sizeHint + " exceeds the maximum request size of "
+                    + maxRequestSize + " bytes");
+        }
+        byte[] buffer = acquire(sizeHint);
+        int length = 0;
+        int limit = Math.min(buffer.length, maxRequestSize);
+        try {
+            while (true) {
+                if (length == limit) {
+                    // Only grow once the stream has more to give, so an exact Content-Length never copies
+                    int next = input.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (length == maxRequestSize) {
+                        throw new RequestTooLargeException("Request body exceeds the maximum request size of "
+                                + maxRequestSize + " bytes");
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(buffer.length * 2L, bufferSize),
+                            maxRequestSize));
+                    limit = buffer.length;
+                    buffer[length++] = (byte) next;
+                }
+                int read = input.read(buffer, length, limit - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+        return new PooledBody(buffer, length);
+    }
+
+    /**
+     * Gets the largest body read, in bytes.
+     *
+     * @return the maximum request size
+     */
+    public int maxRequestSize() {
+        return maxRequestSize;
+    }
+
+    /**
+     * Gets the number of idle buffers in the pool.
+     *
+     * @return the idle buffer count
+     */
+    public int idleCount() {
+        return buffers.size();
+    }
+
+    private byte[] acquire(long sizeHint) {
+        if (sizeHint > bufferSize) {
+            // The hint is only trusted up to the pooled size; larger bodies grow as they arrive
+            return new byte[(int) Math.min(sizeHint, maxPooledSize)];
+        }
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    private void release(byte[] buffer) {
+        if (buffer.length >= bufferSize && buffer.length <= maxPooledSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * A request body held in a pooled buffer.
+     */
+    public final class PooledBody implements AutoCloseable {
+
+        private byte[] buffer;
+        private final int length;
+
+        private PooledBody(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+        /**
+         * Gets the body for parsing; it is only valid until this is closed.
+         *
+         * @return the JSON body backed by the pooled buffer
+         */
+        public JsonBody body() {
+            return JsonBody.of(buffer, length);
+        }
+
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Returns the buffer to the pool.
+         */
+        @Override
+        public void close() {
+            if (buffer != null) {
+                release(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.dapprototype.service;
+
+import java.time.Duration;
+
+/**
+ * The point in time after which the client no longer waits for a request's response.
+ * <p>
+ * Set once when a request arrives and carried through every pipeline stage, so that each stage
+ * and each downstream call only spends the budget that is left.
+ */
+public final class RequestDeadline {
+
+    /** No deadline, for requests that are not made on behalf of a waiting client. */
+    public static final RequestDeadline NONE = new RequestDeadline(false, 0L);
+
+    private final boolean bounded;
+    private final long deadlineNanos;
+
+    private RequestDeadline(boolean bounded, long deadlineNanos) {
+        this.bounded = bounded;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline a budget from now.
+     *
+     * @param budget the time the request may take
+     * @return the deadline
+     */
+    public static RequestDeadline after(Duration budget) {
+        return new RequestDeadline(true, System.nanoTime() + budget.toNanos());
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Gets the deadline as a {@link System#nanoTime()} value; only meaningful when bounded.
+     *
+     * @return the deadline in nanoseconds
+     */
+    public long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Gets the budget left.
+     *
+     * @return the remaining nanoseconds, negative once expired, or {@link Long#MAX_VALUE} when unbounded
+     */
+    public long remainingNanos() {
+        return bounded ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+}
@@ -1,216 +1,545 @@
 package com.example.dapprototype.service;
 
 import com.atlassian.oai.validator.report.ValidationReport;
+import com.example.dapprototype.classloader.TxnBindingPlan;
 import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.journal.DecisionJournal;
 import com.example.dapprototype.model.Customer;
 import com.example.dapprototype.model.CustomerRequest;
 import com.example.dapprototype.model.DAResponse;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RulesEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Method;
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class RequestProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestProcessingService.class);
-    private static final String REQUEST_INFO_CLASS = "com.example.dapprototype.model.PaymentRequestInfo";
-    private static final String REQUEST_MAPPER_CLASS = "com.example.dapprototype.mapper.PaymentRequestMapper";
-    private static final String DECISION_DATA_CLASS = "com.example.dapprototype.model.PaymentAssessmentData";
+    public static final String DEFAULT_OPERATION_PATH = "/request";
+
+    /**
+     * The response to a body that is not valid JSON. It never varies, so it is shared and
+     * {@link DAResponseWriter} sends it pre-serialized; it must not be modified.
+     */
+    public static final DAResponse INVALID_JSON_PAYLOAD = new DAResponse(false, "Invalid JSON payload",
+            "VALIDATION_ERROR", List.of("Invalid JSON payload"), null);
     
     private final OpenApiRequestValidator openApiRequestValidator;
-    private final ObjectMapper objectMapper;
+    private final StreamingRequestValidator streamingRequestValidator;
     private final TxnClassLoaderService txnClassLoaderService;
-    private final MockCustomerAPI mockCustomerAPI;
-    private final MockRulesAPI mockRulesAPI;
-    
-    // Dynamically loaded classes
-    private Class<?> requestInfoClass;
-    private Class<?> paymentAssessmentDataClass;
-    private Object requestMapperInstance;
+    private final CustomerLookup customerLookup;
+    private final RulesEngine rulesEngine;
+    private final PipelineMetrics pipelineMetrics;
+    private final DecisionJournal decisionJournal;
+    private final PipelineResilience resilience;
+
+    @Autowired
+    public RequestProcessingService(OpenApiRequestValidator openApiRequestValidator,
+                                   StreamingRequestValidator streamingRequestValidator,
+                                   TxnClassLoaderService txnClassLoaderService,
+                                   CustomerLookup customerLookup,
+                                   RulesEngine rulesEngine,
+                                   PipelineMetrics pipelineMetrics,
+                                   ObjectProvider<DecisionJournal> decisionJournal,
+                                   ObjectProvider<PipelineResilience> resilience) {
+        this(openApiRequestValidator, streamingRequestValidator, txnClassLoaderService, customerLookup, rulesEngine,
+                pipelineMetrics, decisionJournal.getIfAvailable(),
+                resilience.getIfAvailable(() -> PipelineResilience.DISABLED));
+    }
 
     public RequestProcessingService(OpenApiRequestValidator openApiRequestValidator, 
-                                   ObjectMapper objectMapper,
+                                   StreamingRequestValidator streamingRequestValidator,
+                                   TxnClassLoaderService txnClassLoaderService,
+                                   CustomerLookup customerLookup,
+                                   RulesEngine rulesEngine,
+                                   PipelineMetrics pipelineMetrics) {
+        this(openApiRequestValidator, streamingRequestValidator, txnClassLoaderService, customerLookup, rulesEngine,
+                pipelineMetrics, (DecisionJournal) null);
+    }
+
+    /**
+     * @param decisionJournal the journal to record every successful decision to, or null to not journal
+     */
+    public RequestProcessingService(OpenApiRequestValidator openApiRequestValidator,
+                                   StreamingRequestValidator streamingRequestValidator,
+                                   TxnClassLoaderService txnClassLoaderService,
+                                   CustomerLookup customerLookup,
+                                   RulesEngine rulesEngine,
+                                   PipelineMetrics pipelineMetrics,
+                                   DecisionJournal decisionJournal) {
+        this(openApiRequestValidator, streamingRequestValidator, txnClassLoaderService, customerLookup, rulesEngine,
+                pipelineMetrics, decisionJournal, PipelineResilience.DISABLED);
+    }
+
+    /**
+     * @param decisionJournal the journal to record every successful decision to, or null to not journal
+     * @param resilience the request deadlines and dependency circuit breakers
+     */
+    public RequestProcessingService(OpenApiRequestValidator openApiRequestValidator,
+                                   StreamingRequestValidator streamingRequestValidator,
                                    TxnClassLoaderService txnClassLoaderService,
-                                   MockCustomerAPI mockCustomerAPI,
-                                   MockRulesAPI mockRulesAPI) {
+                                   CustomerLookup customerLookup,
+                                   RulesEngine rulesEngine,
+                                   PipelineMetrics pipelineMetrics,
+                                   DecisionJournal decisionJournal,
+                                   PipelineResilience resilience) {
         this.openApiRequestValidator = openApiRequestValidator;
-        this.objectMapper = objectMapper;
+        this.streamingRequestValidator = streamingRequestValidator;
         this.txnClassLoaderService = txnClassLoaderService;
-        this.mockCustomerAPI = mockCustomerAPI;
-        this.mockRulesAPI = mockRulesAPI;
-        
-        // Load classes dynamically on initialization
-        initializeDynamicClasses();
+        this.customerLookup = customerLookup;
+        this.rulesEngine = rulesEngine;
+        this.pipelineMetrics = pipelineMetrics;
+        this.decisionJournal = decisionJournal;
+        this.resilience = resilience;
     }
-    
+
     /**
-     * Initializes dynamically loaded classes using TxnClassLoader.
+     * Sets the deadline of a request that has just arrived.
+     *
+     * @param requestTimeout the timeout the client asked for in milliseconds, or null for the default budget
+     * @return the deadline to process the request with
      */
-    private void initializeDynamicClasses() {
-        try {
-            // Load PaymentRequestInfo class dynamically
-            requestInfoClass = txnClassLoaderService.loadClass(REQUEST_INFO_CLASS);
-            logger.info("Loaded {} using {}", REQUEST_INFO_CLASS, 
-                       requestInfoClass.getClassLoader().getClass().getName());
-            
-            // Load PaymentAssessmentData class dynamically
-            paymentAssessmentDataClass = txnClassLoaderService.loadClass(DECISION_DATA_CLASS);
-            logger.info("Loaded {} using {}", DECISION_DATA_CLASS,
-                       paymentAssessmentDataClass.getClassLoader().getClass().getName());
-            
-            // Load PaymentRequestMapper class dynamically
-            Class<?> paymentRequestMapperClass = txnClassLoaderService.loadClass(REQUEST_MAPPER_CLASS);
-            logger.info("Loaded {} using {}", REQUEST_MAPPER_CLASS, 
-                       paymentRequestMapperClass.getClassLoader().getClass().getName());
-            
-            // Get the INSTANCE field from PaymentRequestMapper (MapStruct generated)
-            requestMapperInstance = paymentRequestMapperClass.getField("INSTANCE").get(null);
-            logger.info("Retrieved PaymentRequestMapper INSTANCE");
-            
-        } catch (Exception e) {
-            logger.error("Failed to initialize dynamic classes", e);
-            throw new RuntimeException("Failed to initialize dynamic classes", e);
-        }
+    public RequestDeadline requestDeadline(String requestTimeout) {
+        return resilience.deadline(requestTimeout);
     }
 
     /**
-     * Validates and processes a raw JSON request body using dynamically loaded classes.
+     * Validates and processes a raw JSON request body on the default operation path.
      * 
      * @param rawBody the raw JSON request body
      * @return ResponseEntity with either the validated PaymentRequestInfo or a DAResponse
      */
     public ResponseEntity<?> validateAndProcessRequest(String rawBody) {
-        // Validate request against OpenAPI spec
-        ValidationReport report = openApiRequestValidator.validatePostJson("/request", rawBody, MediaType.APPLICATION_JSON_VALUE);
-        if (report.hasErrors()) {
-            DAResponse error = new DAResponse(false, "Validation failed", "VALIDATION_ERROR", 
-                report.getMessages().stream()
-                    .map(ValidationReport.Message::toString)
-                    .toList(), null);
-            return ResponseEntity.badRequest().body(error);
+        return validateAndProcessRequest(rawBody, DEFAULT_OPERATION_PATH, null);
+    }
+
+    /**
+     * Validates and processes a raw JSON request body using the pipeline of a transaction type.
+     * The type is taken from {@code txnType} when given, otherwise from the operation path.
+     * The current txn-models generation is held for the whole request, so a concurrent reload
+     * never swaps classes underneath it.
+     *
+     * @param rawBody the raw JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on, e.g. {@code /request}
+     * @param txnType the transaction type name, or null to route by operation path
+     * @return ResponseEntity with a DAResponse
+     */
+    public ResponseEntity<?> validateAndProcessRequest(String rawBody, String operationPath, String txnType) {
+        return validateAndProcessRequest(JsonBody.of(rawBody), operationPath, txnType);
+    }
+
+    /**
+     * Validates and processes a JSON request body using the pipeline of a transaction type.
+     * Byte bodies are validated and bound straight from their bytes.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on, e.g. {@code /request}
+     * @param txnType the transaction type name, or null to route by operation path
+     * @return ResponseEntity with a DAResponse
+     */
+    public ResponseEntity<?> validateAndProcessRequest(JsonBody body, String operationPath, String txnType) {
+        return validateAndProcessRequest(body, operationPath, txnType, RequestDeadline.NONE);
+    }
+
+    /**
+     * Validates and processes a JSON request body within a deadline. A stage that starts after the
+     * deadline, or a dependency the remaining budget is too small for, ends the request with a
+     * deadline exceeded or fallback response.
+     *
+     * @param body the JSON request body
+     * @param operationPath the OpenAPI operation path the request was received on, e.g. {@code /request}
+     * @param txnType the transaction type name, or null to route by operation path
+     * @param deadline the deadline of the request
+     * @return ResponseEntity with a DAResponse
+     */
+    public ResponseEntity<?> validateAndProcessRequest(JsonBody body, String operationPath, String txnType,
+                                                       RequestDeadline deadline) {
+        PipelineTimings timings = pipelineMetrics.start();
+        PipelineRequestEvent event = PipelineRequestEvent.start();
+        TxnGeneration generation = txnClassLoaderService.acquire();
+        TxnBindingPlan bindingPlan = null;
+        ResponseEntity<DAResponse> response;
+        try {
+            bindingPlan = resolveBindingPlan(generation, operationPath, txnType);
+            response = bindingPlan != null
+                    ? processRequest(body, bindingPlan, generation, deadline, timings, event)
+                    : unknownTxnType(operationPath, txnType);
+        } finally {
+            generation.release();
         }
+        return completeRequest(response, bindingPlan, generation, event, timings);
+    }
 
-        // Deserialize after validation passes using dynamically loaded RequestInfo class
-        Object requestInfo;
+    private ResponseEntity<DAResponse> processRequest(JsonBody body, TxnBindingPlan bindingPlan, TxnGeneration generation,
+                                                      RequestDeadline deadline, PipelineTimings timings,
+                                                      PipelineRequestEvent event) {
         try {
-            requestInfo = objectMapper.readValue(rawBody, requestInfoClass);
-            logger.debug("Deserialized requestInfo using class: {}", requestInfo.getClass().getName());
-            logger.debug("RequestInfo class loader: {}", requestInfo.getClass().getClassLoader());
-        } catch (JsonProcessingException ex) {
-            logger.error("Failed to deserialize JSON to {}", REQUEST_INFO_CLASS, ex);
-            DAResponse error = new DAResponse(false, "Invalid JSON payload", "VALIDATION_ERROR", 
-                java.util.List.of("Invalid JSON payload"), null);
-            return ResponseEntity.badRequest().body(error);
+            checkDeadline(deadline, PipelineStage.VALIDATION);
+            Object requestInfo = bindRequestInfo(body, bindingPlan, timings);
+            checkDeadline(deadline, PipelineStage.MAPPING);
+            CustomerRequest customerRequest = toCustomerRequest(requestInfo, bindingPlan, timings);
+            event.activityId = customerRequest.getActivityId();
+
+            enterDependency(PipelineStage.CUSTOMER_LOOKUP, deadline);
+            List<Customer> customers = null;
+            long lookupStarted = timings.mark();
+            PipelineStageEvent lookupEvent = PipelineStageEvent.start();
+            long lookupCallStarted = System.nanoTime();
+            try {
+                // Look up customer details, through the customer cache when it is enabled
+                customers = deadline.isBounded()
+                        ? customerLookup.getCustomers(customerRequest, deadline.deadlineNanos())
+                        : customerLookup.getCustomers(customerRequest);
+                dependencySucceeded(PipelineStage.CUSTOMER_LOOKUP, lookupCallStarted);
+                event.customerCount = customers.size();
+                lookupEvent.customerCount = customers.size();
+            } catch (Exception e) {
+                return customerLookupFailed(e, deadline, lookupCallStarted);
+            } finally {
+                timings.record(PipelineStage.CUSTOMER_LOOKUP, lookupStarted);
+                lookupEvent.complete(PipelineStage.CUSTOMER_LOOKUP, bindingPlan, customerRequest.getActivityId(),
+                        customers != null ? PipelineStageEvent.OK : PipelineStageEvent.FAILED);
+            }
+            checkDeadline(deadline, PipelineStage.ASSEMBLY);
+            Object paymentAssessmentData = assembleAssessmentData(requestInfo, customerRequest, customers,
+                    bindingPlan, timings);
+
+            enterDependency(PipelineStage.RULES, deadline);
+            long rulesStarted = System.nanoTime();
+            ResponseEntity<DAResponse> response = evaluateRulesAndCreateResponse(paymentAssessmentData, bindingPlan,
+                    customerRequest.getActivityId(), timings);
+            return completeDecision(response, rulesStarted, bindingPlan, customerRequest, body, customers, generation);
+        } catch (RequestRejectedException e) {
+            return e.getResponse();
+        }
+    }
+
+    /*
+     * Pipeline stages, shared by the blocking and the reactive request paths so that both behave identically.
+     * A stage that ends the request early throws RequestRejectedException carrying the error response.
+     */
+
+    /**
+     * Picks the binding plan of a request from a generation.
+     *
+     * @param generation the acquired txn-models generation
+     * @param operationPath the OpenAPI operation path the request was received on
+     * @param txnType the transaction type name, or null to route by operation path
+     * @return the binding plan, or null if the transaction type is unknown
+     */
+    public TxnBindingPlan resolveBindingPlan(TxnGeneration generation, String operationPath, String txnType) {
+        return txnType != null
+                ? generation.getBindingPlan(txnType)
+                : generation.getBindingPlanForPath(operationPath);
+    }
+
+    /**
+     * Ends the request if its deadline has passed before a stage.
+     *
+     * @throws RequestRejectedException carrying the response of the expired request
+     */
+    public void checkDeadline(RequestDeadline deadline, PipelineStage stage) {
+        resilience.checkDeadline(deadline, stage);
+    }
+
+    /**
+     * Asks to call a dependency: the request needs the dependency's minimum budget and its circuit
+     * breaker must let the call through. A call that is let through must be followed by
+     * {@link #dependencySucceeded}, {@link #dependencyAbandoned}, {@link #customerLookupFailed} or
+     * {@link #completeDecision}.
+     *
+     * @throws RequestRejectedException carrying the fallback or error response if the call may not be made
+     */
+    public void enterDependency(PipelineStage dependency, RequestDeadline deadline) {
+        resilience.enter(dependency, deadline);
+    }
+
+    public void dependencySucceeded(PipelineStage dependency, long startedNanos) {
+        resilience.succeeded(dependency, startedNanos);
+    }
+
+    /**
+     * Ends a dependency call nobody waits for any more, such as one whose subscriber was cancelled.
+     */
+    public void dependencyAbandoned(PipelineStage dependency, long startedNanos) {
+        resilience.abandoned(dependency, startedNanos);
+    }
+
+    /**
+     * Ends a customer lookup that threw. A lookup cut short by the request's own deadline is not
+     * held against the customer API's breaker.
+     *
+     * @param e the failure of the lookup
+     * @param deadline the deadline of the request
+     * @param startedNanos the {@link System#nanoTime()} the lookup was called at
+     * @return the deadline exceeded or fallback response if the deadline ran out, otherwise the error response
+     */
+    public ResponseEntity<DAResponse> customerLookupFailed(Throwable e, RequestDeadline deadline, long startedNanos) {
+        if (deadline.isExpired()) {
+            resilience.abandoned(PipelineStage.CUSTOMER_LOOKUP, startedNanos);
+            logger.debug("Customer lookup did not complete before the request deadline", e);
+            return resilience.deadlineExceeded(PipelineStage.CUSTOMER_LOOKUP);
+        }
+        resilience.failed(PipelineStage.CUSTOMER_LOOKUP);
+        return assessmentDataError(e);
+    }
+
+    /**
+     * Completes the rules stage: records the outcome with the rules breaker and journals a
+     * successful decision with the customers it was made with.
+     *
+     * @param response the response of the rules stage
+     * @param rulesStarted the {@link System#nanoTime()} the rules evaluation was started at
+     * @param bindingPlan the binding plan of the request
+     * @param customerRequest the customer request of the request
+     * @param body the JSON request body
+     * @param customers the customers the decision was made with
+     * @param generation the txn-models generation of the request
+     * @return the response
+     */
+    public ResponseEntity<DAResponse> completeDecision(ResponseEntity<DAResponse> response, long rulesStarted,
+                                                       TxnBindingPlan bindingPlan, CustomerRequest customerRequest,
+                                                       JsonBody body, List<Customer> customers,
+                                                       TxnGeneration generation) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            resilience.failed(PipelineStage.RULES);
+            return response;
+        }
+        resilience.succeeded(PipelineStage.RULES, rulesStarted);
+        if (decisionJournal != null) {
+            // Queued for the journal's writer thread; never blocks the request
+            decisionJournal.record(bindingPlan.getDescriptor().name(), bindingPlan.getDescriptor().operationPath(),
+                    customerRequest.getActivityId(), body, customers, response.getBody().getRulesResponse(),
+                    generation.getId());
+        }
+        return response;
+    }
+
+    /**
+     * Ends a request: commits its flight recorder event and records its metrics.
+     *
+     * @param bindingPlan the binding plan of the request, or null if its transaction type is unknown
+     * @return the response
+     */
+    ResponseEntity<DAResponse> completeRequest(ResponseEntity<DAResponse> response, TxnBindingPlan bindingPlan,
+                                               TxnGeneration generation, PipelineRequestEvent event,
+                                               PipelineTimings timings) {
+        String resolvedTxnType = bindingPlan != null ? bindingPlan.getDescriptor().name() : null;
+        event.complete(response, resolvedTxnType, generation.getId());
+        return pipelineMetrics.complete(response, resolvedTxnType, timings);
+    }
+
+    public ResponseEntity<DAResponse> unknownTxnType(String operationPath, String txnType) {
+        DAResponse error = new DAResponse(false, "Unknown transaction type", "UNKNOWN_TXN_TYPE",
+            java.util.List.of(txnType != null ? txnType : operationPath), null);
+        return ResponseEntity.status(404).body(error);
+    }
+
+    /**
+     * Validates the raw body against the OpenAPI schema and binds it to the request info class.
+     *
+     * @param rawBody the raw JSON request body
+     * @param bindingPlan the binding plan of the transaction type
+     * @param timings the timings of the request
+     * @return the request info object
+     * @throws RequestRejectedException if the body is invalid
+     */
+    public Object bindRequestInfo(String rawBody, TxnBindingPlan bindingPlan, PipelineTimings timings) {
+        return bindRequestInfo(JsonBody.of(rawBody), bindingPlan, timings);
+    }
+
+    /**
+     * Validates the body against the OpenAPI schema and binds it to the request info class.
+     *
+     * @param body the JSON request body
+     * @param bindingPlan the binding plan of the transaction type
+     * @param timings the timings of the request
+     * @return the request info object
+     * @throws RequestRejectedException if the body is invalid
+     */
+    public Object bindRequestInfo(JsonBody body, TxnBindingPlan bindingPlan, PipelineTimings timings) {
+        String operationPath = bindingPlan.getDescriptor().operationPath();
+
+        // Validate against the compiled schema and bind in a single pass over the body
+        long validationStarted = timings.mark();
+        PipelineStageEvent validationEvent = PipelineStageEvent.start();
+        Object requestInfo = streamingRequestValidator.validateAndBind(operationPath, body,
+                bindingPlan.getRequestInfoReader());
+        if (requestInfo == null) {
+            // Not accepted by the single pass: the full OpenAPI validator decides and reports the details
+            ValidationReport report = openApiRequestValidator.validatePostJson(operationPath, body.asString(), MediaType.APPLICATION_JSON_VALUE);
+            timings.record(PipelineStage.VALIDATION, validationStarted);
+            validationEvent.complete(PipelineStage.VALIDATION, bindingPlan, null,
+                    report.hasErrors() ? PipelineStageEvent.FAILED : PipelineStageEvent.OK);
+            if (report.hasErrors()) {
+                DAResponse error = new DAResponse(false, "Validation failed", "VALIDATION_ERROR", 
+                    report.getMessages().stream()
+                        .map(ValidationReport.Message::toString)
+                        .toList(), null);
+                throw new RequestRejectedException(ResponseEntity.badRequest().body(error));
+            }
+
+            // Deserialize after validation passes using dynamically loaded RequestInfo class
+            long deserializationStarted = timings.mark();
+            PipelineStageEvent deserializationEvent = PipelineStageEvent.start();
+            try {
+                requestInfo = body.readValue(bindingPlan.getRequestInfoReader());
+            } catch (IOException ex) {
+                logger.error("Failed to deserialize JSON to {}", bindingPlan.getRequestInfoClass().getName(), ex);
+                throw new RequestRejectedException(ResponseEntity.badRequest().body(INVALID_JSON_PAYLOAD));
+            } finally {
+                timings.record(PipelineStage.DESERIALIZATION, deserializationStarted);
+                deserializationEvent.complete(PipelineStage.DESERIALIZATION, bindingPlan, null,
+                        requestInfo != null ? PipelineStageEvent.OK : PipelineStageEvent.FAILED);
+            }
+        } else {
+            timings.record(PipelineStage.VALIDATION, validationStarted);
+            validationEvent.complete(PipelineStage.VALIDATION, bindingPlan, null, PipelineStageEvent.OK);
         }
+        logger.debug("Deserialized requestInfo using class: {}", requestInfo.getClass().getName());
+        logger.debug("RequestInfo class loader: {}", requestInfo.getClass().getClassLoader());
+        return requestInfo;
+    }
 
-        // Create CustomerRequest object from RequestInfo using dynamically loaded mapper
-        CustomerRequest customerRequest;
+    /**
+     * Creates the CustomerRequest from the request info using the dynamically loaded mapper.
+     *
+     * @throws RequestRejectedException if the mapper fails
+     */
+    public CustomerRequest toCustomerRequest(Object requestInfo, TxnBindingPlan bindingPlan, PipelineTimings timings) {
+        long mappingStarted = timings.mark();
+        PipelineStageEvent event = PipelineStageEvent.start();
+        CustomerRequest customerRequest = null;
         try {
-            customerRequest = mapToCustomerRequest(requestInfo);
+            customerRequest = bindingPlan.toCustomerRequest(requestInfo);
             logger.debug("Mapped to CustomerRequest: {}", customerRequest);
+            return customerRequest;
         } catch (Exception e) {
             logger.error("Failed to map requestInfo to CustomerRequest", e);
             DAResponse error = new DAResponse(false, "Error processing request", "PROCESSING_ERROR", 
                 java.util.List.of(e.getMessage()), null);
-            return ResponseEntity.status(500).body(error);
+            throw new RequestRejectedException(ResponseEntity.status(500).body(error));
+        } finally {
+            timings.record(PipelineStage.MAPPING, mappingStarted);
+            event.complete(PipelineStage.MAPPING, bindingPlan,
+                    customerRequest != null ? customerRequest.getActivityId() : null,
+                    customerRequest != null ? PipelineStageEvent.OK : PipelineStageEvent.FAILED);
         }
-                      
-        // Create PaymentAssessmentData object and set all attributes
-        Object paymentAssessmentData;
+    }
+
+    /**
+     * Creates the PaymentAssessmentData object and sets the request info and customers on it.
+     *
+     * @throws RequestRejectedException if the assessment data cannot be populated
+     */
+    public Object assembleAssessmentData(Object requestInfo, CustomerRequest customerRequest,
+                                         List<Customer> customers, TxnBindingPlan bindingPlan,
+                                         PipelineTimings timings) {
+        long assemblyStarted = timings.mark();
+        PipelineStageEvent event = PipelineStageEvent.start();
+        event.customerCount = customers.size();
+        String outcome = PipelineStageEvent.FAILED;
         try {
-            // Call MockCustomerAPI to get customer details
-            List<Customer> customers = mockCustomerAPI.getCustomers(customerRequest);
             logger.debug("Retrieved {} customers from API", customers.size());
-            paymentAssessmentData = paymentAssessmentDataClass.getDeclaredConstructor().newInstance();
-
-            Method setRequestInfoMethod = paymentAssessmentDataClass.getMethod("setRequestInfo", requestInfoClass);
-            setRequestInfoMethod.invoke(paymentAssessmentData, requestInfo);
-            Map<String, String> customerTags = customerRequest.getCustomerTags();
-        
-            // transformation of customer response into a format suitable for PaymentAssessmentData
-            // this is being done in a generic manner
-            if (customerTags != null) {
-                for (Customer customer : customers) {
-                    String tag = customerTags.get(customer.getCustomerId());
-                    Method setCustomerMethod = paymentAssessmentDataClass.getMethod(tag, Customer.class);
-                    setCustomerMethod.invoke(paymentAssessmentData, customer);
-                }
-            }
+            Object paymentAssessmentData = bindingPlan.newAssessmentData();
+            bindingPlan.setRequestInfo(paymentAssessmentData, requestInfo);
+            // Each customer role slot of the request is set by the assembler generated for the txn type
+            bindingPlan.assembleCustomers(paymentAssessmentData, customerRequest.getRoleCustomerIds(), customers);
 
             logger.debug("Created PaymentAssessmentData with requestInfo and customers: {}", paymentAssessmentData);
+            outcome = PipelineStageEvent.OK;
+            return paymentAssessmentData;
         } catch (Exception e) {
-            logger.error("Failed to create PaymentAssessmentData", e);
-            DAResponse error = new DAResponse(false, "Error creating payment assessment data", "PROCESSING_ERROR", 
-                java.util.List.of(e.getMessage()), null);
-            return ResponseEntity.status(500).body(error);
+            throw new RequestRejectedException(assessmentDataError(e));
+        } finally {
+            timings.record(PipelineStage.ASSEMBLY, assemblyStarted);
+            event.complete(PipelineStage.ASSEMBLY, bindingPlan, customerRequest.getActivityId(), outcome);
         }
-        
-        return evaluateRulesAndCreateResponse(paymentAssessmentData);
+    }
+
+    /**
+     * Creates the error response of a failure while gathering the payment assessment data,
+     * including a failed customer lookup.
+     */
+    public ResponseEntity<DAResponse> assessmentDataError(Throwable e) {
+        logger.error("Failed to create PaymentAssessmentData", e);
+        DAResponse error = new DAResponse(false, "Error creating payment assessment data", "PROCESSING_ERROR", 
+            java.util.List.of(String.valueOf(e.getMessage())), null);
+        return ResponseEntity.status(500).body(error);
     }
     
     /**
      * Evaluates rules on the payment assessment data and creates a response.
      * 
      * @param paymentAssessmentData the payment assessment data object
+     * @param bindingPlan the binding plan of the generation the data was created with
+     * @param activityId the activityId of the request
+     * @param timings the timings of the request
      * @return ResponseEntity with DAResponse
      */
-    private ResponseEntity<?> evaluateRulesAndCreateResponse(Object paymentAssessmentData) {
+    private ResponseEntity<DAResponse> evaluateRulesAndCreateResponse(Object paymentAssessmentData, TxnBindingPlan bindingPlan,
+                                                                      String activityId, PipelineTimings timings) {
         // Evaluate rules and get rulesResponse
+        long rulesStarted = timings.mark();
+        PipelineStageEvent event = PipelineStageEvent.start();
+        ResponseEntity<DAResponse> response = null;
         try {
-            mockRulesAPI.evaluateRules(paymentAssessmentData);
-            
-            // Extract rulesResponse from paymentAssessmentData
-            Method getRulesResponseMethod = paymentAssessmentDataClass.getMethod("getRulesResponse");
-            Object rulesResponse = getRulesResponseMethod.invoke(paymentAssessmentData);
-            
-            // Create success response with rulesResponse
-            DAResponse successResponse = new DAResponse(
-                true, 
-                "Request processed successfully", 
-                "SUCCESS", 
-                java.util.List.of(), 
-                (com.example.dapprototype.model.RulesResponse) rulesResponse
-            );
-            
-            return ResponseEntity.ok(successResponse);
+            RulesResponse rulesResponse = rulesEngine.evaluateRules(bindingPlan.getDescriptor().name(),
+                    paymentAssessmentData);
+            response = completeWithRules(paymentAssessmentData, rulesResponse, bindingPlan);
         } catch (Exception e) {
-            logger.error("Failed to evaluate rules", e);
-            DAResponse error = new DAResponse(false, "Error evaluating rules", "PROCESSING_ERROR", 
-                java.util.List.of(e.getMessage()), null);
-            return ResponseEntity.status(500).body(error);
+            response = rulesError(e);
+        } finally {
+            timings.record(PipelineStage.RULES, rulesStarted);
+            event.complete(PipelineStage.RULES, bindingPlan, activityId,
+                    response != null && response.getStatusCode().is2xxSuccessful()
+                            ? PipelineStageEvent.OK : PipelineStageEvent.FAILED);
         }
+        return response;
     }
-    
-    
+
     /**
-     * Maps the dynamically loaded RequestInfo object to CustomerRequest
-     * using reflection to invoke the mapper method.
-     * 
-     * @param requestInfo the RequestInfo object (loaded dynamically)
-     * @return CustomerRequest object
-     * @throws Exception if reflection fails
-     */
-    private CustomerRequest mapToCustomerRequest(Object requestInfo) throws Exception {
-        // Use reflection to call: requestMapper.toCustomerRequest(requestInfo)
-        Method mapperMethod = requestMapperInstance.getClass()
-            .getMethod("toCustomerRequest", requestInfoClass);
-        
-        Object result = mapperMethod.invoke(requestMapperInstance, requestInfo);
-        
-        // The result should be a CustomerRequest object
-        if (result instanceof CustomerRequest) {
-            return (CustomerRequest) result;
-        } else {
-            throw new IllegalStateException("Mapper did not return CustomerRequest: " + 
-                (result != null ? result.getClass().getName() : "null"));
+     * Sets the rules response on the payment assessment data and creates the success response.
+     *
+     * @param paymentAssessmentData the payment assessment data object
+     * @param rulesResponse the evaluated rules response
+     * @param bindingPlan the binding plan of the generation the data was created with
+     * @return ResponseEntity with DAResponse
+     */
+    public ResponseEntity<DAResponse> completeWithRules(Object paymentAssessmentData, RulesResponse rulesResponse,
+                                                        TxnBindingPlan bindingPlan) {
+        try {
+            bindingPlan.setRulesResponse(paymentAssessmentData, rulesResponse);
+        } catch (Exception e) {
+            return rulesError(e);
         }
+
+        // Create success response with rulesResponse
+        DAResponse successResponse = new DAResponse(
+            true, 
+            "Request processed successfully", 
+            "SUCCESS", 
+            java.util.List.of(), 
+            rulesResponse
+        );
+        
+        return ResponseEntity.ok(successResponse);
+    }
+
+    public ResponseEntity<DAResponse> rulesError(Throwable e) {
+        logger.error("Failed to evaluate rules", e);
+        DAResponse error = new DAResponse(false, "Error evaluating rules", "PROCESSING_ERROR", 
+            java.util.List.of(String.valueOf(e.getMessage())), null);
+        return ResponseEntity.status(500).body(error);
     }
 }
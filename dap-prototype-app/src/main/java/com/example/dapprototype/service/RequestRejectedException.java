@@ -0,0 +1,22 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Thrown by a pipeline stage of {@link RequestProcessingService} that ends the request early.
+ * Carries the error response to return to the client.
+ */
+public class RequestRejectedException extends RuntimeException {
+
+    private final transient ResponseEntity<DAResponse> response;
+
+    public RequestRejectedException(ResponseEntity<DAResponse> response) {
+        super(response.getBody() != null ? response.getBody().getMessage() : null, null, false, false);
+        this.response = response;
+    }
+
+    public ResponseEntity<DAResponse> getResponse() {
+        return response;
+    }
+}
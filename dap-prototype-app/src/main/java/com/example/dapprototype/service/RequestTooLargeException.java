@@ -0,0 +1,13 @@
+package com.example.dapprototype.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request body is, or announces to be, larger than the configured maximum request size.
+ */
+public class RequestTooLargeException extends IOException {
+
+    public RequestTooLargeException(String message) {
+        super(message);
+    }
+}
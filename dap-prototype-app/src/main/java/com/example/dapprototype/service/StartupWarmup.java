@@ -0,0 +1,283 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.examples.Example;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a corpus of requests through the whole pipeline before the application reports ready.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, so the readiness state stays {@code REFUSING_TRAFFIC} until
+ * it returns. The corpus is a file of newline-delimited request bodies, or by default the request
+ * examples of {@code openapi.yaml} plus an empty object per operation, which fails validation and
+ * warms the full OpenAPI validator and the error responses as well. Requests are replayed in rounds
+ * the same way {@code RequestController} serves them, from bytes to a written {@link DAResponse}.
+ * They run through a pipeline of their own, like {@code DecisionReplayer}'s: it shares the
+ * validators, the txn-models and the rules with the served pipeline, but records into a private
+ * {@link PipelineMetrics} registry, runs without deadlines, breakers or the decision journal, and
+ * looks customers up from the {@link MockCustomerAPI} directly, so the warm-up neither shows in the
+ * request metrics nor trips a breaker nor fills the customer cache.
+ * The warm-up ends once the p99 of a round no longer improves on the best round before by more
+ * than the tolerance, and at most after {@code max-requests}. The p99 is taken over the successful
+ * requests of a round, so the slower error path of the invalid bodies does not mask it.
+ * <p>
+ * The JVM uptime at that point is published as {@code dap.startup.time.to.steady.state} and the p99
+ * of the last round as {@code dap.startup.steady.state.p99}. With {@code dap.warmup.exit} the
+ * application exits after the warm-up, which is how the CDS training run archives the classes of
+ * a fully warmed pipeline.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final String INVALID_EXAMPLE = "{}";
+
+    private final OpenApiRequestValidator openApiRequestValidator;
+    private final StreamingRequestValidator streamingRequestValidator;
+    private final TxnClassLoaderService txnClassLoaderService;
+    private final RulesEngine rulesEngine;
+    private final MockCustomerAPI mockCustomerAPI;
+    private final DAResponseWriter responseWriter;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final String corpusLocation;
+    private final int roundSize;
+    private final int minRequests;
+    private final int maxRequests;
+    private final double tolerance;
+    private final boolean exitAfterWarmup;
+
+    private volatile double timeToSteadyStateSeconds = Double.NaN;
+    private volatile double steadyStateP99Seconds = Double.NaN;
+    private volatile int warmupRequests;
+
+    public StartupWarmup(OpenApiRequestValidator openApiRequestValidator,
+                         StreamingRequestValidator streamingRequestValidator,
+                         TxnClassLoaderService txnClassLoaderService,
+                         RulesEngine rulesEngine,
+                         MockCustomerAPI mockCustomerAPI,
+                         DAResponseWriter responseWriter,
+                         ObjectMapper objectMapper,
+                         ResourceLoader resourceLoader,
+                         ApplicationContext applicationContext,
+                         ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${dap.warmup.enabled:true}") boolean enabled,
+                         @Value("${dap.warmup.corpus:}") String corpusLocation,
+                         @Value("${dap.warmup.round-size:500}") int roundSize,
+                         @Value("${dap.warmup.min-requests:2000}") int minRequests,
+                         @Value("${dap.warmup.max-requests:50000}") int maxRequests,
+                         @Value("${dap.warmup.p99-tolerance:0.1}") double tolerance,
+                         @Value("${dap.warmup.exit:false}") boolean exitAfterWarmup) {
+        this.openApiRequestValidator = openApiRequestValidator;
+        this.streamingRequestValidator = streamingRequestValidator;
+        this.txnClassLoaderService = txnClassLoaderService;
+        this.rulesEngine = rulesEngine;
+        this.mockCustomerAPI = mockCustomerAPI;
+        this.responseWriter = responseWriter;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.applicationContext = applicationContext;
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.enabled = enabled;
+        this.corpusLocation = corpusLocation;
+        this.roundSize = Math.max(10, roundSize);
+        this.minRequests = minRequests;
+        this.maxRequests = Math.max(minRequests, maxRequests);
+        this.tolerance = tolerance;
+        this.exitAfterWarmup = exitAfterWarmup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) {
+            logger.info("Startup warm-up disabled");
+            return;
+        }
+        List<WarmupRequest> corpus = corpusLocation.isBlank()
+                ? openApiExamples(objectMapper)
+                : loadCorpus(resourceLoader.getResource(corpusLocation));
+        if (corpus.isEmpty()) {
+            logger.warn("Startup warm-up corpus {} is empty, skipping warm-up",
+                    corpusLocation.isBlank() ? "from openapi.yaml" : corpusLocation);
+            return;
+        }
+        registerMetrics();
+        warmUp(corpus);
+        if (exitAfterWarmup) {
+            logger.info("Exiting after warm-up as requested by dap.warmup.exit");
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void warmUp(List<WarmupRequest> corpus) throws IOException {
+        RequestProcessingService pipeline = new RequestProcessingService(openApiRequestValidator,
+                streamingRequestValidator, txnClassLoaderService,
+                request -> new ArrayList<Customer>(mockCustomerAPI.multiGet(request.getCustomerIds()).values()),
+                rulesEngine, new PipelineMetrics(new SimpleMeterRegistry(), true, false), null,
+                PipelineResilience.DISABLED);
+        long started = System.nanoTime();
+        long[] latencies = new long[roundSize];
+        long[] successLatencies = new long[roundSize];
+        OutputStream discard = OutputStream.nullOutputStream();
+        long bestP99 = Long.MAX_VALUE;
+        long p99 = Long.MAX_VALUE;
+        int requests = 0;
+        boolean steady = false;
+        while (requests < maxRequests && !steady) {
+            int successes = 0;
+            for (int i = 0; i < roundSize; i++) {
+                WarmupRequest request = corpus.get((requests + i) % corpus.size());
+                long requestStarted = System.nanoTime();
+                ResponseEntity<?> response = pipeline.validateAndProcessRequest(
+                        JsonBody.of(request.body(), request.body().length), request.operationPath(), null);
+                if (response.getBody() instanceof DAResponse daResponse) {
+                    responseWriter.write(daResponse, discard);
+                }
+                latencies[i] = System.nanoTime() - requestStarted;
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    successLatencies[successes++] = latencies[i];
+                }
+            }
+            requests += roundSize;
+            p99 = successes > 0 ? p99(successLatencies, successes) : p99(latencies, roundSize);
+            steady = requests >= minRequests && p99 >= bestP99 * (1 - tolerance);
+            logger.debug("Warm-up round ending at {} requests: p99 {} µs", requests, p99 / 1_000);
+            bestP99 = Math.min(bestP99, p99);
+        }
+        warmupRequests = requests;
+        steadyStateP99Seconds = p99 / 1e9;
+        timeToSteadyStateSeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1e3;
+        if (steady) {
+            logger.info("Startup warm-up replayed {} requests of a {} request corpus in {} ms; steady p99 {} µs, "
+                            + "{} s after JVM start", requests, corpus.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), p99 / 1_000, timeToSteadyStateSeconds);
+        } else {
+            logger.warn("Startup warm-up stopped at dap.warmup.max-requests={} before p99 settled; last p99 {} µs",
+                    maxRequests, p99 / 1_000);
+        }
+    }
+
+    private void registerMetrics() {
+        TimeGauge.builder("dap.startup.time.to.steady.state", this, TimeUnit.SECONDS, w -> w.timeToSteadyStateSeconds)
+                .description("JVM uptime when the warm-up p99 stopped improving")
+                .register(registry);
+        TimeGauge.builder("dap.startup.steady.state.p99", this, TimeUnit.SECONDS, w -> w.steadyStateP99Seconds)
+                .description("p99 latency of the last warm-up round")
+                .register(registry);
+        Gauge.builder("dap.startup.warmup.requests", this, w -> w.warmupRequests)
+                .description("Requests replayed by the startup warm-up")
+                .register(registry);
+    }
+
+    static long p99(long[] latencies, int count) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(count * 0.99) - 1];
+    }
+
+    /**
+     * Reads a corpus of newline-delimited request bodies, all sent to the default operation path.
+     * Blank lines are skipped.
+     */
+    static List<WarmupRequest> loadCorpus(Resource resource) throws IOException {
+        List<WarmupRequest> corpus = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    corpus.add(new WarmupRequest(RequestProcessingService.DEFAULT_OPERATION_PATH,
+                            line.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Collects the JSON request body examples of {@code openapi.yaml}, plus an empty object for each
+     * operation that has any.
+     */
+    static List<WarmupRequest> openApiExamples(ObjectMapper objectMapper) throws IOException {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        OpenAPI openAPI = new OpenAPIV3Parser().read(new ClassPathResource("openapi.yaml").getURL().toString(),
+                null, options);
+        List<WarmupRequest> corpus = new ArrayList<>();
+        if (openAPI == null || openAPI.getPaths() == null) {
+            return corpus;
+        }
+        for (Map.Entry<String, PathItem> path : openAPI.getPaths().entrySet()) {
+            Operation post = path.getValue().getPost();
+            if (post == null || post.getRequestBody() == null || post.getRequestBody().getContent() == null) {
+                continue;
+            }
+            MediaType json = post.getRequestBody().getContent().get(org.springframework.http.MediaType.APPLICATION_JSON_VALUE);
+            if (json == null) {
+                continue;
+            }
+            List<Object> examples = new ArrayList<>();
+            if (json.getExample() != null) {
+                examples.add(json.getExample());
+            }
+            if (json.getExamples() != null) {
+                for (Example example : json.getExamples().values()) {
+                    if (example.getValue() != null) {
+                        examples.add(example.getValue());
+                    }
+                }
+            }
+            for (Object example : examples) {
+                corpus.add(new WarmupRequest(path.getKey(), objectMapper.writeValueAsBytes(example)));
+            }
+            if (!examples.isEmpty()) {
+                corpus.add(new WarmupRequest(path.getKey(), INVALID_EXAMPLE.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return corpus;
+    }
+
+    record WarmupRequest(String operationPath, byte[] body) {
+    }
+}
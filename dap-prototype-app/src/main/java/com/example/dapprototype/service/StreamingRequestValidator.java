@@ -0,0 +1,165 @@
+package com.example.dapprototype.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validates request bodies against schemas compiled from {@code openapi.yaml} while reading the
+ * Jackson token stream, and binds the accepted body into the txn-model class from the same tokens.
+ * <p>
+ * The body is parsed once: every token is checked against the compiled schema and copied into a
+ * {@link TokenBuffer}, which the txn-model reader then deserializes from without re-parsing text.
+ * A body is only accepted when the compiled checks are certain it is valid; anything else
+ * (violations, unknown or duplicate properties, malformed JSON, unsupported schemas) returns null so
+ * that the caller falls back to the full OpenAPI validator, which also produces the detailed error
+ * messages for rejected requests.
+ */
+@Service
+public class StreamingRequestValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingRequestValidator.class);
+
+    private final Map<String, CompiledRequestSchema> schemasByPath;
+
+    public StreamingRequestValidator() throws IOException {
+        this.schemasByPath = compileSchemas(new ClassPathResource("openapi.yaml").getURL().toString());
+    }
+
+    /**
+     * Validates a JSON body and binds it in a single pass.
+     *
+     * @param operationPath the OpenAPI operation path, e.g. {@code /request}
+     * @param rawBody the raw JSON request body
+     * @param reader the reader of the txn-model class to bind into
+     * @return the bound object, or null if the body was not accepted by the compiled schema
+     */
+    public Object validateAndBind(String operationPath, String rawBody, ObjectReader reader) {
+        return validateAndBind(operationPath, JsonBody.of(rawBody), reader);
+    }
+
+    /**
+     * Validates a JSON body and binds it in a single pass, parsing byte bodies without decoding them.
+     *
+     * @param operationPath the OpenAPI operation path, e.g. {@code /request}
+     * @param body the JSON request body
+     * @param reader the reader of the txn-model class to bind into
+     * @return the bound object, or null if the body was not accepted by the compiled schema
+     */
+    public Object validateAndBind(String operationPath, JsonBody body, ObjectReader reader) {
+        CompiledRequestSchema schema = schemasByPath.get(operationPath);
+        if (schema == null || body.isAbsent()) {
+            return null;
+        }
+        try (JsonParser parser = body.createParser(reader)) {
+            return validateAndBind(schema, parser, reader);
+        } catch (IOException e) {
+            logger.debug("Streaming validation could not read body: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether an operation path has a compiled schema.
+     *
+     * @param operationPath the OpenAPI operation path
+     * @return true if bodies for the path can be validated in a single pass
+     */
+    public boolean supports(String operationPath) {
+        return schemasByPath.containsKey(operationPath);
+    }
+
+    private Object validateAndBind(CompiledRequestSchema schema, JsonParser parser, ObjectReader reader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentEvent(parser);
+        long seenMask = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            CompiledRequestSchema.PropertyRule rule = schema.property(parser.currentName());
+            if (rule == null) {
+                logger.debug("Streaming validation: undeclared property {}", parser.currentName());
+                return null;
+            }
+            long bit = 1L << rule.index();
+            if ((seenMask & bit) != 0) {
+                logger.debug("Streaming validation: duplicate property {}", parser.currentName());
+                return null;
+            }
+            seenMask |= bit;
+            buffer.copyCurrentEvent(parser);
+
+            JsonToken value = parser.nextToken();
+            String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+            BigDecimal number = value != null && value.isNumeric() && rule.needsNumber() ? parser.getDecimalValue() : null;
+            String violation = rule.check(value, text, number);
+            if (violation != null) {
+                logger.debug("Streaming validation: {}", violation);
+                return null;
+            }
+            buffer.copyCurrentEvent(parser);
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return null;
+        }
+        buffer.copyCurrentEvent(parser);
+        if (parser.nextToken() != null) {
+            return null;
+        }
+        if (!schema.hasAllRequired(seenMask)) {
+            logger.debug("Streaming validation: missing required property");
+            return null;
+        }
+        try (JsonParser bufferedParser = buffer.asParser()) {
+            return reader.readValue(bufferedParser);
+        }
+    }
+
+    private static Map<String, CompiledRequestSchema> compileSchemas(String specLocation) {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setResolveFully(true);
+        OpenAPI openAPI = new OpenAPIV3Parser().read(specLocation, null, options);
+        Map<String, CompiledRequestSchema> schemas = new HashMap<>();
+        if (openAPI == null || openAPI.getPaths() == null) {
+            logger.warn("Could not read {} for streaming validation; all requests use the full validator", specLocation);
+            return schemas;
+        }
+        for (Map.Entry<String, PathItem> path : openAPI.getPaths().entrySet()) {
+            Operation post = path.getValue().getPost();
+            if (post == null || post.getRequestBody() == null || post.getRequestBody().getContent() == null) {
+                continue;
+            }
+            MediaType json = post.getRequestBody().getContent().get(org.springframework.http.MediaType.APPLICATION_JSON_VALUE);
+            Schema<?> bodySchema = json != null ? json.getSchema() : null;
+            CompiledRequestSchema compiled = CompiledRequestSchema.compile(bodySchema);
+            if (compiled != null) {
+                schemas.put(path.getKey(), compiled);
+                logger.info("Compiled streaming validator for POST {}", path.getKey());
+            } else {
+                logger.info("POST {} uses schema features outside the streaming validator; using full validation",
+                        path.getKey());
+            }
+        }
+        return Map.copyOf(schemas);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local customer backend whose calls take a latency drawn from a {@link LatencyDistribution},
+ * for measuring fan-out and hedging against a realistic tail without a network.
+ * <p>
+ * Every customer ID is known and named {@code Customer-<id>}. A call sleeps for one sample of the
+ * distribution, however many IDs it asks for, and gives up when interrupted.
+ */
+public class StubCustomerBackend implements CustomerBackend {
+
+    /**
+     * The latency of one backend call.
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+
+        /**
+         * Draws the latency of a call.
+         */
+        Duration sample(ThreadLocalRandom random);
+
+        static LatencyDistribution fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        /**
+         * A log-normal latency: most calls near the median, with a long right tail that grows with sigma.
+         */
+        static LatencyDistribution logNormal(Duration median, double sigma) {
+            long medianNanos = median.toNanos();
+            return random -> Duration.ofNanos((long) (medianNanos * Math.exp(sigma * random.nextGaussian())));
+        }
+
+        /**
+         * Adds a stall of {@code stall} to a fraction {@code probability} of the calls, the way a
+         * garbage collection pause or a slow replica would.
+         */
+        default LatencyDistribution withStalls(double probability, Duration stall) {
+            return random -> random.nextDouble() < probability ? sample(random).plus(stall) : sample(random);
+        }
+    }
+
+    private final LatencyDistribution latency;
+    private final AtomicLong calls = new AtomicLong();
+
+    public StubCustomerBackend(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Optional<Customer> get(String customerId) {
+        simulateCall();
+        return Optional.of(customer(customerId));
+    }
+
+    @Override
+    public Map<String, Customer> multiGet(List<String> customerIds) {
+        simulateCall();
+        Map<String, Customer> customers = new LinkedHashMap<>();
+        for (String customerId : customerIds) {
+            customers.put(customerId, customer(customerId));
+        }
+        return customers;
+    }
+
+    /**
+     * The number of calls made so far, including hedged and abandoned ones.
+     */
+    public long calls() {
+        return calls.get();
+    }
+
+    private void simulateCall() {
+        calls.incrementAndGet();
+        try {
+            Thread.sleep(latency.sample(ThreadLocalRandom.current()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomerLookupTimeoutException("Interrupted during stub customer backend call");
+        }
+    }
+
+    private static Customer customer(String customerId) {
+        return new Customer(customerId, "Customer-" + customerId);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.dapprototype.classloader;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TxnBindingPlanTest {
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static TxnBindingPlan bindingPlan;
+
+    @BeforeAll
+    static void resolvePlan() throws Exception {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        bindingPlan = TxnBindingPlan.resolve(txnClassLoaderService.getTxnClassLoader(), new ObjectMapper(),
+                new TxnTypeDescriptor("payment",
+                        "com.example.dapprototype.model.PaymentRequestInfo",
+                        "com.example.dapprototype.mapper.PaymentRequestMapper",
+                        "com.example.dapprototype.model.PaymentAssessmentData",
+                        "/request"));
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("binding plan classes come from the TxnClassLoader")
+    void classesLoadedByTxnClassLoader() {
+        assertThat(bindingPlan.getRequestInfoClass().getClassLoader()).isInstanceOf(TxnClassLoader.class);
+        assertThat(bindingPlan.getAssessmentDataClass().getClassLoader()).isInstanceOf(TxnClassLoader.class);
+    }
+
+    @Test
+    @DisplayName("bound mapper, constructor, setters and getter round-trip values")
+    void boundEntryPointsRoundTrip() throws Exception {
+        String rawBody = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+        Object requestInfo = bindingPlan.getRequestInfoReader().readValue(rawBody);
+        assertThat(requestInfo).isInstanceOf(bindingPlan.getRequestInfoClass());
+
+        CustomerRequest customerRequest = bindingPlan.toCustomerRequest(requestInfo);
+        assertThat(customerRequest.getActivityId()).isEqualTo("abcd");
+        assertThat(customerRequest.getCustomerIds()).containsExactlyInAnyOrder("CUST001", "CUST002");
+
+        Object assessmentData = bindingPlan.newAssessmentData();
+        bindingPlan.setRequestInfo(assessmentData, requestInfo);
+        bindingPlan.assembleCustomers(assessmentData, customerRequest.getRoleCustomerIds(),
+                List.of(new Customer("CUST001", "Payee")));
+        bindingPlan.setRulesResponse(assessmentData, new RulesResponse("Allow"));
+
+        assertThat(bindingPlan.getRulesResponse(assessmentData).getDecision()).isEqualTo("Allow");
+        assertThat(assessmentData.toString()).contains("CUST001", "Payee", "abcd");
+    }
+
+    @Test
+    @DisplayName("a customer filling both roles is looked up once and set on both")
+    void sameCustomerFillsBothRoles() throws Exception {
+        String rawBody = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST001\"}";
+        Object requestInfo = bindingPlan.getRequestInfoReader().readValue(rawBody);
+        CustomerRequest customerRequest = bindingPlan.toCustomerRequest(requestInfo);
+        assertThat(customerRequest.getCustomerIds()).containsExactly("CUST001");
+
+        Customer customer = new Customer("CUST001", "Self");
+        Object assessmentData = bindingPlan.newAssessmentData();
+        bindingPlan.assembleCustomers(assessmentData, customerRequest.getRoleCustomerIds(), List.of(customer));
+
+        assertThat(assessmentData.getClass().getMethod("getPayeeCustomer").invoke(assessmentData)).isSameAs(customer);
+        assertThat(assessmentData.getClass().getMethod("getPayerCustomer").invoke(assessmentData)).isSameAs(customer);
+    }
+
+    @Test
+    @DisplayName("the customer assembler is generated inside the TxnClassLoader")
+    void assemblerDefinedInTxnClassLoader() {
+        Class<?> assemblerClass = bindingPlan.getCustomerAssembler().getClass();
+
+        assertThat(assemblerClass.getClassLoader()).isSameAs(bindingPlan.getAssessmentDataClass().getClassLoader());
+        assertThat(assemblerClass.getPackageName()).isEqualTo(bindingPlan.getAssessmentDataClass().getPackageName());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.dapprototype.classloader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TxnClassLoaderServiceTest {
+
+    private final List<Object> events = new ArrayList<>();
+    private TxnClassLoaderService txnClassLoaderService;
+
+    @BeforeEach
+    void setUp() {
+        txnClassLoaderService = new TxnClassLoaderService(events::add, new ObjectMapper());
+        txnClassLoaderService.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("generation registers the transaction types declared by the txn-models jar")
+    void generationRegistersDeclaredTypes() {
+        TxnGeneration generation = txnClassLoaderService.getCurrentGeneration();
+
+        TxnBindingPlan byType = generation.getBindingPlan("payment");
+        assertThat(byType).isNotNull();
+        assertThat(byType.getRequestInfoClass().getName()).isEqualTo("com.example.dapprototype.model.PaymentRequestInfo");
+        assertThat(generation.getBindingPlanForPath("/request")).isSameAs(byType);
+        assertThat(generation.getBindingPlan("login")).isNull();
+    }
+
+    @Test
+    @DisplayName("reload swaps in a new generation with its own class loader")
+    void reloadSwapsGeneration() {
+        TxnGeneration first = txnClassLoaderService.getCurrentGeneration();
+
+        TxnGeneration second = txnClassLoaderService.reload();
+
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        assertThat(txnClassLoaderService.getCurrentGeneration()).isSameAs(second);
+        assertThat(second.getBindingPlan("payment").getRequestInfoClass())
+                .isNotSameAs(first.getBindingPlan("payment").getRequestInfoClass());
+        assertThat(events).containsExactly(new TxnGenerationChangedEvent(first.getId(), second.getId()));
+    }
+
+    @Test
+    @DisplayName("reload emits a flight recorder event for the generation change and for each class it defines")
+    void reloadEmitsFlightRecorderEvents(@TempDir Path directory) throws Exception {
+        TxnGeneration first = txnClassLoaderService.getCurrentGeneration();
+        Path recordingFile = directory.resolve("reload.jfr");
+        TxnGeneration second;
+        try (Recording recording = new Recording()) {
+            recording.enable(TxnGenerationChangeEvent.NAME);
+            recording.enable(TxnClassLoadEvent.NAME);
+            recording.start();
+            second = txnClassLoaderService.reload();
+            second.getBindingPlan("payment").newAssessmentData();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> recorded = RecordingFile.readAllEvents(recordingFile);
+        assertThat(recorded).filteredOn(event -> event.getEventType().getName().equals(TxnGenerationChangeEvent.NAME))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getLong("previousGenerationId")).isEqualTo(first.getId());
+                    assertThat(event.getLong("generationId")).isEqualTo(second.getId());
+                    assertThat(event.getInt("txnTypes")).isEqualTo(second.getBindingPlans().size());
+                });
+        List<RecordedEvent> classLoads = recorded.stream()
+                .filter(event -> event.getEventType().getName().equals(TxnClassLoadEvent.NAME))
+                .toList();
+        assertThat(classLoads).extracting(event -> event.getString("className"))
+                .contains("com.example.dapprototype.model.PaymentRequestInfo");
+        assertThat(classLoads).allSatisfy(event -> assertThat(event.getLong("generationId")).isEqualTo(second.getId()));
+        assertThat(classLoads).anySatisfy(event -> assertThat(event.getBoolean("generated")).isTrue());
+    }
+
+    @Test
+    @DisplayName("retired generation stays open until in-flight requests release it")
+    void retiredGenerationClosesWhenDrained() {
+        TxnGeneration inFlight = txnClassLoaderService.acquire();
+
+        txnClassLoaderService.reload();
+
+        assertThat(inFlight.isClosed()).isFalse();
+        assertThat(txnClassLoaderService.countLiveGenerations()).isEqualTo(2);
+        assertThat(inFlight.getBindingPlan("payment").newAssessmentData()).isNotNull();
+
+        inFlight.release();
+
+        assertThat(inFlight.isClosed()).isTrue();
+        assertThat(txnClassLoaderService.countLiveGenerations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("acquire never returns a drained generation")
+    void acquireReturnsCurrentGeneration() {
+        TxnGeneration retired = txnClassLoaderService.getCurrentGeneration();
+        txnClassLoaderService.reload();
+
+        TxnGeneration acquired = txnClassLoaderService.acquire();
+        try {
+            assertThat(retired.isClosed()).isTrue();
+            assertThat(acquired).isSameAs(txnClassLoaderService.getCurrentGeneration());
+            assertThat(acquired.getRefCount()).isEqualTo(2);
+        } finally {
+            acquired.release();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dapprototype.controller;
+
+import com.example.dapprototype.service.ConcurrencyLimiter;
+import com.example.dapprototype.service.DAResponseWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSheddingFilterTest {
+
+    @Test
+    @DisplayName("requests over the limit get a 503 OVERLOADED with Retry-After, the batch endpoint is not limited")
+    void shedsOverLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 100, 1.5, 0.2, new SimpleMeterRegistry());
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter, new DAResponseWriter(new ObjectMapper()), 2);
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/request"), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(limiter.getInFlight()).isZero();
+
+        ConcurrencyLimiter.Permit held = limiter.tryAcquire();
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/request"), shed, new MockFilterChain());
+        assertThat(shed.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shed.getContentAsString()).contains("\"code\":\"OVERLOADED\"");
+
+        MockHttpServletResponse batch = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/requests/batch"), batch, new MockFilterChain());
+        assertThat(batch.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        held.release(false);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.dapprototype.controller;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.config.ResilienceConfig;
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.IdempotencyCache;
+import com.example.dapprototype.service.JsonBody;
+import com.example.dapprototype.service.MockCustomerAPI;
+import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.PipelineResilience;
+import com.example.dapprototype.service.PipelineMetrics;
+import com.example.dapprototype.service.ReactiveCustomerLookup;
+import com.example.dapprototype.service.ReactiveRequestProcessingService;
+import com.example.dapprototype.service.ReactiveRulesAPI;
+import com.example.dapprototype.service.RequestBufferPool;
+import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.StreamingRequestValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@WebFluxTest(controllers = ReactiveRequestController.class, properties = "dap.io.request-buffer.max-request-size=4096")
+@Import({ReactiveRequestProcessingService.class, ReactiveCustomerLookup.class, ReactiveRulesAPI.class, RequestProcessingService.class, OpenApiRequestValidator.class, StreamingRequestValidator.class, OpenApiValidatorConfig.class, TxnClassLoaderService.class, MockCustomerAPI.class, RulesEngine.class, PipelineMetrics.class, IdempotencyCache.class, ResilienceConfig.class, RequestBufferPool.class})
+class ReactiveRequestControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RequestProcessingService requestProcessingService;
+
+    @Test
+    @DisplayName("POST /api/request returns success payload")
+    void submitRequestReturnsSuccess() {
+        String validJson = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validJson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.message").isEqualTo("Request processed successfully")
+                .jsonPath("$.rulesResponse.decision").isEqualTo("Step Up");
+    }
+
+    @Test
+    @DisplayName("POST /api/request with unknown transaction type header is 404")
+    void submitRequestUnknownTxnTypeHeader() {
+        webTestClient.post().uri("/api/request")
+                .header(RequestController.TXN_TYPE_HEADER, "login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("UNKNOWN_TXN_TYPE");
+    }
+
+    @Test
+    @DisplayName("a retried request is replayed from the idempotency cache")
+    void retryIsReplayed() {
+        String validJson = "{\"activityId\": \"reactive-retry\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validJson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(IdempotencyCache.REPLAYED_HEADER);
+        webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validJson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(IdempotencyCache.REPLAYED_HEADER, "true")
+                .expectBody()
+                .jsonPath("$.rulesResponse.decision").isEqualTo("Step Up");
+    }
+
+    @Test
+    @DisplayName("a request whose timeout header has already run out is 504")
+    void expiredDeadline() {
+        String validJson = "{\"activityId\": \"reactive-deadline\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        webTestClient.post().uri("/api/request")
+                .header(RequestController.REQUEST_TIMEOUT_HEADER, "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validJson)
+                .exchange()
+                .expectStatus().isEqualTo(504)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(PipelineResilience.DEADLINE_EXCEEDED)
+                .jsonPath("$.details[0]").isEqualTo("validation");
+    }
+
+    @Test
+    @DisplayName("a request without a body gets the servlet pipeline's response to an empty body")
+    void missingBody() {
+        ResponseEntity<?> expected = requestProcessingService.validateAndProcessRequest(JsonBody.of(new byte[0], 0),
+                RequestProcessingService.DEFAULT_OPERATION_PATH, null);
+
+        DAResponse actual = webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(expected.getStatusCode())
+                .expectBody(DAResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(actual).isEqualTo(expected.getBody());
+        assertThat(actual.getCode()).isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    @DisplayName("a body over the maximum request size is 413, by its Content-Length or as it streams in")
+    void bodyTooLarge() {
+        String oversized = "{\"activityId\": \"" + "x".repeat(5000) + "\"}";
+
+        webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(oversized)
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("PAYLOAD_TOO_LARGE");
+        webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(oversized.substring(0, 2500), oversized.substring(2500)), String.class)
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("PAYLOAD_TOO_LARGE");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{}",
+            "{invalid json}",
+            "{\"activityId\": \"bad-date\", \"activityTimeStamp\": \"not-a-date\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}"
+    })
+    @DisplayName("responses match the servlet pipeline")
+    void responsesMatchServletPipeline(String rawBody) {
+        ResponseEntity<?> expected = requestProcessingService.validateAndProcessRequest(rawBody);
+
+        DAResponse actual = webTestClient.post().uri("/api/request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(rawBody)
+                .exchange()
+                .expectStatus().isEqualTo(expected.getStatusCode())
+                .expectBody(DAResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(actual).isEqualTo(expected.getBody());
+    }
+}
@@ -2,10 +2,18 @@ package com.example.dapprototype.controller;
 
 import com.example.dapprototype.classloader.TxnClassLoaderService;
 import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.config.ResilienceConfig;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.BatchProcessingService;
+import com.example.dapprototype.service.DAResponseWriter;
+import com.example.dapprototype.service.IdempotencyCache;
 import com.example.dapprototype.service.MockCustomerAPI;
-import com.example.dapprototype.service.MockRulesAPI;
 import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.PipelineMetrics;
+import com.example.dapprototype.service.PipelineResilience;
+import com.example.dapprototype.service.RequestBufferPool;
 import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.StreamingRequestValidator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +21,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = RequestController.class)
-@Import({RequestProcessingService.class, OpenApiRequestValidator.class, OpenApiValidatorConfig.class, TxnClassLoaderService.class, MockCustomerAPI.class, MockRulesAPI.class})
+@WebMvcTest(controllers = RequestController.class, properties = "spring.mvc.async.request-timeout=50ms")
+@Import({RequestProcessingService.class, BatchProcessingService.class, OpenApiRequestValidator.class, StreamingRequestValidator.class, OpenApiValidatorConfig.class, TxnClassLoaderService.class, MockCustomerAPI.class, RulesEngine.class, PipelineMetrics.class, RequestBufferPool.class, DAResponseWriter.class, IdempotencyCache.class, ResilienceConfig.class})
 class RequestControllerTest {
 
     @Autowired
@@ -48,4 +60,121 @@ class RequestControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
     }
+
+    @Test
+    @DisplayName("POST /api/request with unknown transaction type header is 404")
+    void submitRequestUnknownTxnTypeHeader() throws Exception {
+        String validJson = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        mockMvc.perform(post("/api/request")
+                        .header(RequestController.TXN_TYPE_HEADER, "login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(validJson))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.code").value("UNKNOWN_TXN_TYPE"));
+    }
+
+    @Test
+    @DisplayName("POST to an operation path without a transaction type is 404")
+    void submitRequestUnknownOperationPath() throws Exception {
+        mockMvc.perform(post("/api/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("UNKNOWN_TXN_TYPE"));
+    }
+
+    @Test
+    @DisplayName("POST /api/requests/batch streams one response line per record in input order")
+    void submitBatchStreamsOrderedResponses() throws Exception {
+        String validJson = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+        String batch = validJson + "\n{}\n\n{invalid json}\n" + validJson + "\n";
+
+        MvcResult started = mockMvc.perform(post("/api/requests/batch")
+                        .contentType(RequestController.NDJSON_VALUE)
+                        .content(batch))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).contains("\"code\":\"SUCCESS\"");
+        assertThat(lines[1]).contains("\"code\":\"VALIDATION_ERROR\"");
+        assertThat(lines[2]).contains("\"code\":\"VALIDATION_ERROR\"");
+        assertThat(lines[3]).contains("\"code\":\"SUCCESS\"");
+    }
+
+    @Test
+    @DisplayName("POST /api/requests/batch answers a record over the maximum size with an error line and goes on")
+    void submitBatchRejectsOverlongRecord() throws Exception {
+        String validJson = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+        String overlong = "{\"activityId\": \"" + "x".repeat(70_000) + "\"}";
+        String batch = overlong + "\n" + validJson;
+
+        MvcResult started = mockMvc.perform(post("/api/requests/batch")
+                        .contentType(RequestController.NDJSON_VALUE)
+                        .content(batch))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"code\":\"VALIDATION_ERROR\"", "Record exceeds the maximum record size");
+        assertThat(lines[1]).contains("\"code\":\"SUCCESS\"");
+    }
+
+    @Test
+    @DisplayName("POST /api/requests/batch gives every record the deadline of the timeout header")
+    void submitBatchAppliesDeadline() throws Exception {
+        String validJson = "{\"activityId\": \"batch-deadline\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        MvcResult started = mockMvc.perform(post("/api/requests/batch")
+                        .header(RequestController.REQUEST_TIMEOUT_HEADER, "0")
+                        .contentType(RequestController.NDJSON_VALUE)
+                        .content(validJson + "\n" + validJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2).allSatisfy(line -> assertThat(line)
+                .contains("\"code\":\"" + PipelineResilience.DEADLINE_EXCEEDED + "\"", "validation"));
+    }
+
+    @Test
+    @DisplayName("POST /api/{operation}/batch routes by the operation path and streams without the MVC async timeout")
+    void submitBatchOnOperationPath() throws Exception {
+        String validJson = "{\"activityId\": \"batch-path\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        MvcResult started = mockMvc.perform(post("/api/request/batch")
+                        .contentType(RequestController.NDJSON_VALUE)
+                        .content((validJson + "\n").repeat(200)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout())
+                .as("the 50 ms MVC async timeout does not apply").isEqualTo(-1);
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString().split("\n"))
+                .hasSize(200)
+                .allSatisfy(line -> assertThat(line).contains("\"code\":\"SUCCESS\""));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/login/batch")
+                                .contentType(RequestController.NDJSON_VALUE)
+                                .content(validJson))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(unknown -> assertThat(unknown.getResponse().getContentAsString())
+                        .contains("\"code\":\"UNKNOWN_TXN_TYPE\""));
+    }
 }
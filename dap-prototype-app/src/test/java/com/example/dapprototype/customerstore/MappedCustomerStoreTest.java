@@ -0,0 +1,127 @@
+package com.example.dapprototype.customerstore;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedCustomerStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("customers built from CSV are found in requested order, with quoted fields and the last duplicate")
+    void buildsFromCsvAndLooksUp() throws IOException {
+        Path csv = write("customers.csv", """
+                customerId,customerName
+                CUST001,Payee
+                CUST002,"Payér, ""Senior\"""
+                CUST003,
+                CUST001,Payee Renamed
+                """);
+        Path store = directory.resolve("customers.store");
+
+        CustomerStoreBuilder.BuildSummary summary = CustomerStoreBuilder.build(csv, store);
+
+        assertThat(summary).isEqualTo(new CustomerStoreBuilder.BuildSummary(4, 3));
+        try (MappedCustomerStore customers = new MappedCustomerStore(store, Duration.ZERO, registry)) {
+            assertThat(customers.getCustomers(request("CUST003", "UNKNOWN", "CUST002", "CUST001")))
+                    .containsExactly(new Customer("CUST003", ""), new Customer("CUST002", "Payér, \"Senior\""),
+                            new Customer("CUST001", "Payee Renamed"));
+            assertThat(customers.getCustomersAsync(request("CUST001")).join()).hasSize(1);
+            assertThat(customers.recordCount()).isEqualTo(3);
+            assertThat(registry.get("dap.customer.store.records").gauge().value()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("every customer is found when the file is mapped in chunks that records and fields straddle")
+    void looksUpAcrossChunks() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            String name = i % 7 == 0 ? "null" : "\"Customer " + "x".repeat(i % 40) + i + "\"";
+            ndjson.append("{\"customerId\": \"C").append(i).append("\", \"customerName\": ").append(name).append("}\n");
+        }
+        Path input = write("customers.ndjson", ndjson.toString());
+        Path store = directory.resolve("customers.store");
+
+        CustomerStoreBuilder.build(input, store, 6);
+
+        try (MappedCustomerStore customers = new MappedCustomerStore(store, Duration.ZERO, registry, 6)) {
+            for (int i = 0; i < 500; i++) {
+                Customer customer = customers.getCustomer("C" + i);
+                assertThat(customer.getCustomerId()).isEqualTo("C" + i);
+                assertThat(customer.getCustomerName())
+                        .isEqualTo(i % 7 == 0 ? null : "Customer " + "x".repeat(i % 40) + i);
+            }
+            assertThat(customers.getCustomer("C500")).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("a rebuilt file is swapped in by the refresh and a broken file leaves the old one in place")
+    void refreshesAfterAtomicSwap() throws IOException {
+        Path store = directory.resolve("customers.store");
+        CustomerStoreBuilder.build(write("v1.csv", "CUST001,Before\n"), store);
+
+        try (MappedCustomerStore customers = new MappedCustomerStore(store, Duration.ZERO, registry)) {
+            customers.refreshIfChanged();
+            assertThat(registry.get("dap.customer.store.reloads").tag("outcome", "success").counter().count())
+                    .isZero();
+
+            CustomerStoreBuilder.build(write("v2.csv", "CUST001,After\nCUST002,New\n"), store);
+            assertThat(directory.resolve("customers.store.tmp")).doesNotExist();
+            customers.refreshIfChanged();
+
+            assertThat(customers.getCustomers(request("CUST001", "CUST002"))).extracting(Customer::getCustomerName)
+                    .containsExactly("After", "New");
+            assertThat(registry.get("dap.customer.store.reloads").tag("outcome", "success").counter().count())
+                    .isEqualTo(1);
+
+            // Replaced rather than truncated: a truncated file would fault the current mapping
+            Files.move(write("broken.store", "DAPC"), store, StandardCopyOption.REPLACE_EXISTING);
+            customers.refreshIfChanged();
+
+            assertThat(customers.getCustomer("CUST002")).isEqualTo(new Customer("CUST002", "New"));
+            assertThat(registry.get("dap.customer.store.reloads").tag("outcome", "failure").counter().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("rows without a customerId and files that are not customer stores are rejected")
+    void rejectsInvalidInput() throws IOException {
+        Path store = directory.resolve("customers.store");
+        assertThatThrownBy(() -> CustomerStoreBuilder.build(write("bad.ndjson", "{\"customerName\": \"x\"}\n"), store))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 1");
+        assertThat(store).doesNotExist();
+
+        Files.write(store, new byte[64]);
+        assertThatThrownBy(() -> new MappedCustomerStore(store, Duration.ZERO, registry))
+                .hasMessageContaining("Cannot load customer store");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+
+    private static CustomerRequest request(String... customerIds) {
+        return new CustomerRequest("activity", List.of(customerIds), customerIds);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.service.JsonBody;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionJournalTest {
+
+    private static final List<Customer> CUSTOMERS = List.of(new Customer("CUST001", "Payee"),
+            new Customer("CUST002", "Payér"));
+    private static final RulesResponse DENY = new RulesResponse("Deny", List.of("unknown-payer"));
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("journaled decisions are read back in order once the journal is closed")
+    void recordsAndReadsBack() throws IOException {
+        DecisionJournal journal = new DecisionJournal(directory, 1 << 20, 64, 1024, registry);
+        assertThat(journal.record("payment", "/request", "a0", body("a0"), CUSTOMERS, DENY, 3)).isFalse();
+        journal.start();
+        for (int i = 1; i <= 3; i++) {
+            assertThat(journal.record("payment", "/request", "a" + i, body("a" + i), CUSTOMERS, DENY, 3)).isTrue();
+        }
+        journal.close();
+
+        List<DecisionRecord> records = new ArrayList<>();
+        DecisionJournalReader.ReadSummary summary = new DecisionJournalReader(directory).forEach(records::add);
+
+        assertThat(summary).isEqualTo(new DecisionJournalReader.ReadSummary(3, 0));
+        assertThat(records).extracting(DecisionRecord::activityId).containsExactly("a1", "a2", "a3");
+        DecisionRecord first = records.get(0);
+        assertThat(first.txnType()).isEqualTo("payment");
+        assertThat(first.operationPath()).isEqualTo("/request");
+        assertThat(first.generationId()).isEqualTo(3);
+        assertThat(new String(first.requestBody(), StandardCharsets.UTF_8)).isEqualTo(json("a1"));
+        assertThat(first.customers()).isEqualTo(CUSTOMERS);
+        assertThat(first.rulesResponse()).isEqualTo(DENY);
+        assertThat(registry.get("dap.journal.records").counter().count()).isEqualTo(3);
+        assertThat(Files.exists(JournalSegmentWriter.indexPath(directory, 1))).isTrue();
+    }
+
+    @Test
+    @DisplayName("full segments rotate, and an activityId is found through the indexes or by scanning")
+    void rotatesAndFindsByActivityId() throws IOException {
+        DecisionJournal journal = new DecisionJournal(directory, 1024, 64, 512, registry);
+        journal.start();
+        for (int i = 0; i < 40; i++) {
+            journal.record("payment", "/request", "a" + (i % 20), body("a" + i), CUSTOMERS, DENY, 1);
+        }
+        journal.close();
+
+        DecisionJournalReader reader = new DecisionJournalReader(directory);
+        assertThat(reader.segments()).hasSizeGreaterThan(2);
+        assertThat(reader.find("a7")).extracting(record -> new String(record.requestBody(), StandardCharsets.UTF_8))
+                .containsExactly(json("a7"), json("a27"));
+        assertThat(reader.find("unknown")).isEmpty();
+
+        for (Path segment : reader.segments()) {
+            Files.delete(JournalSegmentWriter.indexPath(directory, JournalSegmentWriter.segmentNumber(segment)));
+        }
+        assertThat(reader.find("a7")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("a record that fails its checksum ends the reading of its segment")
+    void detectsCorruptRecord() throws IOException {
+        DecisionJournal journal = new DecisionJournal(directory, 1 << 20, 64, 1024, registry);
+        journal.start();
+        for (int i = 1; i <= 3; i++) {
+            journal.record("payment", "/request", "a" + i, body("a" + i), CUSTOMERS, DENY, 1);
+        }
+        journal.close();
+
+        Path segment = JournalSegmentWriter.segmentPath(directory, 1);
+        byte[] bytes = Files.readAllBytes(segment);
+        int firstLength = ByteBuffer.wrap(bytes).getInt(JournalSegmentWriter.HEADER_SIZE);
+        int secondPayload = JournalSegmentWriter.HEADER_SIZE + JournalSegmentWriter.RECORD_HEADER_SIZE * 2 + firstLength;
+        bytes[secondPayload + 20] ^= 0x01;
+        Files.write(segment, bytes);
+
+        List<DecisionRecord> records = new ArrayList<>();
+        DecisionJournalReader.ReadSummary summary = new DecisionJournalReader(directory).forEach(records::add);
+
+        assertThat(summary).isEqualTo(new DecisionJournalReader.ReadSummary(1, 1));
+        assertThat(records).extracting(DecisionRecord::activityId).containsExactly("a1");
+    }
+
+    @Test
+    @DisplayName("decisions are dropped and counted when the ring is full or a record is too large")
+    void dropsWithoutBlocking() throws IOException {
+        RecordRing ring = new RecordRing(2, 16);
+        long first = ring.claim();
+        long second = ring.claim();
+        assertThat(ring.claim()).isEqualTo(-1);
+        ring.publish(first, 3);
+        ring.publish(second, -1);
+        List<Integer> lengths = new ArrayList<>();
+        assertThat(ring.poll((payload, length) -> lengths.add(length), 10)).isEqualTo(2);
+        assertThat(lengths).containsExactly(3);
+        assertThat(ring.claim()).isEqualTo(2);
+
+        DecisionJournal journal = new DecisionJournal(directory, 1 << 20, 1, 64, registry);
+        journal.start();
+        assertThat(journal.record("payment", "/request", "a1", body("a1"), CUSTOMERS, DENY, 1)).isFalse();
+        journal.close();
+        assertThat(registry.get("dap.journal.dropped").tag("reason", "too_large").counter().count()).isEqualTo(1);
+    }
+
+    private static JsonBody body(String activityId) {
+        return JsonBody.of(json(activityId));
+    }
+
+    private static String json(String activityId) {
+        return "{\"activityId\": \"" + activityId + "\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", "
+                + "\"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+    }
+}
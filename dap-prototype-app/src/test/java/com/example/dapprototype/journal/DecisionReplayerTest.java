@@ -0,0 +1,140 @@
+package com.example.dapprototype.journal;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.JsonBody;
+import com.example.dapprototype.service.MockCustomerAPI;
+import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.PipelineMetrics;
+import com.example.dapprototype.service.ReactiveCustomerLookup;
+import com.example.dapprototype.service.ReactiveRequestProcessingService;
+import com.example.dapprototype.service.ReactiveRulesAPI;
+import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.StreamingRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionReplayerTest {
+
+    private static final String BODY = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", "
+            + "\"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+    private static final List<Customer> PAYEE_ONLY = List.of(new Customer("CUST001", "Payee"));
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static OpenApiRequestValidator openApiRequestValidator;
+    private static RulesEngine rulesEngine;
+    private static DecisionReplayer replayer;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void buildPipeline() throws Exception {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        openApiRequestValidator = new OpenApiRequestValidator(new OpenApiValidatorConfig().openApiInteractionValidator());
+        rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION, RulesEngine.DEFAULT_DECISION);
+        rulesEngine.initialize();
+        replayer = new DecisionReplayer(openApiRequestValidator, new StreamingRequestValidator(), txnClassLoaderService,
+                rulesEngine);
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("decisions journaled by the pipeline replay unchanged")
+    void journaledDecisionsReplayUnchanged() throws Exception {
+        DecisionJournal journal = new DecisionJournal(directory, 1 << 20, 64, 4096, new SimpleMeterRegistry());
+        RequestProcessingService pipeline = new RequestProcessingService(openApiRequestValidator,
+                new StreamingRequestValidator(), txnClassLoaderService, new MockCustomerAPI(), rulesEngine,
+                new PipelineMetrics(new SimpleMeterRegistry(), false, false), journal);
+        journal.start();
+        assertThat(pipeline.validateAndProcessRequest(BODY).getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(pipeline.validateAndProcessRequest("{}").getStatusCode().is4xxClientError()).isTrue();
+        journal.close();
+
+        List<DecisionRecord> records = new ArrayList<>();
+        new DecisionJournalReader(directory).forEach(records::add);
+
+        assertThat(records).hasSize(1);
+        DecisionRecord record = records.get(0);
+        assertThat(record.activityId()).isEqualTo("abcd");
+        assertThat(record.txnType()).isEqualTo("payment");
+        assertThat(record.customers()).extracting(Customer::getCustomerId).containsExactly("CUST001", "CUST002");
+        assertThat(new String(record.requestBody(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(replayer.replay(record).outcome()).isEqualTo(DecisionReplayer.Outcome.UNCHANGED);
+    }
+
+    @Test
+    @DisplayName("the reactive pipeline journals its decisions the same way")
+    void reactiveDecisionsJournaled() throws Exception {
+        DecisionJournal journal = new DecisionJournal(directory, 1 << 20, 64, 4096, new SimpleMeterRegistry());
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry(), false, false);
+        MockCustomerAPI customers = new MockCustomerAPI();
+        ReactiveRequestProcessingService pipeline = new ReactiveRequestProcessingService(
+                new RequestProcessingService(openApiRequestValidator, new StreamingRequestValidator(),
+                        txnClassLoaderService, customers, rulesEngine, metrics, journal),
+                txnClassLoaderService, new ReactiveCustomerLookup(customers), new ReactiveRulesAPI(rulesEngine), metrics);
+        journal.start();
+        String path = RequestProcessingService.DEFAULT_OPERATION_PATH;
+        assertThat(pipeline.validateAndProcessRequest(BODY, path, null).block().getStatusCode().is2xxSuccessful())
+                .isTrue();
+        assertThat(pipeline.validateAndProcessRequest("{}", path, null).block().getStatusCode().is4xxClientError())
+                .isTrue();
+        journal.close();
+
+        List<DecisionRecord> records = new ArrayList<>();
+        new DecisionJournalReader(directory).forEach(records::add);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).customers()).extracting(Customer::getCustomerId).containsExactly("CUST001", "CUST002");
+        assertThat(new String(records.get(0).requestBody(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(replayer.replay(records.get(0)).outcome()).isEqualTo(DecisionReplayer.Outcome.UNCHANGED);
+    }
+
+    @Test
+    @DisplayName("replays use the journaled customers and report changed decisions, fired rules and failures")
+    void reportsChanges() {
+        DecisionReplayer.ReplayResult unchanged = replayer.replay(
+                record(BODY, new RulesResponse("Deny", List.of("unknown-payer"))));
+        assertThat(unchanged.outcome()).isEqualTo(DecisionReplayer.Outcome.UNCHANGED);
+
+        DecisionReplayer.ReplayResult decisionChanged = replayer.replay(record(BODY, new RulesResponse("Allow", List.of())));
+        assertThat(decisionChanged.outcome()).isEqualTo(DecisionReplayer.Outcome.DECISION_CHANGED);
+        assertThat(decisionChanged.replayed().getDecision()).isEqualTo("Deny");
+
+        DecisionReplayer.ReplayResult rulesChanged = replayer.replay(
+                record(BODY, new RulesResponse("Deny", List.of("retired-rule"))));
+        assertThat(rulesChanged.outcome()).isEqualTo(DecisionReplayer.Outcome.FIRED_RULES_CHANGED);
+
+        DecisionReplayer.ReplayResult failed = replayer.replay(record("{}", new RulesResponse("Deny", List.of())));
+        assertThat(failed.outcome()).isEqualTo(DecisionReplayer.Outcome.FAILED);
+        assertThat(failed.error()).isEqualTo("VALIDATION_ERROR");
+    }
+
+    private static DecisionRecord record(String body, RulesResponse rulesResponse) {
+        byte[] payload = new byte[4096];
+        int length = DecisionRecord.encode(payload, 0, 1, "payment", RequestProcessingService.DEFAULT_OPERATION_PATH,
+                "abcd", JsonBody.of(body), PAYEE_ONLY, rulesResponse);
+        return DecisionRecord.decode(Arrays.copyOf(payload, length));
+    }
+}
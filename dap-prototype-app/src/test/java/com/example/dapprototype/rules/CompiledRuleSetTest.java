@@ -0,0 +1,143 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RuleSetDefinition.ConditionDefinition;
+import com.example.dapprototype.rules.RuleSetDefinition.RuleDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledRuleSetTest {
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static TxnGeneration generation;
+    private static TxnBindingPlan bindingPlan;
+
+    @BeforeAll
+    static void loadModels() {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        generation = txnClassLoaderService.acquire();
+        bindingPlan = generation.getBindingPlan("payment");
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        generation.release();
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("rules run by priority and a stop rule ends evaluation")
+    void priorityAndStop() throws Exception {
+        CompiledRuleSet ruleSet = compile(
+                rule("tag-late", 1, null, false, condition("requestInfo.activityTimeStamp", "hour_between", List.of(22, 6))),
+                rule("self-payment", 100, "Deny", true,
+                        new ConditionDefinition("requestInfo.payerCustomerId", "eq", null, "requestInfo.payeeCustomerId")));
+
+        RulesResponse selfPayment = ruleSet.evaluate(assessmentData("CUST001", "CUST001", "2025-12-30T23:10:00Z"));
+        RulesResponse latePayment = ruleSet.evaluate(assessmentData("CUST001", "CUST002", "2025-12-30T23:10:00Z"));
+
+        assertThat(selfPayment.getDecision()).isEqualTo("Deny");
+        assertThat(selfPayment.getFiredRuleIds()).containsExactly("self-payment");
+        assertThat(latePayment.getDecision()).isEqualTo("Step Up");
+        assertThat(latePayment.getFiredRuleIds()).containsExactly("tag-late");
+    }
+
+    @Test
+    @DisplayName("the first fired rule with a decision decides and later fired rules are reported")
+    void firstDecisionWins() throws Exception {
+        CompiledRuleSet ruleSet = compile(
+                rule("trusted-payee", 50, "Allow", false, condition("payeeCustomer.customerId", "in", List.of("CUST001", "CUST009"))),
+                rule("known-payer", 40, "Review", false, condition("payerCustomer", "present", null)),
+                rule("numeric-activity", 30, null, false, condition("requestInfo.activityId", "gt", 100)));
+
+        RulesResponse rulesResponse = ruleSet.evaluate(assessmentData("CUST001", "CUST002", "2025-12-30T13:36:00Z"));
+
+        assertThat(rulesResponse.getDecision()).isEqualTo("Allow");
+        assertThat(rulesResponse.getFiredRuleIds()).containsExactly("trusted-payee", "known-payer", "numeric-activity");
+    }
+
+    @Test
+    @DisplayName("the default decision applies when no rule fires")
+    void defaultDecision() throws Exception {
+        CompiledRuleSet ruleSet = compile(
+                rule("night", 10, "Review", false, condition("requestInfo.activityTimeStamp", "hour_between", List.of(0, 5))),
+                rule("test-payee", 10, "Allow", false, condition("requestInfo.payeeCustomerId", "starts_with", "TEST")));
+
+        RulesResponse rulesResponse = ruleSet.evaluate(assessmentData("CUST001", "CUST002", "2025-12-30 13:36:00"));
+
+        assertThat(rulesResponse.getDecision()).isEqualTo("Step Up");
+        assertThat(rulesResponse.getFiredRuleIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("value-indexed and unindexed rules fire in priority order and share conditions")
+    void indexedRulesKeepPriorityOrder() throws Exception {
+        CompiledRuleSet ruleSet = compile(
+                rule("payee-one", 90, "Allow", false, condition("payeeCustomer.customerId", "eq", "CUST001"),
+                        condition("payerCustomer", "present", null)),
+                rule("payee-one-or-two", 80, null, false,
+                        condition("requestInfo.payeeCustomerId", "in", List.of("CUST002", "CUST001"))),
+                rule("payer-known", 95, null, false, condition("payerCustomer", "present", null)),
+                rule("payee-three", 99, "Deny", true, condition("payeeCustomer.customerId", "eq", "CUST003")));
+
+        RulesResponse rulesResponse = ruleSet.evaluate(assessmentData("CUST001", "CUST002", "2025-12-30T13:36:00Z"));
+
+        assertThat(rulesResponse.getDecision()).isEqualTo("Allow");
+        assertThat(rulesResponse.getFiredRuleIds()).containsExactly("payer-known", "payee-one", "payee-one-or-two");
+        assertThat(ruleSet.getConditionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a condition on a missing property fails compilation")
+    void unknownPropertyRejected() {
+        assertThatThrownBy(() -> compile(rule("bad", 1, "Deny", false, condition("payerCustomer.riskScore", "gt", 5))))
+                .isInstanceOf(RuleCompilationException.class)
+                .hasMessageContaining("bad")
+                .hasMessageContaining("riskScore");
+    }
+
+    @Test
+    @DisplayName("an unknown operator fails compilation")
+    void unknownOperatorRejected() {
+        assertThatThrownBy(() -> compile(rule("bad", 1, "Deny", false, condition("payerCustomer", "like", "x"))))
+                .isInstanceOf(RuleCompilationException.class)
+                .hasMessageContaining("like");
+    }
+
+    private static CompiledRuleSet compile(RuleDefinition... rules) {
+        return CompiledRuleSet.compile(new RuleSetDefinition("payment", null, List.of(rules)),
+                bindingPlan.getAssessmentDataClass(), "Step Up");
+    }
+
+    private static RuleDefinition rule(String id, int priority, String decision, boolean stop,
+                                       ConditionDefinition... when) {
+        return new RuleDefinition(id, priority, List.of(when), decision, stop);
+    }
+
+    private static ConditionDefinition condition(String field, String op, Object value) {
+        return new ConditionDefinition(field, op, value, null);
+    }
+
+    private static Object assessmentData(String payeeId, String payerId, String timestamp) throws Exception {
+        Object requestInfo = bindingPlan.getRequestInfoReader().readValue("{\"activityId\": \"250\", \"activityTimeStamp\": \""
+                + timestamp + "\", \"payeeCustomerId\": \"" + payeeId + "\", \"payerCustomerId\": \"" + payerId + "\"}");
+        Object assessmentData = bindingPlan.newAssessmentData();
+        bindingPlan.setRequestInfo(assessmentData, requestInfo);
+        bindingPlan.assembleCustomers(assessmentData, bindingPlan.toCustomerRequest(requestInfo).getRoleCustomerIds(),
+                List.of(new Customer(payeeId, "Payee"), new Customer(payerId, "Payer")));
+        return assessmentData;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RuleSetDefinition.ConditionDefinition;
+import com.example.dapprototype.rules.RuleSetDefinition.RuleDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionCacheTest {
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static TxnGeneration generation;
+    private static TxnBindingPlan bindingPlan;
+
+    private static final RuleSetDefinition RULES = new RuleSetDefinition("payment", "Step Up", List.of(
+            new RuleDefinition("night", 10, List.of(
+                    new ConditionDefinition("requestInfo.activityTimeStamp", "hour_between", List.of(0, 5), null)),
+                    "Review", false),
+            new RuleDefinition("payer-known", 5, List.of(
+                    new ConditionDefinition("payerCustomer", "present", null, null),
+                    new ConditionDefinition("requestInfo.payerCustomerId", "starts_with", "CUST", null)),
+                    null, false)));
+
+    @BeforeAll
+    static void loadModels() {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        generation = txnClassLoaderService.acquire();
+        bindingPlan = generation.getBindingPlan("payment");
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        generation.release();
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("requests with the same rule inputs share one cached decision")
+    void repeatedInputsHit() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DecisionCache decisionCache = new DecisionCache(100, Duration.ofMinutes(5));
+        decisionCache.bindTo(registry);
+        CompiledRuleSet ruleSet = CompiledRuleSet.compile(RULES, bindingPlan.getAssessmentDataClass(), "Step Up");
+
+        // Fields no rule reads (customer name, activityId) and the minutes of the hour differ
+        RulesResponse first = decisionCache.evaluate(ruleSet,
+                assessmentData("a1", "CUST001", "Payer One", "2025-12-30T13:36:00Z"));
+        RulesResponse repeat = decisionCache.evaluate(ruleSet,
+                assessmentData("a2", "CUST001", "Payer Renamed", "2025-12-30T13:59:00Z"));
+        RulesResponse night = decisionCache.evaluate(ruleSet,
+                assessmentData("a3", "CUST001", "Payer One", "2025-12-30T03:10:00Z"));
+
+        assertThat(repeat).isSameAs(first);
+        assertThat(first.getFiredRuleIds()).containsExactly("payer-known");
+        assertThat(night.getDecision()).isEqualTo("Review");
+        assertThat(registry.get("cache.gets").tag("cache", "decisions").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("dap.rules.decision.cache.hit.ratio").gauge().value()).isEqualTo(1.0 / 3);
+        assertThat(registry.get("dap.rules.decision.cache.saved").functionCounter().count()).isNotNegative();
+    }
+
+    @Test
+    @DisplayName("a recompiled rule set does not match earlier decisions")
+    void recompiledRuleSetMisses() throws Exception {
+        DecisionCache decisionCache = new DecisionCache(100, Duration.ofMinutes(5));
+        Object assessmentData = assessmentData("a1", "CUST001", "Payer One", "2025-12-30T13:36:00Z");
+        CompiledRuleSet ruleSet = CompiledRuleSet.compile(RULES, bindingPlan.getAssessmentDataClass(), "Step Up");
+        CompiledRuleSet recompiled = CompiledRuleSet.compile(RULES, bindingPlan.getAssessmentDataClass(), "Step Up");
+
+        RulesResponse first = decisionCache.evaluate(ruleSet, assessmentData);
+
+        assertThat(ruleSet.fingerprint(assessmentData)).isNotEqualTo(recompiled.fingerprint(assessmentData));
+        assertThat(decisionCache.evaluate(recompiled, assessmentData)).isNotSameAs(first);
+        decisionCache.invalidateAll();
+        assertThat(decisionCache.evaluate(ruleSet, assessmentData)).isNotSameAs(first);
+    }
+
+    private static Object assessmentData(String activityId, String payerId, String payerName, String timestamp)
+            throws Exception {
+        Object requestInfo = bindingPlan.getRequestInfoReader().readValue("{\"activityId\": \"" + activityId
+                + "\", \"activityTimeStamp\": \"" + timestamp + "\", \"payeeCustomerId\": \"CUST009\", "
+                + "\"payerCustomerId\": \"" + payerId + "\"}");
+        Object assessmentData = bindingPlan.newAssessmentData();
+        bindingPlan.setRequestInfo(assessmentData, requestInfo);
+        bindingPlan.assembleCustomers(assessmentData, bindingPlan.toCustomerRequest(requestInfo).getRoleCustomerIds(),
+                List.of(new Customer(payerId, payerName)));
+        return assessmentData;
+    }
+}
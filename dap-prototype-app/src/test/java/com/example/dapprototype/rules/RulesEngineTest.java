@@ -0,0 +1,67 @@
+package com.example.dapprototype.rules;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RulesEngineTest {
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static RulesEngine rulesEngine;
+
+    @BeforeAll
+    static void loadRules() {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION, RulesEngine.DEFAULT_DECISION);
+        rulesEngine.initialize();
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("payment rules deny an unknown payer")
+    void paymentRulesApply() throws Exception {
+        TxnGeneration generation = txnClassLoaderService.acquire();
+        try {
+            TxnBindingPlan bindingPlan = generation.getBindingPlan("payment");
+            Object requestInfo = bindingPlan.getRequestInfoReader().readValue("{\"activityId\": \"abcd\", "
+                    + "\"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", "
+                    + "\"payerCustomerId\": \"CUST002\"}");
+            Object assessmentData = bindingPlan.newAssessmentData();
+            bindingPlan.setRequestInfo(assessmentData, requestInfo);
+            bindingPlan.assembleCustomers(assessmentData, bindingPlan.toCustomerRequest(requestInfo).getRoleCustomerIds(),
+                    List.of(new Customer("CUST001", "Payee")));
+
+            RulesResponse rulesResponse = rulesEngine.evaluateRules("payment", assessmentData);
+
+            assertThat(rulesResponse.getDecision()).isEqualTo("Deny");
+            assertThat(rulesResponse.getFiredRuleIds()).containsExactly("unknown-payer");
+        } finally {
+            generation.release();
+        }
+    }
+
+    @Test
+    @DisplayName("txn types without a rule set get the default decision")
+    void defaultDecisionWithoutRuleSet() {
+        RulesResponse rulesResponse = rulesEngine.evaluateRules("transfer", new Object());
+
+        assertThat(rulesResponse.getDecision()).isEqualTo("Step Up");
+        assertThat(rulesResponse.getFiredRuleIds()).isEmpty();
+    }
+}
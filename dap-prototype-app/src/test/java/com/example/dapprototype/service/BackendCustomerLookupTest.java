@@ -0,0 +1,166 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackendCustomerLookupTest {
+
+    private static final BackendCustomerLookup.HedgePolicy HEDGE_AFTER_20_MS =
+            new BackendCustomerLookup.HedgePolicy(95, Duration.ofMillis(20), Duration.ofMillis(20));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BackendCustomerLookup lookup;
+
+    @AfterEach
+    void shutdown() {
+        lookup.shutdown();
+    }
+
+    private static CustomerRequest request(String... customerIds) {
+        return new CustomerRequest("activity", List.of(customerIds), customerIds);
+    }
+
+    @Test
+    @DisplayName("IDs are split into chunks looked up in parallel and returned in requested order")
+    void splitsIntoChunks() {
+        RecordingBackend backend = new RecordingBackend();
+        lookup = new BackendCustomerLookup(backend, 2, Duration.ofSeconds(5), null, registry);
+
+        List<Customer> customers = lookup.getCustomers(request("C5", "C1", "UNKNOWN", "C3", "C2"));
+
+        assertThat(customers).extracting(Customer::getCustomerId).containsExactly("C5", "C1", "C3", "C2");
+        assertThat(backend.multiGets).containsExactlyInAnyOrder(List.of("C5", "C1"), List.of("UNKNOWN", "C3"));
+        assertThat(backend.gets).containsExactly("C2");
+        assertThat(registry.get("customer.backend.latency").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a call still running after the hedge delay is sent again and the first answer wins")
+    void hedgesSlowCall() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        lookup = new BackendCustomerLookup(new RecordingBackend() {
+            @Override
+            public Map<String, Customer> multiGet(List<String> customerIds) {
+                if (calls.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw new CustomerLookupTimeoutException("interrupted");
+                    }
+                }
+                return super.multiGet(customerIds);
+            }
+        }, 10, Duration.ofSeconds(5), HEDGE_AFTER_20_MS, registry);
+
+        long startNanos = System.nanoTime();
+        List<Customer> customers = lookup.getCustomers(request("C1", "C2"));
+
+        assertThat(customers).extracting(Customer::getCustomerId).containsExactly("C1", "C2");
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(5));
+        assertThat(registry.get("customer.backend.hedges").tag("outcome", "sent").counter().count()).isEqualTo(1);
+        assertThat(registry.get("customer.backend.hedges").tag("outcome", "won").counter().count()).isEqualTo(1);
+        assertThat(awaitQuietly(interrupted)).as("the slow call is interrupted").isTrue();
+        sleepQuietly(Duration.ofMillis(100));
+        assertThat(registry.get("customer.backend.latency").timer().count())
+                .as("only the answered call's latency is recorded").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("calls that do not answer before the timeout fail the lookup, and failures are not hedged")
+    void timesOutAndFails() {
+        lookup = new BackendCustomerLookup(new StubCustomerBackend(
+                StubCustomerBackend.LatencyDistribution.fixed(Duration.ofSeconds(10))), 10, Duration.ofMillis(50),
+                null, registry);
+        assertThatThrownBy(() -> lookup.getCustomers(request("C1", "C2")))
+                .isInstanceOf(CustomerLookupTimeoutException.class);
+        lookup.shutdown();
+
+        lookup = new BackendCustomerLookup(new RecordingBackend() {
+            @Override
+            public Map<String, Customer> multiGet(List<String> customerIds) {
+                throw new IllegalStateException("backend unavailable");
+            }
+        }, 10, Duration.ofSeconds(5), HEDGE_AFTER_20_MS, registry);
+        assertThatThrownBy(() -> lookup.getCustomers(request("C1", "C2")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("backend unavailable");
+        assertThat(registry.get("customer.backend.hedges").tag("outcome", "sent").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("the hedge delay follows the configured percentile of recent latencies within its bounds")
+    void hedgeDelayFollowsPercentile() {
+        BackendCustomerLookup.LatencyWindow window = new BackendCustomerLookup.LatencyWindow(100, 100);
+        for (int millis = 1; millis <= 99; millis++) {
+            window.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        assertThat(window.percentile(95)).isEqualTo(-1);
+        window.record(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(window.percentile(95)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(95));
+        assertThat(window.percentile(50)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        lookup = new BackendCustomerLookup(new RecordingBackend(), 10, Duration.ofSeconds(5),
+                new BackendCustomerLookup.HedgePolicy(95, Duration.ofMillis(1), Duration.ofMillis(30)), registry);
+        assertThat(lookup.hedgeDelayNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class RecordingBackend implements CustomerBackend {
+        final List<String> gets = new CopyOnWriteArrayList<>();
+        final List<List<String>> multiGets = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Optional<Customer> get(String customerId) {
+            gets.add(customerId);
+            return Optional.of(new Customer(customerId, "Name-" + customerId));
+        }
+
+        @Override
+        public Map<String, Customer> multiGet(List<String> customerIds) {
+            multiGets.add(new ArrayList<>(customerIds));
+            Map<String, Customer> customers = new LinkedHashMap<>();
+            for (String customerId : customerIds) {
+                if (!customerId.equals("UNKNOWN")) {
+                    customers.put(customerId, new Customer(customerId, "Name-" + customerId));
+                }
+            }
+            return customers;
+        }
+    }
+}
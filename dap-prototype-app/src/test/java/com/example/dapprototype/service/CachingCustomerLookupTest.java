@@ -0,0 +1,115 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingCustomerLookupTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration REFRESH = Duration.ofMinutes(1);
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(30);
+
+    private static CustomerRequest request(String... customerIds) {
+        return new CustomerRequest("activity", List.of(customerIds), customerIds);
+    }
+
+    @Test
+    @DisplayName("cached customers are served without calling the backend again")
+    void hitsAreServedFromCache() {
+        List<List<String>> backendCalls = new ArrayList<>();
+        CachingCustomerLookup lookup = new CachingCustomerLookup(customerRequest -> {
+            backendCalls.add(customerRequest.getCustomerIds());
+            return customerRequest.getCustomerIds().stream().map(id -> new Customer(id, "Name-" + id)).toList();
+        }, 100, TTL, REFRESH, NEGATIVE_TTL);
+
+        lookup.getCustomers(request("CUST001", "MERCHANT"));
+        List<Customer> customers = lookup.getCustomers(request("CUST002", "MERCHANT"));
+
+        assertThat(customers).extracting(Customer::getCustomerId).containsExactly("CUST002", "MERCHANT");
+        assertThat(backendCalls).hasSize(2);
+        assertThat(backendCalls.get(1)).containsExactly("CUST002");
+    }
+
+    @Test
+    @DisplayName("unknown customer IDs are cached as absent")
+    void unknownIdsAreNegativelyCached() {
+        AtomicInteger backendCalls = new AtomicInteger();
+        CachingCustomerLookup lookup = new CachingCustomerLookup(customerRequest -> {
+            backendCalls.incrementAndGet();
+            return customerRequest.getCustomerIds().stream()
+                    .filter(id -> !id.equals("UNKNOWN"))
+                    .map(id -> new Customer(id, "Name-" + id))
+                    .toList();
+        }, 100, TTL, REFRESH, NEGATIVE_TTL);
+
+        assertThat(lookup.getCustomers(request("UNKNOWN", "CUST001")))
+                .extracting(Customer::getCustomerId).containsExactly("CUST001");
+        assertThat(lookup.getCustomers(request("UNKNOWN"))).isEmpty();
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("concurrent misses for the same customer share one backend load")
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger backendLoads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CachingCustomerLookup lookup = new CachingCustomerLookup(customerRequest -> {
+            backendLoads.addAndGet(customerRequest.getCustomerIds().size());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return customerRequest.getCustomerIds().stream().map(id -> new Customer(id, "Name-" + id)).toList();
+        }, 100, TTL, REFRESH, NEGATIVE_TTL);
+
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<Customer>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> lookup.getCustomers(request("MERCHANT"))));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<List<Customer>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).extracting(Customer::getCustomerId).containsExactly("MERCHANT");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(backendLoads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("hit, miss and load metrics are registered")
+    void metricsAreRegistered() {
+        CachingCustomerLookup lookup = new CachingCustomerLookup(
+                customerRequest -> customerRequest.getCustomerIds().stream().map(id -> new Customer(id, "N")).toList(),
+                100, TTL, REFRESH, NEGATIVE_TTL);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lookup.bindTo(registry);
+
+        lookup.getCustomers(request("CUST001"));
+        lookup.getCustomers(request("CUST001"));
+
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.find("cache.evictions").tag("cache", "customers").meters()).isNotEmpty();
+    }
+}
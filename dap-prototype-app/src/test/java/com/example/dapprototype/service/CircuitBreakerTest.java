@@ -0,0 +1,98 @@
+package com.example.dapprototype.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("customer_lookup", 10, 4, 0.5, Duration.ofMillis(100), Duration.ofSeconds(5), 2,
+                registry, clock::get);
+    }
+
+    @Test
+    @DisplayName("the breaker opens once the failed share of the window reaches the threshold")
+    void opensAtThreshold() {
+        CircuitBreaker breaker = breaker();
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).as("fewer than the minimum calls").isEqualTo(CircuitBreaker.State.CLOSED);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(FAST);
+        }
+        assertThat(breaker.state()).as("3 of 6 calls failed").isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertThat(breaker.state()).as("a slow call counts as failed").isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(registry.get("dap.circuit.rejected").tag("dependency", "customer_lookup").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("dap.circuit.state").tag("dependency", "customer_lookup").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("after the open duration trial calls close the breaker, and a failed trial opens it again")
+    void halfOpenTrials() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).as("only the trial calls are let through").isFalse();
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+        assertThat(breaker.state()).as("the window starts empty").isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("an abandoned call counts only when it was already slow, and hands back its trial permit otherwise")
+    void abandonedCalls() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.onAbandoned(FAST);
+        }
+        assertThat(breaker.state()).as("short client budgets").isEqualTo(CircuitBreaker.State.CLOSED);
+        for (int i = 0; i < 4; i++) {
+            breaker.onAbandoned(TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        assertThat(breaker.state()).as("abandoned after the slow-call duration").isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onAbandoned(FAST);
+        assertThat(breaker.tryAcquire()).as("the abandoned trial's permit is handed back").isTrue();
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
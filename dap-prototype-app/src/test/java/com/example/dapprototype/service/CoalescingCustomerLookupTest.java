@@ -0,0 +1,138 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCustomerLookupTest {
+
+    private final List<List<String>> backendCalls = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CoalescingCustomerLookup lookup;
+
+    @AfterEach
+    void shutdown() {
+        lookup.shutdown();
+    }
+
+    private CustomerLookup recordingBackend() {
+        return customerRequest -> {
+            backendCalls.add(List.copyOf(customerRequest.getCustomerIds()));
+            return customerRequest.getCustomerIds().stream()
+                    .filter(id -> !id.equals("UNKNOWN"))
+                    .map(id -> new Customer(id, "Name-" + id))
+                    .toList();
+        };
+    }
+
+    private static CustomerRequest request(String... customerIds) {
+        return new CustomerRequest("activity", List.of(customerIds), customerIds);
+    }
+
+    @Test
+    @DisplayName("an idle lookup is dispatched at once instead of waiting for the window")
+    void idleLookupDispatchesAtOnce() {
+        lookup = new CoalescingCustomerLookup(recordingBackend(), Duration.ofSeconds(30), 100,
+                Duration.ofSeconds(5), 1, registry);
+
+        assertThat(lookup.getCustomersAsync(request("CUST001", "CUST002")))
+                .succeedsWithin(Duration.ofSeconds(1))
+                .satisfies(customers -> assertThat(customers).extracting(Customer::getCustomerId)
+                        .containsExactly("CUST001", "CUST002"));
+        assertThat(backendCalls).containsExactly(List.of("CUST001", "CUST002"));
+    }
+
+    @Test
+    @DisplayName("lookups arriving during a backend call are deduplicated into the next call and fanned out")
+    void lookupsInWindowShareOneCall() {
+        CountDownLatch release = new CountDownLatch(1);
+        CustomerLookup recording = recordingBackend();
+        lookup = new CoalescingCustomerLookup(customerRequest -> {
+            if (customerRequest.getCustomerIds().contains("FIRST")) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return recording.getCustomers(customerRequest);
+        }, Duration.ofSeconds(30), 100, Duration.ofSeconds(5), 2, registry);
+
+        CompletableFuture<List<Customer>> first = lookup.getCustomersAsync(request("FIRST"));
+        List<CompletableFuture<List<Customer>>> results = new ArrayList<>();
+        results.add(lookup.getCustomersAsync(request("CUST001", "MERCHANT")));
+        results.add(lookup.getCustomersAsync(request("CUST002", "MERCHANT")));
+        results.add(lookup.getCustomersAsync(request("UNKNOWN", "CUST003")));
+        release.countDown();
+
+        assertThat(first.join()).extracting(Customer::getCustomerId).containsExactly("FIRST");
+        assertThat(results.get(0).join()).extracting(Customer::getCustomerId).containsExactly("CUST001", "MERCHANT");
+        assertThat(results.get(1).join()).extracting(Customer::getCustomerId).containsExactly("CUST002", "MERCHANT");
+        assertThat(results.get(2).join()).extracting(Customer::getCustomerId).containsExactly("CUST003");
+        assertThat(backendCalls).containsExactly(List.of("FIRST"),
+                List.of("CUST001", "MERCHANT", "CUST002", "UNKNOWN", "CUST003"));
+        assertThat(registry.get("customer.batch.size").summary().max()).isEqualTo(5);
+        assertThat(registry.get("customer.batch.wait").timer().count()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("a full window is dispatched without waiting for the window to elapse")
+    void fullWindowDispatchesEarly() {
+        lookup = new CoalescingCustomerLookup(recordingBackend(), Duration.ofSeconds(30), 2,
+                Duration.ofSeconds(5), 1, registry);
+
+        List<Customer> customers = lookup.getCustomers(request("CUST001", "CUST002"));
+
+        assertThat(customers).extracting(Customer::getCustomerId).containsExactly("CUST001", "CUST002");
+        assertThat(backendCalls).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("a caller gives up at its deadline while the backend call is still running")
+    void callerDeadlineIsHonoured() {
+        CountDownLatch release = new CountDownLatch(1);
+        lookup = new CoalescingCustomerLookup(customerRequest -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        }, Duration.ofMillis(1), 100, Duration.ofMillis(50), 1, registry);
+
+        try {
+            assertThatThrownBy(() -> lookup.getCustomers(request("CUST001")))
+                    .isInstanceOf(CustomerLookupTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("IDs whose callers all passed their deadline are dropped from the backend call")
+    void expiredIdsAreNotDispatched() {
+        lookup = new CoalescingCustomerLookup(recordingBackend(), Duration.ofMillis(50), 100,
+                Duration.ofSeconds(5), 1, registry);
+
+        CompletableFuture<List<Customer>> expired = lookup.getCustomersAsync(request("CUST001"), System.nanoTime());
+        CompletableFuture<List<Customer>> live = lookup.getCustomersAsync(request("CUST002"));
+
+        assertThat(live.join()).extracting(Customer::getCustomerId).containsExactly("CUST002");
+        assertThat(expired).isCompletedExceptionally();
+        assertThat(backendCalls).containsExactly(List.of("CUST002"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.dapprototype.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("requests over the limit are rejected and counted as shed")
+    void rejectsOverLimit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 100, 1.5, 0.2, registry);
+
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(registry.get("dap.concurrency.shed").counter().count()).isEqualTo(1);
+        assertThat(registry.get("dap.concurrency.in.flight").gauge().value()).isEqualTo(2);
+
+        first.release(false);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("the limit grows while latency holds and shrinks when it rises or requests fail")
+    void followsLatencyGradient() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 10, 1.5, 0.2, new SimpleMeterRegistry());
+
+        windows(limiter, 20, MILLI, limiter.getLimit(), false);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        windows(limiter, 10, 10 * MILLI, limiter.getLimit(), false);
+        int shrunk = limiter.getLimit();
+        assertThat(shrunk).isLessThan(grown);
+
+        windows(limiter, 1, MILLI, limiter.getLimit(), true);
+        assertThat(limiter.getLimit()).isLessThan(shrunk);
+    }
+
+    @Test
+    @DisplayName("windows that use less than half the limit leave it unchanged")
+    void ignoresUnderusedWindows() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 10, 1.5, 0.2, new SimpleMeterRegistry());
+
+        windows(limiter, 20, MILLI, 3, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private static void windows(ConcurrencyLimiter limiter, int windows, long rttNanos, int inFlight, boolean dropped) {
+        for (int i = 0; i < windows * 10; i++) {
+            limiter.onSample(rttNanos, inFlight, dropped);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DAResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("written responses match the object mapper byte for byte")
+    void matchesObjectMapper() throws Exception {
+        DAResponseWriter writer = new DAResponseWriter(objectMapper);
+        List<DAResponse> responses = List.of(
+                new DAResponse(true, "Request processed successfully", "SUCCESS", List.of(),
+                        new RulesResponse("Deny", List.of("self-payment"))),
+                new DAResponse(false, "Validation failed", "VALIDATION_ERROR",
+                        List.of("activityId: \"quoted\" é"), null),
+                new DAResponse(false, null, null, null, new RulesResponse(null, null)),
+                RequestProcessingService.INVALID_JSON_PAYLOAD,
+                ConcurrencyLimiter.OVERLOADED,
+                IdempotencyCache.IDEMPOTENCY_CONFLICT,
+                RequestBufferPool.PAYLOAD_TOO_LARGE,
+                BatchProcessingService.RECORD_TOO_LARGE);
+
+        for (DAResponse response : responses) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            writer.write(response, output);
+            assertThat(output.toString(StandardCharsets.UTF_8))
+                    .isEqualTo(objectMapper.writeValueAsString(response));
+        }
+    }
+
+    @Test
+    @DisplayName("bodies larger than a buffer are read whole and small buffers return to the pool")
+    void readsIntoPooledBuffers() throws Exception {
+        RequestBufferPool pool = new RequestBufferPool(16, 64, 4);
+        byte[] json = "{\"activityId\": \"a longer activity id\"}".getBytes(StandardCharsets.UTF_8);
+
+        try (RequestBufferPool.PooledBody body = pool.read(new ByteArrayInputStream(json), -1)) {
+            assertThat(body.length()).isEqualTo(json.length);
+            assertThat(body.body().asString()).isEqualTo(new String(json, StandardCharsets.UTF_8));
+        }
+        assertThat(pool.idleCount()).isEqualTo(1);
+
+        try (RequestBufferPool.PooledBody body = pool.read(new ByteArrayInputStream(new byte[100]), 100)) {
+            assertThat(body.length()).isEqualTo(100);
+        }
+        assertThat(pool.idleCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("bodies over the maximum request size are rejected by Content-Length or once they outgrow it")
+    void rejectsBodiesOverMaximumSize() throws Exception {
+        RequestBufferPool pool = new RequestBufferPool(16, 128, 4, 100);
+
+        assertThatThrownBy(() -> pool.read(new ByteArrayInputStream(new byte[10]), Integer.MAX_VALUE))
+                .isInstanceOf(RequestTooLargeException.class);
+        // A Content-Length that understates the body does not let it past the limit
+        assertThatThrownBy(() -> pool.read(new ByteArrayInputStream(new byte[101]), 10))
+                .isInstanceOf(RequestTooLargeException.class);
+        try (RequestBufferPool.PooledBody body = pool.read(new ByteArrayInputStream(new byte[100]), -1)) {
+            assertThat(body.length()).isEqualTo(100);
+        }
+        assertThat(pool.idleCount()).as("the buffer of a rejected body returns to the pool").isEqualTo(1);
+    }
+}
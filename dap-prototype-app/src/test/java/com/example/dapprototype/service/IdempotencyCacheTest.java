@@ -0,0 +1,211 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyCacheTest {
+
+    private static final String PATH = RequestProcessingService.DEFAULT_OPERATION_PATH;
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicInteger pipelineRuns = new AtomicInteger();
+
+    @Test
+    @DisplayName("a retry with the same body gets the stored response without running the pipeline")
+    void replaysIdenticalRetry() {
+        IdempotencyCache cache = cache(1024);
+
+        ResponseEntity<?> first = cache.process(body("a1", "CUST001"), PATH, null, this::allow);
+        ResponseEntity<?> retry = cache.process(body("a1", "CUST001"), PATH, null, this::allow);
+
+        assertThat(pipelineRuns).hasValue(1);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey(IdempotencyCache.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("the same activityId with another body is rejected, other txn types and error responses are not cached")
+    void rejectsMismatchedBody() {
+        IdempotencyCache cache = cache(1024);
+        cache.process(body("a1", "CUST001"), PATH, null, this::allow);
+
+        ResponseEntity<?> mismatched = cache.process(body("a1", "CUST999"), PATH, null, this::allow);
+        assertThat(mismatched.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(mismatched.getBody()).isSameAs(IdempotencyCache.IDEMPOTENCY_CONFLICT);
+
+        cache.process(body("a1", "CUST999"), PATH, "transfer", this::allow);
+        cache.process(body("a2", "CUST001"), PATH, null, () -> ResponseEntity.status(500).body(null));
+        cache.process(body("a2", "CUST001"), PATH, null, this::allow);
+        assertThat(pipelineRuns).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("a duplicate of a running request waits for its response")
+    void joinsRunningRequest() throws Exception {
+        IdempotencyCache cache = cache(1024);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                cache.process(body("a1", "CUST001"), PATH, null, () -> {
+                    started.countDown();
+                    await(release);
+                    return allow();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                cache.process(body("a1", "CUST001"), PATH, null, this::allow));
+        ResponseEntity<?> mismatched = cache.process(body("a1", "CUST999"), PATH, null, this::allow);
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(first.get(5, TimeUnit.SECONDS).getBody());
+        assertThat(mismatched.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(pipelineRuns).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("a duplicate waits for the running request only until its own deadline")
+    void joinWithinDeadline() throws Exception {
+        IdempotencyCache cache = cache(1024);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                cache.process(body("a1", "CUST001"), PATH, null, () -> {
+                    started.countDown();
+                    await(release);
+                    return allow();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        long startNanos = System.nanoTime();
+        ResponseEntity<?> duplicate = cache.process(body("a1", "CUST001"), PATH, null,
+                RequestDeadline.after(Duration.ofMillis(50)), this::allow);
+        Duration waited = Duration.ofNanos(System.nanoTime() - startNanos);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(((DAResponse) duplicate.getBody()).getCode()).isEqualTo(PipelineResilience.DEADLINE_EXCEEDED);
+        assertThat(waited).isLessThan(Duration.ofSeconds(1));
+        assertThat(pipelineRuns).as("the duplicate does not run the pipeline").hasValue(1);
+    }
+
+    @Test
+    @DisplayName("the asynchronous variant joins a running request without blocking and replays it once stored")
+    void processesAsynchronously() throws Exception {
+        IdempotencyCache cache = cache(1024);
+        CompletableFuture<ResponseEntity<?>> pipeline = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<?>> first = cache.processAsync(body("a1", "CUST001"), PATH, null,
+                RequestDeadline.NONE, () -> pipeline);
+        CompletableFuture<ResponseEntity<?>> duplicate = cache.processAsync(body("a1", "CUST001"), PATH, null,
+                RequestDeadline.NONE, () -> CompletableFuture.completedFuture(allow()));
+        CompletableFuture<ResponseEntity<?>> mismatched = cache.processAsync(body("a1", "CUST999"), PATH, null,
+                RequestDeadline.NONE, () -> CompletableFuture.completedFuture(allow()));
+        assertThat(duplicate).isNotDone();
+        assertThat(mismatched.get().getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+
+        pipeline.complete(allow());
+        ResponseEntity<?> retry = cache.processAsync(body("a1", "CUST001"), PATH, null, RequestDeadline.NONE,
+                () -> CompletableFuture.completedFuture(allow())).get();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(first.get().getBody());
+        assertThat(duplicate.get().getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(pipelineRuns).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("entries expire after the TTL and full buckets evict their oldest entry")
+    void boundsEntries() {
+        IdempotencyCache cache = cache(IdempotencyCache.WAYS);
+        for (int i = 0; i <= IdempotencyCache.WAYS; i++) {
+            cache.process(body("a" + i, "CUST001"), PATH, null, this::allow);
+            ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertThat(pipelineRuns).hasValue(IdempotencyCache.WAYS + 1);
+
+        cache.process(body("a0", "CUST001"), PATH, null, this::allow);
+        assertThat(pipelineRuns).hasValue(IdempotencyCache.WAYS + 2);
+        cache.process(body("a" + IdempotencyCache.WAYS, "CUST001"), PATH, null, this::allow);
+        assertThat(pipelineRuns).hasValue(IdempotencyCache.WAYS + 2);
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cache.process(body("a" + IdempotencyCache.WAYS, "CUST001"), PATH, null, this::allow);
+        assertThat(pipelineRuns).hasValue(IdempotencyCache.WAYS + 3);
+    }
+
+    @Test
+    @DisplayName("responses beyond max-distinct-responses are counted and not stored")
+    void countsUncachedResponses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IdempotencyCache cache = new IdempotencyCache(true, 1024, Duration.ofMinutes(1), 1, Duration.ofSeconds(5),
+                PipelineResilience.DISABLED, registry, ticker::get);
+
+        cache.process(body("a1", "CUST001"), PATH, null, this::allow);
+        for (int i = 0; i < 3; i++) {
+            cache.process(body("a2", "CUST001"), PATH, null, this::decline);
+        }
+        cache.process(body("a1", "CUST001"), PATH, null, this::allow);
+
+        assertThat(pipelineRuns).as("only the first response is stored and replayed").hasValue(4);
+        assertThat(registry.get("dap.idempotency.uncached-responses").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("bodies without an activityId always run the pipeline")
+    void passesThroughWithoutActivityId() {
+        IdempotencyCache cache = cache(1024);
+
+        cache.process(JsonBody.of("{}"), PATH, null, this::allow);
+        cache.process(JsonBody.of("{}"), PATH, null, this::allow);
+        cache.process(JsonBody.of("not json"), PATH, null, this::allow);
+
+        assertThat(pipelineRuns).hasValue(3);
+    }
+
+    private IdempotencyCache cache(int maximumSize) {
+        return new IdempotencyCache(true, maximumSize, Duration.ofMinutes(1), 16, Duration.ofSeconds(5),
+                PipelineResilience.DISABLED, new SimpleMeterRegistry(), ticker::get);
+    }
+
+    private ResponseEntity<?> allow() {
+        pipelineRuns.incrementAndGet();
+        return ResponseEntity.ok(new DAResponse(true, "Request processed successfully", "SUCCESS", List.of(),
+                new RulesResponse("Allow", List.of("test-payee"))));
+    }
+
+    private ResponseEntity<?> decline() {
+        pipelineRuns.incrementAndGet();
+        return ResponseEntity.ok(new DAResponse(true, "Request processed successfully", "SUCCESS", List.of(),
+                new RulesResponse("Decline", List.of("test-payee"))));
+    }
+
+    private static JsonBody body(String activityId, String payeeCustomerId) {
+        return JsonBody.of("{\"activityId\": \"" + activityId + "\", \"payeeCustomerId\": \"" + payeeCustomerId + "\"}");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelCustomerLookupTest {
+
+    private static CustomerRequest request(String... customerIds) {
+        return new CustomerRequest("activity", List.of(customerIds), customerIds);
+    }
+
+    @Test
+    @DisplayName("payer and payee lookups run concurrently and keep the requested order")
+    void lookupsOverlap() {
+        // Each lookup blocks until the other one has started; sequential lookups would time out
+        CyclicBarrier bothStarted = new CyclicBarrier(2);
+        ParallelCustomerLookup lookup = new ParallelCustomerLookup(customerRequest -> {
+            try {
+                bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new IllegalStateException("lookups did not overlap", e);
+            }
+            String id = customerRequest.getCustomerIds().get(0);
+            return List.of(new Customer(id, "Name-" + id));
+        });
+
+        List<Customer> customers = lookup.getCustomers(request("PAYEE", "PAYER"));
+
+        assertThat(customers).extracting(Customer::getCustomerId).containsExactly("PAYEE", "PAYER");
+    }
+
+    @Test
+    @DisplayName("a failed lookup fails the request")
+    void failurePropagates() {
+        ParallelCustomerLookup lookup = new ParallelCustomerLookup(customerRequest -> {
+            if (customerRequest.getCustomerIds().contains("BROKEN")) {
+                throw new IllegalStateException("backend unavailable");
+            }
+            return List.of(new Customer(customerRequest.getCustomerIds().get(0), "Name"));
+        });
+
+        assertThatThrownBy(() -> lookup.getCustomers(request("CUST001", "BROKEN")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("backend unavailable");
+    }
+
+    @Test
+    @DisplayName("a later lookup that fails ends the request without waiting for an earlier one, which is interrupted")
+    void failsFast() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ParallelCustomerLookup lookup = new ParallelCustomerLookup(customerRequest -> {
+            if (customerRequest.getCustomerIds().contains("BROKEN")) {
+                throw new IllegalStateException("backend unavailable");
+            }
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> lookup.getCustomers(request("SLOW", "BROKEN")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("backend unavailable");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("the asynchronous lookup fans out and fails as soon as one lookup fails")
+    void asyncFailsFast() {
+        CompletableFuture<List<Customer>> slow = new CompletableFuture<>();
+        ParallelCustomerLookup lookup = new ParallelCustomerLookup(new CustomerLookup() {
+            @Override
+            public List<Customer> getCustomers(CustomerRequest customerRequest) {
+                throw new AssertionError("the asynchronous lookup must be used");
+            }
+
+            @Override
+            public CompletableFuture<List<Customer>> getCustomersAsync(CustomerRequest customerRequest) {
+                String id = customerRequest.getCustomerIds().get(0);
+                return switch (id) {
+                    case "SLOW" -> slow;
+                    case "BROKEN" -> CompletableFuture.failedFuture(new IllegalStateException("backend unavailable"));
+                    default -> CompletableFuture.completedFuture(List.of(new Customer(id, "Name-" + id)));
+                };
+            }
+        });
+
+        assertThat(lookup.getCustomersAsync(request("PAYEE", "PAYER")))
+                .succeedsWithin(Duration.ofSeconds(1))
+                .satisfies(customers -> assertThat(customers).extracting(Customer::getCustomerId)
+                        .containsExactly("PAYEE", "PAYER"));
+        assertThat(lookup.getCustomersAsync(request("SLOW", "BROKEN")))
+                .failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        assertThat(slow).isCancelled();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.rules.RulesEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineFlightRecorderEventsTest {
+
+    private static final String BODY = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", "
+            + "\"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static RequestProcessingService requestProcessingService;
+    private static ReactiveRequestProcessingService reactiveRequestProcessingService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void buildPipeline() throws Exception {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        RulesEngine rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION,
+                RulesEngine.DEFAULT_DECISION);
+        rulesEngine.initialize();
+        requestProcessingService = new RequestProcessingService(
+                new OpenApiRequestValidator(new OpenApiValidatorConfig().openApiInteractionValidator()),
+                new StreamingRequestValidator(), txnClassLoaderService, new MockCustomerAPI(), rulesEngine,
+                new PipelineMetrics(new SimpleMeterRegistry(), false, false));
+        reactiveRequestProcessingService = new ReactiveRequestProcessingService(requestProcessingService,
+                txnClassLoaderService, new ReactiveCustomerLookup(new MockCustomerAPI()),
+                new ReactiveRulesAPI(rulesEngine), new PipelineMetrics(new SimpleMeterRegistry(), false, false));
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        txnClassLoaderService.cleanup();
+    }
+
+    @Test
+    @DisplayName("a request emits a request event and one event per stage it ran, with the metric stage names")
+    void emitsRequestAndStageEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> requestProcessingService.validateAndProcessRequest(BODY));
+
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PipelineRequestEvent.NAME))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("txnType")).isEqualTo("payment");
+                    assertThat(event.getString("activityId")).isEqualTo("abcd");
+                    assertThat(event.getLong("generationId")).isEqualTo(txnClassLoaderService.getCurrentGeneration().getId());
+                    assertThat(event.getInt("status")).isEqualTo(200);
+                    assertThat(event.getString("outcome")).isEqualTo("SUCCESS");
+                    assertThat(event.getString("decision")).isEqualTo("Step Up");
+                    assertThat(event.getInt("customerCount")).isEqualTo(2);
+                });
+        List<RecordedEvent> stages = events.stream()
+                .filter(event -> event.getEventType().getName().equals(PipelineStageEvent.NAME))
+                .toList();
+        assertThat(stages).extracting(event -> event.getString("stage"))
+                .containsExactly("validation", "mapping", "customer_lookup", "assembly", "rules");
+        assertThat(stages).allSatisfy(event -> {
+            assertThat(event.getString("outcome")).isEqualTo(PipelineStageEvent.OK);
+            assertThat(event.getString("txnType")).isEqualTo("payment");
+        });
+        assertThat(stages.get(2).getString("activityId")).isEqualTo("abcd");
+        assertThat(stages.get(2).getInt("customerCount")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("the reactive stack emits the same request and stage events")
+    void reactiveEmitsSameEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> reactiveRequestProcessingService.validateAndProcessRequest(BODY,
+                RequestProcessingService.DEFAULT_OPERATION_PATH, null).block());
+
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PipelineRequestEvent.NAME))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("activityId")).isEqualTo("abcd");
+                    assertThat(event.getInt("status")).isEqualTo(200);
+                    assertThat(event.getString("decision")).isEqualTo("Step Up");
+                    assertThat(event.getInt("customerCount")).isEqualTo(2);
+                });
+        List<RecordedEvent> stages = events.stream()
+                .filter(event -> event.getEventType().getName().equals(PipelineStageEvent.NAME))
+                .toList();
+        assertThat(stages).extracting(event -> event.getString("stage"))
+                .containsExactlyInAnyOrder("validation", "mapping", "customer_lookup", "assembly", "rules");
+        assertThat(stages).allSatisfy(event -> assertThat(event.getString("outcome")).isEqualTo(PipelineStageEvent.OK));
+        assertThat(stages).filteredOn(event -> event.getString("stage").equals("customer_lookup"))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getInt("customerCount")).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("a rejected body ends with a failed validation stage and the response code as the request outcome")
+    void emitsFailedStage() throws Exception {
+        List<RecordedEvent> events = record(() -> requestProcessingService.validateAndProcessRequest("{}"));
+
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PipelineStageEvent.NAME))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("stage")).isEqualTo("validation");
+                    assertThat(event.getString("outcome")).isEqualTo(PipelineStageEvent.FAILED);
+                });
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PipelineRequestEvent.NAME))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getInt("status")).isEqualTo(400);
+                    assertThat(event.getString("outcome")).isEqualTo("VALIDATION_ERROR");
+                });
+    }
+
+    private List<RecordedEvent> record(Runnable request) throws Exception {
+        Path recordingFile = directory.resolve("pipeline.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PipelineRequestEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(PipelineStageEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            request.run();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        return RecordingFile.readAllEvents(recordingFile);
+    }
+}
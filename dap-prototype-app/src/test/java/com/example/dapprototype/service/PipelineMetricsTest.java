@@ -0,0 +1,79 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.model.DAResponse;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineMetricsTest {
+
+    private static final ResponseEntity<DAResponse> SUCCESS =
+            ResponseEntity.ok(new DAResponse(true, "Request processed successfully", "SUCCESS", null, null));
+
+    @Test
+    @DisplayName("stages that ran are recorded under txn type and outcome")
+    void recordsStagesThatRan() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(registry, true, false);
+
+        PipelineTimings timings = pipelineMetrics.start();
+        timings.record(PipelineStage.VALIDATION, timings.mark());
+        timings.record(PipelineStage.RULES, timings.mark());
+        ResponseEntity<DAResponse> response = pipelineMetrics.complete(SUCCESS, "payment", timings);
+
+        assertThat(response.getHeaders().containsKey(PipelineMetrics.SERVER_TIMING_HEADER)).isFalse();
+        assertThat(stageTimer(registry, "validation", "SUCCESS").count()).isEqualTo(1);
+        assertThat(stageTimer(registry, "rules", "SUCCESS").count()).isEqualTo(1);
+        assertThat(stageTimer(registry, "customer_lookup", "SUCCESS").count()).isZero();
+        assertThat(registry.get("dap.pipeline.request").tag("txn_type", "payment").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Server-Timing header lists the stages and the total")
+    void addsServerTimingHeader() {
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry(), true, true);
+
+        PipelineTimings timings = pipelineMetrics.start();
+        timings.record(PipelineStage.VALIDATION, timings.mark());
+        ResponseEntity<DAResponse> response = pipelineMetrics.complete(SUCCESS, "payment", timings);
+
+        assertThat(response.getBody()).isSameAs(SUCCESS.getBody());
+        assertThat(response.getHeaders().getFirst(PipelineMetrics.SERVER_TIMING_HEADER))
+                .matches("validation;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}");
+    }
+
+    @Test
+    @DisplayName("Server-Timing durations are milliseconds with three zero-padded decimals")
+    void formatsServerTimingDurations() {
+        StringBuilder header = new StringBuilder();
+        PipelineMetrics.appendMetric(header, "validation", 1_234_567);
+        PipelineMetrics.appendMetric(header, "rules", 5_000);
+        PipelineMetrics.appendMetric(header, "total", 12_050_999);
+
+        assertThat(header).hasToString("validation;dur=1.234, rules;dur=0.005, total;dur=12.050");
+    }
+
+    @Test
+    @DisplayName("disabled metrics record nothing and leave the response untouched")
+    void disabledRecordsNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(registry, false, false);
+
+        PipelineTimings timings = pipelineMetrics.start();
+        timings.record(PipelineStage.VALIDATION, timings.mark());
+
+        assertThat(timings.isEnabled()).isFalse();
+        assertThat(pipelineMetrics.complete(SUCCESS, "payment", timings)).isSameAs(SUCCESS);
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    private static Timer stageTimer(SimpleMeterRegistry registry, String stage, String outcome) {
+        return registry.get("dap.pipeline.stage")
+                .tag("stage", stage).tag("txn_type", "payment").tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.RulesEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineResilienceTest {
+
+    private static final String BODY = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", "
+            + "\"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+    private static TxnClassLoaderService txnClassLoaderService;
+    private static RulesEngine rulesEngine;
+    private static OpenApiRequestValidator openApiRequestValidator;
+    private static StreamingRequestValidator streamingRequestValidator;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void loadTxnModels() throws Exception {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.initialize();
+        rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION, RulesEngine.DEFAULT_DECISION);
+        rulesEngine.initialize();
+        openApiRequestValidator = new OpenApiRequestValidator(new OpenApiValidatorConfig().openApiInteractionValidator());
+        streamingRequestValidator = new StreamingRequestValidator();
+    }
+
+    @AfterAll
+    static void closeLoader() {
+        txnClassLoaderService.cleanup();
+    }
+
+    private PipelineResilience resilience(String fallbackDecision, PipelineResilience.BreakerSettings breakers) {
+        return new PipelineResilience(new PipelineResilience.DeadlineSettings(Duration.ofMillis(1000),
+                Duration.ofMillis(5000), Duration.ofMillis(5), Duration.ofMillis(1), fallbackDecision), breakers,
+                registry);
+    }
+
+    private static RequestProcessingService pipeline(CustomerLookup customerLookup, PipelineResilience resilience) {
+        return new RequestProcessingService(openApiRequestValidator, streamingRequestValidator,
+                txnClassLoaderService, customerLookup, rulesEngine,
+                new PipelineMetrics(new SimpleMeterRegistry(), false, false), null, resilience);
+    }
+
+    private static DAResponse process(RequestProcessingService pipeline, RequestDeadline deadline, int status) {
+        ResponseEntity<?> response = pipeline.validateAndProcessRequest(JsonBody.of(BODY),
+                RequestProcessingService.DEFAULT_OPERATION_PATH, null, deadline);
+        assertThat(response.getStatusCode().value()).isEqualTo(status);
+        return (DAResponse) response.getBody();
+    }
+
+    private double expired(String stage) {
+        return registry.get("dap.deadline.expired").tag("stage", stage).counter().count();
+    }
+
+    @Test
+    @DisplayName("the deadline comes from the timeout header, capped at the maximum, or the default budget")
+    void deadlineFromHeader() {
+        PipelineResilience resilience = resilience(null, null);
+
+        assertThat(resilience.deadline("200").remainingNanos())
+                .isBetween(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(resilience.deadline("60000").remainingNanos())
+                .isBetween(TimeUnit.MILLISECONDS.toNanos(4900), TimeUnit.MILLISECONDS.toNanos(5000));
+        assertThat(resilience.deadline(null).remainingNanos())
+                .isBetween(TimeUnit.MILLISECONDS.toNanos(900), TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThat(resilience.deadline("soon").remainingNanos())
+                .isBetween(TimeUnit.MILLISECONDS.toNanos(900), TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThat(PipelineResilience.DISABLED.deadline("200").isBounded()).isFalse();
+    }
+
+    @Test
+    @DisplayName("a request whose deadline has passed is not processed and the expiry is counted by stage")
+    void expiredBeforeValidation() {
+        AtomicInteger lookups = new AtomicInteger();
+        RequestProcessingService pipeline = pipeline(request -> {
+            lookups.incrementAndGet();
+            return List.of();
+        }, resilience(null, null));
+
+        DAResponse response = process(pipeline, RequestDeadline.after(Duration.ZERO), 504);
+
+        assertThat(response.getCode()).isEqualTo(PipelineResilience.DEADLINE_EXCEEDED);
+        assertThat(response.getDetails()).containsExactly("validation");
+        assertThat(lookups).hasValue(0);
+        assertThat(expired("validation")).isEqualTo(1);
+        assertThat(expired("customer_lookup")).isZero();
+    }
+
+    @Test
+    @DisplayName("a customer lookup that outlives the deadline ends the request, with the fallback decision when set")
+    void lookupPastDeadline() {
+        CustomerLookup slowLookup = new CustomerLookup() {
+            @Override
+            public List<Customer> getCustomers(CustomerRequest customerRequest) {
+                throw new AssertionError("the deadline must be passed to the lookup");
+            }
+
+            @Override
+            public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(remainingNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                throw new CustomerLookupTimeoutException("Customer lookup did not complete before the deadline");
+            }
+        };
+
+        DAResponse timedOut = process(pipeline(slowLookup, resilience(null, null)),
+                RequestDeadline.after(Duration.ofMillis(50)), 504);
+        assertThat(timedOut.getDetails()).containsExactly("customer_lookup");
+
+        DAResponse fallback = process(pipeline(slowLookup, resilience("Review", null)),
+                RequestDeadline.after(Duration.ofMillis(50)), 200);
+        assertThat(fallback.getCode()).isEqualTo(PipelineResilience.FALLBACK);
+        assertThat(fallback.getRulesResponse().getDecision()).isEqualTo("Review");
+        assertThat(expired("customer_lookup")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("customer lookups cut short by the client's own budget do not open the breaker")
+    void shortBudgetsKeepBreakerClosed() {
+        AtomicInteger lookups = new AtomicInteger();
+        CustomerLookup lookup = new CustomerLookup() {
+            @Override
+            public List<Customer> getCustomers(CustomerRequest customerRequest) {
+                throw new AssertionError("the deadline must be passed to the lookup");
+            }
+
+            @Override
+            public List<Customer> getCustomers(CustomerRequest customerRequest, long deadlineNanos) {
+                lookups.incrementAndGet();
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(remainingNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                throw new CustomerLookupTimeoutException("Customer lookup did not complete before the deadline");
+            }
+        };
+        PipelineResilience resilience = resilience(null, new PipelineResilience.BreakerSettings(10, 3, 0.5,
+                Duration.ofSeconds(1), Duration.ofMinutes(1), 1));
+        RequestProcessingService pipeline = pipeline(lookup, resilience);
+
+        for (int i = 0; i < 5; i++) {
+            DAResponse response = process(pipeline, RequestDeadline.after(Duration.ofMillis(20)), 504);
+            assertThat(response.getDetails()).containsExactly("customer_lookup");
+        }
+
+        assertThat(lookups).hasValue(5);
+        assertThat(resilience.breaker(PipelineStage.CUSTOMER_LOOKUP).state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("a reactive request cancelled during the rules stage only abandons the rules call")
+    void reactiveCancelDuringRules() throws Exception {
+        PipelineResilience resilience = resilience(null, new PipelineResilience.BreakerSettings(10, 1, 0.5,
+                Duration.ofSeconds(1), Duration.ofMinutes(1), 1));
+        CountDownLatch rulesStarted = new CountDownLatch(1);
+        ReactiveRulesAPI hangingRules = new ReactiveRulesAPI(rulesEngine) {
+            @Override
+            public Mono<RulesResponse> evaluateRules(String txnType, Object decisionData) {
+                rulesStarted.countDown();
+                return Mono.never();
+            }
+        };
+        ReactiveRequestProcessingService reactive = new ReactiveRequestProcessingService(
+                pipeline(new MockCustomerAPI(), resilience), txnClassLoaderService,
+                new ReactiveCustomerLookup(new MockCustomerAPI()), hangingRules,
+                new PipelineMetrics(new SimpleMeterRegistry(), false, false));
+
+        Disposable request = reactive.validateAndProcessRequest(JsonBody.of(BODY),
+                RequestProcessingService.DEFAULT_OPERATION_PATH, null, RequestDeadline.NONE).subscribe();
+        assertThat(rulesStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        TimeUnit.MILLISECONDS.sleep(1100);
+        request.dispose();
+
+        assertThat(resilience.breaker(PipelineStage.CUSTOMER_LOOKUP).state())
+                .as("the completed lookup is recorded once, as a success").isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(resilience.breaker(PipelineStage.RULES).state())
+                .as("the abandoned rules call ran longer than the slow-call duration").isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("a failing customer lookup opens its breaker and later requests fail fast without calling it")
+    void openBreakerFailsFast() {
+        AtomicInteger lookups = new AtomicInteger();
+        PipelineResilience resilience = resilience(null, new PipelineResilience.BreakerSettings(10, 3, 0.5,
+                Duration.ofSeconds(1), Duration.ofMinutes(1), 1));
+        RequestProcessingService pipeline = pipeline(request -> {
+            lookups.incrementAndGet();
+            throw new IllegalStateException("customer API unavailable");
+        }, resilience);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(process(pipeline, RequestDeadline.NONE, 500).getCode()).isEqualTo("PROCESSING_ERROR");
+        }
+        DAResponse rejected = process(pipeline, RequestDeadline.NONE, 503);
+
+        assertThat(rejected.getCode()).isEqualTo(PipelineResilience.DEPENDENCY_UNAVAILABLE);
+        assertThat(rejected.getDetails()).containsExactly("customer_lookup");
+        assertThat(lookups).hasValue(3);
+        assertThat(resilience.breaker(PipelineStage.CUSTOMER_LOOKUP).state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(resilience.breaker(PipelineStage.RULES).state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.dapprototype.service;
+
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.rules.RulesEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupWarmupTest {
+
+    @Test
+    @DisplayName("default corpus holds the openapi.yaml example and an invalid body per operation")
+    void corpusFromOpenApiExamples() throws Exception {
+        List<StartupWarmup.WarmupRequest> corpus = StartupWarmup.openApiExamples(new ObjectMapper());
+
+        assertThat(corpus).extracting(StartupWarmup.WarmupRequest::operationPath).containsOnly("/request");
+        assertThat(corpus).extracting(request -> new String(request.body(), StandardCharsets.UTF_8))
+                .containsExactly("{\"activityId\":\"abcd\",\"activityTimeStamp\":\"2025-12-30T13:36:00Z\","
+                        + "\"payeeCustomerId\":\"CUST001\",\"payerCustomerId\":\"CUST002\"}", "{}");
+    }
+
+    @Test
+    @DisplayName("NDJSON corpus skips blank lines and p99 picks the 99th percentile")
+    void corpusFromFileAndP99() throws Exception {
+        ByteArrayResource resource = new ByteArrayResource("{\"a\":1}\n\n{\"a\":2}\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(StartupWarmup.loadCorpus(resource)).hasSize(2);
+        assertThat(StartupWarmup.p99(LongStream.rangeClosed(1, 300).toArray(), 200)).isEqualTo(198);
+    }
+
+    @Test
+    @DisplayName("warm-up runs on a pipeline of its own and records only the startup meters")
+    void warmUpOnPrivatePipeline() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TxnClassLoaderService txnClassLoaderService = new TxnClassLoaderService(event -> { }, objectMapper);
+        txnClassLoaderService.initialize();
+        try {
+            RulesEngine rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION,
+                    RulesEngine.DEFAULT_DECISION);
+            rulesEngine.initialize();
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            StartupWarmup warmup = new StartupWarmup(
+                    new OpenApiRequestValidator(new OpenApiValidatorConfig().openApiInteractionValidator()),
+                    new StreamingRequestValidator(), txnClassLoaderService, rulesEngine, new MockCustomerAPI(),
+                    new DAResponseWriter(objectMapper), objectMapper, new DefaultResourceLoader(), null,
+                    new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class),
+                    true, "", 10, 20, 20, 0.1, false);
+
+            warmup.run(new DefaultApplicationArguments());
+
+            assertThat(registry.getMeters()).extracting(meter -> meter.getId().getName())
+                    .allMatch(name -> name.startsWith("dap.startup."));
+            assertThat(registry.get("dap.startup.warmup.requests").gauge().value()).isEqualTo(20);
+        } finally {
+            txnClassLoaderService.cleanup();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.dapprototype.service;
+
+import com.atlassian.oai.validator.OpenApiInteractionValidator;
+import com.atlassian.oai.validator.model.SimpleRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingRequestValidatorTest {
+
+    private static StreamingRequestValidator streamingRequestValidator;
+    private static OpenApiInteractionValidator openApiValidator;
+    private static final ObjectReader reader = new ObjectMapper().readerFor(Map.class);
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        streamingRequestValidator = new StreamingRequestValidator();
+        openApiValidator = OpenApiInteractionValidator.createFor(new ClassPathResource("openapi.yaml").getURL().toString())
+                .build();
+    }
+
+    @Test
+    @DisplayName("valid payload is validated and bound in one pass")
+    @SuppressWarnings("unchecked")
+    void validPayloadIsBound() {
+        String body = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+        Object bound = streamingRequestValidator.validateAndBind("/request", body, reader);
+
+        assertThat(streamingRequestValidator.supports("/request")).isTrue();
+        assertThat(bound).isInstanceOf(Map.class);
+        assertThat((Map<String, Object>) bound).containsEntry("activityId", "abcd").containsEntry("payerCustomerId", "CUST002");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{}",
+            "{invalid json}",
+            "[]",
+            "{\"activityId\": \"abcd\"}",
+            "{\"activityId\": null, \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": \"\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": 12, \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"not-a-date\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-13-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}",
+            "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}"
+    })
+    @DisplayName("payloads rejected by the OpenAPI validator are never accepted by the single pass")
+    void invalidPayloadsFallBack(String body) {
+        boolean openApiErrors = openApiValidator.validateRequest(SimpleRequest.Builder.post("/request")
+                .withContentType("application/json")
+                .withBody(body)
+                .build()).hasErrors();
+
+        assertThat(openApiErrors).isTrue();
+        assertThat(streamingRequestValidator.validateAndBind("/request", body, reader)).isNull();
+    }
+
+    @Test
+    @DisplayName("undeclared property falls back to the full validator")
+    void undeclaredPropertyFallsBack() {
+        String body = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", \"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\", \"extra\": 1}";
+
+        assertThat(streamingRequestValidator.validateAndBind("/request", body, reader)).isNull();
+    }
+
+    @Test
+    @DisplayName("unknown operation path is not supported")
+    void unknownPathNotSupported() {
+        assertThat(streamingRequestValidator.supports("/login")).isFalse();
+        assertThat(streamingRequestValidator.validateAndBind("/login", "{}", reader)).isNull();
+    }
+}
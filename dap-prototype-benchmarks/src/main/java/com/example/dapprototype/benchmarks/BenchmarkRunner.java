@@ -0,0 +1,42 @@
+package com.example.dapprototype.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+
+/**
+ * Runs the benchmarks once single-threaded and once with one thread per CPU, with the GC profiler
+ * attached so that every result includes the allocation rate per operation.
+ * <p>
+ * Accepts the regular JMH command line, e.g. a benchmark regex or {@code -t 8} to run a single thread
+ * count. The results of each run are written as JSON to {@code jmh-result-threads-<n>.json} for
+ * comparison against a baseline.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        List<Integer> threadCounts = commandLine.getThreads().hasValue()
+                ? List.of(commandLine.getThreads().get())
+                : List.of(1, Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-threads-" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.dapprototype.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole pipeline with the per-stage timers on and off, to keep the cost of the instrumentation
+ * itself in view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean metricsEnabled;
+
+    private PipelineFixture fixture;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new PipelineFixture(metricsEnabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> validateAndProcessRequest() {
+        return fixture.requestProcessingService.validateAndProcessRequest(PipelineFixture.VALID_BODY);
+    }
+}
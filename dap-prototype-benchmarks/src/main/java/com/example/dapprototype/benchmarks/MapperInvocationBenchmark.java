@@ -0,0 +1,80 @@
+package com.example.dapprototype.benchmarks;
+
+import com.example.dapprototype.model.CustomerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PaymentRequestMapper.toCustomerRequest} of the {@code TxnClassLoader}-loaded txn-models
+ * called three ways: through {@code Method.invoke} as the pipeline did before the binding plan,
+ * through the binding plan's {@code MethodHandle}, and through a constant {@code MethodHandle}.
+ * The JIT inlines a handle held in a {@code static final} field like a direct call, so the last one
+ * is the baseline of a call compiled against the txn-models classes, which the benchmarks cannot
+ * make since the classes are not on their class path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperInvocationBenchmark {
+
+    // Set before ConstantMapper is initialized; every fork runs one benchmark instance
+    private static MethodHandle boundMapper;
+
+    private PipelineFixture fixture;
+    private Object mapperInstance;
+    private Method mapperMethod;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new PipelineFixture();
+        Class<?> requestInfoClass = fixture.bindingPlan.getRequestInfoClass();
+        Class<?> mapperClass = requestInfoClass.getClassLoader()
+                .loadClass(fixture.bindingPlan.getDescriptor().mapperClassName());
+        mapperInstance = mapperClass.getField("INSTANCE").get(null);
+        mapperMethod = mapperClass.getMethod("toCustomerRequest", requestInfoClass);
+        boundMapper = MethodHandles.publicLookup().unreflect(mapperMethod).bindTo(mapperInstance)
+                .asType(MethodType.methodType(CustomerRequest.class, Object.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return mapperMethod.invoke(mapperInstance, fixture.requestInfo);
+    }
+
+    @Benchmark
+    public CustomerRequest methodHandle() {
+        return fixture.bindingPlan.toCustomerRequest(fixture.requestInfo);
+    }
+
+    @Benchmark
+    public CustomerRequest constantMethodHandle() throws Throwable {
+        return (CustomerRequest) ConstantMapper.TO_CUSTOMER_REQUEST.invokeExact(fixture.requestInfo);
+    }
+
+    private static final class ConstantMapper {
+        static final MethodHandle TO_CUSTOMER_REQUEST = boundMapper;
+    }
+}
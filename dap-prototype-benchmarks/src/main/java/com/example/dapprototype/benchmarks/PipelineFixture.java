@@ -0,0 +1,85 @@
+package com.example.dapprototype.benchmarks;
+
+import com.example.dapprototype.classloader.TxnBindingPlan;
+import com.example.dapprototype.classloader.TxnClassLoaderService;
+import com.example.dapprototype.classloader.TxnGeneration;
+import com.example.dapprototype.config.OpenApiValidatorConfig;
+import com.example.dapprototype.model.Customer;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.rules.RulesEngine;
+import com.example.dapprototype.service.MockCustomerAPI;
+import com.example.dapprototype.service.OpenApiRequestValidator;
+import com.example.dapprototype.service.PipelineMetrics;
+import com.example.dapprototype.service.PipelineTimings;
+import com.example.dapprototype.service.RequestProcessingService;
+import com.example.dapprototype.service.StreamingRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+
+/**
+ * The request pipeline wired by hand, without a Spring context, together with one pre-computed
+ * input for every stage so that each stage can be measured in isolation.
+ * <p>
+ * The txn-models are not on the benchmark class path: as in the application, they are loaded by the
+ * {@code TxnClassLoader} from the {@value #TXN_MODELS_PROPERTY} system property, by default the
+ * classes built in the txn-models module of the working directory.
+ */
+final class PipelineFixture implements AutoCloseable {
+
+    static final String TXN_MODELS_PROPERTY = "txn.classloader.paths";
+    static final String DEFAULT_TXN_MODELS = "dap-prototype-txn-models/target/classes";
+    static final String OPERATION_PATH = RequestProcessingService.DEFAULT_OPERATION_PATH;
+    static final String VALID_BODY = "{\"activityId\": \"abcd\", \"activityTimeStamp\": \"2025-12-30T13:36:00Z\", "
+            + "\"payeeCustomerId\": \"CUST001\", \"payerCustomerId\": \"CUST002\"}";
+
+    final TxnClassLoaderService txnClassLoaderService;
+    final OpenApiRequestValidator openApiRequestValidator;
+    final StreamingRequestValidator streamingRequestValidator;
+    final MockCustomerAPI mockCustomerAPI;
+    final RulesEngine rulesEngine;
+    final RequestProcessingService requestProcessingService;
+
+    final TxnGeneration generation;
+    final TxnBindingPlan bindingPlan;
+    final Object requestInfo;
+    final CustomerRequest customerRequest;
+    final List<Customer> customers;
+    final Object assessmentData;
+
+    PipelineFixture() throws Exception {
+        this(true);
+    }
+
+    /**
+     * @param metricsEnabled whether the pipeline records its per-stage timers
+     */
+    PipelineFixture(boolean metricsEnabled) throws Exception {
+        txnClassLoaderService = new TxnClassLoaderService(event -> { }, new ObjectMapper());
+        txnClassLoaderService.setClassloaderPaths(System.getProperty(TXN_MODELS_PROPERTY, DEFAULT_TXN_MODELS));
+        txnClassLoaderService.initialize();
+        openApiRequestValidator = new OpenApiRequestValidator(new OpenApiValidatorConfig().openApiInteractionValidator());
+        streamingRequestValidator = new StreamingRequestValidator();
+        mockCustomerAPI = new MockCustomerAPI();
+        rulesEngine = new RulesEngine(txnClassLoaderService, RulesEngine.DEFAULT_LOCATION, RulesEngine.DEFAULT_DECISION);
+        rulesEngine.initialize();
+        requestProcessingService = new RequestProcessingService(openApiRequestValidator, streamingRequestValidator,
+                txnClassLoaderService, mockCustomerAPI, rulesEngine,
+                new PipelineMetrics(new SimpleMeterRegistry(), metricsEnabled, false));
+
+        generation = txnClassLoaderService.acquire();
+        bindingPlan = generation.getBindingPlanForPath(OPERATION_PATH);
+        requestInfo = bindingPlan.getRequestInfoReader().readValue(VALID_BODY);
+        customerRequest = bindingPlan.toCustomerRequest(requestInfo);
+        customers = mockCustomerAPI.getCustomers(customerRequest);
+        assessmentData = requestProcessingService.assembleAssessmentData(requestInfo, customerRequest, customers, bindingPlan,
+                PipelineTimings.DISABLED);
+    }
+
+    @Override
+    public void close() {
+        generation.release();
+        txnClassLoaderService.cleanup();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.dapprototype.benchmarks;
+
+import com.atlassian.oai.validator.report.ValidationReport;
+import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.service.PipelineTimings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark per stage of the request pipeline, plus the whole pipeline.
+ * <p>
+ * Every stage reads the pre-computed output of the stage before it from {@link PipelineFixture},
+ * so a regression shows up on the stage that caused it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineStageBenchmark {
+
+    private PipelineFixture fixture;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new PipelineFixture();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ValidationReport openApiValidation() {
+        return fixture.openApiRequestValidator.validatePostJson(PipelineFixture.OPERATION_PATH,
+                PipelineFixture.VALID_BODY, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Benchmark
+    public Object singlePassValidateAndBind() {
+        return fixture.streamingRequestValidator.validateAndBind(PipelineFixture.OPERATION_PATH,
+                PipelineFixture.VALID_BODY, fixture.bindingPlan.getRequestInfoReader());
+    }
+
+    @Benchmark
+    public Object jacksonBinding() throws IOException {
+        return fixture.bindingPlan.getRequestInfoReader().readValue(PipelineFixture.VALID_BODY);
+    }
+
+    @Benchmark
+    public CustomerRequest customerRequestMapping() {
+        return fixture.bindingPlan.toCustomerRequest(fixture.requestInfo);
+    }
+
+    @Benchmark
+    public Object assessmentDataAssembly() {
+        return fixture.requestProcessingService.assembleAssessmentData(fixture.requestInfo,
+                fixture.customerRequest, fixture.customers, fixture.bindingPlan, PipelineTimings.DISABLED);
+    }
+
+    @Benchmark
+    public RulesResponse rulesEvaluation() {
+        return fixture.rulesEngine.evaluateRules(fixture.bindingPlan.getDescriptor().name(), fixture.assessmentData);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> validateAndProcessRequest() {
+        return fixture.requestProcessingService.validateAndProcessRequest(PipelineFixture.VALID_BODY);
+    }
+}
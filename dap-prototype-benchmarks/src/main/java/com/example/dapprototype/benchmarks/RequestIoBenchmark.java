@@ -0,0 +1,83 @@
+package com.example.dapprototype.benchmarks;
+
+import com.example.dapprototype.model.DAResponse;
+import com.example.dapprototype.service.DAResponseWriter;
+import com.example.dapprototype.service.RequestBufferPool;
+import com.example.dapprototype.service.RequestProcessingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request from body bytes to response bytes, once the way the String and Jackson message
+ * converters handle it and once through the pooled buffer and {@link DAResponseWriter}. Run with
+ * the GC profiler to compare the bytes allocated per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestIoBenchmark {
+
+    private static final byte[] REQUEST = PipelineFixture.VALID_BODY.getBytes(StandardCharsets.UTF_8);
+
+    private PipelineFixture fixture;
+    private ObjectMapper objectMapper;
+    private RequestBufferPool requestBufferPool;
+    private DAResponseWriter responseWriter;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new PipelineFixture();
+        objectMapper = new ObjectMapper();
+        requestBufferPool = new RequestBufferPool(8192, 65536, 16);
+        responseWriter = new DAResponseWriter(objectMapper);
+        // Stands in for the servlet output buffer, which is reused across requests as well
+        output = new ByteArrayOutputStream(1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int stringAndObjectMapper() throws IOException {
+        output.reset();
+        String rawBody = StreamUtils.copyToString(new ByteArrayInputStream(REQUEST), StandardCharsets.UTF_8);
+        Object response = fixture.requestProcessingService.validateAndProcessRequest(rawBody).getBody();
+        objectMapper.writeValue(output, response);
+        return output.size();
+    }
+
+    @Benchmark
+    public int pooledBytesAndWriter() throws IOException {
+        output.reset();
+        DAResponse response;
+        try (RequestBufferPool.PooledBody body = requestBufferPool.read(new ByteArrayInputStream(REQUEST), REQUEST.length)) {
+            response = (DAResponse) fixture.requestProcessingService
+                    .validateAndProcessRequest(body.body(), RequestProcessingService.DEFAULT_OPERATION_PATH, null).getBody();
+        }
+        responseWriter.write(response, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.dapprototype.benchmarks;
+
+import com.example.dapprototype.model.RulesResponse;
+import com.example.dapprototype.rules.CompiledRuleSet;
+import com.example.dapprototype.rules.RuleSetDefinition;
+import com.example.dapprototype.rules.RuleSetDefinition.ConditionDefinition;
+import com.example.dapprototype.rules.RuleSetDefinition.RuleDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rules evaluation as the rule count grows from 10 to 10,000.
+ * <p>
+ * The generated rules mirror a production mix: most test a customer ID for equality and so are
+ * indexed by value, some test a list of IDs, and one in ten has no indexable condition. They share
+ * a small pool of predicates such as "payer is present" and the hour-of-day windows. With the
+ * discrimination network the time should grow with the number of candidate rules, not with the rule
+ * count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleScalingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int ruleCount;
+
+    private PipelineFixture fixture;
+    private CompiledRuleSet ruleSet;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new PipelineFixture();
+        ruleSet = CompiledRuleSet.compile(generate(ruleCount), fixture.bindingPlan.getAssessmentDataClass(), "Step Up");
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public RulesResponse evaluate() {
+        return ruleSet.evaluate(fixture.assessmentData);
+    }
+
+    static RuleSetDefinition generate(int ruleCount) {
+        ConditionDefinition payerPresent = new ConditionDefinition("payerCustomer", "present", null, null);
+        List<RuleDefinition> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            List<ConditionDefinition> when = new ArrayList<>();
+            switch (i % 10) {
+                case 0 -> {
+                    int hour = i % 22;
+                    when.add(new ConditionDefinition("requestInfo.activityTimeStamp", "hour_between",
+                            List.of(hour, hour + 2), null));
+                    when.add(payerPresent);
+                }
+                case 1 -> when.add(new ConditionDefinition("requestInfo.payerCustomerId", "in",
+                        List.of(customerId(i), customerId(i + 1)), null));
+                default -> {
+                    when.add(new ConditionDefinition("payeeCustomer.customerId", "eq", customerId(i), null));
+                    when.add(payerPresent);
+                }
+            }
+            when.add(new ConditionDefinition("requestInfo.activityId", "starts_with", "abc".substring(0, 1 + i % 3), null));
+            rules.add(new RuleDefinition("rule-" + i, i % 100, when, i % 7 == 0 ? "Review" : null, false));
+        }
+        return new RuleSetDefinition("payment", null, rules);
+    }
+
+    private static String customerId(int i) {
+        return String.format("CUST%03d", i);
+    }
+}
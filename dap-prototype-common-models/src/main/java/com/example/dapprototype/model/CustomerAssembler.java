@@ -0,0 +1,43 @@
+package com.example.dapprototype.model;
+
+import java.util.List;
+
+/**
+ * Sets the looked up customers on the role fields of an assessment data instance.
+ * <p>
+ * Implementations are generated per assessment data class when its txn-models generation is
+ * loaded, with one direct setter call per {@link CustomerRole}.
+ */
+public interface CustomerAssembler {
+
+    /**
+     * Sets every role of the assessment data to the customer whose ID the role slot holds.
+     *
+     * @param assessmentData the assessment data instance
+     * @param roleCustomerIds the customer ID of each role slot; null slots stay unset
+     * @param customers the customers that were found
+     */
+    void assemble(Object assessmentData, String[] roleCustomerIds, List<Customer> customers);
+
+    /**
+     * Finds the customer of a role slot. A customer filling several roles is returned for each of them.
+     *
+     * @param customers the customers that were found
+     * @param roleCustomerIds the customer ID of each role slot
+     * @param slot the role slot
+     * @return the customer, or null if the slot is empty or its customer was not found
+     */
+    static Customer customerFor(List<Customer> customers, String[] roleCustomerIds, int slot) {
+        if (roleCustomerIds == null || slot >= roleCustomerIds.length || roleCustomerIds[slot] == null) {
+            return null;
+        }
+        String customerId = roleCustomerIds[slot];
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            if (customerId.equals(customer.getCustomerId())) {
+                return customer;
+            }
+        }
+        return null;
+    }
+}
@@ -5,13 +5,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CustomerRequest {
         private String activityId;
+        // Distinct IDs to look up; a customer filling several roles is listed once
         List<String> customerIds;
-        Map<String, String> customerTags;
+        // Customer ID of each role slot, indexed by CustomerRole
+        String[] roleCustomerIds;
 }
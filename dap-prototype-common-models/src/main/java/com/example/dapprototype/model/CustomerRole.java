@@ -0,0 +1,23 @@
+package com.example.dapprototype.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a {@link Customer} field of an assessment data class as a customer role.
+ * <p>
+ * The value is the role's slot in {@link CustomerRequest#getRoleCustomerIds()}: the request mapper
+ * puts the customer ID of the role at that index, and the generated {@link CustomerAssembler} sets
+ * the customer found for it through the field's setter.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CustomerRole {
+
+    /**
+     * @return the slot of the role, starting at 0
+     */
+    int value();
+}
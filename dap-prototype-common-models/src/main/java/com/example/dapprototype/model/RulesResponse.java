@@ -1,5 +1,7 @@
 package com.example.dapprototype.model;
 
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,4 +11,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class RulesResponse {
     private String decision;
+    private List<String> firedRuleIds = List.of();
+
+    public RulesResponse(String decision) {
+        this.decision = decision;
+    }
 }
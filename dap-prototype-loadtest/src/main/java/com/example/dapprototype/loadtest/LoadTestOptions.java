@@ -0,0 +1,93 @@
+package com.example.dapprototype.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ *
+ * @param target the URL requests are posted to
+ * @param corpus the NDJSON file of request bodies, or {@code null} for the bundled sample corpus
+ * @param rate the arrival rate in requests per second
+ * @param warmup how long to send at the rate before measuring
+ * @param duration how long to measure
+ * @param maxInFlight the most requests outstanding at once
+ * @param timeout the connect and response timeout of each request
+ * @param histogramOutput the file to write the response time percentile distribution to, or {@code null}
+ * @param uniqueActivityIds whether to append the request number to each activityId, so that the
+ *                          app's idempotency cache does not answer the repeats of the corpus
+ */
+record LoadTestOptions(URI target, Path corpus, double rate, Duration warmup, Duration duration,
+                       int maxInFlight, Duration timeout, Path histogramOutput, boolean uniqueActivityIds) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [--name=value ...]
+              --url=URL            target (default http://localhost:8080/api/request)
+              --corpus=FILE        NDJSON request bodies, one per line (default: bundled sample corpus)
+              --rate=N             arrival rate in requests per second (default 200)
+              --warmup=DURATION    sent at the rate but not measured (default 10s)
+              --duration=DURATION  measured (default 30s)
+              --max-in-flight=N    most outstanding requests (default 1000)
+              --timeout=DURATION   per request (default 5s)
+              --hgrm=FILE          write the response time percentile distribution for plotting
+              --unique-activity-ids=BOOL
+                                   append the request number to each activityId, so repeats of the
+                                   corpus are not idempotent replays (default true)
+            Durations are given as 500ms, 30s or 2m.""";
+
+    LoadTestOptions {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("--max-in-flight must be positive");
+        }
+    }
+
+    static LoadTestOptions parse(String... args) {
+        URI target = URI.create("http://localhost:8080/api/request");
+        Path corpus = null;
+        double rate = 200;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        int maxInFlight = 1000;
+        Duration timeout = Duration.ofSeconds(5);
+        Path histogramOutput = null;
+        boolean uniqueActivityIds = true;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "url" -> target = URI.create(value);
+                case "corpus" -> corpus = Path.of(value);
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = parseDuration(value);
+                case "duration" -> duration = parseDuration(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "timeout" -> timeout = parseDuration(value);
+                case "hgrm" -> histogramOutput = Path.of(value);
+                case "unique-activity-ids" -> uniqueActivityIds = Boolean.parseBoolean(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return new LoadTestOptions(target, corpus, rate, warmup, duration, maxInFlight, timeout, histogramOutput,
+                uniqueActivityIds);
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Expected a duration such as 500ms, 30s or 2m but got " + value);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.dapprototype.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * The measured part of a load test run. Latencies are in microseconds.
+ *
+ * @param options the options of the run
+ * @param sent the requests sent during the measurement
+ * @param completed the responses and failures received for them
+ * @param errors the non-2xx responses and failed requests
+ * @param elapsedSeconds the time from the start of the measurement to the last completion
+ * @param maxSendLagMicros how far sending fell behind the schedule at worst
+ * @param responseTimes the response times from the intended send time
+ * @param serviceTimes the response times from the actual send time
+ * @param responsesByCode the completed requests by {@code DAResponse.code}, {@code HTTP_<status>} or failure
+ */
+record LoadTestResult(LoadTestOptions options, long sent, long completed, long errors, double elapsedSeconds,
+                      long maxSendLagMicros, Histogram responseTimes, Histogram serviceTimes,
+                      Map<String, Long> responsesByCode) {
+
+    double throughput() {
+        return elapsedSeconds > 0 ? completed / elapsedSeconds : 0;
+    }
+
+    void print(PrintStream out) {
+        out.printf("Target          %s%n", options.target());
+        out.printf("Schedule        %.0f req/s for %d s after %d s warm-up, at most %d in flight%n",
+                options.rate(), options.duration().toSeconds(), options.warmup().toSeconds(), options.maxInFlight());
+        out.printf("Throughput      %.1f req/s (%d completed of %d sent)%n", throughput(), completed, sent);
+        out.printf("Response time   %s  (from the intended send time)%n", percentiles(responseTimes));
+        out.printf("Service time    %s  (from the actual send time)%n", percentiles(serviceTimes));
+        out.printf("Max send lag    %.3f ms%n", maxSendLagMicros / 1e3);
+        out.printf("Errors          %d%n", errors);
+        out.println("Responses by code");
+        responsesByCode.forEach((code, count) -> out.printf("  %-24s %d%n", code, count));
+    }
+
+    /**
+     * Writes the response time percentile distribution in the {@code .hgrm} format, in milliseconds,
+     * for the HdrHistogram plotter.
+     */
+    void writeResponseTimeDistribution(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            responseTimes.outputPercentileDistribution(out, 1e3);
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "no responses";
+        }
+        return String.format("p50 %.3f ms  p99 %.3f ms  p99.9 %.3f ms  max %.3f ms",
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMaxValue() / 1e3);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.dapprototype.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.List;
+
+/**
+ * Replays a request corpus against a running instance at a fixed arrival rate and prints the
+ * throughput, the response time percentiles and the responses by code.
+ * <p>
+ * Run the same corpus and rate against two builds or configurations to compare them; see
+ * {@link LoadTestOptions#USAGE} for the options.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && ("--help".equals(args[0]) || "-h".equals(args[0]))) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        List<byte[]> corpus = RequestCorpus.load(options.corpus());
+        System.out.printf("Replaying %d requests against %s ...%n", corpus.size(), options.target());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .build();
+        LoadTestResult result = new OpenLoopLoadGenerator(client, options, corpus).run();
+        result.print(System.out);
+        if (options.histogramOutput() != null) {
+            result.writeResponseTimeDistribution(options.histogramOutput());
+            System.out.println("Response time distribution written to " + options.histogramOutput());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.dapprototype.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the corpus at a fixed arrival rate, whether or not earlier requests have completed.
+ * <p>
+ * Request {@code i} is due at {@code start + i / rate}. Its response time is measured from that
+ * intended send time rather than from when it was actually sent, so time a request spends waiting
+ * behind a stalled server, a full connection pool or the {@code max-in-flight} limit is counted
+ * instead of silently lowering the rate (coordinated omission). The uncorrected time from the
+ * actual send is recorded alongside as the service time. Requests due during the warm-up are sent
+ * but not recorded. With {@code unique-activity-ids}, request {@code i} carries the activityId of
+ * its corpus entry suffixed with {@code -i}.
+ */
+final class OpenLoopLoadGenerator {
+
+    static final String TIMEOUT = "TIMEOUT";
+    static final String CONNECTION_ERROR = "CONNECTION_ERROR";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final HttpClient client;
+    private final LoadTestOptions options;
+    private final List<byte[]> corpus;
+    private final int[] activityIdEnds;
+
+    private final Histogram responseTimes = new ConcurrentHistogram(3);
+    private final Histogram serviceTimes = new ConcurrentHistogram(3);
+    private final Map<String, LongAdder> responsesByCode = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    OpenLoopLoadGenerator(HttpClient client, LoadTestOptions options, List<byte[]> corpus) {
+        this.client = client;
+        this.options = options;
+        this.corpus = corpus;
+        this.activityIdEnds = new int[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            activityIdEnds[i] = options.uniqueActivityIds() ? RequestCorpus.activityIdEnd(corpus.get(i)) : -1;
+        }
+    }
+
+    /**
+     * Runs the warm-up and the measurement and waits for the outstanding requests.
+     *
+     * @return the measured results
+     * @throws InterruptedException if interrupted while waiting to send or for the responses
+     */
+    LoadTestResult run() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long start = System.nanoTime();
+        long measurementStart = start + options.warmup().toNanos();
+        long end = measurementStart + options.duration().toNanos();
+        lastCompletion.set(measurementStart);
+        long sent = 0;
+        long maxSendLag = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * 1e9 / options.rate());
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            inFlight.acquire();
+            boolean measured = intended >= measurementStart;
+            long sentAt = System.nanoTime();
+            if (measured) {
+                sent++;
+                maxSendLag = Math.max(maxSendLag, sentAt - intended);
+            }
+            send(body(i), intended, sentAt, measured, inFlight);
+        }
+        long timeoutNanos = options.timeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        boolean drained = inFlight.tryAcquire(options.maxInFlight(), timeoutNanos, TimeUnit.NANOSECONDS);
+        Map<String, Long> codes = new TreeMap<>();
+        responsesByCode.forEach((code, count) -> codes.put(code, count.sum()));
+        long completed = codes.values().stream().mapToLong(Long::longValue).sum();
+        if (!drained) {
+            codes.merge(TIMEOUT, sent - completed, Long::sum);
+        }
+        return new LoadTestResult(options, sent, completed, errors.sum(),
+                (lastCompletion.get() - measurementStart) / 1e9, TimeUnit.NANOSECONDS.toMicros(maxSendLag),
+                responseTimes.copy(), serviceTimes.copy(), codes);
+    }
+
+    private byte[] body(long sequence) {
+        int entry = (int) (sequence % corpus.size());
+        return activityIdEnds[entry] < 0
+                ? corpus.get(entry)
+                : RequestCorpus.withActivityIdSuffix(corpus.get(entry), activityIdEnds[entry], sequence);
+    }
+
+    private void send(byte[] body, long intended, long sentAt, boolean measured, Semaphore inFlight) {
+        HttpRequest request = HttpRequest.newBuilder(options.target())
+                .timeout(options.timeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    long completedAt = System.nanoTime();
+                    try {
+                        if (measured) {
+                            record(response, failure, intended, sentAt, completedAt);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private void record(HttpResponse<byte[]> response, Throwable failure, long intended, long sentAt, long completedAt) {
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(completedAt - intended));
+        serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(completedAt - sentAt));
+        lastCompletion.accumulateAndGet(completedAt, Math::max);
+        String code;
+        if (failure != null) {
+            errors.increment();
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            code = cause instanceof HttpTimeoutException ? TIMEOUT : CONNECTION_ERROR;
+        } else {
+            if (response.statusCode() / 100 != 2) {
+                errors.increment();
+            }
+            code = responseCode(response.statusCode(), response.body());
+        }
+        responsesByCode.computeIfAbsent(code, c -> new LongAdder()).increment();
+    }
+
+    /**
+     * Reads the top-level {@code code} of a {@code DAResponse} body, or {@code HTTP_<status>} when
+     * the body is not a JSON object with a code.
+     */
+    static String responseCode(int status, byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("code".equals(field) && value == JsonToken.VALUE_STRING) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Not JSON, e.g. an error page of the container
+        }
+        return "HTTP_" + status;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.dapprototype.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the request bodies to replay, one JSON document per line, in the format the startup
+ * warm-up and the batch endpoint read as well. Blank lines are skipped.
+ */
+final class RequestCorpus {
+
+    private static final String SAMPLE_CORPUS = "/sample-corpus.ndjson";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private RequestCorpus() {
+    }
+
+    /**
+     * @param file the NDJSON file, or {@code null} for the bundled sample corpus
+     * @return the request bodies as UTF-8 bytes
+     * @throws IOException if the file cannot be read or holds no requests
+     */
+    static List<byte[]> load(Path file) throws IOException {
+        try (InputStream input = file == null
+                ? RequestCorpus.class.getResourceAsStream(SAMPLE_CORPUS)
+                : Files.newInputStream(file)) {
+            List<byte[]> bodies = read(input);
+            if (bodies.isEmpty()) {
+                throw new IOException("The corpus " + (file == null ? SAMPLE_CORPUS : file) + " holds no requests");
+            }
+            return bodies;
+        }
+    }
+
+    /**
+     * Finds the closing quote of the top-level {@code activityId} string of a body.
+     *
+     * @return the byte offset of the quote, or -1 if the body has no activityId string
+     */
+    static int activityIdEnd(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("activityId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    // Reading the text finishes the token, so the location is just past its closing quote
+                    parser.getText();
+                    return (int) parser.currentLocation().getByteOffset() - 1;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Not JSON: sent as it is
+        }
+        return -1;
+    }
+
+    /**
+     * Appends {@code -<sequence>} to the activityId of a body.
+     *
+     * @param activityIdEnd the offset found by {@link #activityIdEnd(byte[])}
+     */
+    static byte[] withActivityIdSuffix(byte[] body, int activityIdEnd, long sequence) {
+        byte[] suffix = ("-" + sequence).getBytes(StandardCharsets.US_ASCII);
+        byte[] unique = new byte[body.length + suffix.length];
+        System.arraycopy(body, 0, unique, 0, activityIdEnd);
+        System.arraycopy(suffix, 0, unique, activityIdEnd, suffix.length);
+        System.arraycopy(body, activityIdEnd, unique, activityIdEnd + suffix.length, body.length - activityIdEnd);
+        return unique;
+    }
+
+    private static List<byte[]> read(InputStream input) throws IOException {
+        List<byte[]> bodies = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    bodies.add(line.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return bodies;
+    }
+}
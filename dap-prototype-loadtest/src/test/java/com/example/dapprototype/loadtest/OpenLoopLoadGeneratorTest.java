@@ -0,0 +1,130 @@
+package com.example.dapprototype.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenLoopLoadGeneratorTest {
+
+    private static final byte[] VALID = "{\"activityId\": \"a\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INVALID = "{}".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // Without TCP_NODELAY the stub server's separate header and body writes wait out a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("sends at the rate and counts the responses by DAResponse code")
+    void countsResponsesByCode() throws Exception {
+        URI target = startServer(exchange -> { });
+        LoadTestOptions options = new LoadTestOptions(target, null, 200, Duration.ofMillis(200),
+                Duration.ofSeconds(1), 100, Duration.ofSeconds(5), null, true);
+
+        LoadTestResult result = new OpenLoopLoadGenerator(HttpClient.newHttpClient(), options,
+                List.of(VALID, INVALID)).run();
+
+        assertThat(result.sent()).isEqualTo(200);
+        assertThat(result.completed()).isEqualTo(200);
+        assertThat(result.responsesByCode()).containsEntry("SUCCESS", 100L).containsEntry("VALIDATION_ERROR", 100L);
+        assertThat(result.errors()).isEqualTo(100);
+        assertThat(result.responseTimes().getTotalCount()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("requests queued behind a stalled response are measured from their intended send time")
+    void correctsCoordinatedOmission() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        URI target = startServer(exchange -> {
+            if (requests.incrementAndGet() == 30) {
+                sleep(300);
+            }
+        });
+        // One request in flight at a time: while the first measured request stalls, the following
+        // ones fall behind schedule
+        LoadTestOptions options = new LoadTestOptions(target, null, 100, Duration.ofMillis(290),
+                Duration.ofSeconds(1), 1, Duration.ofSeconds(5), null, true);
+
+        LoadTestResult result = new OpenLoopLoadGenerator(HttpClient.newHttpClient(), options, List.of(VALID)).run();
+
+        long slowServiceTimes = result.serviceTimes().getCountBetweenValues(100_000, Long.MAX_VALUE);
+        long slowResponseTimes = result.responseTimes().getCountBetweenValues(100_000, Long.MAX_VALUE);
+        assertThat(slowServiceTimes).isEqualTo(1);
+        assertThat(slowResponseTimes).isGreaterThan(10);
+        assertThat(result.maxSendLagMicros()).isGreaterThan(200_000);
+    }
+
+    @Test
+    @DisplayName("activityIds get the request number appended")
+    void makesActivityIdsUnique() {
+        byte[] body = "{\"payeeCustomerId\": \"é\", \"activityId\": \"a\\\"b\", \"x\": 1}".getBytes(StandardCharsets.UTF_8);
+
+        int end = RequestCorpus.activityIdEnd(body);
+
+        assertThat(new String(RequestCorpus.withActivityIdSuffix(body, end, 42), StandardCharsets.UTF_8))
+                .isEqualTo("{\"payeeCustomerId\": \"é\", \"activityId\": \"a\\\"b-42\", \"x\": 1}");
+        assertThat(RequestCorpus.activityIdEnd(INVALID)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("bodies without a DAResponse code are counted by HTTP status")
+    void fallsBackToHttpStatus() {
+        assertThat(OpenLoopLoadGenerator.responseCode(200, "{\"details\": [], \"code\": \"SUCCESS\"}"
+                .getBytes(StandardCharsets.UTF_8))).isEqualTo("SUCCESS");
+        assertThat(OpenLoopLoadGenerator.responseCode(503, "<html>unavailable</html>"
+                .getBytes(StandardCharsets.UTF_8))).isEqualTo("HTTP_503");
+        assertThat(OpenLoopLoadGenerator.responseCode(404, new byte[0])).isEqualTo("HTTP_404");
+    }
+
+    private URI startServer(Handler beforeResponse) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/api/request", exchange -> {
+            boolean valid = exchange.getRequestBody().readAllBytes().length > INVALID.length;
+            beforeResponse.handle(exchange);
+            byte[] response = ("{\"success\": " + valid + ", \"code\": \""
+                    + (valid ? "SUCCESS" : "VALIDATION_ERROR") + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(valid ? 200 : 400, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/request");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange);
+    }
+}
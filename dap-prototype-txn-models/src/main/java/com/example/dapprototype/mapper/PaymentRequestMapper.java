@@ -1,6 +1,7 @@
 package com.example.dapprototype.mapper;
 
 import com.example.dapprototype.model.CustomerRequest;
+import com.example.dapprototype.model.PaymentAssessmentData;
 import com.example.dapprototype.model.PaymentRequestInfo;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
@@ -9,9 +10,7 @@ import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Mapper(componentModel = "spring")
 public interface PaymentRequestMapper {
@@ -23,19 +22,19 @@ public interface PaymentRequestMapper {
     
     @AfterMapping
     default void populateCustomerIds(PaymentRequestInfo requestInfo, @MappingTarget CustomerRequest customerRequest) {
-        List<String> customerIds = new ArrayList<>();
-        Map<String, String> customerTags = new HashMap<>();
-        
-        if (requestInfo.getPayeeCustomerId() != null) {
-            customerIds.add(requestInfo.getPayeeCustomerId());
-            customerTags.put(requestInfo.getPayeeCustomerId(), "setPayeeCustomer");
-        }
-        if (requestInfo.getPayerCustomerId() != null) {
-            customerIds.add(requestInfo.getPayerCustomerId());
-            customerTags.put(requestInfo.getPayerCustomerId(), "setPayerCustomer");
+        String[] roleCustomerIds = new String[PaymentAssessmentData.CUSTOMER_ROLES];
+        roleCustomerIds[PaymentAssessmentData.PAYEE_ROLE] = requestInfo.getPayeeCustomerId();
+        roleCustomerIds[PaymentAssessmentData.PAYER_ROLE] = requestInfo.getPayerCustomerId();
+
+        // A customer filling both roles is looked up once
+        List<String> customerIds = new ArrayList<>(roleCustomerIds.length);
+        for (String customerId : roleCustomerIds) {
+            if (customerId != null && !customerIds.contains(customerId)) {
+                customerIds.add(customerId);
+            }
         }
-        
+
         customerRequest.setCustomerIds(customerIds);
-        customerRequest.setCustomerTags(customerTags);
+        customerRequest.setRoleCustomerIds(roleCustomerIds);
     }
 }
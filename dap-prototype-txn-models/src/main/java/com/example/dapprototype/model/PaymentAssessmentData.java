@@ -8,8 +8,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentAssessmentData {
+    public static final int PAYEE_ROLE = 0;
+    public static final int PAYER_ROLE = 1;
+    public static final int CUSTOMER_ROLES = 2;
+
     private PaymentRequestInfo requestInfo;
+    @CustomerRole(PAYEE_ROLE)
     private Customer payeeCustomer;
+    @CustomerRole(PAYER_ROLE)
     private Customer payerCustomer;
     private RulesResponse rulesResponse;
 }
@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Builds a dynamic AppCDS archive of a fully warmed application.
+#
+# The training run starts the application from jars, lets the startup warm-up replay its corpus
+# through the pipeline and exits (dap.warmup.exit=true); -XX:ArchiveClassesAtExit then dumps every
+# class loaded by then. The txn-models jar is loaded by the TxnClassLoader, which CDS archives
+# as well since the classes come from a jar. Extra arguments are passed to the training run, e.g.
+# --dap.warmup.corpus=file:requests.ndjson.
+#
+# Usage: scripts/build-cds-archive.sh [application arguments...]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+VERSION=$(mvn -q help:evaluate -Dexpression=project.version -DforceStdout)
+APP_JAR="dap-prototype-app/target/dap-prototype-app-${VERSION}.jar"
+TXN_MODELS_JAR="$(pwd)/dap-prototype-txn-models/target/dap-prototype-txn-models-${VERSION}.jar"
+CLASSPATH_FILE="dap-prototype-app/target/cds-classpath.txt"
+ARCHIVE="dap-prototype-app/target/dap-prototype-app.jsa"
+
+mvn -q -DskipTests install
+mvn -q -pl dap-prototype-app dependency:build-classpath -Dmdep.outputFile="cds-classpath.txt" -Dmdep.includeScope=runtime
+mv "dap-prototype-app/cds-classpath.txt" "$CLASSPATH_FILE" 2>/dev/null || true
+CLASSPATH="${APP_JAR}:$(cat "$CLASSPATH_FILE")"
+
+rm -f "$ARCHIVE"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$CLASSPATH" com.example.dapprototype.DapPrototypeApplication \
+    --server.port=0 --dap.warmup.exit=true --txn.classloader.paths="$TXN_MODELS_JAR" "$@"
+
+echo
+echo "Archive written to $ARCHIVE. Start the application with the same class path:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -cp \"$APP_JAR:\$(cat $CLASSPATH_FILE)\" \\"
+echo "       com.example.dapprototype.DapPrototypeApplication --txn.classloader.paths=$TXN_MODELS_JAR"
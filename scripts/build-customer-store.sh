@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Builds a customer store file for dap.customer-store.path from a CSV or NDJSON customer export.
+#
+# A .csv input has a customerId,customerName row per customer (an optional header row is skipped);
+# any other input is NDJSON with a customerId and customerName per line. The store is written next
+# to OUTPUT and moved over it atomically, so a running application picks it up on its next refresh.
+#
+# Usage: scripts/build-customer-store.sh INPUT OUTPUT
+set -euo pipefail
+
+if [ "$#" -ne 2 ]; then
+    echo "Usage: $0 INPUT OUTPUT" >&2
+    exit 2
+fi
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+VERSION=$(cd "$ROOT" && mvn -q help:evaluate -Dexpression=project.version -DforceStdout)
+APP_JAR="$ROOT/dap-prototype-app/target/dap-prototype-app-${VERSION}.jar"
+CLASSPATH_FILE="$ROOT/dap-prototype-app/target/customer-store-classpath.txt"
+
+(cd "$ROOT" && mvn -q -DskipTests install \
+    && mvn -q -pl dap-prototype-app dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE" -Dmdep.includeScope=runtime)
+
+java -cp "${APP_JAR}:$(cat "$CLASSPATH_FILE")" com.example.dapprototype.customerstore.CustomerStoreBuilder "$1" "$2"
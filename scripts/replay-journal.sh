@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Replays a decision journal through the current txn-models and rule sets and reports the decisions
+# that changed.
+#
+# The replay tool starts the application without a web server, warm-up or journal, so rules and
+# txn-models are configured with the same arguments as the application, e.g.
+# --dap.rules.location=file:candidate-rules/*.yaml or --txn.classloader.paths=... Replay options:
+#   --dap.replay.journal=DIR         the journal directory (default: journal)
+#   --dap.replay.activity-id=ID      replay only the decisions of one activityId
+#   --dap.replay.output=FILE         write changed and failed decisions to FILE as NDJSON
+# Exits with 1 when any decision changed or failed to replay.
+#
+# Usage: scripts/replay-journal.sh [arguments...]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+VERSION=$(cd "$ROOT" && mvn -q help:evaluate -Dexpression=project.version -DforceStdout)
+APP_JAR="$ROOT/dap-prototype-app/target/dap-prototype-app-${VERSION}.jar"
+CLASSPATH_FILE="$ROOT/dap-prototype-app/target/replay-classpath.txt"
+
+(cd "$ROOT" && mvn -q -DskipTests install \
+    && mvn -q -pl dap-prototype-app dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE" -Dmdep.includeScope=runtime)
+
+java -cp "${APP_JAR}:$(cat "$CLASSPATH_FILE")" com.example.dapprototype.journal.DecisionReplayTool \
+    --logging.level.root=WARN "$@"